@@ -27,6 +27,7 @@ import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -46,6 +47,7 @@ public class WritingBenchmark {
 
 	private static final long LINES = 1_000_000;
 	private static final int BUFFER_CAPACITY = 64 * 1024;
+	private static final int GATHERING_BUFFERS = 4;
 
 	/** */
 	public WritingBenchmark() {
@@ -243,6 +245,84 @@ public class WritingBenchmark {
 		}
 	}
 
+	/**
+	 * Benchmarks writing via {@link FileChannel} with using a direct {@link ByteBuffer} for buffering.
+	 *
+	 * @param configuration
+	 *            Configuration with target file
+	 * @param buffering
+	 *            Configuration with buffer capacity
+	 * @throws IOException
+	 *             Failed to write to target file
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	public void directByteBufferFileChannel(final Configuration configuration, final BufferConfiguration buffering)
+		throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(buffering.capacity);
+
+		try (FileOutputStream stream = new FileOutputStream(configuration.file)) {
+			try (FileChannel channel = stream.getChannel()) {
+				for (long i = 0; i < LINES; ++i) {
+					if (buffer.remaining() < DATA.length) {
+						buffer.flip();
+						while (buffer.hasRemaining()) {
+							channel.write(buffer);
+						}
+						buffer.clear();
+					}
+
+					buffer.put(DATA);
+				}
+
+				buffer.flip();
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Benchmarks writing via {@link FileChannel} with using several direct {@link ByteBuffer ByteBuffers} for buffering,
+	 * which are submitted together in one gathering write.
+	 *
+	 * @param configuration
+	 *            Configuration with target file
+	 * @param buffering
+	 *            Configuration with total buffer capacity
+	 * @throws IOException
+	 *             Failed to write to target file
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	public void gatheringDirectByteBufferFileChannel(final Configuration configuration, final BufferConfiguration buffering)
+		throws IOException {
+		ByteBuffer[] buffers = new ByteBuffer[GATHERING_BUFFERS];
+		for (int i = 0; i < buffers.length; ++i) {
+			buffers[i] = ByteBuffer.allocateDirect(buffering.capacity / GATHERING_BUFFERS);
+		}
+
+		int index = 0;
+
+		try (FileOutputStream stream = new FileOutputStream(configuration.file)) {
+			try (FileChannel channel = stream.getChannel()) {
+				for (long i = 0; i < LINES; ++i) {
+					if (buffers[index].remaining() < DATA.length) {
+						if (++index == buffers.length) {
+							writeAll(channel, buffers);
+							index = 0;
+						}
+					}
+
+					buffers[index].put(DATA);
+				}
+
+				writeAll(channel, buffers);
+			}
+		}
+	}
+
 	/**
 	 * Benchmarks direct writing via {@link FileOutputStream} without using any kind of buffering.
 	 *
@@ -279,6 +359,32 @@ public class WritingBenchmark {
 		}
 	}
 
+	/**
+	 * Submits all passed buffers in gathering writes and clears them afterwards.
+	 *
+	 * @param channel
+	 *            Target file channel
+	 * @param buffers
+	 *            Filled buffers
+	 * @throws IOException
+	 *             Failed to write to target file
+	 */
+	private static void writeAll(final FileChannel channel, final ByteBuffer[] buffers) throws IOException {
+		long remaining = 0;
+		for (ByteBuffer buffer : buffers) {
+			buffer.flip();
+			remaining += buffer.remaining();
+		}
+
+		while (remaining > 0) {
+			remaining -= channel.write(buffers);
+		}
+
+		for (ByteBuffer buffer : buffers) {
+			buffer.clear();
+		}
+	}
+
 	/**
 	 * Holder of target file.
 	 */
@@ -323,4 +429,19 @@ public class WritingBenchmark {
 
 	}
 
+	/**
+	 * Holder of buffer capacity.
+	 */
+	@State(Scope.Benchmark)
+	public static class BufferConfiguration {
+
+		@Param({ "8192", "65536", "262144" })
+		private int capacity;
+
+		/** */
+		public BufferConfiguration() {
+		}
+
+	}
+
 }
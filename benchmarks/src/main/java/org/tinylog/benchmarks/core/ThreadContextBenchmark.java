@@ -0,0 +1,184 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.benchmarks.core;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.tinylog.core.TinylogContextProvider;
+
+/**
+ * Benchmark for storing, reading, and taking snapshots of thread context values via {@link TinylogContextProvider}.
+ * As baseline, a copy-on-write {@link HashMap} is used, which copies and wraps the entire map for each stored value.
+ */
+public class ThreadContextBenchmark {
+
+	private static final int KEYS = 10;
+
+	private static final String[] NAMES = createNames();
+	private static final Map<String, String> VALUES = createValues();
+
+	/** */
+	public ThreadContextBenchmark() {
+	}
+
+	/**
+	 * Benchmarks storing ten values one by one in an empty thread context.
+	 *
+	 * @param state
+	 *            State with context provider
+	 * @return Thread context mapping
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	public Map<String, String> put(final ProviderState state) {
+		TinylogContextProvider provider = state.provider;
+		provider.clear();
+		for (int i = 0; i < KEYS; ++i) {
+			provider.put(NAMES[i], NAMES[i]);
+		}
+		return provider.getMapping();
+	}
+
+	/**
+	 * Benchmarks storing ten values at once in an empty thread context.
+	 *
+	 * @param state
+	 *            State with context provider
+	 * @return Thread context mapping
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	public Map<String, String> putAll(final ProviderState state) {
+		TinylogContextProvider provider = state.provider;
+		provider.clear();
+		provider.putAll(VALUES);
+		return provider.getMapping();
+	}
+
+	/**
+	 * Benchmarks storing ten values one by one in an empty copy-on-write {@link HashMap}.
+	 *
+	 * @return Final mapping
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	public Map<String, String> putHashMap() {
+		Map<String, String> mapping = Collections.emptyMap();
+		for (int i = 0; i < KEYS; ++i) {
+			Map<String, String> copy = new HashMap<String, String>(mapping);
+			copy.put(NAMES[i], NAMES[i]);
+			mapping = Collections.unmodifiableMap(copy);
+		}
+		return mapping;
+	}
+
+	/**
+	 * Benchmarks reading a value from a thread context with ten values.
+	 *
+	 * @param state
+	 *            State with context provider
+	 * @return Found value
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	public String get(final FilledProviderState state) {
+		return state.provider.get(NAMES[KEYS / 2]);
+	}
+
+	/**
+	 * Benchmarks taking a snapshot of a thread context with ten values, as done for each log entry.
+	 *
+	 * @param state
+	 *            State with context provider
+	 * @return Thread context mapping
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	public Map<String, String> snapshot(final FilledProviderState state) {
+		return state.provider.getMapping();
+	}
+
+	/**
+	 * Creates the keys for the thread context.
+	 *
+	 * @return Keys
+	 */
+	private static String[] createNames() {
+		String[] names = new String[KEYS];
+		for (int i = 0; i < KEYS; ++i) {
+			names[i] = "key" + i;
+		}
+		return names;
+	}
+
+	/**
+	 * Creates all mappings for the thread context.
+	 *
+	 * @return Mappings with all keys
+	 */
+	private static Map<String, String> createValues() {
+		Map<String, String> values = new HashMap<String, String>();
+		for (String name : NAMES) {
+			values.put(name, name);
+		}
+		return values;
+	}
+
+	/**
+	 * State with an empty context provider.
+	 */
+	@State(Scope.Thread)
+	public static class ProviderState {
+
+		private final TinylogContextProvider provider;
+
+		/** */
+		public ProviderState() {
+			provider = new TinylogContextProvider();
+		}
+
+	}
+
+	/**
+	 * State with a context provider that contains ten values.
+	 */
+	@State(Scope.Thread)
+	public static class FilledProviderState {
+
+		private final TinylogContextProvider provider;
+
+		/** */
+		public FilledProviderState() {
+			provider = new TinylogContextProvider();
+		}
+
+		/**
+		 * Stores all values in the thread context of the benchmark thread.
+		 */
+		@Setup
+		public void init() {
+			provider.putAll(VALUES);
+		}
+
+	}
+
+}
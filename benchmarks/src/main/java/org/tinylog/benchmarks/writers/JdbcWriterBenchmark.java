@@ -0,0 +1,145 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.benchmarks.writers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.naming.NamingException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.tinylog.core.EpochTimestamp;
+import org.tinylog.core.LogEntry;
+import org.tinylog.writers.JdbcWriter;
+
+/**
+ * Benchmark for comparing the throughput of {@link JdbcWriter} with JDBC batch execution, multi-row inserts and insert
+ * threads against an embedded H2 in-memory database.
+ */
+public class JdbcWriterBenchmark {
+
+	private static final LogEntry LOG_ENTRY = new LogEntry(new EpochTimestamp(System.currentTimeMillis()), Thread.currentThread(),
+		Collections.<String, String>emptyMap(), JdbcWriterBenchmark.class.getName(), "write", "JdbcWriterBenchmark.java",
+		42, null, org.tinylog.Level.INFO, "Hello World!", null);
+
+	/** */
+	public JdbcWriterBenchmark() {
+	}
+
+	/**
+	 * Benchmarks writing a log entry via {@link JdbcWriter}.
+	 *
+	 * @param state
+	 *            State with JDBC writer
+	 * @throws Exception
+	 *             Failed to write log entry
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	public void write(final WriterState state) throws Exception {
+		state.writer.write(LOG_ENTRY);
+	}
+
+	/**
+	 * State with a {@link JdbcWriter} for a fresh in-memory database.
+	 */
+	@State(Scope.Benchmark)
+	public static class WriterState {
+
+		@Param({ "false", "true" })
+		private boolean multirow;
+
+		@Param({ "0", "2" })
+		private int threads;
+
+		private String url;
+		private JdbcWriter writer;
+
+		/** */
+		public WriterState() {
+		}
+
+		/**
+		 * Creates the database table and the JDBC writer.
+		 *
+		 * @throws NamingException
+		 *             Failed to find data source
+		 * @throws SQLException
+		 *             Failed to access database
+		 */
+		@Setup(Level.Trial)
+		public void init() throws NamingException, SQLException {
+			url = "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+			execute("CREATE TABLE LOGS (DATE TIMESTAMP NOT NULL, LEVEL VARCHAR(5) NOT NULL, MESSAGE CLOB NULL)");
+
+			Map<String, String> properties = new HashMap<>();
+			properties.put("url", url);
+			properties.put("table", "LOGS");
+			properties.put("field.DATE", "{date}");
+			properties.put("field.LEVEL", "{level}");
+			properties.put("field.MESSAGE", "{message}");
+			properties.put("batch", "true");
+			properties.put("batch.multirow", Boolean.toString(multirow));
+			if (threads > 0) {
+				properties.put("insert.threads", Integer.toString(threads));
+			}
+			writer = new JdbcWriter(properties);
+		}
+
+		/**
+		 * Closes the writer and shutdowns the database.
+		 *
+		 * @throws SQLException
+		 *             Failed to access database
+		 */
+		@TearDown(Level.Trial)
+		public void dispose() throws SQLException {
+			try {
+				writer.close();
+			} finally {
+				execute("SHUTDOWN");
+			}
+		}
+
+		/**
+		 * Executes a SQL statement.
+		 *
+		 * @param sql
+		 *            SQL statement to execute
+		 * @throws SQLException
+		 *             Failed to execute SQL statement
+		 */
+		private void execute(final String sql) throws SQLException {
+			try (Connection connection = DriverManager.getConnection(url); Statement statement = connection.createStatement()) {
+				statement.execute(sql);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.benchmarks.writers;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.tinylog.core.EpochTimestamp;
+import org.tinylog.core.LogEntry;
+import org.tinylog.writers.FileWriter;
+import org.tinylog.writers.JsonWriter;
+import org.tinylog.writers.Writer;
+
+/**
+ * Benchmark for comparing the {@link JsonWriter} with a {@link FileWriter} that uses an equivalent JSON like format
+ * pattern.
+ */
+public class JsonWriterBenchmark {
+
+	private static final String MESSAGE = "Hello \"World\"! Let's benchmark JSON output with some characters to escape.";
+
+	private static final LogEntry LOG_ENTRY = new LogEntry(new EpochTimestamp(System.currentTimeMillis()), Thread.currentThread(),
+		Collections.singletonMap("user", "john"), JsonWriterBenchmark.class.getName(), "write", "JsonWriterBenchmark.java", 42, null,
+		org.tinylog.Level.INFO, MESSAGE, null);
+
+	/** */
+	public JsonWriterBenchmark() {
+	}
+
+	/**
+	 * Benchmarks writing a log entry via {@link JsonWriter}.
+	 *
+	 * @param state
+	 *            State with JSON writer
+	 * @throws Exception
+	 *             Failed to write log entry
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	public void json(final JsonState state) throws Exception {
+		state.write(LOG_ENTRY);
+	}
+
+	/**
+	 * Benchmarks writing a log entry via {@link FileWriter} with an equivalent format pattern.
+	 *
+	 * @param state
+	 *            State with file writer
+	 * @throws Exception
+	 *             Failed to write log entry
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	public void text(final TextState state) throws Exception {
+		state.write(LOG_ENTRY);
+	}
+
+	/**
+	 * Base state with a writer that outputs to a temporary file.
+	 */
+	public abstract static class AbstractState {
+
+		private File file;
+		private Writer writer;
+
+		/** */
+		public AbstractState() {
+		}
+
+		/**
+		 * Creates the writer for a new temporary file.
+		 *
+		 * @throws IOException
+		 *             Failed to create temporary file
+		 */
+		@Setup(Level.Trial)
+		public void init() throws IOException {
+			file = File.createTempFile("log", ".json");
+			file.deleteOnExit();
+
+			Map<String, String> properties = new HashMap<>();
+			properties.put("file", file.getAbsolutePath());
+			properties.put("buffered", "true");
+			properties.put("writingthread", "true");
+			writer = createWriter(properties);
+		}
+
+		/**
+		 * Closes the writer and deletes the temporary file.
+		 *
+		 * @throws Exception
+		 *             Failed to close writer
+		 */
+		@TearDown(Level.Trial)
+		public void dispose() throws Exception {
+			try {
+				writer.close();
+			} finally {
+				file.delete();
+			}
+		}
+
+		/**
+		 * Writes a log entry via the writer.
+		 *
+		 * @param logEntry
+		 *            Log entry to write
+		 * @throws Exception
+		 *             Failed to write log entry
+		 */
+		public void write(final LogEntry logEntry) throws Exception {
+			writer.write(logEntry);
+		}
+
+		/**
+		 * Creates the writer to benchmark.
+		 *
+		 * @param properties
+		 *            Configuration with target file
+		 * @return Created writer
+		 * @throws IOException
+		 *             Failed to open target file
+		 */
+		protected abstract Writer createWriter(Map<String, String> properties) throws IOException;
+
+	}
+
+	/**
+	 * State with a {@link JsonWriter}.
+	 */
+	@State(Scope.Thread)
+	public static class JsonState extends AbstractState {
+
+		/** */
+		public JsonState() {
+		}
+
+		@Override
+		protected Writer createWriter(final Map<String, String> properties) throws IOException {
+			properties.put("field.timestamp", "{timestamp: milliseconds}");
+			properties.put("field.level", "{level}");
+			properties.put("field.thread", "{thread}");
+			properties.put("field.class", "{class}");
+			properties.put("field.line", "{line}");
+			properties.put("field.user", "{context: user}");
+			properties.put("field.message", "{message}");
+			return new JsonWriter(properties);
+		}
+
+	}
+
+	/**
+	 * State with a {@link FileWriter} that uses a format pattern producing the same output.
+	 */
+	@State(Scope.Thread)
+	public static class TextState extends AbstractState {
+
+		/** */
+		public TextState() {
+		}
+
+		@Override
+		protected Writer createWriter(final Map<String, String> properties) throws IOException {
+			properties.put("format", "{opening-curly-bracket}\"timestamp\":{timestamp: milliseconds},\"level\":\"{level}\","
+				+ "\"thread\":\"{thread}\",\"class\":\"{class}\",\"line\":{line},\"user\":\"{context: user}\","
+				+ "\"message\":\"{message}\"{closing-curly-bracket}");
+			return new FileWriter(properties);
+		}
+
+	}
+
+}
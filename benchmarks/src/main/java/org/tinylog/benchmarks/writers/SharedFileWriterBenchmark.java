@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.benchmarks.writers;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.tinylog.core.EpochTimestamp;
+import org.tinylog.core.LogEntry;
+import org.tinylog.writers.SharedFileWriter;
+
+/**
+ * Benchmark for comparing the throughput of {@link SharedFileWriter} with and without buffering and locking.
+ *
+ * <p>
+ * File locks are held by the entire JVM. Therefore, each benchmark process uses a single writer. Concurrent writing
+ * from multiple processes can be benchmarked by starting this benchmark several times for the same file via the system
+ * property {@code tinylog.benchmark.file}.
+ * </p>
+ */
+public class SharedFileWriterBenchmark {
+
+	private static final LogEntry LOG_ENTRY = new LogEntry(new EpochTimestamp(System.currentTimeMillis()), Thread.currentThread(),
+		Collections.<String, String>emptyMap(), SharedFileWriterBenchmark.class.getName(), "write", "SharedFileWriterBenchmark.java",
+		42, null, org.tinylog.Level.INFO, "Hello World!", null);
+
+	/** */
+	public SharedFileWriterBenchmark() {
+	}
+
+	/**
+	 * Benchmarks writing a log entry via {@link SharedFileWriter}.
+	 *
+	 * @param state
+	 *            State with shared file writer
+	 * @throws Exception
+	 *             Failed to write log entry
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	public void write(final WriterState state) throws Exception {
+		state.writer.write(LOG_ENTRY);
+	}
+
+	/**
+	 * State with a {@link SharedFileWriter} for a temporary or configured file.
+	 */
+	@State(Scope.Benchmark)
+	public static class WriterState {
+
+		@Param({ "false", "true" })
+		private boolean buffered;
+
+		@Param({ "true", "false" })
+		private boolean locking;
+
+		private File file;
+		private boolean temporary;
+		private SharedFileWriter writer;
+
+		/** */
+		public WriterState() {
+		}
+
+		/**
+		 * Creates the shared file writer.
+		 *
+		 * @throws IOException
+		 *             Failed to create or open target file
+		 */
+		@Setup(Level.Trial)
+		public void init() throws IOException {
+			String path = System.getProperty("tinylog.benchmark.file");
+			temporary = path == null;
+			file = temporary ? File.createTempFile("log", ".txt") : new File(path);
+
+			Map<String, String> properties = new HashMap<>();
+			properties.put("file", file.getAbsolutePath());
+			properties.put("format", "{date: HH:mm:ss.SSS} {level}: {message}");
+			properties.put("append", "true");
+			properties.put("buffered", Boolean.toString(buffered));
+			properties.put("locking", Boolean.toString(locking));
+			writer = new SharedFileWriter(properties);
+		}
+
+		/**
+		 * Closes the writer and deletes the temporary file.
+		 *
+		 * @throws IOException
+		 *             Failed to close writer
+		 */
+		@TearDown(Level.Trial)
+		public void dispose() throws IOException {
+			try {
+				writer.close();
+			} finally {
+				if (temporary) {
+					file.delete();
+				}
+			}
+		}
+
+	}
+
+}
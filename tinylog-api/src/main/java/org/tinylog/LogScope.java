@@ -0,0 +1,287 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.tinylog.configuration.Configuration;
+import org.tinylog.provider.InternalLogger;
+
+/**
+ * Scope for buffering all log entries that are issued by the current thread, for example while handling a request.
+ * Log scopes are created via {@link Logger#bufferScope()} and should be closed in a finally block or via
+ * try-with-resources.
+ *
+ * <p>
+ * If the scope is closed successfully, all buffered log entries are discarded. If an error log entry is issued or
+ * {@link #fail()} is called, the scope fails. In this case, all buffered log entries are output immediately in their
+ * original order, and all further log entries are output without buffering until the scope is closed.
+ * </p>
+ *
+ * <p>
+ * Log scopes can be nested. Buffered log entries of a successfully closed nested scope are passed to the enclosing
+ * scope. A failing nested scope fails all enclosing scopes as well. A log scope must be closed by the same thread
+ * that has created it. Closed log scopes never buffer log entries. If an enclosing scope is closed before a nested
+ * scope, the buffered log entries of the nested scope are passed to the next enclosing scope that is still open.
+ * </p>
+ *
+ * <p>
+ * Each log scope buffers at most 10,000 log entries by default. This limit can be changed via the configuration
+ * property {@code scope.capacity}. If the limit is reached, the oldest buffered log entry is discarded.
+ * </p>
+ *
+ * <p>
+ * Buffering has to be supported by the logging provider. Logging providers that do not support log scopes output all
+ * log entries immediately.
+ * </p>
+ */
+public final class LogScope implements Closeable {
+
+	private static final String CAPACITY_KEY = "scope.capacity";
+	private static final int DEFAULT_CAPACITY = 10000;
+
+	private static final ThreadLocal<LogScope> active = new ThreadLocal<LogScope>();
+	private static final AtomicInteger openScopes = new AtomicInteger();
+	private static final int capacity = loadCapacity();
+
+	private final LogScope parent;
+	private final int maxOutputs;
+	private final Deque<Runnable> outputs;
+
+	private boolean failed;
+	private volatile boolean closed;
+
+	/**
+	 * @param parent
+	 *            Enclosing log scope (can be {@code null})
+	 * @param maxOutputs
+	 *            Maximum number of log entries to buffer
+	 */
+	private LogScope(final LogScope parent, final int maxOutputs) {
+		this.parent = parent;
+		this.maxOutputs = maxOutputs;
+		this.outputs = new ArrayDeque<Runnable>();
+	}
+
+	/**
+	 * Opens a new log scope for the current thread.
+	 *
+	 * @return Opened log scope
+	 */
+	static LogScope open() {
+		return open(capacity);
+	}
+
+	/**
+	 * Opens a new log scope with a custom capacity for the current thread.
+	 *
+	 * @param maxOutputs
+	 *            Maximum number of log entries to buffer
+	 * @return Opened log scope
+	 */
+	static LogScope open(final int maxOutputs) {
+		LogScope scope = new LogScope(getActive(), maxOutputs);
+		active.set(scope);
+		openScopes.incrementAndGet();
+		return scope;
+	}
+
+	/**
+	 * Checks whether log entries with a given severity level have to be buffered by the active log scope of the
+	 * current thread. Log entries with the severity level {@link Level#ERROR ERROR} are never buffered, but fail the
+	 * active log scope. This method is intended to be used by logging providers.
+	 *
+	 * @param level
+	 *            Severity level of the log entry to output
+	 * @return {@code true} if the log entry has to be passed to {@link #buffer(Runnable)}, {@code false} if the log
+	 *         entry can be output immediately
+	 */
+	public static boolean isBuffering(final Level level) {
+		if (openScopes.get() == 0) {
+			return false;
+		}
+
+		LogScope scope = getActive();
+		if (scope == null || scope.failed) {
+			return false;
+		} else if (level.ordinal() >= Level.ERROR.ordinal()) {
+			scope.fail();
+			return false;
+		} else {
+			return true;
+		}
+	}
+
+	/**
+	 * Buffers the output of a log entry in the active log scope of the current thread. The output will be executed if
+	 * the log scope fails. This method is intended to be used by logging providers after {@link #isBuffering(Level)}
+	 * has returned {@code true}.
+	 *
+	 * @param output
+	 *            Output of a log entry
+	 */
+	public static void buffer(final Runnable output) {
+		LogScope scope = getActive();
+		if (scope == null || scope.failed) {
+			output.run();
+		} else {
+			scope.add(output);
+		}
+	}
+
+	/**
+	 * Marks this log scope and all enclosing log scopes as failed. All buffered log entries are output immediately.
+	 */
+	public void fail() {
+		if (!failed) {
+			failed = true;
+
+			if (parent != null) {
+				parent.fail();
+			}
+
+			emit();
+		}
+	}
+
+	/**
+	 * Checks whether this log scope has failed.
+	 *
+	 * @return {@code true} if an error log entry has been issued or {@link #fail()} has been called, otherwise
+	 *         {@code false}
+	 */
+	public boolean isFailed() {
+		return failed;
+	}
+
+	/**
+	 * Closes this log scope. Buffered log entries are discarded, or passed to the enclosing log scope for nested
+	 * scopes.
+	 */
+	@Override
+	public void close() {
+		if (!closed) {
+			closed = true;
+			openScopes.decrementAndGet();
+
+			LogScope target = findOpen(parent);
+
+			if (active.get() == this) {
+				if (target == null) {
+					active.remove();
+				} else {
+					active.set(target);
+				}
+			}
+
+			if (target != null) {
+				if (target.failed) {
+					emit();
+				} else {
+					for (Runnable output : outputs) {
+						target.add(output);
+					}
+				}
+			}
+
+			outputs.clear();
+		}
+	}
+
+	/**
+	 * Gets the active log scope of the current thread. Log scopes that have been closed in the meantime, for example
+	 * an enclosing scope that has been closed before its nested scope, are skipped.
+	 *
+	 * @return Active log scope or {@code null} if there is no open log scope for the current thread
+	 */
+	private static LogScope getActive() {
+		LogScope scope = active.get();
+		if (scope != null && scope.closed) {
+			scope = findOpen(scope.parent);
+			if (scope == null) {
+				active.remove();
+			} else {
+				active.set(scope);
+			}
+		}
+		return scope;
+	}
+
+	/**
+	 * Finds the first log scope that is still open, starting with the passed log scope and continuing with its
+	 * enclosing scopes.
+	 *
+	 * @param scope
+	 *            Log scope to start with (can be {@code null})
+	 * @return Found open log scope or {@code null} if all are closed
+	 */
+	private static LogScope findOpen(final LogScope scope) {
+		LogScope current = scope;
+		while (current != null && current.closed) {
+			current = current.parent;
+		}
+		return current;
+	}
+
+	/**
+	 * Loads the maximum number of log entries to buffer per log scope from the configuration.
+	 *
+	 * @return Configured capacity or the default capacity if none or an invalid one is configured
+	 */
+	private static int loadCapacity() {
+		String value = Configuration.get(CAPACITY_KEY);
+		if (value == null) {
+			return DEFAULT_CAPACITY;
+		}
+
+		try {
+			int parsed = Integer.parseInt(value.trim());
+			if (parsed > 0) {
+				return parsed;
+			}
+		} catch (NumberFormatException ex) {
+			// Handled below
+		}
+
+		InternalLogger.log(Level.ERROR, "Invalid log scope capacity: " + value);
+		return DEFAULT_CAPACITY;
+	}
+
+	/**
+	 * Buffers the output of a log entry. The oldest buffered log entry is discarded, if the capacity is reached.
+	 *
+	 * @param output
+	 *            Output of a log entry
+	 */
+	private void add(final Runnable output) {
+		if (outputs.size() >= maxOutputs) {
+			outputs.pollFirst();
+		}
+		outputs.addLast(output);
+	}
+
+	/**
+	 * Outputs all buffered log entries in their original order.
+	 */
+	private void emit() {
+		for (Runnable output : outputs) {
+			output.run();
+		}
+		outputs.clear();
+	}
+
+}
@@ -73,6 +73,21 @@ public final class Logger {
 		}
 	}
 
+	/**
+	 * Opens a log scope for buffering all log entries that are issued by the current thread until the scope is closed.
+	 * Buffered log entries are discarded, unless an error log entry is issued or the scope is marked as failed via
+	 * {@link LogScope#fail()}.
+	 *
+	 * <p>
+	 * Example: {@code try (LogScope scope = Logger.bufferScope()) { ... }}
+	 * </p>
+	 *
+	 * @return Opened log scope that has to be closed by the current thread
+	 */
+	public static LogScope bufferScope() {
+		return LogScope.open();
+	}
+
 	/**
 	 * Checks whether log entries at {@link Level#TRACE TRACE} level will be output.
 	 *
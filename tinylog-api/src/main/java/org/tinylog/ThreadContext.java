@@ -14,7 +14,9 @@
 package org.tinylog;
 
 import java.util.Map;
+import java.util.Map.Entry;
 
+import org.tinylog.provider.BulkContextProvider;
 import org.tinylog.provider.ContextProvider;
 import org.tinylog.provider.ProviderRegistry;
 
@@ -71,6 +73,26 @@ public final class ThreadContext {
 		provider.put(key, value);
 	}
 
+	/**
+	 * Stores multiple values in thread context at once. Existing keys will be overridden. Mappings with {@code null}
+	 * as value remove the key from thread context. Compared to multiple calls of {@link #put(String, Object)}, the
+	 * thread context is modified only once, if the underlying context provider supports storing multiple values at
+	 * once.
+	 *
+	 * @param values
+	 *            Mappings to store
+	 */
+	public static void putAll(final Map<String, ?> values) {
+		if (provider instanceof BulkContextProvider) {
+			BulkContextProvider bulkProvider = (BulkContextProvider) provider;
+			bulkProvider.putAll(values);
+		} else {
+			for (Entry<String, ?> entry : values.entrySet()) {
+				provider.put(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
 	/**
 	 * Removes a value from thread context. If there is no mapping with the given key, this method will just quit
 	 * silently.
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.provider;
+
+import java.util.Map;
+
+/**
+ * Optional extension for context providers that can store multiple values in thread context at once. Context providers
+ * that don't implement this interface get each value passed via {@link ContextProvider#put(String, Object)}.
+ */
+public interface BulkContextProvider extends ContextProvider {
+
+	/**
+	 * Stores multiple values in thread context at once. Existing keys will be overridden. Mappings with {@code null}
+	 * as value remove the key from thread context.
+	 *
+	 * @param values
+	 *            Mappings to store
+	 */
+	void putAll(Map<String, ?> values);
+
+}
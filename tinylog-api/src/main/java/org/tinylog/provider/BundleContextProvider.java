@@ -16,11 +16,12 @@ package org.tinylog.provider;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Map.Entry;
 
 /**
  * Context provider that combines multiple context providers into one.
  */
-final class BundleContextProvider implements ContextProvider {
+final class BundleContextProvider implements BulkContextProvider {
 
 	private final ContextProvider[] providers;
 
@@ -60,6 +61,21 @@ final class BundleContextProvider implements ContextProvider {
 		}
 	}
 
+	@Override
+	public void putAll(final Map<String, ?> values) {
+		for (int i = 0; i < providers.length; ++i) {
+			ContextProvider provider = providers[i];
+			if (provider instanceof BulkContextProvider) {
+				BulkContextProvider bulkProvider = (BulkContextProvider) provider;
+				bulkProvider.putAll(values);
+			} else {
+				for (Entry<String, ?> entry : values.entrySet()) {
+					provider.put(entry.getKey(), entry.getValue());
+				}
+			}
+		}
+	}
+
 	@Override
 	public void remove(final String key) {
 		for (int i = 0; i < providers.length; ++i) {
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2016 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link LogScope}.
+ */
+public final class LogScopeTest {
+
+	private final List<String> output = new ArrayList<>();
+
+	/**
+	 * Verifies that log entries are output immediately, if there is no active log scope.
+	 */
+	@Test
+	public void noActiveScope() {
+		assertThat(LogScope.isBuffering(Level.DEBUG)).isFalse();
+	}
+
+	/**
+	 * Verifies that buffered log entries are discarded, if a log scope is closed successfully.
+	 */
+	@Test
+	public void discardOnSuccess() {
+		try (LogScope scope = LogScope.open()) {
+			log(Level.DEBUG, "One");
+			log(Level.INFO, "Two");
+			assertThat(scope.isFailed()).isFalse();
+		}
+
+		assertThat(output).isEmpty();
+		assertThat(LogScope.isBuffering(Level.DEBUG)).isFalse();
+	}
+
+	/**
+	 * Verifies that an error log entry outputs all buffered log entries in order and disables buffering for the rest
+	 * of the log scope.
+	 */
+	@Test
+	public void emitOnError() {
+		try (LogScope scope = LogScope.open()) {
+			log(Level.DEBUG, "One");
+			log(Level.INFO, "Two");
+			assertThat(output).isEmpty();
+
+			log(Level.ERROR, "Failure");
+			assertThat(scope.isFailed()).isTrue();
+			assertThat(output).containsExactly("One", "Two", "Failure");
+
+			log(Level.DEBUG, "Three");
+			assertThat(output).containsExactly("One", "Two", "Failure", "Three");
+		}
+	}
+
+	/**
+	 * Verifies that buffered log entries are output, if a log scope is marked as failed.
+	 */
+	@Test
+	public void emitOnFail() {
+		try (LogScope scope = LogScope.open()) {
+			log(Level.WARN, "One");
+			scope.fail();
+			assertThat(output).containsExactly("One");
+		}
+	}
+
+	/**
+	 * Verifies that buffered log entries of a successfully closed nested log scope are passed to the enclosing log
+	 * scope.
+	 */
+	@Test
+	public void mergeNestedScope() {
+		try (LogScope outer = LogScope.open()) {
+			log(Level.DEBUG, "One");
+
+			try (LogScope inner = LogScope.open()) {
+				log(Level.DEBUG, "Two");
+			}
+
+			log(Level.DEBUG, "Three");
+			assertThat(output).isEmpty();
+
+			outer.fail();
+			assertThat(output).containsExactly("One", "Two", "Three");
+		}
+	}
+
+	/**
+	 * Verifies that a failing nested log scope fails the enclosing log scope as well and outputs the buffered log
+	 * entries of both scopes in order.
+	 */
+	@Test
+	public void failNestedScope() {
+		try (LogScope outer = LogScope.open()) {
+			log(Level.DEBUG, "One");
+
+			try (LogScope inner = LogScope.open()) {
+				log(Level.DEBUG, "Two");
+				log(Level.ERROR, "Failure");
+			}
+
+			assertThat(outer.isFailed()).isTrue();
+			log(Level.DEBUG, "Three");
+		}
+
+		assertThat(output).containsExactly("One", "Two", "Failure", "Three");
+	}
+
+	/**
+	 * Verifies that log scopes are bound to the thread that has created them.
+	 *
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for the other thread
+	 */
+	@Test
+	public void threadBound() throws InterruptedException {
+		try (LogScope scope = LogScope.open()) {
+			List<Boolean> buffering = new ArrayList<>();
+			Thread thread = new Thread(() -> buffering.add(LogScope.isBuffering(Level.DEBUG)));
+			thread.start();
+			thread.join();
+
+			assertThat(buffering).containsExactly(false);
+			assertThat(LogScope.isBuffering(Level.DEBUG)).isTrue();
+		}
+	}
+
+	/**
+	 * Verifies that buffered log entries of a nested log scope are passed to the next open log scope, if the directly
+	 * enclosing log scope has been closed first.
+	 */
+	@Test
+	public void closeEnclosingScopeFirst() {
+		try (LogScope root = LogScope.open()) {
+			LogScope outer = LogScope.open();
+			LogScope inner = LogScope.open();
+
+			outer.close();
+			log(Level.DEBUG, "One");
+			inner.close();
+
+			assertThat(LogScope.isBuffering(Level.DEBUG)).isTrue();
+			log(Level.DEBUG, "Two");
+
+			root.fail();
+			assertThat(output).containsExactly("One", "Two");
+		}
+
+		assertThat(LogScope.isBuffering(Level.DEBUG)).isFalse();
+	}
+
+	/**
+	 * Verifies that log entries are output immediately instead of being buffered in a log scope that has been closed by
+	 * another thread.
+	 *
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for the other thread
+	 */
+	@Test
+	public void closedByOtherThread() throws InterruptedException {
+		LogScope scope = LogScope.open();
+
+		Thread thread = new Thread(scope::close);
+		thread.start();
+		thread.join();
+
+		assertThat(LogScope.isBuffering(Level.DEBUG)).isFalse();
+		LogScope.buffer(() -> output.add("One"));
+		assertThat(output).containsExactly("One");
+	}
+
+	/**
+	 * Verifies that the oldest buffered log entries are discarded, if the capacity of a log scope is reached.
+	 */
+	@Test
+	public void discardOldestIfFull() {
+		try (LogScope outer = LogScope.open(3)) {
+			log(Level.DEBUG, "One");
+			log(Level.DEBUG, "Two");
+
+			try (LogScope inner = LogScope.open(3)) {
+				log(Level.DEBUG, "Three");
+				log(Level.DEBUG, "Four");
+				log(Level.DEBUG, "Five");
+				log(Level.DEBUG, "Six");
+			}
+
+			outer.fail();
+			assertThat(output).containsExactly("Four", "Five", "Six");
+		}
+	}
+
+	/**
+	 * Simulates the output of a log entry like a logging provider.
+	 *
+	 * @param level
+	 *            Severity level of log entry
+	 * @param message
+	 *            Text message of log entry
+	 */
+	private void log(final Level level, final String message) {
+		if (LogScope.isBuffering(level)) {
+			LogScope.buffer(() -> output.add(message));
+		} else {
+			output.add(message);
+		}
+	}
+
+}
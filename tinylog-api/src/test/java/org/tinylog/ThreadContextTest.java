@@ -18,6 +18,7 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.powermock.reflect.Whitebox;
+import org.tinylog.provider.BulkContextProvider;
 import org.tinylog.provider.ContextProvider;
 import org.tinylog.provider.ProviderRegistry;
 import org.tinylog.rules.SystemStreamCollector;
@@ -97,6 +98,31 @@ public final class ThreadContextTest {
 		verify(provider).put("pi", "3.14");
 	}
 
+	/**
+	 * Verifies that multiple new mappings will be passed-through to underlying context provider one by one, if the
+	 * context provider doesn't support storing multiple values at once.
+	 */
+	@Test
+	public void putValues() {
+		ThreadContext.putAll(doubletonMap("e", "2.71", "pi", "3.14"));
+
+		verify(provider).put("e", "2.71");
+		verify(provider).put("pi", "3.14");
+	}
+
+	/**
+	 * Verifies that multiple new mappings will be passed-through to underlying context provider at once, if the
+	 * context provider supports storing multiple values at once.
+	 */
+	@Test
+	public void putValuesAtOnce() {
+		BulkContextProvider bulk = mock(BulkContextProvider.class);
+		Whitebox.setInternalState(ThreadContext.class, (ContextProvider) bulk);
+
+		ThreadContext.putAll(doubletonMap("e", "2.71", "pi", "3.14"));
+		verify(bulk).putAll(doubletonMap("e", "2.71", "pi", "3.14"));
+	}
+
 	/**
 	 * Verifies that a mapping can be removed from underlying context provider.
 	 */
@@ -155,6 +155,21 @@ public final class BundleContextProviderTest {
 		verify(second).put("pi", "3.14");
 	}
 
+	/**
+	 * Verifies that {@code putAll()} method puts multiple mappings to all underlying context providers. Context
+	 * providers without bulk support get each mapping separately.
+	 */
+	@Test
+	public void putValues() {
+		BulkContextProvider bulk = mock(BulkContextProvider.class);
+		BundleContextProvider provider = new BundleContextProvider(asList(first, bulk));
+		provider.putAll(doubletonMap("e", "2.71", "pi", "3.14"));
+
+		verify(first).put("e", "2.71");
+		verify(first).put("pi", "3.14");
+		verify(bulk).putAll(doubletonMap("e", "2.71", "pi", "3.14"));
+	}
+
 	/**
 	 * Verifies that {@code remove()} method removes a value from underlying child context providers.
 	 */
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.core;
+
+import org.tinylog.runtime.Timestamp;
+
+/**
+ * Clock that caches the current timestamp. A ticker thread updates the cached timestamp in a fixed interval.
+ * Therefore, reading the current timestamp is just a volatile read without creating any objects.
+ */
+final class CachedClock implements Clock, Runnable {
+
+	private static final String THREAD_NAME = "tinylog-ClockTicker";
+
+	private final long interval;
+	private final Thread thread;
+	private volatile EpochTimestamp timestamp;
+	private volatile boolean shutdown;
+
+	/**
+	 * @param interval
+	 *            Update interval in milliseconds
+	 */
+	CachedClock(final long interval) {
+		this.interval = interval;
+		this.timestamp = new EpochTimestamp(System.currentTimeMillis());
+
+		this.thread = new Thread(this, THREAD_NAME);
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	@Override
+	public Timestamp getTimestamp() {
+		return timestamp;
+	}
+
+	@Override
+	public long getEpochMilliseconds() {
+		return timestamp.getEpochMilliseconds();
+	}
+
+	/**
+	 * Updates the cached timestamp until this clock is shut down.
+	 */
+	@Override
+	public void run() {
+		while (!shutdown) {
+			try {
+				Thread.sleep(interval);
+			} catch (InterruptedException ex) {
+				// Ignore and continue
+			}
+
+			long now = System.currentTimeMillis();
+			if (now != timestamp.getEpochMilliseconds()) {
+				timestamp = new EpochTimestamp(now);
+			}
+		}
+	}
+
+	/**
+	 * Stops the ticker thread. The cached timestamp will not be updated anymore afterwards.
+	 *
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for the ticker thread
+	 */
+	void shutdown() throws InterruptedException {
+		shutdown = true;
+		thread.interrupt();
+		thread.join();
+	}
+
+}
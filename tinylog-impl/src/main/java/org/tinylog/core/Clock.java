@@ -0,0 +1,38 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.core;
+
+import org.tinylog.runtime.Timestamp;
+
+/**
+ * Clocks provide the date and time of issue for log entries.
+ */
+public interface Clock {
+
+	/**
+	 * Gets the current date and time as timestamp.
+	 *
+	 * @return Current timestamp
+	 */
+	Timestamp getTimestamp();
+
+	/**
+	 * Gets the current date and time as milliseconds since 1970-01-01T00:00:00Z. In contrast to
+	 * {@link #getTimestamp()}, this method never creates any objects.
+	 *
+	 * @return Current epoch milliseconds
+	 */
+	long getEpochMilliseconds();
+
+}
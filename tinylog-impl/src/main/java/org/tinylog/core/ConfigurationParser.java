@@ -36,6 +36,8 @@ import org.tinylog.writers.Writer;
  */
 public final class ConfigurationParser {
 
+	private static final long DEFAULT_CLOCK_INTERVAL = 1L;
+
 	/** */
 	private ConfigurationParser() {
 	}
@@ -100,6 +102,48 @@ public final class ConfigurationParser {
 		return !"false".equalsIgnoreCase(Configuration.get("autoshutdown"));
 	}
 
+	/**
+	 * Creates the configured clock for providing the date and time of issue. Supported modes are "precise" (default),
+	 * "millis" and "cached" with an optional update interval (e.g. "cached:5ms").
+	 *
+	 * @return Clock from configuration or {@link PreciseClock} if no valid clock is configured
+	 */
+	public static Clock getClock() {
+		String property = Configuration.get("clock");
+		if (property == null) {
+			return new PreciseClock();
+		}
+
+		String mode = property.trim().toLowerCase(Locale.ROOT);
+		if ("precise".equals(mode)) {
+			return new PreciseClock();
+		} else if ("millis".equals(mode)) {
+			return new MillisecondClock();
+		} else if ("cached".equals(mode)) {
+			return new CachedClock(DEFAULT_CLOCK_INTERVAL);
+		} else if (mode.startsWith("cached:")) {
+			String interval = mode.substring("cached:".length()).trim();
+			if (interval.endsWith("ms")) {
+				interval = interval.substring(0, interval.length() - "ms".length()).trim();
+			}
+
+			try {
+				long milliseconds = Long.parseLong(interval);
+				if (milliseconds > 0) {
+					return new CachedClock(milliseconds);
+				}
+			} catch (NumberFormatException ex) {
+				// Handled below
+			}
+
+			InternalLogger.log(Level.ERROR, "Invalid update interval for cached clock: " + property);
+			return new CachedClock(DEFAULT_CLOCK_INTERVAL);
+		} else {
+			InternalLogger.log(Level.ERROR, "Unknown clock: " + property);
+			return new PreciseClock();
+		}
+	}
+
 	/**
 	 * Creates a two-dimensional matrix with all configured writers. The first dimension represents the tags. It starts
 	 * with untagged writers, following with all tagged writers and ending with writers that accepts all kind of log
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.core;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable map for thread context values. All keys are stored sorted in one array and all values in a parallel
+ * array. Therefore, lookups are done by binary search, and instances can be passed to log entries as snapshots
+ * without copying.
+ *
+ * <p>
+ * Modifications create new instances. Replacing a value shares the key array with the original map, and adding
+ * multiple values via {@link #withAll(Map)} copies both arrays only once. Mappings with {@code null} as key are
+ * ignored.
+ * </p>
+ */
+final class ContextMap extends AbstractMap<String, String> {
+
+	/**
+	 * Map without any mappings.
+	 */
+	static final ContextMap EMPTY = new ContextMap(new String[0], new String[0]);
+
+	private final String[] keys;
+	private final String[] values;
+
+	/**
+	 * @param keys
+	 *            Sorted keys
+	 * @param values
+	 *            Values in the same order as the keys
+	 */
+	private ContextMap(final String[] keys, final String[] values) {
+		this.keys = keys;
+		this.values = values;
+	}
+
+	@Override
+	public int size() {
+		return keys.length;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return keys.length == 0;
+	}
+
+	@Override
+	public boolean containsKey(final Object key) {
+		return key instanceof String && Arrays.binarySearch(keys, key) >= 0;
+	}
+
+	@Override
+	public String get(final Object key) {
+		if (key instanceof String) {
+			int index = Arrays.binarySearch(keys, key);
+			return index >= 0 ? values[index] : null;
+		} else {
+			return null;
+		}
+	}
+
+	@Override
+	public Set<Entry<String, String>> entrySet() {
+		return new EntrySet();
+	}
+
+	/**
+	 * Creates a map with an additional or replaced mapping.
+	 *
+	 * @param key
+	 *            Key of mapping (mappings with {@code null} as key are ignored)
+	 * @param value
+	 *            Value of mapping or {@code null} for removing the mapping
+	 * @return New map or this map if there is nothing to change
+	 */
+	ContextMap with(final String key, final String value) {
+		if (key == null) {
+			return this;
+		} else if (value == null) {
+			return without(key);
+		}
+
+		int index = Arrays.binarySearch(keys, key);
+		if (index >= 0) {
+			if (value.equals(values[index])) {
+				return this;
+			} else {
+				String[] newValues = values.clone();
+				newValues[index] = value;
+				return new ContextMap(keys, newValues);
+			}
+		} else {
+			int position = -(index + 1);
+			String[] newKeys = new String[keys.length + 1];
+			String[] newValues = new String[values.length + 1];
+			System.arraycopy(keys, 0, newKeys, 0, position);
+			System.arraycopy(values, 0, newValues, 0, position);
+			newKeys[position] = key;
+			newValues[position] = value;
+			System.arraycopy(keys, position, newKeys, position + 1, keys.length - position);
+			System.arraycopy(values, position, newValues, position + 1, values.length - position);
+			return new ContextMap(newKeys, newValues);
+		}
+	}
+
+	/**
+	 * Creates a map with multiple additional or replaced mappings. Mappings with {@code null} as value are removed and
+	 * mappings with {@code null} as key are ignored.
+	 *
+	 * @param map
+	 *            Mappings to add or replace
+	 * @return New map or this map if there is nothing to add
+	 */
+	ContextMap withAll(final Map<String, ?> map) {
+		if (map.isEmpty()) {
+			return this;
+		}
+
+		String[] newKeys = new String[keys.length + map.size()];
+		String[] newValues = new String[newKeys.length];
+		System.arraycopy(keys, 0, newKeys, 0, keys.length);
+		System.arraycopy(values, 0, newValues, 0, values.length);
+		int size = keys.length;
+
+		for (Entry<String, ?> entry : map.entrySet()) {
+			String key = entry.getKey();
+			if (key == null) {
+				continue;
+			}
+
+			Object value = entry.getValue();
+			int index = Arrays.binarySearch(newKeys, 0, size, key);
+
+			if (index >= 0) {
+				newValues[index] = value == null ? null : value.toString();
+			} else if (value != null) {
+				int position = -(index + 1);
+				System.arraycopy(newKeys, position, newKeys, position + 1, size - position);
+				System.arraycopy(newValues, position, newValues, position + 1, size - position);
+				newKeys[position] = key;
+				newValues[position] = value.toString();
+				size += 1;
+			}
+		}
+
+		int count = 0;
+		for (int i = 0; i < size; ++i) {
+			if (newValues[i] != null) {
+				newKeys[count] = newKeys[i];
+				newValues[count] = newValues[i];
+				count += 1;
+			}
+		}
+
+		if (count == 0) {
+			return EMPTY;
+		} else if (count == newKeys.length) {
+			return new ContextMap(newKeys, newValues);
+		} else {
+			return new ContextMap(Arrays.copyOf(newKeys, count), Arrays.copyOf(newValues, count));
+		}
+	}
+
+	/**
+	 * Creates a map without a mapping.
+	 *
+	 * @param key
+	 *            Key of mapping to remove (can be {@code null})
+	 * @return New map or this map if there is no mapping for the passed key
+	 */
+	ContextMap without(final String key) {
+		int index = key == null ? -1 : Arrays.binarySearch(keys, key);
+		if (index < 0) {
+			return this;
+		} else if (keys.length == 1) {
+			return EMPTY;
+		} else {
+			String[] newKeys = new String[keys.length - 1];
+			String[] newValues = new String[values.length - 1];
+			System.arraycopy(keys, 0, newKeys, 0, index);
+			System.arraycopy(values, 0, newValues, 0, index);
+			System.arraycopy(keys, index + 1, newKeys, index, newKeys.length - index);
+			System.arraycopy(values, index + 1, newValues, index, newValues.length - index);
+			return new ContextMap(newKeys, newValues);
+		}
+	}
+
+	/**
+	 * Read-only view of all mappings.
+	 */
+	private final class EntrySet extends AbstractSet<Entry<String, String>> {
+
+		/** */
+		private EntrySet() {
+		}
+
+		@Override
+		public int size() {
+			return keys.length;
+		}
+
+		@Override
+		public Iterator<Entry<String, String>> iterator() {
+			return new EntryIterator();
+		}
+
+	}
+
+	/**
+	 * Read-only iterator over all mappings in the order of their keys.
+	 */
+	private final class EntryIterator implements Iterator<Entry<String, String>> {
+
+		private int index;
+
+		/** */
+		private EntryIterator() {
+		}
+
+		@Override
+		public boolean hasNext() {
+			return index < keys.length;
+		}
+
+		@Override
+		public Entry<String, String> next() {
+			if (index >= keys.length) {
+				throw new NoSuchElementException();
+			}
+
+			Entry<String, String> entry = new SimpleImmutableEntry<String, String>(keys[index], values[index]);
+			index += 1;
+			return entry;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+	}
+
+}
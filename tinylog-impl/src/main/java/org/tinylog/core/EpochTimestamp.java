@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.core;
+
+import java.time.Instant;
+import java.util.Date;
+
+import org.codehaus.mojo.animal_sniffer.IgnoreJRERequirement;
+import org.tinylog.runtime.Timestamp;
+
+/**
+ * Immutable timestamp that stores date and time as primitive milliseconds since 1970-01-01T00:00:00Z.
+ */
+public final class EpochTimestamp implements Timestamp {
+
+	private final long milliseconds;
+
+	/**
+	 * @param milliseconds
+	 *            Milliseconds since 1970-01-01T00:00:00Z
+	 */
+	public EpochTimestamp(final long milliseconds) {
+		this.milliseconds = milliseconds;
+	}
+
+	/**
+	 * Gets the date and time as milliseconds since 1970-01-01T00:00:00Z.
+	 *
+	 * @return Epoch milliseconds
+	 */
+	public long getEpochMilliseconds() {
+		return milliseconds;
+	}
+
+	@Override
+	public Date toDate() {
+		return new Date(milliseconds);
+	}
+
+	@IgnoreJRERequirement
+	@Override
+	public Instant toInstant() {
+		return Instant.ofEpochMilli(milliseconds);
+	}
+
+	@Override
+	public java.sql.Timestamp toSqlTimestamp() {
+		return new java.sql.Timestamp(milliseconds);
+	}
+
+}
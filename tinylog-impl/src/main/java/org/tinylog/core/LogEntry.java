@@ -15,7 +15,9 @@ package org.tinylog.core;
 
 import java.util.Map;
 
+import org.codehaus.mojo.animal_sniffer.IgnoreJRERequirement;
 import org.tinylog.Level;
+import org.tinylog.runtime.RuntimeProvider;
 import org.tinylog.runtime.Timestamp;
 
 /**
@@ -27,7 +29,10 @@ import org.tinylog.runtime.Timestamp;
  */
 public final class LogEntry {
 
+	private static final boolean DATE_BASED_TIMESTAMPS = isDateBased(RuntimeProvider.createTimestamp());
+
 	private final Timestamp timestamp;
+	private final long epochMilliseconds;
 	private final Thread thread;
 	private final Map<String, String> context;
 	private final String className;
@@ -67,6 +72,7 @@ public final class LogEntry {
 		final String methodName, final String fileName, final int lineNumber, final String tag, final Level level,
 		final String message, final Throwable exception) {
 		this.timestamp = timestamp;
+		this.epochMilliseconds = getEpochMilliseconds(timestamp);
 		this.thread = thread;
 		this.context = context;
 		this.className = className;
@@ -88,6 +94,16 @@ public final class LogEntry {
 		return timestamp;
 	}
 
+	/**
+	 * Gets the date and time when this log entry was issued as milliseconds since 1970-01-01T00:00:00Z. The epoch
+	 * milliseconds are resolved once at creation and this method never creates any objects.
+	 *
+	 * @return Date and time of issue as epoch milliseconds or {@code 0} if there is no timestamp
+	 */
+	public long getEpochMilliseconds() {
+		return epochMilliseconds;
+	}
+
 	/**
 	 * Gets the thread that has issued this log entry.
 	 *
@@ -178,4 +194,38 @@ public final class LogEntry {
 		return exception;
 	}
 
+	/**
+	 * Resolves the epoch milliseconds of a timestamp. Timestamps are asked via the representation that they store
+	 * internally, so that no intermediate {@link java.util.Date} or {@link java.time.Instant} objects are created.
+	 *
+	 * @param timestamp
+	 *            Timestamp to resolve (can be {@code null})
+	 * @return Epoch milliseconds or {@code 0} if the passed timestamp is {@code null}
+	 */
+	@IgnoreJRERequirement
+	private static long getEpochMilliseconds(final Timestamp timestamp) {
+		if (timestamp == null) {
+			return 0;
+		} else if (timestamp instanceof EpochTimestamp) {
+			return ((EpochTimestamp) timestamp).getEpochMilliseconds();
+		} else if (DATE_BASED_TIMESTAMPS) {
+			return timestamp.toDate().getTime();
+		} else {
+			return timestamp.toInstant().toEpochMilli();
+		}
+	}
+
+	/**
+	 * Checks whether the timestamps of the runtime store a {@link java.util.Date} internally. Such timestamps return
+	 * always the same date object, while timestamps based on {@link java.time.Instant} create a new date for each call.
+	 *
+	 * @param timestamp
+	 *            Timestamp that has been created by the runtime
+	 * @return {@code true} if {@link Timestamp#toDate()} is free of allocations, {@code false} if
+	 *         {@link Timestamp#toInstant()} should be used instead
+	 */
+	private static boolean isDateBased(final Timestamp timestamp) {
+		return timestamp.toDate() == timestamp.toDate();
+	}
+
 }
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.core;
+
+import org.tinylog.runtime.Timestamp;
+
+/**
+ * Clock that reads the system time with millisecond precision. The created timestamps contain only a primitive epoch
+ * value and are much cheaper than precise timestamps.
+ */
+final class MillisecondClock implements Clock {
+
+	/** */
+	MillisecondClock() {
+	}
+
+	@Override
+	public Timestamp getTimestamp() {
+		return new EpochTimestamp(System.currentTimeMillis());
+	}
+
+	@Override
+	public long getEpochMilliseconds() {
+		return System.currentTimeMillis();
+	}
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.core;
+
+import org.tinylog.runtime.RuntimeProvider;
+import org.tinylog.runtime.Timestamp;
+
+/**
+ * Clock that provides the most precise timestamp supported by the runtime. Depending on the Java version, this can be
+ * a timestamp with nanosecond precision.
+ */
+final class PreciseClock implements Clock {
+
+	/** */
+	PreciseClock() {
+	}
+
+	@Override
+	public Timestamp getTimestamp() {
+		return RuntimeProvider.createTimestamp();
+	}
+
+	@Override
+	public long getEpochMilliseconds() {
+		return System.currentTimeMillis();
+	}
+
+}
@@ -23,6 +23,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.tinylog.Level;
+import org.tinylog.LogScope;
 import org.tinylog.Supplier;
 import org.tinylog.format.MessageFormatter;
 import org.tinylog.provider.ContextProvider;
@@ -38,6 +39,7 @@ import org.tinylog.writers.Writer;
 public class TinylogLoggingProvider implements LoggingProvider {
 
 	private final TinylogContextProvider context;
+	private final Clock clock;
 	private final Level globalLevel;
 	private final Map<String, Level> customLevels;
 	private final List<String> knownTags;
@@ -49,6 +51,7 @@ public class TinylogLoggingProvider implements LoggingProvider {
 	/** */
 	public TinylogLoggingProvider() {
 		context = new TinylogContextProvider();
+		clock = ConfigurationParser.getClock();
 		globalLevel = ConfigurationParser.getGlobalLevel();
 		customLevels = ConfigurationParser.getCustomLevels();
 		knownTags = ConfigurationParser.getTags();
@@ -194,6 +197,11 @@ public class TinylogLoggingProvider implements LoggingProvider {
 			writingThread.shutdown();
 			writingThread.join();
 		}
+
+		if (clock instanceof CachedClock) {
+			CachedClock cachedClock = (CachedClock) clock;
+			cachedClock.shutdown();
+		}
 	}
 
 	/**
@@ -354,7 +362,7 @@ public class TinylogLoggingProvider implements LoggingProvider {
 		final Throwable exception, final MessageFormatter formatter, final Object obj, final Object[] arguments) {
 		Collection<LogEntryValue> required = requiredLogEntryValues[tagIndex][level.ordinal()];
 
-		Timestamp timestamp = RuntimeProvider.createTimestamp();
+		Timestamp timestamp = clock.getTimestamp();
 		Thread thread = required.contains(LogEntryValue.THREAD) ? Thread.currentThread() : null;
 		Map<String, String> context = required.contains(LogEntryValue.CONTEXT) ? this.context.getMapping() : null;
 
@@ -386,7 +394,8 @@ public class TinylogLoggingProvider implements LoggingProvider {
 	}
 
 	/**
-	 * Outputs a log entry to all passed writers.
+	 * Outputs a log entry to all passed writers. If a {@link LogScope} is active for the current thread, the output is
+	 * buffered by the log scope.
 	 * 
 	 * @param logEntry
 	 *            Log entry to be output
@@ -394,6 +403,22 @@ public class TinylogLoggingProvider implements LoggingProvider {
 	 *            All writers for outputting the passed log entry
 	 */
 	private void output(final LogEntry logEntry, final Iterable<Writer> writers) {
+		if (LogScope.isBuffering(logEntry.getLevel())) {
+			LogScope.buffer(new BufferedOutput(logEntry, writers));
+		} else {
+			write(logEntry, writers);
+		}
+	}
+
+	/**
+	 * Writes a log entry to all passed writers, or passes it to the writing thread if enabled.
+	 * 
+	 * @param logEntry
+	 *            Log entry to be written
+	 * @param writers
+	 *            All writers for writing the passed log entry
+	 */
+	private void write(final LogEntry logEntry, final Iterable<Writer> writers) {
 		if (writingThread == null) {
 			for (Writer writer : writers) {
 				try {
@@ -409,4 +434,30 @@ public class TinylogLoggingProvider implements LoggingProvider {
 		}
 	}
 
+	/**
+	 * Output of a log entry that has been buffered by a {@link LogScope}.
+	 */
+	private final class BufferedOutput implements Runnable {
+
+		private final LogEntry logEntry;
+		private final Iterable<Writer> writers;
+
+		/**
+		 * @param logEntry
+		 *            Log entry to be output
+		 * @param writers
+		 *            All writers for outputting the passed log entry
+		 */
+		private BufferedOutput(final LogEntry logEntry, final Iterable<Writer> writers) {
+			this.logEntry = logEntry;
+			this.writers = writers;
+		}
+
+		@Override
+		public void run() {
+			write(logEntry, writers);
+		}
+
+	}
+
 }
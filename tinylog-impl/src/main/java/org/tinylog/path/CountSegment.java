@@ -23,10 +23,12 @@ import org.tinylog.runtime.Timestamp;
 final class CountSegment implements Segment {
 
 	private long count;
+	private String scannedPrefix;
 
 	/** */
 	CountSegment() {
 		count = 0;
+		scannedPrefix = null;
 	}
 
 	@Override
@@ -36,6 +38,32 @@ final class CountSegment implements Segment {
 
 	@Override
 	public String createToken(final String prefix, final Timestamp timestamp) {
+		if (!prefix.equals(scannedPrefix)) {
+			scan(prefix);
+			scannedPrefix = prefix;
+		}
+
+		return Long.toString(count++);
+	}
+
+	@Override
+	public boolean validateToken(final String token) {
+		try {
+			Long.parseLong(token);
+			return true;
+		} catch (NumberFormatException ex) {
+			return false;
+		}
+	}
+
+	/**
+	 * Scans the directory of a prefix for existing files to continue their sequence. The directory has to be scanned
+	 * only once for each prefix, as all further files with this prefix are created by the segment itself.
+	 *
+	 * @param prefix
+	 *            Already generated path
+	 */
+	private void scan(final String prefix) {
 		int separator = Math.max(prefix.lastIndexOf(File.separatorChar), prefix.lastIndexOf('/'));
 
 		File directory;
@@ -61,18 +89,6 @@ final class CountSegment implements Segment {
 				}
 			}
 		}
-
-		return Long.toString(count++);
-	}
-
-	@Override
-	public boolean validateToken(final String token) {
-		try {
-			Long.parseLong(token);
-			return true;
-		} catch (NumberFormatException ex) {
-			return false;
-		}
 	}
 
 	/**
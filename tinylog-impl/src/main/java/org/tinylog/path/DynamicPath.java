@@ -15,7 +15,6 @@ package org.tinylog.path;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 import org.tinylog.runtime.RuntimeProvider;
@@ -32,12 +31,27 @@ public final class DynamicPath {
 	private final File folder;
 	private final List<String> plainTexts;
 	private final String suffix;
+	private final String[] extensions;
+	private final FileIndex index;
 
 	/**
 	 * @param path
 	 *            Path with patterns
 	 */
 	public DynamicPath(final String path) {
+		this(path, new String[0]);
+	}
+
+	/**
+	 * @param path
+	 *            Path with patterns
+	 * @param extensions
+	 *            Additional file extensions like ".gz" that compatible files can have, for example of compressed files
+	 */
+	public DynamicPath(final String path, final String... extensions) {
+		this.extensions = extensions;
+		this.index = new FileIndex();
+
 		String normalizedPath = path.replace('/', File.separatorChar);
 
 		segments = new ArrayList<Segment>();
@@ -101,7 +115,8 @@ public final class DynamicPath {
 	}
 
 	/**
-	 * Resolves all patterns and generates a real path for a (new) file.
+	 * Resolves all patterns and generates a real path for a (new) file. The generated file is registered as most recent
+	 * file for {@link #getAllFiles()}.
 	 *
 	 * @return Generated path
 	 */
@@ -111,20 +126,58 @@ public final class DynamicPath {
 		for (Segment segment : segments) {
 			builder.append(segment.createToken(builder.toString(), timestamp));
 		}
-		return builder.toString();
+
+		String path = builder.toString();
+		index.add(new File(path));
+		return path;
 	}
 
 	/**
-	 * Gets all files that are compatible with the dynamic path. The returned files are sorted by the last modification
-	 * date. The most recently modified files are at the top, the oldest at the bottom of the list.
+	 * Gets all files that are compatible with the dynamic path. Files with one of the additional extensions are included.
+	 * The returned files are sorted by the last modification date. The most recently modified files are at the top, the
+	 * oldest at the bottom of the list.
+	 *
+	 * <p>
+	 * The file system is scanned only at the first call. Afterwards, the found files are kept in an in-memory index that
+	 * is updated by {@link #resolve()}, {@link #replaceFile(File, File)}, and {@link #removeFile(File)}. Changes by other
+	 * processes or by other dynamic paths for the same files are not detected.
+	 * </p>
 	 *
 	 * @return Found files
 	 */
 	public List<File> getAllFiles() {
-		List<File> files = new ArrayList<File>();
-		collectFiles(folder, files);
-		Collections.sort(files, LastModifiedFileComparator.INSTANCE);
-		return files;
+		synchronized (index) {
+			if (!index.isLoaded()) {
+				List<File> files = new ArrayList<File>();
+				collectFiles(folder, files);
+				index.load(files);
+			}
+		}
+
+		return index.getFiles();
+	}
+
+	/**
+	 * Registers a file that replaces an existing log file, for example a compressed file that replaces the
+	 * uncompressed original file.
+	 *
+	 * @param original
+	 *            Replaced log file
+	 * @param replacement
+	 *            New log file
+	 */
+	public void replaceFile(final File original, final File replacement) {
+		index.replace(original, replacement);
+	}
+
+	/**
+	 * Unregisters a deleted log file.
+	 *
+	 * @param file
+	 *            Deleted log file
+	 */
+	public void removeFile(final File file) {
+		index.remove(file);
 	}
 
 	/**
@@ -152,26 +205,46 @@ public final class DynamicPath {
 			for (File file : files) {
 				if (file.isDirectory()) {
 					collectFiles(file, found);
-				} else if (file.isFile() && file.getPath().endsWith(suffix)) {
-					int index = 0;
-
-					for (String text : plainTexts) {
-						index = file.getPath().indexOf(text, index);
-						if (index == -1) {
-							break;
-						} else {
-							index += text.length();
+				} else if (file.isFile()) {
+					String path = stripExtension(file.getPath());
+					if (path.endsWith(suffix)) {
+						int index = 0;
+
+						for (String text : plainTexts) {
+							index = path.indexOf(text, index);
+							if (index == -1) {
+								break;
+							} else {
+								index += text.length();
+							}
 						}
-					}
 
-					if (index >= 0) {
-						found.add(file);
+						if (index >= 0) {
+							found.add(file);
+						}
 					}
 				}
 			}
 		}
 	}
 
+	/**
+	 * Removes an additional extension from a path.
+	 *
+	 * @param path
+	 *            Path to a file
+	 * @return Passed path without additional extension or the passed path itself if it doesn't end with any of the
+	 *         additional extensions
+	 */
+	private String stripExtension(final String path) {
+		for (String extension : extensions) {
+			if (path.endsWith(suffix + extension)) {
+				return path.substring(0, path.length() - extension.length());
+			}
+		}
+		return path;
+	}
+
 	/**
 	 * Checks if a partial path to a file is compatible with this dynamic path.
 	 *
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.path;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * In-memory index of log files. The index is filled once by a directory scan and then kept up to date by registering
+ * created, replaced, and deleted files. Therefore, the file system has to be accessed only once.
+ *
+ * <p>
+ * Files are sorted by their last modification date. The most recently modified files come first, the oldest last. The
+ * modification dates are read once while filling the index. Newly registered files are always treated as the most
+ * recent ones.
+ * </p>
+ *
+ * <p>
+ * The index is never revalidated against the file system. Files that other processes or other writers create in the
+ * same folder after the initial scan are not known until the next restart. Files that are deleted externally stay in
+ * the index until their deletion as backup is attempted and they are found to be missing already.
+ * </p>
+ *
+ * <p>
+ * All methods are thread-safe.
+ * </p>
+ */
+final class FileIndex {
+
+	private final List<File> files;
+	private boolean loaded;
+
+	/** */
+	FileIndex() {
+		files = new ArrayList<File>();
+		loaded = false;
+	}
+
+	/**
+	 * Checks whether the index has already been filled.
+	 *
+	 * @return {@code true} if {@link #load(List)} has been called, {@code false} if not
+	 */
+	synchronized boolean isLoaded() {
+		return loaded;
+	}
+
+	/**
+	 * Fills the index with found files. The last modification date of each file is read exactly once.
+	 *
+	 * @param found
+	 *            Found files in any order
+	 */
+	synchronized void load(final List<File> found) {
+		List<Entry> entries = new ArrayList<Entry>(found.size());
+		for (File file : found) {
+			entries.add(new Entry(file, file.lastModified()));
+		}
+		Collections.sort(entries, EntryComparator.INSTANCE);
+
+		files.clear();
+		for (Entry entry : entries) {
+			files.add(entry.file);
+		}
+
+		loaded = true;
+	}
+
+	/**
+	 * Gets all indexed files. The most recently modified files are at the top, the oldest at the bottom of the list.
+	 *
+	 * @return Copy of all indexed files
+	 */
+	synchronized List<File> getFiles() {
+		return new ArrayList<File>(files);
+	}
+
+	/**
+	 * Registers a new or reused file as most recent file. The file will be moved to the top if it is already indexed.
+	 * Nothing happens if the index has not been filled yet.
+	 *
+	 * @param file
+	 *            New or reused file
+	 */
+	synchronized void add(final File file) {
+		if (loaded) {
+			files.remove(file);
+			files.add(0, file);
+		}
+	}
+
+	/**
+	 * Registers a file that replaces another file, for example a compressed file that replaces the original file. The
+	 * replacement takes over the position of the original file. Nothing happens if the index has not been filled yet.
+	 *
+	 * @param original
+	 *            Replaced file
+	 * @param replacement
+	 *            New file
+	 */
+	synchronized void replace(final File original, final File replacement) {
+		if (loaded) {
+			files.remove(replacement);
+			int index = files.indexOf(original);
+			if (index == -1) {
+				files.add(replacement);
+			} else {
+				files.set(index, replacement);
+			}
+		}
+	}
+
+	/**
+	 * Unregisters a deleted file.
+	 *
+	 * @param file
+	 *            Deleted file
+	 */
+	synchronized void remove(final File file) {
+		files.remove(file);
+	}
+
+	/**
+	 * File with a cached last modification date.
+	 */
+	private static final class Entry {
+
+		private final File file;
+		private final long lastModified;
+
+		/**
+		 * @param file
+		 *            Log file
+		 * @param lastModified
+		 *            Last modification date of the log file
+		 */
+		private Entry(final File file, final long lastModified) {
+			this.file = file;
+			this.lastModified = lastModified;
+		}
+
+	}
+
+	/**
+	 * Comparator for sorting entries by the cached last modification date. The most recently modified files come first,
+	 * the oldest last.
+	 */
+	private static final class EntryComparator implements Comparator<Entry> {
+
+		private static final EntryComparator INSTANCE = new EntryComparator();
+
+		/** */
+		private EntryComparator() {
+		}
+
+		@Override
+		public int compare(final Entry first, final Entry second) {
+			return (first.lastModified < second.lastModified) ? +1 : ((first.lastModified == second.lastModified) ? 0 : -1);
+		}
+
+	}
+
+}
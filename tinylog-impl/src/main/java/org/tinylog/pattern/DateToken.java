@@ -32,15 +32,29 @@ final class DateToken implements Token {
 
 	private static final String DEFAULT_DATE_FORMAT_PATTERN = "yyyy-MM-dd HH:mm:ss";
 
+	private static final long MILLISECOND_PRECISION = 1L;
+	private static final long SECOND_PRECISION = 1000L;
+	private static final long MINUTE_PRECISION = 60000L;
+	private static final int MILLISECOND_DIGITS = 3;
+
+	/**
+	 * Pattern letters for eras, years, quarters, months, weeks, days, day periods, hours, minutes, and time zones.
+	 */
+	private static final String COARSE_LETTERS = "GyuYQqMLwWdDFEecaBhHkKmzZXxOVv";
+
 	private static final Locale locale = Configuration.getLocale();
 
 	private final boolean formatted;
 	private final TimestampFormatter formatter;
+	private final long precision;
+
+	private volatile CachedFormat cache;
 
 	/**	*/
 	DateToken() {
 		this.formatted = false;
 		this.formatter = RuntimeProvider.createTimestampFormatter(DEFAULT_DATE_FORMAT_PATTERN, locale);
+		this.precision = getPrecision(DEFAULT_DATE_FORMAT_PATTERN);
 	}
 
 	/**
@@ -50,6 +64,7 @@ final class DateToken implements Token {
 	DateToken(final String pattern) {
 		this.formatted = true;
 		this.formatter = RuntimeProvider.createTimestampFormatter(pattern, locale);
+		this.precision = getPrecision(pattern);
 	}
 
 	@Override
@@ -59,16 +74,112 @@ final class DateToken implements Token {
 
 	@Override
 	public void render(final LogEntry logEntry, final StringBuilder builder) {
-		builder.append(formatter.format(logEntry.getTimestamp()));
+		builder.append(format(logEntry));
 	}
 
 	@Override
 	public void apply(final LogEntry logEntry, final PreparedStatement statement, final int index) throws SQLException {
 		if (formatted) {
-			statement.setString(index, formatter.format(logEntry.getTimestamp()));
+			statement.setString(index, format(logEntry));
 		} else {
 			statement.setTimestamp(index, logEntry.getTimestamp().toSqlTimestamp());
 		}
 	}
 
+	/**
+	 * Formats the date and time of issue of a log entry. The last formatted date and time is cached and will be reused
+	 * as long as the epoch milliseconds of new log entries are in the same time unit as the last formatted.
+	 *
+	 * @param logEntry
+	 *            Log entry with date and time of issue
+	 * @return Formatted date and time
+	 */
+	private String format(final LogEntry logEntry) {
+		if (precision == 0) {
+			return formatter.format(logEntry.getTimestamp());
+		}
+
+		long key = logEntry.getEpochMilliseconds() / precision;
+		CachedFormat current = cache;
+		if (current != null && current.key == key) {
+			return current.text;
+		}
+
+		String text = formatter.format(logEntry.getTimestamp());
+		cache = new CachedFormat(key, text);
+		return text;
+	}
+
+	/**
+	 * Gets the precision that is required by a format pattern. Only pattern letters that are known to be constant within
+	 * a minute, second, or millisecond allow to reuse formatted dates. Any other letter is treated as requiring the full
+	 * precision of the timestamp.
+	 *
+	 * @param pattern
+	 *            Format pattern for formatting dates
+	 * @return Precision in milliseconds or 0 if the format pattern requires sub-millisecond precision
+	 */
+	private static long getPrecision(final String pattern) {
+		long precision = MINUTE_PRECISION;
+		boolean quoted = false;
+
+		for (int i = 0; i < pattern.length(); ++i) {
+			char character = pattern.charAt(i);
+
+			if (character == '\'') {
+				quoted = !quoted;
+			} else if (!quoted && character == 's') {
+				precision = Math.min(precision, SECOND_PRECISION);
+			} else if (!quoted && character == 'S') {
+				int digits = 1;
+				while (i + 1 < pattern.length() && pattern.charAt(i + 1) == 'S') {
+					++digits;
+					++i;
+				}
+
+				if (digits > MILLISECOND_DIGITS) {
+					return 0;
+				} else {
+					precision = MILLISECOND_PRECISION;
+				}
+			} else if (!quoted && isLetter(character) && COARSE_LETTERS.indexOf(character) < 0) {
+				return 0;
+			}
+		}
+
+		return precision;
+	}
+
+	/**
+	 * Checks whether a character is an ASCII letter and therefore a pattern letter, if it is not quoted.
+	 *
+	 * @param character
+	 *            Character to check
+	 * @return {@code true} if the passed character is an ASCII letter, {@code false} if not
+	 */
+	private static boolean isLetter(final char character) {
+		return character >= 'a' && character <= 'z' || character >= 'A' && character <= 'Z';
+	}
+
+	/**
+	 * Immutable pair of a time unit and its formatted representation.
+	 */
+	private static final class CachedFormat {
+
+		private final long key;
+		private final String text;
+
+		/**
+		 * @param key
+		 *            Epoch milliseconds divided by precision
+		 * @param text
+		 *            Formatted date and time
+		 */
+		private CachedFormat(final long key, final String text) {
+			this.key = key;
+			this.text = text;
+		}
+
+	}
+
 }
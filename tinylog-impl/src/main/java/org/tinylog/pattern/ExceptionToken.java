@@ -23,7 +23,6 @@ import org.tinylog.core.LogEntry;
 import org.tinylog.core.LogEntryValue;
 import org.tinylog.throwable.ThrowableData;
 import org.tinylog.throwable.ThrowableFilter;
-import org.tinylog.throwable.ThrowableWrapper;
 
 /**
  * Token for outputting the exception or throwable of a log entry.
@@ -32,14 +31,34 @@ final class ExceptionToken implements Token {
 
 	private static final String NEW_LINE = System.getProperty("line.separator");
 
-	private final List<ThrowableFilter> filters;
+	private final ThrowableRenderer renderer;
+	private final ThrowableDeduplicator deduplicator;
 
 	/**
 	 * @param filters
 	 *            Throwable filters for output of exceptions and other throwables
 	 */
 	ExceptionToken(final List<ThrowableFilter> filters) {
-		this.filters = filters;
+		this(new ThrowableRenderer(filters));
+	}
+
+	/**
+	 * @param renderer
+	 *            Renderer for exceptions and other throwables, can be shared with other tokens
+	 */
+	ExceptionToken(final ThrowableRenderer renderer) {
+		this(renderer, null);
+	}
+
+	/**
+	 * @param renderer
+	 *            Renderer for exceptions and other throwables, can be shared with other tokens
+	 * @param deduplicator
+	 *            Index of already output stack traces or {@code null} for outputting all stack traces in full
+	 */
+	ExceptionToken(final ThrowableRenderer renderer, final ThrowableDeduplicator deduplicator) {
+		this.renderer = renderer;
+		this.deduplicator = deduplicator;
 	}
 
 	@Override
@@ -49,86 +68,50 @@ final class ExceptionToken implements Token {
 
 	@Override
 	public void render(final LogEntry logEntry, final StringBuilder builder) {
-		Throwable throwable = logEntry.getException();
-		if (throwable != null) {
-			render(filter(throwable), Collections.<StackTraceElement>emptyList(), builder);
+		String text = render(logEntry);
+		if (text != null) {
+			builder.append(text);
 		}
 	}
 
 	@Override
 	public void apply(final LogEntry logEntry, final PreparedStatement statement, final int index) throws SQLException {
-		Throwable throwable = logEntry.getException();
-		if (throwable == null) {
-			statement.setString(index, null);
-		} else {
-			StringBuilder builder = new StringBuilder();
-			render(filter(throwable), Collections.<StackTraceElement>emptyList(), builder);
-			statement.setString(index, builder.toString());
-		}
+		statement.setString(index, render(logEntry));
 	}
 
 	/**
-	 * Applies all registered {@link ThrowableFilter throwable filters}.
+	 * Renders the throwable of a log entry. If deduplication is enabled, a stack trace that has been already output
+	 * before will be rendered as one-line back-reference to its fingerprint.
 	 *
-	 * @param throwable
-	 *            Throwable to filter
-	 * @return Transformed throwable
+	 * @param logEntry
+	 *            Log entry with throwable
+	 * @return Rendered throwable or {@code null} if the log entry doesn't contain any throwable
 	 */
-	private ThrowableData filter(final Throwable throwable) {
-		ThrowableData data = new ThrowableWrapper(throwable);
-		for (ThrowableFilter filter : filters) {
-			data = filter.filter(data);
+	private String render(final LogEntry logEntry) {
+		if (deduplicator == null) {
+			return renderer.render(logEntry);
 		}
-		return data;
-	}
 
-	/**
-	 * Renders a throwable including stack trace and cause throwable.
-	 *
-	 * @param throwable
-	 *            Throwable to render
-	 * @param parentTrace
-	 *            Stack trace from parent throwable
-	 * @param builder
-	 *            Output will be appended to this string builder
-	 */
-	private void render(final ThrowableData throwable, final List<StackTraceElement> parentTrace, final StringBuilder builder) {
-		List<StackTraceElement> stackTrace = throwable.getStackTrace();
-
-		int parentIndex = parentTrace.size() - 1;
-		int childIndex = stackTrace.size() - 1;
-		int commonElements = 0;
-		while (parentIndex >= 0 && childIndex >= 0 && parentTrace.get(parentIndex).equals(stackTrace.get(childIndex))) {
-			parentIndex -= 1;
-			childIndex -= 1;
-			commonElements += 1;
-		}
-		
-		builder.append(throwable.getClassName());
-		String message = throwable.getMessage();
-		if (message != null) {
-			builder.append(": ");
-			builder.append(message);
-		}
-
-		for (int i = 0; i < stackTrace.size() - commonElements; ++i) {
-			builder.append(NEW_LINE);
-			builder.append("\tat ");
-			builder.append(stackTrace.get(i));
-		}
-		
-		if (commonElements > 0) {
-			builder.append(NEW_LINE);
-			builder.append("\t... ");
-			builder.append(commonElements);
-			builder.append(" more");
+		ThrowableData throwable = renderer.filter(logEntry);
+		if (throwable == null) {
+			return null;
 		}
 
-		ThrowableData cause = throwable.getCause();
-		if (cause != null) {
-			builder.append(NEW_LINE);
-			builder.append("Caused by: ");
-			render(cause, stackTrace, builder);
+		long fingerprint = ThrowableDeduplicator.fingerprint(throwable);
+		if (deduplicator.register(fingerprint)) {
+			StringBuilder builder = new StringBuilder();
+			builder.append(throwable.getClassName());
+			String message = throwable.getMessage();
+			if (message != null) {
+				builder.append(": ");
+				builder.append(message);
+			}
+			builder.append(" [stack trace #");
+			builder.append(ThrowableDeduplicator.format(fingerprint));
+			builder.append(" seen before]");
+			return builder.toString();
+		} else {
+			return renderer.render(logEntry) + NEW_LINE + "\t[stack trace #" + ThrowableDeduplicator.format(fingerprint) + "]";
 		}
 	}
 
@@ -14,8 +14,9 @@
 package org.tinylog.pattern;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 import org.tinylog.Level;
@@ -30,8 +31,26 @@ import org.tinylog.throwable.ThrowableFilter;
 public final class FormatPatternParser {
 
 	private static final Pattern SPLIT_PATTERN = Pattern.compile(",");
+	private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
 
-	private final List<ThrowableFilter> filters;
+	private static final String DEDUPE_FILTER = "dedupe";
+	private static final int DEFAULT_DEDUPE_CAPACITY = 1000;
+
+	private static final int MAX_SHARED_RENDERERS = 64;
+	private static final float LOAD_FACTOR = 0.75f;
+
+	private static final Map<String, ThrowableRenderer> RENDERERS = new LinkedHashMap<String, ThrowableRenderer>(
+		MAX_SHARED_RENDERERS, LOAD_FACTOR, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<String, ThrowableRenderer> eldest) {
+			return size() > MAX_SHARED_RENDERERS;
+		}
+	};
+
+	private final ThrowableRenderer renderer;
+	private final int dedupeCapacity;
 
 	/**
 	 * @param filters
@@ -39,9 +58,24 @@ public final class FormatPatternParser {
 	 */
 	public FormatPatternParser(final String filters) {
 		if (filters == null) {
-			this.filters = Collections.emptyList();
+			this.renderer = getRenderer("");
+			this.dedupeCapacity = 0;
 		} else {
-			this.filters = new ServiceLoader<ThrowableFilter>(ThrowableFilter.class, String.class).createList(filters);
+			StringBuilder remaining = new StringBuilder();
+			int capacity = 0;
+
+			for (String entry : SPLIT_PATTERN.split(filters)) {
+				int separator = entry.indexOf(':');
+				String name = (separator == -1 ? entry : entry.substring(0, separator)).trim();
+				if (DEDUPE_FILTER.equals(name)) {
+					capacity = separator == -1 ? DEFAULT_DEDUPE_CAPACITY : parseDedupeCapacity(entry.substring(separator + 1).trim());
+				} else {
+					remaining.append(remaining.length() == 0 ? "" : ",").append(entry);
+				}
+			}
+
+			this.renderer = getRenderer(remaining.toString());
+			this.dedupeCapacity = capacity;
 		}
 	}
 
@@ -162,11 +196,11 @@ public final class FormatPatternParser {
 		} else if ("level-code".equals(name)) {
 			return new SeverityLevelIntegerToken();
 		} else if ("message".equals(name)) {
-			return new MessageAndExceptionToken(filters);
+			return new MessageAndExceptionToken(renderer, createDeduplicator());
 		} else if ("message-only".equals(name)) {
 			return new MessageToken();
 		} else if ("exception".equals(name)) {
-			return new ExceptionToken(filters);
+			return new ExceptionToken(renderer, createDeduplicator());
 		} else if ("opening-curly-bracket".equals(name)) {
 			return new PlainTextToken("{");
 		} else if ("closing-curly-bracket".equals(name)) {
@@ -178,6 +212,38 @@ public final class FormatPatternParser {
 		}
 	}
 
+	/**
+	 * Creates a new stack trace deduplicator for an exception token, if deduplication is enabled.
+	 *
+	 * @return New deduplicator or {@code null} if stack traces should be always output in full
+	 */
+	private ThrowableDeduplicator createDeduplicator() {
+		return dedupeCapacity > 0 ? new ThrowableDeduplicator(dedupeCapacity) : null;
+	}
+
+	/**
+	 * Gets the canonical throwable renderer for a throwable filter configuration. Parsers of different writers with
+	 * identical filter configurations share the same renderer and thereby the memoized output of exceptions. The
+	 * number of shared renderers is limited, the least recently requested one will be discarded first.
+	 *
+	 * @param configuration
+	 *            Comma separated list of throwable filters without deduplication
+	 * @return Shared throwable renderer
+	 */
+	private static ThrowableRenderer getRenderer(final String configuration) {
+		String key = WHITESPACE_PATTERN.matcher(configuration).replaceAll("");
+
+		synchronized (RENDERERS) {
+			ThrowableRenderer renderer = RENDERERS.get(key);
+			if (renderer == null) {
+				ServiceLoader<ThrowableFilter> loader = new ServiceLoader<ThrowableFilter>(ThrowableFilter.class, String.class);
+				renderer = new ThrowableRenderer(loader.createList(configuration));
+				RENDERERS.put(key, renderer);
+			}
+			return renderer;
+		}
+	}
+
 	/**
 	 * Creates a new {@link DateToken}.
 	 *
@@ -263,6 +329,29 @@ public final class FormatPatternParser {
 		return styledToken;
 	}
 
+	/**
+	 * Parses the maximum number of stack trace fingerprints to remember for deduplication.
+	 *
+	 * @param value
+	 *            Capacity as text
+	 * @return Parsed capacity or default capacity if the passed value is invalid
+	 */
+	private static int parseDedupeCapacity(final String value) {
+		int capacity;
+		try {
+			capacity = parsePositiveInteger(value);
+		} catch (NumberFormatException ex) {
+			capacity = 0;
+		}
+
+		if (capacity > 0) {
+			return capacity;
+		} else {
+			InternalLogger.log(Level.ERROR, "'" + value + "' is an invalid capacity for deduplication of stack traces");
+			return DEFAULT_DEDUPE_CAPACITY;
+		}
+	}
+
 	/**
 	 * Parses a positive integer. In opposite to {@link Integer#parseInt(String)}, this method throws a
 	 * {@link NumberFormatException} for negative values.
@@ -36,8 +36,26 @@ final class MessageAndExceptionToken implements Token {
 	 *            Throwable filters for output of exceptions and other throwables
 	 */
 	MessageAndExceptionToken(final List<ThrowableFilter> filters) {
+		this(new ThrowableRenderer(filters));
+	}
+
+	/**
+	 * @param renderer
+	 *            Renderer for exceptions and other throwables, can be shared with other tokens
+	 */
+	MessageAndExceptionToken(final ThrowableRenderer renderer) {
+		this(renderer, null);
+	}
+
+	/**
+	 * @param renderer
+	 *            Renderer for exceptions and other throwables, can be shared with other tokens
+	 * @param deduplicator
+	 *            Index of already output stack traces or {@code null} for outputting all stack traces in full
+	 */
+	MessageAndExceptionToken(final ThrowableRenderer renderer, final ThrowableDeduplicator deduplicator) {
 		messageToken = new MessageToken();
-		exceptionToken = new ExceptionToken(filters);
+		exceptionToken = new ExceptionToken(renderer, deduplicator);
 	}
 
 	@Override
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.pattern;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.tinylog.throwable.ThrowableData;
+
+/**
+ * Bounded index of stack trace fingerprints for outputting repeated exceptions as one-line back-references.
+ *
+ * <p>
+ * A fingerprint is a 64-bit FNV-1a hash over the class names and stack trace elements of a throwable and all its
+ * causes, but not the messages. Class names, method names, and file names are hashed character by character instead
+ * of combining their 32-bit hash codes, which would collide far too often. The index is a LRU cache. If the capacity
+ * is reached, the least recently seen fingerprint will be evicted.
+ * </p>
+ */
+final class ThrowableDeduplicator {
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private static final float LOAD_FACTOR = 0.75f;
+	private static final int FINGERPRINT_DIGITS = 16;
+
+	private final Map<Long, Boolean> fingerprints;
+
+	/**
+	 * @param capacity
+	 *            Maximum number of fingerprints to remember
+	 */
+	ThrowableDeduplicator(final int capacity) {
+		fingerprints = new LinkedHashMap<Long, Boolean>(capacity, LOAD_FACTOR, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Long, Boolean> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Computes the fingerprint of a throwable including all causes.
+	 *
+	 * @param throwable
+	 *            Filtered throwable
+	 * @return Computed fingerprint
+	 */
+	static long fingerprint(final ThrowableData throwable) {
+		long hash = FNV_OFFSET_BASIS;
+		for (ThrowableData data = throwable; data != null; data = data.getCause()) {
+			hash = mix(hash, data.getClassName());
+			List<StackTraceElement> stackTrace = data.getStackTrace();
+			hash = mix(hash, stackTrace.size());
+			for (StackTraceElement element : stackTrace) {
+				hash = mix(hash, element.getClassName());
+				hash = mix(hash, element.getMethodName());
+				hash = mix(hash, element.getFileName());
+				hash = mix(hash, element.getLineNumber());
+			}
+		}
+		return hash;
+	}
+
+	/**
+	 * Formats a fingerprint as hexadecimal string.
+	 *
+	 * @param fingerprint
+	 *            Fingerprint to format
+	 * @return Fingerprint as hexadecimal string with 16 digits
+	 */
+	static String format(final long fingerprint) {
+		String hex = Long.toHexString(fingerprint);
+		StringBuilder builder = new StringBuilder(FINGERPRINT_DIGITS);
+		for (int i = hex.length(); i < FINGERPRINT_DIGITS; ++i) {
+			builder.append('0');
+		}
+		return builder.append(hex).toString();
+	}
+
+	/**
+	 * Registers a fingerprint as seen.
+	 *
+	 * @param fingerprint
+	 *            Fingerprint of an output throwable
+	 * @return {@code true} if the fingerprint has been already seen before, {@code false} if it is new
+	 */
+	boolean register(final long fingerprint) {
+		synchronized (fingerprints) {
+			return fingerprints.put(fingerprint, Boolean.TRUE) != null;
+		}
+	}
+
+	/**
+	 * Mixes a value into a hash.
+	 *
+	 * @param hash
+	 *            Current hash
+	 * @param value
+	 *            Value to add
+	 * @return New hash
+	 */
+	private static long mix(final long hash, final int value) {
+		return (hash ^ value) * FNV_PRIME;
+	}
+
+	/**
+	 * Mixes all characters of a text into a hash. The length is mixed in first, so that consecutive texts cannot be
+	 * confused with each other.
+	 *
+	 * @param hash
+	 *            Current hash
+	 * @param text
+	 *            Text to add (can be {@code null})
+	 * @return New hash
+	 */
+	private static long mix(final long hash, final String text) {
+		if (text == null) {
+			return mix(hash, -1);
+		}
+
+		long result = mix(hash, text.length());
+		for (int i = 0; i < text.length(); ++i) {
+			result = mix(result, text.charAt(i));
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.pattern;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.List;
+
+import org.tinylog.core.LogEntry;
+import org.tinylog.throwable.ThrowableData;
+import org.tinylog.throwable.ThrowableFilter;
+import org.tinylog.throwable.ThrowableWrapper;
+
+/**
+ * Renderer for exceptions and other throwables including stack trace and cause throwables.
+ *
+ * <p>
+ * The filtered throwable and the rendered text of the last log entry are memoized per thread. Therefore, the same
+ * exception is filtered and rendered only once, even if the log entry is output by multiple tokens or writers sharing
+ * this renderer. The memo references the log entry only weakly and is replaced by the next log entry with a
+ * throwable.
+ * </p>
+ */
+final class ThrowableRenderer {
+
+	private static final String NEW_LINE = System.getProperty("line.separator");
+
+	private final List<ThrowableFilter> filters;
+
+	private final ThreadLocal<Memo> memos;
+
+	/**
+	 * @param filters
+	 *            Throwable filters for output of exceptions and other throwables
+	 */
+	ThrowableRenderer(final List<ThrowableFilter> filters) {
+		this.filters = filters;
+		this.memos = new ThreadLocal<Memo>();
+	}
+
+	/**
+	 * Gets the filtered throwable of a log entry.
+	 *
+	 * @param logEntry
+	 *            Log entry with throwable
+	 * @return Filtered throwable or {@code null} if the log entry doesn't contain any throwable
+	 */
+	ThrowableData filter(final LogEntry logEntry) {
+		Throwable throwable = logEntry.getException();
+		if (throwable == null) {
+			return null;
+		} else {
+			Memo memo = getMemo();
+			if (!memo.isFor(logEntry)) {
+				memo.update(logEntry, filter(throwable));
+			}
+			return memo.data;
+		}
+	}
+
+	/**
+	 * Renders the throwable of a log entry including stack trace and cause throwables.
+	 *
+	 * @param logEntry
+	 *            Log entry with throwable
+	 * @return Rendered throwable or {@code null} if the log entry doesn't contain any throwable
+	 */
+	String render(final LogEntry logEntry) {
+		Throwable throwable = logEntry.getException();
+		if (throwable == null) {
+			return null;
+		} else {
+			Memo memo = getMemo();
+			if (!memo.isFor(logEntry)) {
+				memo.update(logEntry, filter(throwable));
+			}
+			if (memo.text == null) {
+				memo.text = render(memo.data);
+			}
+			return memo.text;
+		}
+	}
+
+	/**
+	 * Renders an already filtered throwable including stack trace and cause throwables.
+	 *
+	 * @param throwable
+	 *            Filtered throwable
+	 * @return Rendered throwable
+	 */
+	String render(final ThrowableData throwable) {
+		StringBuilder builder = new StringBuilder();
+		render(throwable, Collections.<StackTraceElement>emptyList(), builder);
+		return builder.toString();
+	}
+
+	/**
+	 * Gets the memo of the current thread. A new empty memo will be created, if there is none yet.
+	 *
+	 * @return Memo of the current thread
+	 */
+	private Memo getMemo() {
+		Memo memo = memos.get();
+		if (memo == null) {
+			memo = new Memo();
+			memos.set(memo);
+		}
+		return memo;
+	}
+
+	/**
+	 * Applies all registered {@link ThrowableFilter throwable filters}.
+	 *
+	 * @param throwable
+	 *            Throwable to filter
+	 * @return Transformed throwable
+	 */
+	private ThrowableData filter(final Throwable throwable) {
+		ThrowableData data = new ThrowableWrapper(throwable);
+		for (ThrowableFilter filter : filters) {
+			data = filter.filter(data);
+		}
+		return data;
+	}
+
+	/**
+	 * Renders a throwable including stack trace and cause throwable.
+	 *
+	 * @param throwable
+	 *            Throwable to render
+	 * @param parentTrace
+	 *            Stack trace from parent throwable
+	 * @param builder
+	 *            Output will be appended to this string builder
+	 */
+	private static void render(final ThrowableData throwable, final List<StackTraceElement> parentTrace, final StringBuilder builder) {
+		List<StackTraceElement> stackTrace = throwable.getStackTrace();
+
+		int parentIndex = parentTrace.size() - 1;
+		int childIndex = stackTrace.size() - 1;
+		int commonElements = 0;
+		while (parentIndex >= 0 && childIndex >= 0 && parentTrace.get(parentIndex).equals(stackTrace.get(childIndex))) {
+			parentIndex -= 1;
+			childIndex -= 1;
+			commonElements += 1;
+		}
+
+		builder.append(throwable.getClassName());
+		String message = throwable.getMessage();
+		if (message != null) {
+			builder.append(": ");
+			builder.append(message);
+		}
+
+		for (int i = 0; i < stackTrace.size() - commonElements; ++i) {
+			builder.append(NEW_LINE);
+			builder.append("\tat ");
+			builder.append(stackTrace.get(i));
+		}
+
+		if (commonElements > 0) {
+			builder.append(NEW_LINE);
+			builder.append("\t... ");
+			builder.append(commonElements);
+			builder.append(" more");
+		}
+
+		ThrowableData cause = throwable.getCause();
+		if (cause != null) {
+			builder.append(NEW_LINE);
+			builder.append("Caused by: ");
+			render(cause, stackTrace, builder);
+		}
+	}
+
+	/**
+	 * Thread confined memo of the filtered and rendered throwable of the last log entry.
+	 */
+	private static final class Memo {
+
+		private WeakReference<LogEntry> logEntry;
+		private ThrowableData data;
+		private String text;
+
+		/** */
+		private Memo() {
+		}
+
+		/**
+		 * Checks whether this memo contains the filtered throwable of the passed log entry.
+		 *
+		 * @param logEntry
+		 *            Log entry with throwable
+		 * @return {@code true} if the passed log entry is memoized, {@code false} if not
+		 */
+		private boolean isFor(final LogEntry logEntry) {
+			return this.logEntry != null && this.logEntry.get() == logEntry;
+		}
+
+		/**
+		 * Replaces the memoized log entry and discards the rendered text of the previous log entry.
+		 *
+		 * @param logEntry
+		 *            Log entry with throwable
+		 * @param data
+		 *            Filtered throwable of the passed log entry
+		 */
+		private void update(final LogEntry logEntry, final ThrowableData data) {
+			this.logEntry = new WeakReference<LogEntry>(logEntry);
+			this.data = data;
+			this.text = null;
+		}
+
+	}
+
+}
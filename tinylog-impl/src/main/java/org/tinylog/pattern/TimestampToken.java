@@ -67,7 +67,7 @@ final class TimestampToken implements Token {
 	 * @return Time of issue as Unix timestamp
 	 */
 	private long getTime(final LogEntry logEntry) {
-		long timestamp = logEntry.getTimestamp().toDate().getTime();
+		long timestamp = logEntry.getEpochMilliseconds();
 		return useMilliseconds ? timestamp : timestamp / SECONDS_DIVISOR;
 	}
 
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.policies;
+
+import java.io.File;
+import java.util.Calendar;
+
+/**
+ * Base class for policies that trigger rollovers at fixed points in time.
+ *
+ * <p>
+ * The next rollover point in time is calculated in advance as deadline. Therefore, checking whether the current log
+ * file can be continued is a single comparison with the current time. Rolling file writers can also use the deadline
+ * for triggering a rollover by a timer, even if no log entries are written.
+ * </p>
+ */
+public abstract class AbstractDatePolicy implements Policy {
+
+	private volatile long deadline;
+
+	/** */
+	protected AbstractDatePolicy() {
+	}
+
+	/**
+	 * Gets the next rollover point in time. The deadline is calculated on {@link #reset()}.
+	 *
+	 * @return Milliseconds since 1970-01-01T00:00:00Z or {@link Long#MAX_VALUE} if there is no further rollover
+	 */
+	public final long getDeadline() {
+		return deadline;
+	}
+
+	@Override
+	public final boolean continueExistingFile(final String path) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTimeInMillis(new File(path).lastModified());
+		advance(calendar);
+		return calendar.getTimeInMillis() > System.currentTimeMillis();
+	}
+
+	@Override
+	public final boolean continueCurrentFile(final byte[] entry) {
+		return deadline > System.currentTimeMillis();
+	}
+
+	@Override
+	public final void reset() {
+		Calendar calendar = Calendar.getInstance();
+		advance(calendar);
+		deadline = calendar.getTimeInMillis();
+	}
+
+	/**
+	 * Moves a calendar to the next rollover point in time. The new date and time must be strictly after the date and
+	 * time of the passed calendar. If there is no further rollover point in time, the calendar has to be set to
+	 * {@link Long#MAX_VALUE} milliseconds.
+	 *
+	 * @param calendar
+	 *            Calendar to move
+	 */
+	protected abstract void advance(Calendar calendar);
+
+}
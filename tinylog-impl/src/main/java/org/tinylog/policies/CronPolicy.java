@@ -0,0 +1,215 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.policies;
+
+import java.util.BitSet;
+import java.util.Calendar;
+
+/**
+ * Policy for triggering rollovers according to a cron expression with the five fields minute (0-59), hour (0-23), day
+ * of month (1-31), month (1-12), and day of week (0-7, whereby 0 and 7 are Sunday).
+ *
+ * <p>
+ * Each field can be an asterisk for all values, a single value, or a range like "1-5". Asterisks and ranges can have
+ * a step like "&#42;/15". Multiple values can be separated by semicolons, as commas are already used for separating
+ * policies. For example, "0 6;18 * * 1-5" triggers a rollover at 6 a.m. and 6 p.m. on working days. Like for common
+ * cron implementations, the day of month and day of week are combined by "or" if both fields are restricted.
+ * </p>
+ */
+public final class CronPolicy extends AbstractDatePolicy {
+
+	private static final int FIELDS = 5;
+	private static final int MINUTE_FIELD = 0;
+	private static final int HOUR_FIELD = 1;
+	private static final int DAY_OF_MONTH_FIELD = 2;
+	private static final int MONTH_FIELD = 3;
+	private static final int DAY_OF_WEEK_FIELD = 4;
+
+	private static final int MAX_MINUTE = 59;
+	private static final int MAX_HOUR = 23;
+	private static final int MAX_DAY_OF_MONTH = 31;
+	private static final int MAX_MONTH = 12;
+	private static final int MAX_DAY_OF_WEEK = 7;
+	private static final int SEARCHED_YEARS = 5;
+
+	private final BitSet minutes;
+	private final BitSet hours;
+	private final BitSet daysOfMonth;
+	private final BitSet months;
+	private final BitSet daysOfWeek;
+	private final boolean restrictedDaysOfMonth;
+	private final boolean restrictedDaysOfWeek;
+
+	/** */
+	public CronPolicy() {
+		this(null);
+	}
+
+	/**
+	 * @param argument
+	 *            Cron expression (e.g. "0 0 * * *" for every day at midnight)
+	 * @throws IllegalArgumentException
+	 *             Passed cron expression is missing, invalid, or never matches
+	 */
+	public CronPolicy(final String argument) {
+		String[] fields = argument == null ? new String[0] : argument.trim().split("\\s+");
+		if (fields.length != FIELDS) {
+			throw new IllegalArgumentException("Invalid cron expression: " + argument);
+		}
+
+		minutes = parseField(argument, fields[MINUTE_FIELD], 0, MAX_MINUTE);
+		hours = parseField(argument, fields[HOUR_FIELD], 0, MAX_HOUR);
+		daysOfMonth = parseField(argument, fields[DAY_OF_MONTH_FIELD], 1, MAX_DAY_OF_MONTH);
+		months = parseField(argument, fields[MONTH_FIELD], 1, MAX_MONTH);
+		daysOfWeek = parseField(argument, fields[DAY_OF_WEEK_FIELD], 0, MAX_DAY_OF_WEEK);
+		restrictedDaysOfMonth = !fields[DAY_OF_MONTH_FIELD].startsWith("*");
+		restrictedDaysOfWeek = !fields[DAY_OF_WEEK_FIELD].startsWith("*");
+
+		if (daysOfWeek.get(MAX_DAY_OF_WEEK)) {
+			daysOfWeek.set(0);
+		}
+
+		reset();
+
+		if (getDeadline() == Long.MAX_VALUE) {
+			throw new IllegalArgumentException("Cron expression never matches: " + argument);
+		}
+	}
+
+	@Override
+	protected void advance(final Calendar calendar) {
+		calendar.set(Calendar.SECOND, 0);
+		calendar.set(Calendar.MILLISECOND, 0);
+		calendar.add(Calendar.MINUTE, 1);
+
+		int maxYear = calendar.get(Calendar.YEAR) + SEARCHED_YEARS;
+
+		while (calendar.get(Calendar.YEAR) <= maxYear) {
+			if (!months.get(calendar.get(Calendar.MONTH) + 1)) {
+				calendar.set(Calendar.DAY_OF_MONTH, 1);
+				calendar.set(Calendar.HOUR_OF_DAY, 0);
+				calendar.set(Calendar.MINUTE, 0);
+				calendar.add(Calendar.MONTH, 1);
+			} else if (!matchesDay(calendar)) {
+				calendar.set(Calendar.HOUR_OF_DAY, 0);
+				calendar.set(Calendar.MINUTE, 0);
+				calendar.add(Calendar.DATE, 1);
+			} else if (!hours.get(calendar.get(Calendar.HOUR_OF_DAY))) {
+				calendar.set(Calendar.MINUTE, 0);
+				calendar.add(Calendar.HOUR_OF_DAY, 1);
+			} else if (!minutes.get(calendar.get(Calendar.MINUTE))) {
+				calendar.add(Calendar.MINUTE, 1);
+			} else {
+				return;
+			}
+		}
+
+		calendar.setTimeInMillis(Long.MAX_VALUE);
+	}
+
+	/**
+	 * Checks whether the day of a calendar matches with the day of month and day of week fields.
+	 *
+	 * @param calendar
+	 *            Calendar to check
+	 * @return {@code true} if the day matches, {@code false} if not
+	 */
+	private boolean matchesDay(final Calendar calendar) {
+		boolean dayOfMonth = daysOfMonth.get(calendar.get(Calendar.DAY_OF_MONTH));
+		boolean dayOfWeek = daysOfWeek.get(calendar.get(Calendar.DAY_OF_WEEK) - Calendar.SUNDAY);
+
+		if (restrictedDaysOfMonth && restrictedDaysOfWeek) {
+			return dayOfMonth || dayOfWeek;
+		} else {
+			return dayOfMonth && dayOfWeek;
+		}
+	}
+
+	/**
+	 * Parses a single field of a cron expression.
+	 *
+	 * @param expression
+	 *            Full cron expression for error messages
+	 * @param field
+	 *            Field to parse
+	 * @param min
+	 *            Minimum allowed value
+	 * @param max
+	 *            Maximum allowed value
+	 * @return All matching values
+	 * @throws IllegalArgumentException
+	 *             Passed field is invalid
+	 */
+	private static BitSet parseField(final String expression, final String field, final int min, final int max) {
+		BitSet values = new BitSet(max + 1);
+
+		for (String item : field.split(";", -1)) {
+			int separator = item.indexOf('/');
+			String range = separator == -1 ? item : item.substring(0, separator);
+			int step = separator == -1 ? 1 : parseNumber(expression, item.substring(separator + 1), 1, Integer.MAX_VALUE);
+
+			int start;
+			int end;
+
+			if ("*".equals(range)) {
+				start = min;
+				end = max;
+			} else {
+				int hyphen = range.indexOf('-');
+				if (hyphen == -1) {
+					start = parseNumber(expression, range, min, max);
+					end = separator == -1 ? start : max;
+				} else {
+					start = parseNumber(expression, range.substring(0, hyphen), min, max);
+					end = parseNumber(expression, range.substring(hyphen + 1), start, max);
+				}
+			}
+
+			for (long value = start; value <= end; value += step) {
+				values.set((int) value);
+			}
+		}
+
+		return values;
+	}
+
+	/**
+	 * Parses a number of a cron expression.
+	 *
+	 * @param expression
+	 *            Full cron expression for error messages
+	 * @param text
+	 *            Number as text
+	 * @param min
+	 *            Minimum allowed value
+	 * @param max
+	 *            Maximum allowed value
+	 * @return Parsed number
+	 * @throws IllegalArgumentException
+	 *             Passed text is not a number or out of range
+	 */
+	private static int parseNumber(final String expression, final String text, final int min, final int max) {
+		try {
+			int value = Integer.parseInt(text);
+			if (value >= min && value <= max) {
+				return value;
+			}
+		} catch (NumberFormatException ex) {
+			// Handled below
+		}
+
+		throw new IllegalArgumentException("Invalid cron expression: " + expression);
+	}
+
+}
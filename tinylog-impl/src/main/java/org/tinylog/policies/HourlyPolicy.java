@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.policies;
+
+import java.util.Calendar;
+
+/**
+ * Policy for triggering a rollover every hour at a defined minute. The default minute is the full hour.
+ */
+public final class HourlyPolicy extends AbstractDatePolicy {
+
+	private static final int MAX_MINUTE = 59;
+
+	private final int minute;
+
+	/** */
+	public HourlyPolicy() {
+		this(null);
+	}
+
+	/**
+	 * @param argument
+	 *            Minute of the hour for starting new log file (e.g. "30")
+	 * @throws IllegalArgumentException
+	 *             Passed minute is invalid
+	 */
+	public HourlyPolicy(final String argument) {
+		if (argument == null || argument.isEmpty()) {
+			minute = 0;
+		} else {
+			minute = parseMinute(argument);
+		}
+
+		reset();
+	}
+
+	@Override
+	protected void advance(final Calendar calendar) {
+		long time = calendar.getTimeInMillis();
+
+		calendar.set(Calendar.MINUTE, minute);
+		calendar.set(Calendar.SECOND, 0);
+		calendar.set(Calendar.MILLISECOND, 0);
+
+		if (calendar.getTimeInMillis() <= time) {
+			calendar.add(Calendar.HOUR_OF_DAY, 1);
+		}
+	}
+
+	/**
+	 * Parses a minute of the hour.
+	 *
+	 * @param argument
+	 *            Minute as text
+	 * @return Parsed minute
+	 * @throws IllegalArgumentException
+	 *             Passed argument is not a valid minute
+	 */
+	private static int parseMinute(final String argument) {
+		try {
+			int value = Integer.parseInt(argument.trim());
+			if (value >= 0 && value <= MAX_MINUTE) {
+				return value;
+			}
+		} catch (NumberFormatException ex) {
+			// Handled below
+		}
+
+		throw new IllegalArgumentException("Invalid minute for hourly policy: " + argument);
+	}
+
+}
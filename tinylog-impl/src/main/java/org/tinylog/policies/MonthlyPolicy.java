@@ -0,0 +1,58 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.policies;
+
+import java.util.Calendar;
+
+import org.tinylog.Level;
+import org.tinylog.provider.InternalLogger;
+
+/**
+ * Policy for triggering a rollover at 00:00 of the first day of every month.
+ */
+public final class MonthlyPolicy extends AbstractDatePolicy {
+
+	/** */
+	public MonthlyPolicy() {
+		this(null);
+	}
+
+	/**
+	 * @param argument
+	 *            Should be always {@code null} as monthly policy does not support arguments
+	 */
+	public MonthlyPolicy(final String argument) {
+		if (argument != null) {
+			InternalLogger.log(Level.WARN, "Monthly policy does not support arguments");
+		}
+
+		reset();
+	}
+
+	@Override
+	protected void advance(final Calendar calendar) {
+		long time = calendar.getTimeInMillis();
+
+		calendar.set(Calendar.DAY_OF_MONTH, 1);
+		calendar.set(Calendar.HOUR_OF_DAY, 0);
+		calendar.set(Calendar.MINUTE, 0);
+		calendar.set(Calendar.SECOND, 0);
+		calendar.set(Calendar.MILLISECOND, 0);
+
+		if (calendar.getTimeInMillis() <= time) {
+			calendar.add(Calendar.MONTH, 1);
+		}
+	}
+
+}
@@ -64,7 +64,19 @@ public final class SizePolicy implements Policy {
 
 	@Override
 	public boolean continueCurrentFile(final byte[] entry) {
-		count += entry.length;
+		return continueCurrentFile(entry.length);
+	}
+
+	/**
+	 * Checks whether a log entry with the passed size can be still written into the current log file. In contrast to
+	 * {@link #continueCurrentFile(byte[])}, the log entry itself is not required.
+	 *
+	 * @param size
+	 *            Size of the log entry in bytes
+	 * @return {@code true} if the current log file can be continued, {@code false} if a new log file should be started
+	 */
+	public boolean continueCurrentFile(final int size) {
+		count += size;
 		return count <= maximum;
 	}
 
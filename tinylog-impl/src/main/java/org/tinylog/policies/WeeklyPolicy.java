@@ -0,0 +1,84 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.policies;
+
+import java.util.Calendar;
+import java.util.Locale;
+
+/**
+ * Policy for triggering a rollover every week at 00:00 of a defined day of the week. The default day is the first day
+ * of the week of the default locale.
+ */
+public final class WeeklyPolicy extends AbstractDatePolicy {
+
+	private static final String[] DAYS = { "sunday", "monday", "tuesday", "wednesday", "thursday", "friday", "saturday" };
+
+	private final int day;
+
+	/** */
+	public WeeklyPolicy() {
+		this(null);
+	}
+
+	/**
+	 * @param argument
+	 *            Day of the week for starting new log file (e.g. "monday")
+	 * @throws IllegalArgumentException
+	 *             Passed day is invalid
+	 */
+	public WeeklyPolicy(final String argument) {
+		if (argument == null || argument.isEmpty()) {
+			day = Calendar.getInstance().getFirstDayOfWeek();
+		} else {
+			day = parseDay(argument);
+		}
+
+		reset();
+	}
+
+	@Override
+	protected void advance(final Calendar calendar) {
+		long time = calendar.getTimeInMillis();
+
+		calendar.set(Calendar.HOUR_OF_DAY, 0);
+		calendar.set(Calendar.MINUTE, 0);
+		calendar.set(Calendar.SECOND, 0);
+		calendar.set(Calendar.MILLISECOND, 0);
+
+		while (calendar.get(Calendar.DAY_OF_WEEK) != day || calendar.getTimeInMillis() <= time) {
+			calendar.add(Calendar.DATE, 1);
+		}
+	}
+
+	/**
+	 * Parses an English name of a day of the week.
+	 *
+	 * @param argument
+	 *            Name of the day (e.g. "monday")
+	 * @return Day as {@link Calendar#DAY_OF_WEEK} value
+	 * @throws IllegalArgumentException
+	 *             Passed argument is not a valid day of the week
+	 */
+	private static int parseDay(final String argument) {
+		String name = argument.trim().toLowerCase(Locale.ROOT);
+		for (int i = 0; i < DAYS.length; ++i) {
+			if (DAYS[i].equals(name)) {
+				return Calendar.SUNDAY + i;
+			}
+		}
+
+		throw new IllegalArgumentException("Invalid day of week for weekly policy: " + argument);
+	}
+
+}
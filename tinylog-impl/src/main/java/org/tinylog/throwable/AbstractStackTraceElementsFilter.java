@@ -13,39 +13,41 @@
 
 package org.tinylog.throwable;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Abstract throwable filter for filtering stack trace elements by configurable packages and classes.
+ *
+ * <p>
+ * The configured packages and classes are compiled into a prefix trie, and the verdict for each class name is cached.
+ * Filtered throwables are lazy views over the original stack traces. Subclasses that override
+ * {@link #match(String, String)} are matched via their own implementation instead of the prefix trie.
+ * </p>
  */
 public abstract class AbstractStackTraceElementsFilter extends AbstractThrowableFilter {
 
+	private static final int MAX_CACHED_VERDICTS = 4096;
+
+	private final PackageTrie trie;
+	private final boolean customMatching;
+	private final ConcurrentMap<String, Boolean> verdicts;
+
 	/**
 	 * @param arguments
 	 *            Configured packages and classes, separated by a vertical bar "|"
 	 */
 	public AbstractStackTraceElementsFilter(final String arguments) {
 		super(arguments);
+		trie = new PackageTrie(getArguments());
+		customMatching = overridesMatch(getClass());
+		verdicts = new ConcurrentHashMap<String, Boolean>();
 	}
 
 	@Override
 	public ThrowableData filter(final ThrowableData origin) {
-		List<StackTraceElement> currentTrace = origin.getStackTrace();
-		List<StackTraceElement> newTrace = new ArrayList<StackTraceElement>(currentTrace.size());
-
-		for (StackTraceElement element : currentTrace) {
-			if (shouldKept(element.getClassName(), getArguments())) {
-				newTrace.add(element);
-			}
-		}
-
-		ThrowableData cause = origin.getCause();
-		if (cause != null) {
-			cause = filter(cause);
-		}
-
-		return new ThrowableStore(origin.getClassName(), origin.getMessage(), newTrace, cause);
+		return new FilteredThrowableData(origin, this);
 	}
 
 	/**
@@ -59,6 +61,40 @@ public abstract class AbstractStackTraceElementsFilter extends AbstractThrowable
 	 */
 	protected abstract boolean shouldKept(String className, List<String> filters);
 
+	/**
+	 * Tests if the stack trace element of a passed class name should be kept. By default, this method delegates to
+	 * {@link #shouldKept(String, List)} with all configured packages and classes. Subclasses can override this method
+	 * for using {@link #matchAny(String)} instead.
+	 *
+	 * @param className
+	 *            Fully-qualified class name to match
+	 * @return {@code true} if the stack trace element of the passed class name should be kept, {@code false} if not
+	 */
+	protected boolean shouldKept(final String className) {
+		return shouldKept(className, getArguments());
+	}
+
+	/**
+	 * Tests if at least one of the configured packages and classes matches a given fully-qualified class name. The
+	 * prefix trie is used, unless {@link #match(String, String)} is overridden.
+	 *
+	 * @param className
+	 *            Fully-qualified class name to match
+	 * @return {@code true} if any configured package or class matches the given class name, {@code false} if not
+	 */
+	protected final boolean matchAny(final String className) {
+		if (customMatching) {
+			for (String filter : getArguments()) {
+				if (match(className, filter)) {
+					return true;
+				}
+			}
+			return false;
+		} else {
+			return trie.matches(className);
+		}
+	}
+
 	/**
 	 * Tests if a passed filter matches a given fully-qualified class name.
 	 * 
@@ -72,4 +108,44 @@ public abstract class AbstractStackTraceElementsFilter extends AbstractThrowable
 		return className.startsWith(filter) && (filter.length() == className.length() || className.charAt(filter.length()) == '.');
 	}
 
+	/**
+	 * Tests if the stack trace element of a passed class name should be kept. Verdicts are cached per class name. If the
+	 * cache is full, it will be cleared to keep memory bounded.
+	 *
+	 * @param className
+	 *            Fully-qualified class name to match
+	 * @return {@code true} if the stack trace element of the passed class name should be kept, {@code false} if not
+	 */
+	final boolean isKept(final String className) {
+		Boolean verdict = verdicts.get(className);
+		if (verdict == null) {
+			verdict = shouldKept(className);
+			if (verdicts.size() >= MAX_CACHED_VERDICTS) {
+				verdicts.clear();
+			}
+			verdicts.put(className, verdict);
+		}
+		return verdict;
+	}
+
+	/**
+	 * Checks if a filter class or one of its super classes overrides {@link #match(String, String)}.
+	 *
+	 * @param type
+	 *            Filter class to check
+	 * @return {@code true} if {@link #match(String, String)} is overridden, {@code false} if not
+	 */
+	private static boolean overridesMatch(final Class<?> type) {
+		for (Class<?> current = type; current != AbstractStackTraceElementsFilter.class; current = current.getSuperclass()) {
+			try {
+				current.getDeclaredMethod("match", String.class, String.class);
+				return true;
+			} catch (NoSuchMethodException ex) {
+				// Continue with super class
+			}
+		}
+
+		return false;
+	}
+
 }
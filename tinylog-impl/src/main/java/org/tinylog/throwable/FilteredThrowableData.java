@@ -0,0 +1,135 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.throwable;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Lazily filtered view of a throwable. Stack trace elements are filtered on first access only, and the filtered stack
+ * trace is a view over the original stack trace rather than a copy.
+ */
+final class FilteredThrowableData implements ThrowableData {
+
+	private final ThrowableData origin;
+	private final AbstractStackTraceElementsFilter filter;
+
+	private volatile List<StackTraceElement> stackTrace;
+	private volatile ThrowableData cause;
+
+	/**
+	 * @param origin
+	 *            Original throwable to filter
+	 * @param filter
+	 *            Filter for stack trace elements
+	 */
+	FilteredThrowableData(final ThrowableData origin, final AbstractStackTraceElementsFilter filter) {
+		this.origin = origin;
+		this.filter = filter;
+	}
+
+	@Override
+	public String getClassName() {
+		return origin.getClassName();
+	}
+
+	@Override
+	public String getMessage() {
+		return origin.getMessage();
+	}
+
+	@Override
+	public List<StackTraceElement> getStackTrace() {
+		List<StackTraceElement> trace = stackTrace;
+		if (trace == null) {
+			trace = filter(origin.getStackTrace());
+			stackTrace = trace;
+		}
+		return trace;
+	}
+
+	@Override
+	public ThrowableData getCause() {
+		ThrowableData data = cause;
+		if (data == null) {
+			ThrowableData originCause = origin.getCause();
+			if (originCause != null) {
+				data = new FilteredThrowableData(originCause, filter);
+				cause = data;
+			}
+		}
+		return data;
+	}
+
+	/**
+	 * Filters a stack trace. The original stack trace will be returned as it is, if all elements are kept.
+	 *
+	 * @param source
+	 *            Original stack trace
+	 * @return View of all stack trace elements that should be kept
+	 */
+	private List<StackTraceElement> filter(final List<StackTraceElement> source) {
+		int size = source.size();
+		int[] indexes = new int[size];
+		int count = 0;
+
+		for (int i = 0; i < size; ++i) {
+			if (filter.isKept(source.get(i).getClassName())) {
+				indexes[count++] = i;
+			}
+		}
+
+		return count == size ? source : new StackTraceView(source, indexes, count);
+	}
+
+	/**
+	 * Read-only view of selected elements of a stack trace.
+	 */
+	private static final class StackTraceView extends AbstractList<StackTraceElement> implements RandomAccess {
+
+		private final List<StackTraceElement> source;
+		private final int[] indexes;
+		private final int size;
+
+		/**
+		 * @param source
+		 *            Original stack trace
+		 * @param indexes
+		 *            Indexes of all selected elements in the original stack trace
+		 * @param size
+		 *            Number of selected elements
+		 */
+		private StackTraceView(final List<StackTraceElement> source, final int[] indexes, final int size) {
+			this.source = source;
+			this.indexes = indexes;
+			this.size = size;
+		}
+
+		@Override
+		public StackTraceElement get(final int index) {
+			if (index < 0 || index >= size) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+			}
+			return source.get(indexes[index]);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+	}
+
+}
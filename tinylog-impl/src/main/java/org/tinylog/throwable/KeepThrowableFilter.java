@@ -40,8 +40,13 @@ public final class KeepThrowableFilter extends AbstractStackTraceElementsFilter
 				return true;
 			}
 		}
-		
+
 		return false;
 	}
 
+	@Override
+	protected boolean shouldKept(final String className) {
+		return matchAny(className);
+	}
+
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.throwable;
+
+import java.util.Collection;
+
+/**
+ * Prefix trie of packages and classes for matching fully-qualified class names.
+ *
+ * <p>
+ * A configured package or class matches a class name, if the class name is equal to it or starts with it followed by
+ * a dot. All configured packages and classes are compiled into a character trie. Therefore, a class name can be
+ * matched against all of them by walking through its characters once.
+ * </p>
+ */
+final class PackageTrie {
+
+	private final Node root;
+
+	/**
+	 * @param prefixes
+	 *            Packages and classes to match
+	 */
+	PackageTrie(final Collection<String> prefixes) {
+		root = new Node();
+		for (String prefix : prefixes) {
+			Node node = root;
+			for (int i = 0; i < prefix.length(); ++i) {
+				node = node.getOrCreate(prefix.charAt(i));
+			}
+			node.terminal = true;
+		}
+	}
+
+	/**
+	 * Tests if at least one of the configured packages or classes matches a given class name.
+	 *
+	 * @param className
+	 *            Fully-qualified class name to match
+	 * @return {@code true} if the class name matches, {@code false} if not
+	 */
+	boolean matches(final String className) {
+		Node node = root;
+		for (int i = 0; i < className.length(); ++i) {
+			char character = className.charAt(i);
+			if (character == '.' && node.terminal && node != root) {
+				return true;
+			}
+
+			node = node.get(character);
+			if (node == null) {
+				return false;
+			}
+		}
+		return node.terminal && node != root;
+	}
+
+	/**
+	 * Single node of a prefix trie. Child nodes are stored in arrays, since there are mostly only a few children per
+	 * node.
+	 */
+	private static final class Node {
+
+		private char[] characters;
+		private Node[] children;
+		private boolean terminal;
+
+		/** */
+		private Node() {
+			characters = new char[0];
+			children = new Node[0];
+		}
+
+		/**
+		 * Gets the child node for a character.
+		 *
+		 * @param character
+		 *            Next character
+		 * @return Found child node or {@code null} if there is none
+		 */
+		private Node get(final char character) {
+			for (int i = 0; i < characters.length; ++i) {
+				if (characters[i] == character) {
+					return children[i];
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Gets the child node for a character and creates it, if there is none yet.
+		 *
+		 * @param character
+		 *            Next character
+		 * @return Existing or created child node
+		 */
+		private Node getOrCreate(final char character) {
+			Node node = get(character);
+			if (node == null) {
+				node = new Node();
+
+				char[] newCharacters = new char[characters.length + 1];
+				System.arraycopy(characters, 0, newCharacters, 0, characters.length);
+				newCharacters[characters.length] = character;
+
+				Node[] newChildren = new Node[children.length + 1];
+				System.arraycopy(children, 0, newChildren, 0, children.length);
+				newChildren[children.length] = node;
+
+				characters = newCharacters;
+				children = newChildren;
+			}
+			return node;
+		}
+
+	}
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.throwable;
+
+import java.util.List;
+
+/**
+ * Throwable that reproduces recorded throwable data, for example an exception that has been decoded from a binary log
+ * file. In contrast to a normal throwable, the class name of the original throwable is preserved.
+ */
+public final class RecordedThrowable extends Throwable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String className;
+
+	/**
+	 * @param data
+	 *            Recorded throwable data including stack trace and cause
+	 */
+	public RecordedThrowable(final ThrowableData data) {
+		super(data.getMessage());
+		className = data.getClassName();
+
+		List<StackTraceElement> stackTrace = data.getStackTrace();
+		setStackTrace(stackTrace.toArray(new StackTraceElement[stackTrace.size()]));
+
+		ThrowableData cause = data.getCause();
+		if (cause != null) {
+			initCause(new RecordedThrowable(cause));
+		}
+	}
+
+	/**
+	 * Gets the class name of the original throwable.
+	 *
+	 * @return Fully-qualified class name
+	 */
+	public String getClassName() {
+		return className;
+	}
+
+	@Override
+	public synchronized Throwable fillInStackTrace() {
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		String message = getLocalizedMessage();
+		return message == null ? className : className + ": " + message;
+	}
+
+}
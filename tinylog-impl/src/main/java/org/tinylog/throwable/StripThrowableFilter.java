@@ -40,8 +40,13 @@ public final class StripThrowableFilter extends AbstractStackTraceElementsFilter
 				return false;
 			}
 		}
-		
+
 		return true;
 	}
 
+	@Override
+	protected boolean shouldKept(final String className) {
+		return !matchAny(className);
+	}
+
 }
@@ -33,7 +33,11 @@ public final class ThrowableWrapper implements ThrowableData {
 
 	@Override
 	public String getClassName() {
-		return throwable.getClass().getName();
+		if (throwable instanceof RecordedThrowable) {
+			return ((RecordedThrowable) throwable).getClassName();
+		} else {
+			return throwable.getClass().getName();
+		}
 	}
 
 	@Override
@@ -16,8 +16,12 @@ package org.tinylog.writers;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.util.Collection;
+import java.util.Locale;
 import java.util.Map;
 
 import org.tinylog.Level;
@@ -28,8 +32,13 @@ import org.tinylog.pattern.Token;
 import org.tinylog.provider.InternalLogger;
 import org.tinylog.writers.raw.BufferedWriterDecorator;
 import org.tinylog.writers.raw.ByteArrayWriter;
+import org.tinylog.writers.raw.DurableWriterDecorator;
+import org.tinylog.writers.raw.FileChannelWriter;
 import org.tinylog.writers.raw.LockedFileOutputStreamWriter;
+import org.tinylog.writers.raw.MemoryMappedWriter;
+import org.tinylog.writers.raw.MultiBufferedWriterDecorator;
 import org.tinylog.writers.raw.OutputStreamWriter;
+import org.tinylog.writers.raw.PreallocatedFileWriter;
 import org.tinylog.writers.raw.SynchronizedWriterDecorator;
 
 /**
@@ -40,6 +49,7 @@ public abstract class AbstractFormatPatternWriter implements Writer {
 	private static final String DEFAULT_FORMAT_PATTERN = "{date} [{thread}] {class}.{method}()\n{level}: {message}";
 	private static final String NEW_LINE = System.getProperty("line.separator");
 	private static final int BUILDER_CAPACITY = 1024;
+	private static final long MILLISECONDS_PER_SECOND = 1000;
 
 	private final StringBuilder builder;
 	private final Token token;
@@ -105,6 +115,112 @@ public abstract class AbstractFormatPatternWriter implements Writer {
 		}
 	}
 
+	/**
+	 * Extracts the maximum delay for flushing buffered data from the property {@code flush.interval}. The interval can
+	 * be defined in milliseconds (e.g. "500" or "500ms") or seconds (e.g. "2s").
+	 *
+	 * @param properties
+	 *            Configuration for writer
+	 * @return Flush interval in milliseconds or {@code 0} if no valid flush interval is defined
+	 */
+	protected static long getFlushInterval(final Map<String, String> properties) {
+		String property = properties.get("flush.interval");
+		return property == null ? 0 : parseInterval(property, "flush interval");
+	}
+
+	/**
+	 * Parses an interval in milliseconds (e.g. "500" or "500ms") or seconds (e.g. "2s").
+	 *
+	 * @param property
+	 *            Configured interval
+	 * @param name
+	 *            Human-readable name of the property for error messages
+	 * @return Interval in milliseconds or {@code 0} if the passed interval is invalid
+	 */
+	protected static long parseInterval(final String property, final String name) {
+		String interval = property.trim().toLowerCase(Locale.ROOT);
+		long factor = 1;
+
+		if (interval.endsWith("ms")) {
+			interval = interval.substring(0, interval.length() - "ms".length()).trim();
+		} else if (interval.endsWith("s")) {
+			interval = interval.substring(0, interval.length() - "s".length()).trim();
+			factor = MILLISECONDS_PER_SECOND;
+		}
+
+		try {
+			long milliseconds = Long.parseLong(interval) * factor;
+			if (milliseconds > 0) {
+				return milliseconds;
+			}
+		} catch (NumberFormatException ex) {
+			// Handled below
+		}
+
+		InternalLogger.log(Level.ERROR, "Invalid " + name + ": " + property);
+		return 0;
+	}
+
+	/**
+	 * Parses a positive integer.
+	 *
+	 * @param value
+	 *            Configured number or {@code null}
+	 * @param name
+	 *            Human-readable name of the property for error messages
+	 * @param defaultValue
+	 *            Default value for undefined or invalid numbers
+	 * @return Parsed number or default value
+	 */
+	protected static int parsePositiveNumber(final String value, final String name, final int defaultValue) {
+		if (value != null) {
+			try {
+				int number = Integer.parseInt(value.trim());
+				if (number > 0) {
+					return number;
+				}
+			} catch (NumberFormatException ex) {
+				// Report below
+			}
+
+			InternalLogger.log(Level.ERROR, "Invalid " + name + ": " + value);
+		}
+
+		return defaultValue;
+	}
+
+	/**
+	 * Creates a task for flushing a writer periodically. Buffered data is flushed at least as often as defined by the
+	 * property {@code flush.interval}, and files with {@link Durability#INTERVAL interval durability} are forced at
+	 * least as often as defined by their durability interval. Writers with a writing thread are flushed by the writing
+	 * thread itself and get no flush task.
+	 *
+	 * @param writer
+	 *            Writer to flush
+	 * @param properties
+	 *            Configuration for writer
+	 * @param buffered
+	 *            Output is buffered
+	 * @param writingThread
+	 *            Writer is used by a writing thread
+	 * @param options
+	 *            I/O mode and durability configuration
+	 * @return Created flush task or {@code null} if no periodic flushing is required
+	 */
+	static FlushTask createFlushTask(final Writer writer, final Map<String, String> properties, final boolean buffered,
+		final boolean writingThread, final OutputOptions options) {
+		if (writingThread) {
+			return null;
+		}
+
+		long interval = buffered ? getFlushInterval(properties) : 0;
+		if (options.durability == Durability.INTERVAL) {
+			interval = interval > 0 ? Math.min(interval, options.durabilityInterval) : options.durabilityInterval;
+		}
+
+		return interval > 0 ? new FlushTask(writer, interval) : null;
+	}
+
 	/**
 	 * Creates a {@link ByteArrayWriter} for a file.
 	 *
@@ -124,23 +240,183 @@ public abstract class AbstractFormatPatternWriter implements Writer {
 	 */
 	protected static ByteArrayWriter createByteArrayWriter(final String fileName, final boolean append, final boolean buffered,
 		final boolean threadSafe, final boolean shared) throws FileNotFoundException {
+		return createByteArrayWriter(fileName, append, buffered, threadSafe, shared, OutputOptions.DEFAULT);
+	}
+
+	/**
+	 * Creates a {@link ByteArrayWriter} for a file that is written as defined by the passed output options.
+	 * Memory-mapped writers are never buffered, as they copy all data into memory anyway. Files that are shared with
+	 * other processes are always written via output streams in append mode. Buffers pass only whole log entries to the
+	 * underlying writer, so shared files are locked once per written batch, or not at all if locking is disabled. In
+	 * the latter case, the operating system has to append each batch atomically, as POSIX does for files opened in
+	 * append mode. Preallocated files are written via positional writes to their file channel.
+	 *
+	 * <p>
+	 * With {@link Durability#BATCH batch durability}, thread-safe writers force written data before returning from
+	 * writing. Other writers force data on flush, or by an explicit {@link DurableWriterDecorator#commit(long) commit}.
+	 * Durable writers are always thread-safe.
+	 * </p>
+	 *
+	 * @param fileName
+	 *            Name of file to open for writing
+	 * @param append
+	 *            An already existing file should be continued
+	 * @param buffered
+	 *            Output should be buffered
+	 * @param threadSafe
+	 *            Created writer must be thread-safe
+	 * @param shared
+	 *            Output file is shared with other processes
+	 * @param options
+	 *            I/O mode and buffer configuration
+	 * @return Writer for writing to passed file
+	 * @throws FileNotFoundException
+	 *             File does not exist or cannot be opened for any other reason
+	 */
+	protected static ByteArrayWriter createByteArrayWriter(final String fileName, final boolean append, final boolean buffered,
+		final boolean threadSafe, final boolean shared, final OutputOptions options) throws FileNotFoundException {
 		File file = new File(fileName).getAbsoluteFile();
 		file.getParentFile().mkdirs();
 
-		FileOutputStream stream = new FileOutputStream(file, append);
-		ByteArrayWriter writer = shared ? new LockedFileOutputStreamWriter(stream) : new OutputStreamWriter(stream);
+		boolean multiBuffered = buffered && options.buffers > 1 && options.io != IoMode.MMAP;
+		boolean preallocated = options.preallocation > 0 && !shared && options.io != IoMode.MMAP;
+		Durability durability = options.durability;
+		Object mutex;
+		FileChannel channel;
+		ByteArrayWriter writer;
+
+		if (durability != Durability.NONE && !shared && options.io == IoMode.MMAP) {
+			InternalLogger.log(Level.WARN, "Durability is not supported for memory-mapped files");
+			durability = Durability.NONE;
+		}
+
+		if (preallocated) {
+			RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+			writer = createPreallocatedWriter(randomAccessFile, append, options.preallocation);
+			if (buffered && !multiBuffered) {
+				writer = new BufferedWriterDecorator(writer, options.bufferSize);
+			}
+			channel = randomAccessFile.getChannel();
+			mutex = randomAccessFile;
+		} else if (shared) {
+			if (!append) {
+				truncate(file);
+			}
+			FileOutputStream stream = new FileOutputStream(file, true);
+			writer = options.locking ? new LockedFileOutputStreamWriter(stream, true) : new OutputStreamWriter(stream);
+			if (buffered && !multiBuffered) {
+				writer = new BufferedWriterDecorator(writer, options.bufferSize);
+			}
+			channel = stream.getChannel();
+			mutex = stream;
+		} else if (options.io == IoMode.STREAM) {
+			FileOutputStream stream = new FileOutputStream(file, append);
+			writer = new OutputStreamWriter(stream);
+			if (buffered && !multiBuffered) {
+				writer = new BufferedWriterDecorator(writer, options.bufferSize);
+			}
+			channel = stream.getChannel();
+			mutex = stream;
+		} else if (options.io == IoMode.CHANNEL) {
+			FileOutputStream stream = new FileOutputStream(file, append);
+			writer = new FileChannelWriter(stream, options.bufferSize, buffered && !multiBuffered);
+			channel = stream.getChannel();
+			mutex = stream;
+		} else {
+			RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+			writer = createMemoryMappedWriter(randomAccessFile, append);
+			channel = null;
+			mutex = randomAccessFile;
+		}
 
-		if (buffered) {
-			writer = new BufferedWriterDecorator(writer);
+		if (multiBuffered) {
+			writer = new MultiBufferedWriterDecorator(writer, options.bufferSize, options.buffers);
 		}
 
-		if (threadSafe) {
-			writer = new SynchronizedWriterDecorator(writer, stream);
+		if (durability != Durability.NONE) {
+			writer = new DurableWriterDecorator(writer, channel, mutex, durability == Durability.BATCH && threadSafe);
+		} else if (threadSafe && !multiBuffered) {
+			writer = new SynchronizedWriterDecorator(writer, mutex);
 		}
 
 		return writer;
 	}
 
+	/**
+	 * Truncates a file to zero length or creates it if it does not exist yet.
+	 *
+	 * @param file
+	 *            File to truncate
+	 * @throws FileNotFoundException
+	 *             File cannot be opened for writing
+	 */
+	private static void truncate(final File file) throws FileNotFoundException {
+		FileOutputStream stream = new FileOutputStream(file, false);
+		try {
+			stream.close();
+		} catch (IOException ex) {
+			InternalLogger.log(Level.WARN, ex, "Failed to close truncated file '" + file.getAbsolutePath() + "'");
+		}
+	}
+
+	/**
+	 * Creates a {@link PreallocatedFileWriter} for an already opened file.
+	 *
+	 * @param file
+	 *            File opened in read-write mode
+	 * @param append
+	 *            An already existing file should be continued
+	 * @param chunkSize
+	 *            Number of bytes to preallocate at once
+	 * @return Writer for writing to passed file
+	 * @throws FileNotFoundException
+	 *             File cannot be accessed
+	 */
+	private static ByteArrayWriter createPreallocatedWriter(final RandomAccessFile file, final boolean append, final int chunkSize)
+		throws FileNotFoundException {
+		try {
+			return new PreallocatedFileWriter(file, append, chunkSize);
+		} catch (IOException ex) {
+			try {
+				file.close();
+			} catch (IOException ignored) {
+				// Ignore, as preallocation has already failed
+			}
+
+			FileNotFoundException exception = new FileNotFoundException("Failed to preallocate file");
+			exception.initCause(ex);
+			throw exception;
+		}
+	}
+
+	/**
+	 * Creates a {@link MemoryMappedWriter} for an already opened file.
+	 *
+	 * @param file
+	 *            File opened in read-write mode
+	 * @param append
+	 *            An already existing file should be continued
+	 * @return Writer for writing to passed file
+	 * @throws FileNotFoundException
+	 *             File cannot be mapped into memory
+	 */
+	private static ByteArrayWriter createMemoryMappedWriter(final RandomAccessFile file, final boolean append)
+		throws FileNotFoundException {
+		try {
+			return new MemoryMappedWriter(file, append);
+		} catch (IOException ex) {
+			try {
+				file.close();
+			} catch (IOException ignored) {
+				// Ignore, as mapping has already failed
+			}
+
+			FileNotFoundException exception = new FileNotFoundException("Failed to map file into memory");
+			exception.initCause(ex);
+			throw exception;
+		}
+	}
+
 	/**
 	 * Renders a log entry as string.
 	 *
@@ -160,4 +436,165 @@ public abstract class AbstractFormatPatternWriter implements Writer {
 		}
 	}
 
+	/**
+	 * Supported I/O modes for writing files.
+	 */
+	protected enum IoMode {
+
+		/**
+		 * Writing via {@link FileOutputStream}, optionally buffered by a byte array.
+		 */
+		STREAM,
+
+		/**
+		 * Writing via {@link java.nio.channels.FileChannel FileChannel} and a direct byte buffer.
+		 */
+		CHANNEL,
+
+		/**
+		 * Writing into a memory-mapped window of the file.
+		 */
+		MMAP
+
+	}
+
+	/**
+	 * Supported durability modes for forcing written data to the storage device.
+	 */
+	protected enum Durability {
+
+		/**
+		 * Data is never forced explicitly, but left to the operating system.
+		 */
+		NONE,
+
+		/**
+		 * Data is forced via group commit before writing returns. One force covers all log entries that have been
+		 * written in the meantime.
+		 */
+		BATCH,
+
+		/**
+		 * Data is forced periodically in a fixed interval.
+		 */
+		INTERVAL
+
+	}
+
+	/**
+	 * Configuration of how files are written. The I/O mode is read from the property {@code io} ("stream", "channel",
+	 * or "mmap"), the buffer size in bytes from {@code buffersize}, the number of buffers from {@code buffers}, the
+	 * preallocation chunk size in bytes from {@code preallocate}, the durability mode from {@code durability}
+	 * ("none", "batch", or "interval:500ms"), and whether shared files are locked from {@code locking}. Invalid values
+	 * are reported and replaced by the defaults.
+	 */
+	protected static final class OutputOptions {
+
+		/**
+		 * Default options for writing via output streams with one buffer of the default capacity.
+		 */
+		protected static final OutputOptions DEFAULT = new OutputOptions(
+			IoMode.STREAM, BufferedWriterDecorator.DEFAULT_CAPACITY, 1, 0, Durability.NONE, 0, true
+		);
+
+		private static final String INTERVAL_PREFIX = "interval:";
+
+		private final IoMode io;
+		private final int bufferSize;
+		private final int buffers;
+		private final int preallocation;
+		private final Durability durability;
+		private final long durabilityInterval;
+		private final boolean locking;
+
+		/**
+		 * @param properties
+		 *            Configuration for writer
+		 */
+		protected OutputOptions(final Map<String, String> properties) {
+			io = parseIoMode(properties.get("io"));
+			bufferSize = parsePositiveNumber(properties.get("buffersize"), "buffer size", BufferedWriterDecorator.DEFAULT_CAPACITY);
+			buffers = parsePositiveNumber(properties.get("buffers"), "number of buffers", 1);
+			preallocation = parsePositiveNumber(properties.get("preallocate"), "preallocation size", 0);
+
+			String value = properties.get("durability");
+			String normalized = value == null ? "none" : value.trim().toLowerCase(Locale.ROOT);
+
+			if (normalized.startsWith(INTERVAL_PREFIX)) {
+				durabilityInterval = parseInterval(normalized.substring(INTERVAL_PREFIX.length()), "durability interval");
+				durability = durabilityInterval > 0 ? Durability.INTERVAL : Durability.NONE;
+			} else if ("batch".equals(normalized)) {
+				durabilityInterval = 0;
+				durability = Durability.BATCH;
+			} else {
+				if (!"none".equals(normalized)) {
+					InternalLogger.log(Level.ERROR, "Invalid durability: " + value);
+				}
+
+				durabilityInterval = 0;
+				durability = Durability.NONE;
+			}
+
+			locking = !"false".equalsIgnoreCase(properties.get("locking"));
+		}
+
+		/**
+		 * @param io
+		 *            I/O mode
+		 * @param bufferSize
+		 *            Buffer size in bytes
+		 * @param buffers
+		 *            Number of buffers, where more than one buffer enables writing in background
+		 * @param preallocation
+		 *            Number of bytes to preallocate at once or {@code 0} for no preallocation
+		 * @param durability
+		 *            Durability mode
+		 * @param durabilityInterval
+		 *            Interval in milliseconds for {@link Durability#INTERVAL}
+		 * @param locking
+		 *            Shared files are locked while writing
+		 */
+		private OutputOptions(final IoMode io, final int bufferSize, final int buffers, final int preallocation,
+			final Durability durability, final long durabilityInterval, final boolean locking) {
+			this.io = io;
+			this.bufferSize = bufferSize;
+			this.buffers = buffers;
+			this.preallocation = preallocation;
+			this.durability = durability;
+			this.durabilityInterval = durabilityInterval;
+			this.locking = locking;
+		}
+
+		/**
+		 * Gets the configured durability mode.
+		 *
+		 * @return Durability mode
+		 */
+		protected Durability getDurability() {
+			return durability;
+		}
+
+		/**
+		 * Parses the I/O mode.
+		 *
+		 * @param value
+		 *            Configured I/O mode or {@code null}
+		 * @return Parsed I/O mode or {@link IoMode#STREAM} if not defined or invalid
+		 */
+		private static IoMode parseIoMode(final String value) {
+			if (value != null) {
+				for (IoMode mode : IoMode.values()) {
+					if (mode.name().equalsIgnoreCase(value.trim())) {
+						return mode;
+					}
+				}
+
+				InternalLogger.log(Level.ERROR, "Invalid I/O mode: " + value);
+			}
+
+			return IoMode.STREAM;
+		}
+
+	}
+
 }
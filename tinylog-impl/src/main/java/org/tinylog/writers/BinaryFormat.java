@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.nio.charset.Charset;
+
+/**
+ * Constants of the binary log format written by {@link BinaryWriter} and read by {@link BinaryLogDecoder}.
+ *
+ * <p>
+ * A binary log file is a sequence of records. Each record starts with its payload length as unsigned varint, followed
+ * by the payload. The first byte of the payload is the record type. A binary log file starts with a header record.
+ * Header records can also occur later in the file, when a writer has continued an existing file. Each header record
+ * resets the symbol table and the base for timestamp deltas.
+ * </p>
+ *
+ * <p>
+ * Strings are encoded as unsigned varint reference: {@link #NULL_STRING} for {@code null}, {@link #INLINE_STRING}
+ * followed by the UTF-8 byte length and bytes, or the ID of a symbol that has been defined by a preceding symbol
+ * record.
+ * </p>
+ */
+final class BinaryFormat {
+
+	/**
+	 * Record type of header records. The payload is followed by the magic bytes and the format version.
+	 */
+	static final int HEADER_RECORD = 0;
+
+	/**
+	 * Record type of symbol definitions. The payload is followed by the symbol ID and the UTF-8 encoded string.
+	 */
+	static final int SYMBOL_RECORD = 1;
+
+	/**
+	 * Record type of log entries.
+	 */
+	static final int ENTRY_RECORD = 2;
+
+	/**
+	 * Magic bytes of binary log files.
+	 */
+	static final byte[] MAGIC = {'T', 'L', 'B'};
+
+	/**
+	 * Current format version.
+	 */
+	static final int VERSION = 1;
+
+	/**
+	 * String reference for {@code null}.
+	 */
+	static final int NULL_STRING = 0;
+
+	/**
+	 * String reference for an inline string that follows.
+	 */
+	static final int INLINE_STRING = 1;
+
+	/**
+	 * ID of the first symbol.
+	 */
+	static final int FIRST_SYMBOL = 2;
+
+	/**
+	 * Level code for log entries without severity level.
+	 */
+	static final int NO_LEVEL = 0xFF;
+
+	/** Flag for thread name and ID. */
+	static final int THREAD_FLAG = 0x01;
+	/** Flag for class name. */
+	static final int CLASS_FLAG = 0x02;
+	/** Flag for method name. */
+	static final int METHOD_FLAG = 0x04;
+	/** Flag for file name. */
+	static final int FILE_FLAG = 0x08;
+	/** Flag for line number. */
+	static final int LINE_FLAG = 0x10;
+	/** Flag for tag. */
+	static final int TAG_FLAG = 0x20;
+	/** Flag for thread context. */
+	static final int CONTEXT_FLAG = 0x40;
+	/** Flag for text message. */
+	static final int MESSAGE_FLAG = 0x80;
+	/** Flag for exception. */
+	static final int EXCEPTION_FLAG = 0x100;
+
+	/**
+	 * Charset for all strings.
+	 */
+	static final Charset CHARSET = Charset.forName("UTF-8");
+
+	/** */
+	private BinaryFormat() {
+	}
+
+}
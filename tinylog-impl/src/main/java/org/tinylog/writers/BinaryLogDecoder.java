@@ -0,0 +1,428 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.tinylog.Level;
+import org.tinylog.core.EpochTimestamp;
+import org.tinylog.core.LogEntry;
+import org.tinylog.pattern.FormatPatternParser;
+import org.tinylog.pattern.Token;
+import org.tinylog.throwable.RecordedThrowable;
+import org.tinylog.throwable.ThrowableData;
+import org.tinylog.throwable.ThrowableStore;
+
+/**
+ * Decoder for binary log files written by {@link BinaryWriter}. Decoded log entries can be rendered with any format
+ * pattern.
+ *
+ * <p>
+ * This class can be also used as command line tool: {@code java org.tinylog.writers.BinaryLogDecoder <file> [<format
+ * pattern>]}. All log entries of the passed binary log file will be output as text to the standard output stream.
+ * </p>
+ */
+public final class BinaryLogDecoder implements Closeable {
+
+	private static final String DEFAULT_FORMAT_PATTERN = "{date} [{thread}] {class}.{method}()\n{level}: {message}";
+	private static final String NEW_LINE = System.getProperty("line.separator");
+
+	private static final int SEVEN_BITS = 7;
+	private static final int LOW_SEVEN_BITS = 0x7F;
+	private static final int CONTINUATION_BIT = 0x80;
+	private static final int MAX_VARINT_SHIFT = 63;
+	private static final int BYTE_MASK = 0xFF;
+
+	private final InputStream stream;
+	private final List<String> symbols;
+	private final Map<String, Thread> threads;
+
+	private byte[] record;
+	private int position;
+	private int limit;
+
+	private boolean started;
+	private long lastTimestamp;
+
+	/**
+	 * @param stream
+	 *            Input stream of a binary log file
+	 */
+	public BinaryLogDecoder(final InputStream stream) {
+		this.stream = stream;
+		this.symbols = new ArrayList<String>();
+		this.threads = new HashMap<String, Thread>();
+		this.record = new byte[0];
+	}
+
+	/**
+	 * Decodes a binary log file and outputs all log entries as text.
+	 *
+	 * @param arguments
+	 *            Path to binary log file and optional format pattern
+	 * @throws IOException
+	 *             Failed to read or decode binary log file
+	 */
+	public static void main(final String[] arguments) throws IOException {
+		if (arguments.length < 1 || arguments.length > 2) {
+			System.err.println("Usage: java " + BinaryLogDecoder.class.getName() + " <file> [<format pattern>]");
+		} else {
+			InputStream stream = new FileInputStream(arguments[0]);
+			try {
+				decode(stream, arguments.length > 1 ? arguments[1] : DEFAULT_FORMAT_PATTERN, System.out);
+			} finally {
+				stream.close();
+			}
+		}
+	}
+
+	/**
+	 * Decodes all log entries of a binary log file and renders them with a format pattern.
+	 *
+	 * @param stream
+	 *            Input stream of a binary log file
+	 * @param pattern
+	 *            Format pattern for rendering log entries
+	 * @param output
+	 *            Rendered log entries will be output to this stream
+	 * @throws IOException
+	 *             Failed to read or decode binary log file
+	 */
+	public static void decode(final InputStream stream, final String pattern, final PrintStream output) throws IOException {
+		Token token = new FormatPatternParser(null).parse(pattern + NEW_LINE);
+		BinaryLogDecoder decoder = new BinaryLogDecoder(new BufferedInputStream(stream));
+		StringBuilder builder = new StringBuilder();
+
+		for (LogEntry logEntry = decoder.read(); logEntry != null; logEntry = decoder.read()) {
+			builder.setLength(0);
+			token.render(logEntry, builder);
+			output.print(builder);
+		}
+
+		output.flush();
+	}
+
+	/**
+	 * Reads the next log entry.
+	 *
+	 * @return Decoded log entry or {@code null} if the end of the binary log file has been reached
+	 * @throws IOException
+	 *             Failed to read or decode binary log file
+	 */
+	public LogEntry read() throws IOException {
+		while (readRecord()) {
+			int type = readByte();
+			if (type == BinaryFormat.HEADER_RECORD) {
+				readHeader();
+			} else if (!started) {
+				throw new IOException("Binary log file does not start with a header");
+			} else if (type == BinaryFormat.SYMBOL_RECORD) {
+				int id = (int) readVarint();
+				String symbol = new String(record, position, limit - position, BinaryFormat.CHARSET);
+				while (symbols.size() <= id - BinaryFormat.FIRST_SYMBOL) {
+					symbols.add(null);
+				}
+				symbols.set(id - BinaryFormat.FIRST_SYMBOL, symbol);
+			} else if (type == BinaryFormat.ENTRY_RECORD) {
+				return readEntry();
+			}
+		}
+
+		return null;
+	}
+
+	@Override
+	public void close() throws IOException {
+		stream.close();
+	}
+
+	/**
+	 * Reads the next record into the record buffer.
+	 *
+	 * @return {@code true} if a record has been read, {@code false} if the end of the stream has been reached
+	 * @throws IOException
+	 *             Failed to read record
+	 */
+	private boolean readRecord() throws IOException {
+		long length = 0;
+		int shift = 0;
+
+		while (true) {
+			int value = stream.read();
+			if (value < 0) {
+				if (shift == 0) {
+					return false;
+				} else {
+					throw new EOFException("Unexpected end of binary log file");
+				}
+			}
+
+			length |= (long) (value & LOW_SEVEN_BITS) << shift;
+			if ((value & CONTINUATION_BIT) == 0) {
+				break;
+			}
+
+			shift += SEVEN_BITS;
+			if (shift > MAX_VARINT_SHIFT) {
+				throw new IOException("Invalid record length in binary log file");
+			}
+		}
+
+		if (length > Integer.MAX_VALUE) {
+			throw new IOException("Invalid record length in binary log file");
+		}
+
+		if (record.length < length) {
+			record = new byte[(int) length];
+		}
+
+		int offset = 0;
+		while (offset < length) {
+			int count = stream.read(record, offset, (int) length - offset);
+			if (count < 0) {
+				throw new EOFException("Unexpected end of binary log file");
+			}
+			offset += count;
+		}
+
+		position = 0;
+		limit = (int) length;
+		return true;
+	}
+
+	/**
+	 * Reads a header record and resets the symbol table and timestamp base.
+	 *
+	 * @throws IOException
+	 *             Invalid header
+	 */
+	private void readHeader() throws IOException {
+		for (byte magic : BinaryFormat.MAGIC) {
+			if (readByte() != magic) {
+				throw new IOException("Not a binary log file");
+			}
+		}
+
+		int version = readByte();
+		if (version != BinaryFormat.VERSION) {
+			throw new IOException("Unsupported binary log file version: " + version);
+		}
+
+		symbols.clear();
+		lastTimestamp = 0;
+		started = true;
+	}
+
+	/**
+	 * Reads a log entry record.
+	 *
+	 * @return Decoded log entry
+	 * @throws IOException
+	 *             Invalid log entry record
+	 */
+	private LogEntry readEntry() throws IOException {
+		long timestamp = lastTimestamp + readSignedVarint();
+		lastTimestamp = timestamp;
+
+		int levelCode = readByte();
+		Level level = levelCode == BinaryFormat.NO_LEVEL ? null : Level.values()[levelCode];
+		int flags = (int) readVarint();
+
+		Thread thread = null;
+		if ((flags & BinaryFormat.THREAD_FLAG) != 0) {
+			String name = readString();
+			long id = readVarint();
+			thread = getThread(name, id);
+		}
+
+		String className = (flags & BinaryFormat.CLASS_FLAG) != 0 ? readString() : null;
+		String methodName = (flags & BinaryFormat.METHOD_FLAG) != 0 ? readString() : null;
+		String fileName = (flags & BinaryFormat.FILE_FLAG) != 0 ? readString() : null;
+		int lineNumber = (flags & BinaryFormat.LINE_FLAG) != 0 ? (int) readSignedVarint() : -1;
+		String tag = (flags & BinaryFormat.TAG_FLAG) != 0 ? readString() : null;
+
+		Map<String, String> context;
+		if ((flags & BinaryFormat.CONTEXT_FLAG) != 0) {
+			int size = (int) readVarint();
+			context = new LinkedHashMap<String, String>();
+			for (int i = 0; i < size; ++i) {
+				String key = readString();
+				context.put(key, readString());
+			}
+		} else {
+			context = Collections.emptyMap();
+		}
+
+		String message = (flags & BinaryFormat.MESSAGE_FLAG) != 0 ? readString() : null;
+		Throwable exception = (flags & BinaryFormat.EXCEPTION_FLAG) != 0 ? new RecordedThrowable(readThrowable()) : null;
+
+		return new LogEntry(new EpochTimestamp(timestamp), thread, context, className, methodName, fileName, lineNumber, tag, level,
+			message, exception);
+	}
+
+	/**
+	 * Reads a throwable including stack trace and causes.
+	 *
+	 * @return Decoded throwable data
+	 * @throws IOException
+	 *             Invalid throwable
+	 */
+	private ThrowableData readThrowable() throws IOException {
+		String className = readString();
+		String message = readString();
+
+		int size = (int) readVarint();
+		List<StackTraceElement> stackTrace = new ArrayList<StackTraceElement>(size);
+		for (int i = 0; i < size; ++i) {
+			String declaringClass = readString();
+			String methodName = readString();
+			String fileName = readString();
+			int lineNumber = (int) readSignedVarint();
+			stackTrace.add(new StackTraceElement(declaringClass, methodName, fileName, lineNumber));
+		}
+
+		ThrowableData cause = readByte() == 0 ? null : readThrowable();
+		return new ThrowableStore(className, message, stackTrace, cause);
+	}
+
+	/**
+	 * Gets a thread placeholder for a recorded thread name and ID.
+	 *
+	 * @param name
+	 *            Thread name
+	 * @param id
+	 *            Thread ID
+	 * @return Unstarted thread with the passed name and ID
+	 */
+	private Thread getThread(final String name, final long id) {
+		String key = id + ":" + name;
+		Thread thread = threads.get(key);
+		if (thread == null) {
+			thread = new RecordedThread(name, id);
+			threads.put(key, thread);
+		}
+		return thread;
+	}
+
+	/**
+	 * Reads a single unsigned byte from the current record.
+	 *
+	 * @return Read byte
+	 * @throws IOException
+	 *             End of record reached
+	 */
+	private int readByte() throws IOException {
+		if (position >= limit) {
+			throw new IOException("Truncated record in binary log file");
+		}
+		return record[position++] & BYTE_MASK;
+	}
+
+	/**
+	 * Reads an unsigned varint from the current record.
+	 *
+	 * @return Read value
+	 * @throws IOException
+	 *             Invalid varint
+	 */
+	private long readVarint() throws IOException {
+		long value = 0;
+		for (int shift = 0; shift <= MAX_VARINT_SHIFT; shift += SEVEN_BITS) {
+			int current = readByte();
+			value |= (long) (current & LOW_SEVEN_BITS) << shift;
+			if ((current & CONTINUATION_BIT) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Invalid varint in binary log file");
+	}
+
+	/**
+	 * Reads a zigzag encoded signed varint from the current record.
+	 *
+	 * @return Read value
+	 * @throws IOException
+	 *             Invalid varint
+	 */
+	private long readSignedVarint() throws IOException {
+		long value = readVarint();
+		return value >>> 1 ^ -(value & 1);
+	}
+
+	/**
+	 * Reads a string reference from the current record.
+	 *
+	 * @return Referenced string or {@code null}
+	 * @throws IOException
+	 *             Invalid string reference
+	 */
+	private String readString() throws IOException {
+		long reference = readVarint();
+		if (reference == BinaryFormat.NULL_STRING) {
+			return null;
+		} else if (reference == BinaryFormat.INLINE_STRING) {
+			int length = (int) readVarint();
+			if (length < 0 || position + length > limit) {
+				throw new IOException("Truncated record in binary log file");
+			}
+			String value = new String(record, position, length, BinaryFormat.CHARSET);
+			position += length;
+			return value;
+		} else {
+			long index = reference - BinaryFormat.FIRST_SYMBOL;
+			if (index >= symbols.size() || symbols.get((int) index) == null) {
+				throw new IOException("Undefined symbol in binary log file: " + reference);
+			}
+			return symbols.get((int) index);
+		}
+	}
+
+	/**
+	 * Unstarted thread that represents a recorded thread.
+	 */
+	private static final class RecordedThread extends Thread {
+
+		private final long id;
+
+		/**
+		 * @param name
+		 *            Thread name
+		 * @param id
+		 *            Thread ID
+		 */
+		private RecordedThread(final String name, final long id) {
+			super(name);
+			this.id = id;
+		}
+
+		@Override
+		public long getId() {
+			return id;
+		}
+
+	}
+
+}
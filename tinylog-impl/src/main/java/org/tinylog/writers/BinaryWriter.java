@@ -0,0 +1,604 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.tinylog.configuration.ServiceLoader;
+import org.tinylog.core.LogEntry;
+import org.tinylog.core.LogEntryValue;
+import org.tinylog.path.DynamicPath;
+import org.tinylog.pattern.FormatPatternParser;
+import org.tinylog.policies.Policy;
+import org.tinylog.throwable.ThrowableData;
+import org.tinylog.throwable.ThrowableFilter;
+import org.tinylog.throwable.ThrowableWrapper;
+import org.tinylog.writers.AbstractFormatPatternWriter.Durability;
+import org.tinylog.writers.AbstractFormatPatternWriter.OutputOptions;
+import org.tinylog.writers.raw.ByteArrayWriter;
+import org.tinylog.writers.raw.DurableWriterDecorator;
+
+/**
+ * Writer for outputting log entries in a compact binary format. Log files can be converted back to text by
+ * {@link BinaryLogDecoder} with any format pattern.
+ *
+ * <p>
+ * Timestamps are stored as varint deltas to the previous log entry. Class, method, file, tag, and thread names as
+ * well as thread context keys are stored in a per-file symbol table and referenced by their IDs. Severity levels are
+ * stored as single bytes. See {@link BinaryFormat} for details.
+ * </p>
+ *
+ * <p>
+ * By default, all log entry values are recorded. If a format pattern is configured via the property {@code format},
+ * only the log entry values that are required by this format pattern are recorded. Rollover strategies can be
+ * defined via {@link Policy policies} like for {@link RollingFileWriter}. I/O mode, buffers, durability, and flush
+ * interval are configured by the same properties as for {@link RollingFileWriter}.
+ * </p>
+ */
+public final class BinaryWriter implements Writer {
+
+	private static final int MAX_SYMBOLS = 65536;
+	private static final int BUFFER_CAPACITY = 1024;
+	private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+	private final RollingFile rollingFile;
+
+	private final Collection<LogEntryValue> values;
+	private final List<ThrowableFilter> filters;
+
+	private final Object mutex;
+	private final FlushTask flushTask;
+	private final boolean groupCommit;
+	private final Map<String, Integer> symbols;
+	private final Map<String, Integer> pendingSymbols;
+	private final Bytes output;
+	private final Bytes payload;
+
+	private boolean header;
+	private long lastTimestamp;
+	private long pendingTimestamp;
+
+	private ByteArrayWriter writer;
+
+	/**
+	 * @throws FileNotFoundException
+	 *             Log file does not exist or cannot be opened for any other reason
+	 * @throws IllegalArgumentException
+	 *             A property has an invalid value or is missing in configuration
+	 */
+	public BinaryWriter() throws FileNotFoundException {
+		this(Collections.<String, String>emptyMap());
+	}
+
+	/**
+	 * @param properties
+	 *            Configuration for writer
+	 *
+	 * @throws FileNotFoundException
+	 *             Log file does not exist or cannot be opened for any other reason
+	 * @throws IllegalArgumentException
+	 *             A property has an invalid value or is missing in configuration
+	 */
+	public BinaryWriter(final Map<String, String> properties) throws FileNotFoundException {
+		String format = properties.get("format");
+		if (format == null) {
+			values = EnumSet.allOf(LogEntryValue.class);
+		} else {
+			values = EnumSet.of(LogEntryValue.DATE);
+			values.addAll(new FormatPatternParser(null).parse(format).getRequiredLogEntryValues());
+		}
+
+		String exception = properties.get("exception");
+		if (exception == null) {
+			filters = Collections.emptyList();
+		} else {
+			filters = new ServiceLoader<ThrowableFilter>(ThrowableFilter.class, String.class).createList(exception);
+		}
+
+		boolean writingThread = Boolean.parseBoolean(properties.get("writingthread"));
+		boolean buffered = Boolean.parseBoolean(properties.get("buffered"));
+		OutputOptions options = new OutputOptions(properties);
+
+		mutex = writingThread ? null : new Object();
+		symbols = new HashMap<String, Integer>();
+		pendingSymbols = new HashMap<String, Integer>();
+		output = new Bytes();
+		payload = new Bytes();
+
+		if (properties.containsKey("policies")) {
+			rollingFile = new RollingFile(properties, buffered, options);
+			writer = rollingFile.getWriter();
+		} else {
+			rollingFile = null;
+			String fileName = new DynamicPath(AbstractFormatPatternWriter.getFileName(properties)).resolve();
+			boolean append = Boolean.parseBoolean(properties.get("append"));
+			writer = AbstractFormatPatternWriter.createByteArrayWriter(fileName, append, buffered, false, false, options);
+		}
+
+		reset();
+
+		flushTask = AbstractFormatPatternWriter.createFlushTask(this, properties, buffered, writingThread, options);
+		groupCommit = !writingThread && options.getDurability() == Durability.BATCH;
+	}
+
+	@Override
+	public Collection<LogEntryValue> getRequiredLogEntryValues() {
+		return values;
+	}
+
+	@Override
+	public void write(final LogEntry logEntry) throws IOException {
+		if (mutex == null) {
+			internalWrite(logEntry);
+		} else {
+			DurableWriterDecorator durableWriter = null;
+			long ticket = 0;
+
+			synchronized (mutex) {
+				internalWrite(logEntry);
+				if (groupCommit && writer instanceof DurableWriterDecorator) {
+					durableWriter = (DurableWriterDecorator) writer;
+					ticket = durableWriter.getLastTicket();
+				}
+			}
+
+			if (durableWriter != null) {
+				durableWriter.commit(ticket);
+			}
+		}
+
+		if (flushTask != null) {
+			flushTask.markDirty();
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (mutex == null) {
+			writer.flush();
+		} else {
+			synchronized (mutex) {
+				writer.flush();
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (flushTask != null) {
+			flushTask.cancel();
+		}
+
+		if (mutex == null) {
+			internalClose();
+		} else {
+			synchronized (mutex) {
+				internalClose();
+			}
+		}
+	}
+
+	/**
+	 * Outputs a log entry unsynchronized. New symbols, the timestamp base, and the header state are only committed
+	 * after the log entry has been written successfully. Otherwise, the next log entry would reference symbols whose
+	 * records never reached the log file.
+	 *
+	 * @param logEntry
+	 *            Log entry to output
+	 * @throws IOException
+	 *             Writing failed
+	 */
+	private void internalWrite(final LogEntry logEntry) throws IOException {
+		try {
+			encode(logEntry);
+
+			if (rollingFile != null && !rollingFile.canBeContinued(output.data, output.length)) {
+				rollingFile.rollOver();
+				writer = rollingFile.getWriter();
+				reset();
+				encode(logEntry);
+			}
+
+			writer.write(output.data, output.length);
+			commit();
+		} finally {
+			output.trim();
+			payload.trim();
+		}
+	}
+
+	/**
+	 * Closes the writer unsynchronized.
+	 *
+	 * @throws IOException
+	 *             Closing failed
+	 */
+	private void internalClose() throws IOException {
+		if (rollingFile == null) {
+			writer.close();
+		} else {
+			rollingFile.close();
+		}
+	}
+
+	/**
+	 * Resets the symbol table and timestamp base for a newly opened log file. A header record will be output before
+	 * the next log entry.
+	 */
+	private void reset() {
+		symbols.clear();
+		pendingSymbols.clear();
+		lastTimestamp = 0;
+		header = true;
+	}
+
+	/**
+	 * Commits the new symbols and the timestamp of the last encoded log entry after it has been written successfully.
+	 */
+	private void commit() {
+		symbols.putAll(pendingSymbols);
+		pendingSymbols.clear();
+		lastTimestamp = pendingTimestamp;
+		header = false;
+	}
+
+	/**
+	 * Encodes a log entry including all required header and symbol records into the output buffer. The encoding state
+	 * is not changed until {@link #commit()} is called.
+	 *
+	 * @param logEntry
+	 *            Log entry to encode
+	 */
+	private void encode(final LogEntry logEntry) {
+		output.length = 0;
+		payload.length = 0;
+		pendingSymbols.clear();
+
+		if (header) {
+			output.writeVarint(1 + BinaryFormat.MAGIC.length + 1);
+			output.writeByte(BinaryFormat.HEADER_RECORD);
+			output.writeBytes(BinaryFormat.MAGIC);
+			output.writeByte(BinaryFormat.VERSION);
+		}
+
+		long timestamp = logEntry.getTimestamp() == null ? lastTimestamp : logEntry.getEpochMilliseconds();
+		payload.writeByte(BinaryFormat.ENTRY_RECORD);
+		payload.writeSignedVarint(timestamp - lastTimestamp);
+		payload.writeByte(logEntry.getLevel() == null ? BinaryFormat.NO_LEVEL : logEntry.getLevel().ordinal());
+		pendingTimestamp = timestamp;
+
+		int flags = computeFlags(logEntry);
+		payload.writeVarint(flags);
+
+		if ((flags & BinaryFormat.THREAD_FLAG) != 0) {
+			writeSymbol(logEntry.getThread().getName());
+			payload.writeVarint(logEntry.getThread().getId());
+		}
+
+		if ((flags & BinaryFormat.CLASS_FLAG) != 0) {
+			writeSymbol(logEntry.getClassName());
+		}
+
+		if ((flags & BinaryFormat.METHOD_FLAG) != 0) {
+			writeSymbol(logEntry.getMethodName());
+		}
+
+		if ((flags & BinaryFormat.FILE_FLAG) != 0) {
+			writeSymbol(logEntry.getFileName());
+		}
+
+		if ((flags & BinaryFormat.LINE_FLAG) != 0) {
+			payload.writeSignedVarint(logEntry.getLineNumber());
+		}
+
+		if ((flags & BinaryFormat.TAG_FLAG) != 0) {
+			writeSymbol(logEntry.getTag());
+		}
+
+		if ((flags & BinaryFormat.CONTEXT_FLAG) != 0) {
+			Map<String, String> context = logEntry.getContext();
+			payload.writeVarint(context.size());
+			for (Entry<String, String> entry : context.entrySet()) {
+				writeSymbol(entry.getKey());
+				payload.writeString(entry.getValue());
+			}
+		}
+
+		if ((flags & BinaryFormat.MESSAGE_FLAG) != 0) {
+			payload.writeString(logEntry.getMessage());
+		}
+
+		if ((flags & BinaryFormat.EXCEPTION_FLAG) != 0) {
+			writeThrowable(filter(logEntry.getException()));
+		}
+
+		output.writeVarint(payload.length);
+		output.writeBytes(payload.data, payload.length);
+	}
+
+	/**
+	 * Computes the flags of all log entry values that should be recorded and are present.
+	 *
+	 * @param logEntry
+	 *            Log entry to encode
+	 * @return Combined flags
+	 */
+	private int computeFlags(final LogEntry logEntry) {
+		int flags = 0;
+
+		if (logEntry.getThread() != null && values.contains(LogEntryValue.THREAD)) {
+			flags |= BinaryFormat.THREAD_FLAG;
+		}
+
+		if (logEntry.getClassName() != null && values.contains(LogEntryValue.CLASS)) {
+			flags |= BinaryFormat.CLASS_FLAG;
+		}
+
+		if (logEntry.getMethodName() != null && values.contains(LogEntryValue.METHOD)) {
+			flags |= BinaryFormat.METHOD_FLAG;
+		}
+
+		if (logEntry.getFileName() != null && values.contains(LogEntryValue.FILE)) {
+			flags |= BinaryFormat.FILE_FLAG;
+		}
+
+		if (values.contains(LogEntryValue.LINE)) {
+			flags |= BinaryFormat.LINE_FLAG;
+		}
+
+		if (logEntry.getTag() != null && values.contains(LogEntryValue.TAG)) {
+			flags |= BinaryFormat.TAG_FLAG;
+		}
+
+		if (logEntry.getContext() != null && !logEntry.getContext().isEmpty() && values.contains(LogEntryValue.CONTEXT)) {
+			flags |= BinaryFormat.CONTEXT_FLAG;
+		}
+
+		if (logEntry.getMessage() != null && values.contains(LogEntryValue.MESSAGE)) {
+			flags |= BinaryFormat.MESSAGE_FLAG;
+		}
+
+		if (logEntry.getException() != null && values.contains(LogEntryValue.EXCEPTION)) {
+			flags |= BinaryFormat.EXCEPTION_FLAG;
+		}
+
+		return flags;
+	}
+
+	/**
+	 * Applies all configured {@link ThrowableFilter throwable filters}.
+	 *
+	 * @param throwable
+	 *            Throwable to filter
+	 * @return Transformed throwable
+	 */
+	private ThrowableData filter(final Throwable throwable) {
+		ThrowableData data = new ThrowableWrapper(throwable);
+		for (ThrowableFilter filter : filters) {
+			data = filter.filter(data);
+		}
+		return data;
+	}
+
+	/**
+	 * Writes a throwable including stack trace and causes into the payload.
+	 *
+	 * @param throwable
+	 *            Throwable to write
+	 */
+	private void writeThrowable(final ThrowableData throwable) {
+		writeSymbol(throwable.getClassName());
+		payload.writeString(throwable.getMessage());
+
+		List<StackTraceElement> stackTrace = throwable.getStackTrace();
+		payload.writeVarint(stackTrace.size());
+		for (StackTraceElement element : stackTrace) {
+			writeSymbol(element.getClassName());
+			writeSymbol(element.getMethodName());
+			writeSymbol(element.getFileName());
+			payload.writeSignedVarint(element.getLineNumber());
+		}
+
+		ThrowableData cause = throwable.getCause();
+		if (cause == null) {
+			payload.writeByte(0);
+		} else {
+			payload.writeByte(1);
+			writeThrowable(cause);
+		}
+	}
+
+	/**
+	 * Writes a string as symbol reference into the payload. If the string is not in the symbol table yet, a symbol
+	 * record will be output first. If the symbol table is full, the string will be written inline.
+	 *
+	 * @param value
+	 *            String to write (can be {@code null})
+	 */
+	private void writeSymbol(final String value) {
+		if (value == null) {
+			payload.writeVarint(BinaryFormat.NULL_STRING);
+		} else {
+			Integer id = symbols.get(value);
+			if (id == null) {
+				id = pendingSymbols.get(value);
+			}
+
+			int count = symbols.size() + pendingSymbols.size();
+			if (id == null && count < MAX_SYMBOLS) {
+				id = BinaryFormat.FIRST_SYMBOL + count;
+				pendingSymbols.put(value, id);
+
+				byte[] bytes = value.getBytes(BinaryFormat.CHARSET);
+				output.writeVarint(1 + Bytes.sizeOfVarint(id) + bytes.length);
+				output.writeByte(BinaryFormat.SYMBOL_RECORD);
+				output.writeVarint(id);
+				output.writeBytes(bytes, bytes.length);
+			}
+
+			if (id == null) {
+				payload.writeString(value);
+			} else {
+				payload.writeVarint(id);
+			}
+		}
+	}
+
+	/**
+	 * Growable byte buffer with methods for encoding varints and strings.
+	 */
+	private static final class Bytes {
+
+		private static final int SEVEN_BITS = 7;
+		private static final int LOW_SEVEN_BITS = 0x7F;
+		private static final int CONTINUATION_BIT = 0x80;
+		private static final int SIGN_SHIFT = 63;
+
+		private byte[] data;
+		private int length;
+
+		/** */
+		private Bytes() {
+			data = new byte[BUFFER_CAPACITY];
+		}
+
+		/**
+		 * Computes the number of bytes of an unsigned varint.
+		 *
+		 * @param value
+		 *            Unsigned value
+		 * @return Number of bytes
+		 */
+		private static int sizeOfVarint(final long value) {
+			int size = 1;
+			for (long rest = value >>> SEVEN_BITS; rest != 0; rest >>>= SEVEN_BITS) {
+				size += 1;
+			}
+			return size;
+		}
+
+		/**
+		 * Writes a single byte.
+		 *
+		 * @param value
+		 *            Byte to write
+		 */
+		private void writeByte(final int value) {
+			ensureCapacity(1);
+			data[length++] = (byte) value;
+		}
+
+		/**
+		 * Writes all bytes of a byte array.
+		 *
+		 * @param bytes
+		 *            Bytes to write
+		 */
+		private void writeBytes(final byte[] bytes) {
+			writeBytes(bytes, bytes.length);
+		}
+
+		/**
+		 * Writes the first bytes of a byte array.
+		 *
+		 * @param bytes
+		 *            Bytes to write
+		 * @param count
+		 *            Number of bytes to write
+		 */
+		private void writeBytes(final byte[] bytes, final int count) {
+			ensureCapacity(count);
+			System.arraycopy(bytes, 0, data, length, count);
+			length += count;
+		}
+
+		/**
+		 * Writes an unsigned varint.
+		 *
+		 * @param value
+		 *            Unsigned value
+		 */
+		private void writeVarint(final long value) {
+			ensureCapacity(sizeOfVarint(value));
+			long rest = value;
+			while ((rest & ~LOW_SEVEN_BITS) != 0) {
+				data[length++] = (byte) (rest & LOW_SEVEN_BITS | CONTINUATION_BIT);
+				rest >>>= SEVEN_BITS;
+			}
+			data[length++] = (byte) rest;
+		}
+
+		/**
+		 * Writes a signed value as zigzag encoded varint.
+		 *
+		 * @param value
+		 *            Signed value
+		 */
+		private void writeSignedVarint(final long value) {
+			writeVarint(value << 1 ^ value >> SIGN_SHIFT);
+		}
+
+		/**
+		 * Writes a string reference with an inline string.
+		 *
+		 * @param value
+		 *            String to write (can be {@code null})
+		 */
+		private void writeString(final String value) {
+			if (value == null) {
+				writeVarint(BinaryFormat.NULL_STRING);
+			} else {
+				byte[] bytes = value.getBytes(BinaryFormat.CHARSET);
+				writeVarint(BinaryFormat.INLINE_STRING);
+				writeVarint(bytes.length);
+				writeBytes(bytes, bytes.length);
+			}
+		}
+
+		/**
+		 * Shrinks the byte buffer back to its default size, if it has been enlarged for an oversized log entry like one
+		 * with a huge stack trace. Otherwise, a single oversized log entry would pin its memory for the lifetime of the
+		 * writer. The current content is discarded.
+		 */
+		private void trim() {
+			if (data.length > MAX_RETAINED_CAPACITY) {
+				data = new byte[BUFFER_CAPACITY];
+				length = 0;
+			}
+		}
+
+		/**
+		 * Ensures that there is enough free space for the passed number of bytes.
+		 *
+		 * @param count
+		 *            Number of bytes to write
+		 */
+		private void ensureCapacity(final int count) {
+			if (length + count > data.length) {
+				data = Arrays.copyOf(data, Math.max(data.length * 2, length + count));
+			}
+		}
+
+	}
+
+}
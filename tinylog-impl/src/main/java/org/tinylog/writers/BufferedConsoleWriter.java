@@ -0,0 +1,187 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+
+import org.tinylog.Level;
+import org.tinylog.core.LogEntry;
+import org.tinylog.core.LogEntryValue;
+import org.tinylog.provider.InternalLogger;
+
+/**
+ * High-throughput writer for outputting log entries to the standard and error output streams of the process. Unlike
+ * {@link ConsoleWriter}, this writer does not use {@link System#out} and {@link System#err}, but encodes log entries
+ * into an own byte buffer and writes them directly to the file descriptors via channels.
+ *
+ * <p>
+ * Like for the console writer, the error output stream is used for log entries with the severity level warning and
+ * error, and the standard output stream for all other log entries, unless a stream is defined via {@code stream}.
+ * </p>
+ *
+ * <p>
+ * By default, each log entry is written immediately. If {@code buffered} is enabled, log entries are collected in a
+ * byte buffer of {@code buffer} bytes and written as soon as the buffer is full, but at least every
+ * {@code flush.interval}. If {@code async} is enabled, logging threads only add rendered log entries to a bounded
+ * queue with a capacity of {@code queue} log entries, and a background thread writes all queued log entries together.
+ * The property {@code blocked} defines the behavior if the console does not accept data fast enough and the queue is
+ * full: "wait" blocks the logging thread until there is free space in the queue, "drop" discards new log entries, and
+ * "count" discards new log entries but reports the number of discarded log entries.
+ * </p>
+ */
+public final class BufferedConsoleWriter extends AbstractFormatPatternWriter {
+
+	private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+	private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+	private static final long DEFAULT_FLUSH_INTERVAL = 100;
+
+	private final Level errorLevel;
+	private final boolean buffered;
+	private final ConsoleChannel channel;
+	private final ConsoleThread thread;
+	private final FlushTask flushTask;
+	private final Object mutex;
+
+	/** */
+	public BufferedConsoleWriter() {
+		this(Collections.<String, String>emptyMap());
+	}
+
+	/**
+	 * @param properties
+	 *            Configuration for writer
+	 */
+	public BufferedConsoleWriter(final Map<String, String> properties) {
+		super(properties);
+
+		errorLevel = ConsoleWriter.parseErrorLevel(properties.get("stream"));
+		int capacity = parsePositiveNumber(properties.get("buffer"), "buffer size", DEFAULT_BUFFER_SIZE);
+		channel = new ConsoleChannel(getCharset(properties), capacity);
+
+		boolean writingThread = Boolean.parseBoolean(properties.get("writingthread"));
+		mutex = writingThread ? null : new Object();
+
+		if (Boolean.parseBoolean(properties.get("async"))) {
+			ConsoleThread.Policy policy = parsePolicy(properties.get("blocked"));
+			int queueCapacity = parsePositiveNumber(properties.get("queue"), "queue capacity", DEFAULT_QUEUE_CAPACITY);
+			buffered = false;
+			thread = new ConsoleThread(channel, policy, queueCapacity);
+			thread.start();
+			flushTask = null;
+		} else {
+			buffered = Boolean.parseBoolean(properties.get("buffered"));
+			thread = null;
+
+			if (buffered && !writingThread) {
+				long interval = getFlushInterval(properties);
+				flushTask = new FlushTask(this, interval > 0 ? interval : DEFAULT_FLUSH_INTERVAL);
+			} else {
+				flushTask = null;
+			}
+		}
+	}
+
+	@Override
+	public Collection<LogEntryValue> getRequiredLogEntryValues() {
+		Collection<LogEntryValue> logEntryValues = super.getRequiredLogEntryValues();
+		logEntryValues.add(LogEntryValue.LEVEL);
+		return logEntryValues;
+	}
+
+	@Override
+	public void write(final LogEntry logEntry) throws IOException, InterruptedException {
+		String text = render(logEntry);
+		boolean error = logEntry.getLevel().ordinal() >= errorLevel.ordinal();
+
+		if (thread != null) {
+			thread.add(text, error);
+		} else if (mutex == null) {
+			internalWrite(text, error);
+		} else {
+			synchronized (mutex) {
+				internalWrite(text, error);
+			}
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (thread == null) {
+			if (mutex == null) {
+				channel.flush();
+			} else {
+				synchronized (mutex) {
+					channel.flush();
+				}
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException, InterruptedException {
+		if (flushTask != null) {
+			flushTask.cancel();
+		}
+
+		if (thread == null) {
+			flush();
+		} else {
+			thread.shutdown();
+		}
+	}
+
+	/**
+	 * Outputs a rendered log entry without synchronization.
+	 *
+	 * @param text
+	 *            Rendered log entry
+	 * @param error
+	 *            {@code true} for the error output stream, {@code false} for the standard output stream
+	 * @throws IOException
+	 *             Writing to the output stream failed
+	 */
+	private void internalWrite(final String text, final boolean error) throws IOException {
+		channel.write(text, error);
+
+		if (!buffered) {
+			channel.flush();
+		} else if (flushTask != null) {
+			flushTask.markDirty();
+		}
+	}
+
+	/**
+	 * Parses the policy for a blocked console.
+	 *
+	 * @param value
+	 *            Configured policy or {@code null}
+	 * @return Parsed policy or {@link ConsoleThread.Policy#WAIT} for undefined or invalid policies
+	 */
+	private static ConsoleThread.Policy parsePolicy(final String value) {
+		if (value != null) {
+			try {
+				return ConsoleThread.Policy.valueOf(value.trim().toUpperCase(Locale.ROOT));
+			} catch (IllegalArgumentException ex) {
+				InternalLogger.log(Level.ERROR, "Invalid blocked policy: " + value);
+			}
+		}
+
+		return ConsoleThread.Policy.WAIT;
+	}
+
+}
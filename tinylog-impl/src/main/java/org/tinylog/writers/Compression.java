@@ -0,0 +1,198 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.tinylog.Level;
+import org.tinylog.provider.InternalLogger;
+
+/**
+ * Supported compression algorithms for rolled-over log files.
+ */
+enum Compression {
+
+	/**
+	 * GZIP compression with ".gz" as file extension.
+	 */
+	GZIP(".gz") {
+		@Override
+		OutputStream wrap(final OutputStream stream) throws IOException {
+			return new GZIPOutputStream(stream, BUFFER_SIZE);
+		}
+	},
+
+	/**
+	 * Raw zlib deflate compression with ".deflate" as file extension.
+	 */
+	DEFLATE(".deflate") {
+		@Override
+		OutputStream wrap(final OutputStream stream) throws IOException {
+			return new DeflaterOutputStream(stream);
+		}
+	};
+
+	/**
+	 * Buffer size for compressing streams.
+	 */
+	static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final String TEMPORARY_EXTENSION = ".tmp";
+
+	private final String extension;
+
+	/**
+	 * @param extension
+	 *            File extension including the leading dot
+	 */
+	Compression(final String extension) {
+		this.extension = extension;
+	}
+
+	/**
+	 * Gets the file extension, which is appended to the original file name of compressed files.
+	 *
+	 * @return File extension including the leading dot
+	 */
+	String getExtension() {
+		return extension;
+	}
+
+	/**
+	 * Wraps an output stream into a compressing output stream.
+	 *
+	 * @param stream
+	 *            Stream for writing the compressed data to
+	 * @return Stream for writing uncompressed data to
+	 * @throws IOException
+	 *             Failed to create compressing stream
+	 */
+	abstract OutputStream wrap(OutputStream stream) throws IOException;
+
+	/**
+	 * Compresses a log file. The compressed data is written to a temporary file first, which is renamed to the final
+	 * file name afterwards. The original file will be deleted after successful compression.
+	 *
+	 * @param file
+	 *            Log file to compress
+	 * @return Compressed file or {@code null} if the passed log file could not be replaced by a compressed file
+	 */
+	File compress(final File file) {
+		if (!file.isFile()) {
+			return null;
+		}
+
+		File target = new File(file.getPath() + extension);
+		File temporary = new File(target.getPath() + TEMPORARY_EXTENSION);
+		long lastModified = file.lastModified();
+
+		try {
+			copy(file, temporary);
+		} catch (IOException ex) {
+			InternalLogger.log(Level.ERROR, ex, "Failed to compress log file '" + file.getAbsolutePath() + "'");
+			delete(temporary);
+			return null;
+		}
+
+		if (!file.isFile()) {
+			delete(temporary);
+			return null;
+		}
+
+		temporary.setLastModified(lastModified);
+
+		if (target.exists() && !target.delete() || !temporary.renameTo(target)) {
+			InternalLogger.log(Level.ERROR, "Failed to rename '" + temporary.getAbsolutePath() + "' to '" + target.getAbsolutePath() + "'");
+			delete(temporary);
+			return null;
+		} else if (file.delete()) {
+			return target;
+		} else {
+			InternalLogger.log(Level.WARN, "Failed to delete compressed log file '" + file.getAbsolutePath() + "'");
+			return null;
+		}
+	}
+
+	/**
+	 * Copies a file into a compressed file.
+	 *
+	 * @param source
+	 *            Uncompressed source file
+	 * @param target
+	 *            Compressed target file
+	 * @throws IOException
+	 *             Failed to read source or to write target file
+	 */
+	private void copy(final File source, final File target) throws IOException {
+		InputStream input = new FileInputStream(source);
+		try {
+			OutputStream output = new FileOutputStream(target);
+			try {
+				output = wrap(output);
+				byte[] buffer = new byte[BUFFER_SIZE];
+				for (int count = input.read(buffer); count >= 0; count = input.read(buffer)) {
+					output.write(buffer, 0, count);
+				}
+			} finally {
+				output.close();
+			}
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Deletes a temporary file, if existing.
+	 *
+	 * @param file
+	 *            File to delete
+	 */
+	private static void delete(final File file) {
+		if (file.exists() && !file.delete()) {
+			InternalLogger.log(Level.WARN, "Failed to delete temporary file '" + file.getAbsolutePath() + "'");
+		}
+	}
+
+	/**
+	 * Resolves a compression algorithm by its case-insensitive name.
+	 *
+	 * @param name
+	 *            Name of compression algorithm or {@code null}
+	 * @return Found compression algorithm or {@code null} for no compression
+	 * @throws IllegalArgumentException
+	 *             Compression algorithm is unknown
+	 */
+	static Compression resolve(final String name) {
+		if (name == null || name.trim().isEmpty() || "none".equalsIgnoreCase(name.trim())) {
+			return null;
+		}
+
+		for (Compression compression : values()) {
+			if (compression.name().equalsIgnoreCase(name.trim())) {
+				return compression;
+			}
+		}
+
+		throw new IllegalArgumentException("Unknown compression: '" + name.toLowerCase(Locale.ROOT) + "'");
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Buffered output to the standard and error output streams of the process. Texts are encoded into an own byte buffer
+ * and written directly to the file descriptors via channels, bypassing {@link System#out} and {@link System#err}.
+ *
+ * <p>
+ * The byte buffer always contains data for only one of both streams. Buffered data is written before data for the
+ * other stream is encoded, in order to keep the original order of all texts. The file descriptors are never closed.
+ * </p>
+ *
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+final class ConsoleChannel {
+
+	private final WritableByteChannel out;
+	private final WritableByteChannel err;
+	private final CharsetEncoder encoder;
+	private final ByteBuffer buffer;
+
+	private WritableByteChannel current;
+
+	/**
+	 * @param charset
+	 *            Charset for encoding texts
+	 * @param capacity
+	 *            Size of the byte buffer in bytes
+	 */
+	ConsoleChannel(final Charset charset, final int capacity) {
+		this.out = new FileOutputStream(FileDescriptor.out).getChannel();
+		this.err = new FileOutputStream(FileDescriptor.err).getChannel();
+		this.encoder = charset.newEncoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		this.buffer = ByteBuffer.allocate(Math.max(capacity, (int) Math.ceil(encoder.maxBytesPerChar())));
+		this.current = out;
+	}
+
+	/**
+	 * Encodes a text into the byte buffer. The byte buffer is written, if it is full or contains data for the other
+	 * stream.
+	 *
+	 * @param text
+	 *            Text to output
+	 * @param error
+	 *            {@code true} for the error output stream, {@code false} for the standard output stream
+	 * @throws IOException
+	 *             Writing to the output stream failed
+	 */
+	void write(final String text, final boolean error) throws IOException {
+		WritableByteChannel channel = error ? err : out;
+		if (channel != current) {
+			flush();
+			current = channel;
+		}
+
+		CharBuffer chars = CharBuffer.wrap(text);
+		encoder.reset();
+
+		CoderResult result = encoder.encode(chars, buffer, true);
+		while (result.isOverflow()) {
+			flush();
+			result = encoder.encode(chars, buffer, true);
+		}
+
+		result = encoder.flush(buffer);
+		while (result.isOverflow()) {
+			flush();
+			result = encoder.flush(buffer);
+		}
+	}
+
+	/**
+	 * Writes all buffered data to the output stream. This method blocks as long as the output stream cannot accept
+	 * data.
+	 *
+	 * @throws IOException
+	 *             Writing to the output stream failed
+	 */
+	void flush() throws IOException {
+		buffer.flip();
+		try {
+			while (buffer.hasRemaining()) {
+				current.write(buffer);
+			}
+		} finally {
+			buffer.clear();
+		}
+	}
+
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.tinylog.Level;
+import org.tinylog.provider.InternalLogger;
+
+/**
+ * Thread for writing rendered log entries to the console in background. Rendered log entries are passed via a bounded
+ * queue. All log entries that are queued at the same time are written together via a {@link ConsoleChannel}.
+ *
+ * <p>
+ * If the console cannot accept data fast enough, for example because the pipe to a log collector is full, the queue
+ * fills up. The {@link Policy policy} defines whether logging threads wait for free space in the queue or whether new
+ * log entries are discarded.
+ * </p>
+ */
+final class ConsoleThread extends Thread {
+
+	private static final String THREAD_NAME = "tinylog-ConsoleThread";
+	private static final long CLOSE_TIMEOUT = 5000;
+
+	private static final Record POISON = new Record("", false);
+
+	private final ConsoleChannel channel;
+	private final Policy policy;
+	private final BlockingQueue<Record> queue;
+	private final AtomicLong discarded;
+
+	private boolean broken;
+
+	/**
+	 * @param channel
+	 *            Channel for writing to the console
+	 * @param policy
+	 *            Behavior if the queue is full
+	 * @param capacity
+	 *            Maximum number of queued log entries
+	 */
+	ConsoleThread(final ConsoleChannel channel, final Policy policy, final int capacity) {
+		this.channel = channel;
+		this.policy = policy;
+		this.queue = new ArrayBlockingQueue<Record>(capacity);
+		this.discarded = new AtomicLong();
+
+		setName(THREAD_NAME);
+		setPriority(Thread.MIN_PRIORITY);
+		setDaemon(true);
+	}
+
+	/**
+	 * Writes queued log entries until taking the {@link #POISON poison record}. A log entry that cannot be written
+	 * doesn't affect the other log entries of the same batch. Only the first failure is reported, until a batch can be
+	 * written successfully again.
+	 */
+	@Override
+	public void run() {
+		List<Record> batch = new ArrayList<Record>();
+
+		while (true) {
+			batch.add(take());
+			queue.drainTo(batch);
+
+			boolean poisoned = false;
+			IOException failure = null;
+
+			for (Record record : batch) {
+				if (record == POISON) {
+					poisoned = true;
+					break;
+				}
+
+				try {
+					channel.write(record.text, record.error);
+				} catch (IOException ex) {
+					if (failure == null) {
+						failure = ex;
+					}
+				}
+			}
+
+			batch.clear();
+
+			try {
+				channel.flush();
+			} catch (IOException ex) {
+				if (failure == null) {
+					failure = ex;
+				}
+			}
+
+			report(failure);
+
+			if (poisoned) {
+				return;
+			}
+
+			reportDiscarded();
+		}
+	}
+
+	/**
+	 * Adds a rendered log entry for writing in background. Depending on the policy, this method either blocks or
+	 * discards the passed log entry if the queue is full.
+	 *
+	 * @param text
+	 *            Rendered log entry
+	 * @param error
+	 *            {@code true} for the error output stream, {@code false} for the standard output stream
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for free space in the queue
+	 */
+	void add(final String text, final boolean error) throws InterruptedException {
+		Record record = new Record(text, error);
+
+		if (policy == Policy.WAIT) {
+			queue.put(record);
+		} else if (!queue.offer(record) && policy == Policy.COUNT) {
+			discarded.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Shuts this thread down after writing all already queued log entries, and waits for its termination. Waiting is
+	 * limited, in order to not block forever if the console doesn't accept any data.
+	 *
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for termination
+	 */
+	void shutdown() throws InterruptedException {
+		if (queue.offer(POISON, CLOSE_TIMEOUT, TimeUnit.MILLISECONDS)) {
+			join(CLOSE_TIMEOUT);
+		}
+
+		reportDiscarded();
+	}
+
+	/**
+	 * Takes the next log entry from the queue. This method blocks until a log entry is available.
+	 *
+	 * @return Next log entry
+	 */
+	private Record take() {
+		while (true) {
+			try {
+				return queue.take();
+			} catch (InterruptedException ex) {
+				// Ignore and continue
+			}
+		}
+	}
+
+	/**
+	 * Reports the failure of a batch. As long as the console stays broken, only the first failure is reported.
+	 *
+	 * @param failure
+	 *            First failure of the batch or {@code null} if the batch has been written successfully
+	 */
+	private void report(final IOException failure) {
+		if (failure == null) {
+			broken = false;
+		} else if (!broken) {
+			broken = true;
+			InternalLogger.log(Level.ERROR, failure, "Failed to write to console");
+		}
+	}
+
+	/**
+	 * Reports the number of discarded log entries since the last report, if there are any.
+	 */
+	private void reportDiscarded() {
+		long count = discarded.getAndSet(0);
+		if (count > 0) {
+			InternalLogger.log(Level.WARN, "Console was blocked, discarded " + count + " log entries");
+		}
+	}
+
+	/**
+	 * Behavior if the console cannot accept data fast enough and the queue is full.
+	 */
+	enum Policy {
+
+		/**
+		 * Logging threads wait until there is free space in the queue.
+		 */
+		WAIT,
+
+		/**
+		 * New log entries are discarded silently.
+		 */
+		DROP,
+
+		/**
+		 * New log entries are discarded, but the number of discarded log entries is reported as soon as the console
+		 * accepts data again.
+		 */
+		COUNT
+
+	}
+
+	/**
+	 * Rendered log entry together with its output stream.
+	 */
+	private static final class Record {
+
+		private final String text;
+		private final boolean error;
+
+		/**
+		 * @param text
+		 *            Rendered log entry
+		 * @param error
+		 *            {@code true} for the error output stream, {@code false} for the standard output stream
+		 */
+		private Record(final String text, final boolean error) {
+			this.text = text;
+			this.error = error;
+		}
+
+	}
+
+}
@@ -45,18 +45,7 @@ public final class ConsoleWriter extends AbstractFormatPatternWriter {
 	 */
 	public ConsoleWriter(final Map<String, String> properties) {
 		super(properties);
-		
-		String stream = properties.get("stream");
-		if (stream == null) {
-			errorLevel = Level.WARN;
-		} else if ("err".equalsIgnoreCase(stream)) {
-			errorLevel = Level.TRACE;
-		} else if ("out".equalsIgnoreCase(stream)) {
-			errorLevel = Level.OFF;
-		} else {
-			InternalLogger.log(Level.ERROR, "Stream must be \"out\" or \"err\", \"" + stream + "\" is an invalid stream name");
-			errorLevel = Level.WARN;
-		}
+		errorLevel = parseErrorLevel(properties.get("stream"));
 	}
 
 	@Override
@@ -83,4 +72,24 @@ public final class ConsoleWriter extends AbstractFormatPatternWriter {
 	public void close() {
 	}
 
+	/**
+	 * Parses the configured stream and determines the minimum severity level for the error output stream.
+	 *
+	 * @param stream
+	 *            Configured stream name ("out" or "err") or {@code null} for using both streams
+	 * @return Minimum severity level for the error output stream
+	 */
+	static Level parseErrorLevel(final String stream) {
+		if (stream == null) {
+			return Level.WARN;
+		} else if ("err".equalsIgnoreCase(stream)) {
+			return Level.TRACE;
+		} else if ("out".equalsIgnoreCase(stream)) {
+			return Level.OFF;
+		} else {
+			InternalLogger.log(Level.ERROR, "Stream must be \"out\" or \"err\", \"" + stream + "\" is an invalid stream name");
+			return Level.WARN;
+		}
+	}
+
 }
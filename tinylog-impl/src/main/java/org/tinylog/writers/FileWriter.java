@@ -24,12 +24,15 @@ import org.tinylog.writers.raw.ByteArrayWriter;
 
 /**
  * Writer for outputting log entries to a log file. Already existing files can be continued and the output can be
- * buffered for improving performance.
+ * buffered or memory-mapped for improving performance. Buffered data can be flushed periodically by a shared timer thread.
+ * Log files can be preallocated in chunks, and written data can be forced to the storage device as configured by the
+ * durability mode.
  */
 public final class FileWriter extends AbstractFormatPatternWriter {
 
 	private final Charset charset;
 	private final ByteArrayWriter writer;
+	private final FlushTask flushTask;
 
 	/**
 	 * @throws FileNotFoundException
@@ -57,15 +60,22 @@ public final class FileWriter extends AbstractFormatPatternWriter {
 		boolean append = Boolean.parseBoolean(properties.get("append"));
 		boolean buffered = Boolean.parseBoolean(properties.get("buffered"));
 		boolean writingThread = Boolean.parseBoolean(properties.get("writingthread"));
+		OutputOptions options = new OutputOptions(properties);
 
 		charset = getCharset(properties);
-		writer = createByteArrayWriter(fileName, append, buffered, !writingThread, false);
+		writer = createByteArrayWriter(fileName, append, buffered, !writingThread, false, options);
+
+		flushTask = createFlushTask(this, properties, buffered, writingThread, options);
 	}
 
 	@Override
 	public void write(final LogEntry logEntry) throws IOException {
 		byte[] data = render(logEntry).getBytes(charset);
 		writer.write(data, data.length);
+
+		if (flushTask != null) {
+			flushTask.markDirty();
+		}
 	}
 
 	@Override
@@ -75,6 +85,10 @@ public final class FileWriter extends AbstractFormatPatternWriter {
 
 	@Override
 	public void close() throws IOException {
+		if (flushTask != null) {
+			flushTask.cancel();
+		}
+
 		writer.close();
 	}
 
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.util.TimerTask;
+
+import org.tinylog.Level;
+import org.tinylog.provider.InternalLogger;
+
+/**
+ * Periodic task for flushing a buffered writer after a maximum delay. All tasks are executed by the
+ * {@link SharedTimer shared timer}, which is acquired by the task itself and released on cancellation. Writers only
+ * have to call {@link #markDirty()} after writing data. Writers without new data are not flushed.
+ */
+final class FlushTask extends TimerTask {
+
+	private final Writer writer;
+	private volatile boolean dirty;
+	private boolean cancelled;
+
+	/**
+	 * @param writer
+	 *            Writer to flush
+	 * @param interval
+	 *            Maximum delay in milliseconds until written data is flushed
+	 */
+	FlushTask(final Writer writer, final long interval) {
+		this.writer = writer;
+
+		SharedTimer.acquire();
+		SharedTimer.scheduleAtFixedRate(this, interval, interval);
+	}
+
+	/**
+	 * Marks the writer as having unflushed data. This method is intended to be called after each write operation.
+	 */
+	void markDirty() {
+		if (!dirty) {
+			dirty = true;
+		}
+	}
+
+	@Override
+	public void run() {
+		if (dirty) {
+			dirty = false;
+			try {
+				writer.flush();
+			} catch (Exception ex) {
+				InternalLogger.log(Level.ERROR, ex, "Failed to flush writer");
+			}
+		}
+	}
+
+	/**
+	 * Cancels this task and releases the shared timer.
+	 *
+	 * @return {@code true} if the task was still scheduled, {@code false} if it was already cancelled
+	 */
+	@Override
+	public synchronized boolean cancel() {
+		if (cancelled) {
+			return false;
+		}
+
+		cancelled = true;
+		super.cancel();
+		SharedTimer.release();
+		return true;
+	}
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.tinylog.Level;
+import org.tinylog.provider.InternalLogger;
+
+/**
+ * Thread for executing file maintenance tasks like closing, compressing, or deleting log files in background. Tasks
+ * are executed in the order in which they were added.
+ */
+final class HousekeepingThread extends Thread {
+
+	private static final String THREAD_NAME = "tinylog-HousekeepingThread";
+
+	private final Object mutex;
+	private final List<Runnable> tasks;
+	private boolean shutdown;
+
+	/** */
+	HousekeepingThread() {
+		this.mutex = new Object();
+		this.tasks = new ArrayList<Runnable>();
+
+		setName(THREAD_NAME);
+		setPriority(Thread.MIN_PRIORITY);
+		setDaemon(true);
+	}
+
+	/**
+	 * Executes added tasks until the thread is shut down and all added tasks are executed.
+	 */
+	@Override
+	public void run() {
+		while (true) {
+			Runnable task;
+
+			synchronized (mutex) {
+				while (tasks.isEmpty() && !shutdown) {
+					try {
+						mutex.wait();
+					} catch (InterruptedException ex) {
+						// Ignore and continue
+					}
+				}
+
+				if (tasks.isEmpty()) {
+					return;
+				} else {
+					task = tasks.remove(0);
+				}
+			}
+
+			try {
+				task.run();
+			} catch (RuntimeException ex) {
+				InternalLogger.log(Level.ERROR, ex, "Failed to execute housekeeping task");
+			}
+		}
+	}
+
+	/**
+	 * Adds a task for execution in background.
+	 *
+	 * @param task
+	 *            Task to execute
+	 */
+	void add(final Runnable task) {
+		synchronized (mutex) {
+			tasks.add(task);
+			mutex.notifyAll();
+		}
+	}
+
+	/**
+	 * Shuts this thread down after all already added tasks have been executed.
+	 */
+	void shutdown() {
+		synchronized (mutex) {
+			shutdown = true;
+			mutex.notifyAll();
+		}
+	}
+
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPOutputStream;
+
+import org.tinylog.Level;
+import org.tinylog.provider.InternalLogger;
+
+/**
+ * Thread for posting batches of rendered log entries to an HTTP endpoint. Batches are taken from a bounded queue that
+ * is shared by all sender threads of a writer. Each sender thread has at most one request in flight.
+ *
+ * <p>
+ * Connections are kept alive and reused by {@link HttpURLConnection}, as each response is read completely. Failed
+ * requests are retried with an exponential backoff if the endpoint is unreachable, responds with a server error, or
+ * asks for throttling via status 429. Other client errors are not retried.
+ * </p>
+ */
+final class HttpSender extends Thread {
+
+	/**
+	 * Batch for signaling a sender thread to terminate. Each sender thread terminates after taking this batch.
+	 */
+	static final byte[] POISON = new byte[0];
+
+	private static final String THREAD_NAME = "tinylog-HttpThread";
+
+	private static final int TIMEOUT = 10000;
+	private static final long INITIAL_BACKOFF = 100;
+	private static final long MAX_BACKOFF = 30000;
+
+	private static final int STATUS_SUCCESS_MIN = 200;
+	private static final int STATUS_SUCCESS_MAX = 299;
+	private static final int STATUS_TOO_MANY_REQUESTS = 429;
+	private static final int STATUS_SERVER_ERROR_MIN = 500;
+	private static final int BUFFER_SIZE = 1024;
+
+	private final BlockingQueue<byte[]> queue;
+	private final URL url;
+	private final Map<String, String> headers;
+	private final boolean gzip;
+	private final int retries;
+
+	/**
+	 * @param queue
+	 *            Queue with batches to send
+	 * @param url
+	 *            Target URL for all batches
+	 * @param headers
+	 *            HTTP headers to send with each request
+	 * @param gzip
+	 *            Batches should be compressed with gzip
+	 * @param retries
+	 *            Maximum number of retries for a failed request
+	 */
+	HttpSender(final BlockingQueue<byte[]> queue, final URL url, final Map<String, String> headers, final boolean gzip,
+		final int retries) {
+		this.queue = queue;
+		this.url = url;
+		this.headers = headers;
+		this.gzip = gzip;
+		this.retries = retries;
+
+		setName(THREAD_NAME);
+		setPriority(Thread.MIN_PRIORITY);
+		setDaemon(true);
+	}
+
+	/**
+	 * Sends batches until taking the {@link #POISON poison batch}.
+	 */
+	@Override
+	public void run() {
+		while (true) {
+			byte[] batch = take();
+			if (batch == POISON) {
+				return;
+			}
+
+			try {
+				send(gzip ? compress(batch) : batch);
+			} catch (IOException ex) {
+				InternalLogger.log(Level.ERROR, ex, "Failed to compress log entries");
+			}
+		}
+	}
+
+	/**
+	 * Takes the next batch from the queue. This method blocks until a batch is available.
+	 *
+	 * @return Next batch
+	 */
+	private byte[] take() {
+		while (true) {
+			try {
+				return queue.take();
+			} catch (InterruptedException ex) {
+				// Ignore and continue
+			}
+		}
+	}
+
+	/**
+	 * Posts a batch and retries on recoverable failures.
+	 *
+	 * @param data
+	 *            Request body
+	 */
+	private void send(final byte[] data) {
+		long backoff = INITIAL_BACKOFF;
+
+		for (int attempt = 0; attempt <= retries; ++attempt) {
+			if (attempt > 0) {
+				backOff(backoff);
+				backoff = Math.min(backoff * 2, MAX_BACKOFF);
+			}
+
+			try {
+				int status = post(data);
+				if (status >= STATUS_SUCCESS_MIN && status <= STATUS_SUCCESS_MAX) {
+					return;
+				} else if (status != STATUS_TOO_MANY_REQUESTS && status < STATUS_SERVER_ERROR_MIN) {
+					InternalLogger.log(Level.ERROR, "HTTP endpoint " + url + " rejected log entries with status " + status);
+					return;
+				} else if (attempt == retries) {
+					InternalLogger.log(Level.ERROR, "HTTP endpoint " + url + " failed to accept log entries with status " + status);
+				}
+			} catch (IOException ex) {
+				if (attempt == retries) {
+					InternalLogger.log(Level.ERROR, ex, "Failed to send log entries to HTTP endpoint " + url);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Posts a request body to the target URL.
+	 *
+	 * @param data
+	 *            Request body
+	 * @return HTTP status code of the response
+	 * @throws IOException
+	 *             Failed to send request or to receive response
+	 */
+	private int post(final byte[] data) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		connection.setRequestMethod("POST");
+		connection.setDoOutput(true);
+		connection.setConnectTimeout(TIMEOUT);
+		connection.setReadTimeout(TIMEOUT);
+		connection.setFixedLengthStreamingMode(data.length);
+
+		for (Map.Entry<String, String> header : headers.entrySet()) {
+			connection.setRequestProperty(header.getKey(), header.getValue());
+		}
+
+		OutputStream output = connection.getOutputStream();
+		try {
+			output.write(data);
+		} finally {
+			output.close();
+		}
+
+		int status = connection.getResponseCode();
+		InputStream input = status < STATUS_SUCCESS_MIN || status > STATUS_SUCCESS_MAX
+			? connection.getErrorStream() : connection.getInputStream();
+
+		if (input != null) {
+			try {
+				byte[] buffer = new byte[BUFFER_SIZE];
+				while (input.read(buffer) >= 0) {
+					// Read the response completely for allowing reuse of the connection
+				}
+			} finally {
+				input.close();
+			}
+		}
+
+		return status;
+	}
+
+	/**
+	 * Compresses data with gzip.
+	 *
+	 * @param data
+	 *            Uncompressed data
+	 * @return Compressed data
+	 * @throws IOException
+	 *             Failed to compress data
+	 */
+	static byte[] compress(final byte[] data) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 2 + 1);
+		GZIPOutputStream stream = new GZIPOutputStream(buffer);
+		try {
+			stream.write(data);
+		} finally {
+			stream.close();
+		}
+
+		return buffer.toByteArray();
+	}
+
+	/**
+	 * Waits for the passed backoff time before retrying a request.
+	 *
+	 * @param backoff
+	 *            Time to wait in milliseconds
+	 */
+	private static void backOff(final long backoff) {
+		try {
+			Thread.sleep(backoff);
+		} catch (InterruptedException ex) {
+			// Ignore and retry
+		}
+	}
+
+}
@@ -0,0 +1,356 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.ByteArrayOutputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.tinylog.Level;
+import org.tinylog.core.LogEntry;
+import org.tinylog.provider.InternalLogger;
+
+/**
+ * Writer for posting log entries in batches to an HTTP endpoint, such as log ingestion APIs. Each request body
+ * consists of the concatenated rendered log entries of a batch.
+ *
+ * <p>
+ * A batch is sent as soon as it reaches the configured size in bytes ({@code batch.size}) or age
+ * ({@code batch.interval}). Batches can be compressed with gzip ({@code compression}) and are posted by background
+ * threads. The number of requests in flight is limited by {@code inflight}, and the number of batches waiting for
+ * sending by {@code queue}. If all sender threads are busy and the queue is full, writing blocks until a batch has
+ * been sent. This back-pressure is absorbed by the writing thread, if enabled. Failed requests are retried up to
+ * {@code retries} times with an exponential backoff.
+ * </p>
+ *
+ * <p>
+ * Additional HTTP headers can be defined via properties with the prefix {@code header.}, for example
+ * {@code header.Authorization}.
+ * </p>
+ */
+public final class HttpWriter extends AbstractFormatPatternWriter {
+
+	private static final int DEFAULT_BATCH_SIZE = 1024 * 1024; // 1 MB
+	private static final long DEFAULT_BATCH_INTERVAL = 1000;
+	private static final int DEFAULT_INFLIGHT = 1;
+	private static final int DEFAULT_QUEUE_CAPACITY = 4;
+	private static final int DEFAULT_RETRIES = 3;
+	private static final long CLOSE_TIMEOUT = 10000;
+
+	private static final String DEFAULT_CONTENT_TYPE = "application/x-ndjson";
+	private static final String HEADER_PREFIX = "header.";
+
+	private final Charset charset;
+	private final int batchSize;
+	private final long batchInterval;
+
+	private final Object mutex;
+	private ByteArrayOutputStream batch;
+	private long batchStart;
+
+	private final BlockingQueue<byte[]> queue;
+	private final List<HttpSender> senders;
+	private final FlushTask flushTask;
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             URL is missing or invalid
+	 */
+	public HttpWriter() {
+		this(Collections.<String, String>emptyMap());
+	}
+
+	/**
+	 * @param properties
+	 *            Configuration for writer
+	 *
+	 * @throws IllegalArgumentException
+	 *             URL is missing or invalid
+	 */
+	public HttpWriter(final Map<String, String> properties) {
+		super(properties);
+
+		URL url = getUrl(properties);
+		charset = getCharset(properties);
+		batchSize = parsePositiveNumber(properties.get("batch.size"), "batch size", DEFAULT_BATCH_SIZE);
+
+		String interval = properties.get("batch.interval");
+		long parsedInterval = interval == null ? 0 : parseInterval(interval, "batch interval");
+		batchInterval = parsedInterval > 0 ? parsedInterval : DEFAULT_BATCH_INTERVAL;
+
+		boolean gzip = isGzipEnabled(properties.get("compression"));
+		Map<String, String> headers = getHeaders(properties, charset, gzip);
+		int inflight = parsePositiveNumber(properties.get("inflight"), "number of requests in flight", DEFAULT_INFLIGHT);
+		int capacity = parsePositiveNumber(properties.get("queue"), "queue capacity", DEFAULT_QUEUE_CAPACITY);
+		int retries = getRetries(properties.get("retries"));
+
+		mutex = new Object();
+		batch = new ByteArrayOutputStream();
+		queue = new ArrayBlockingQueue<byte[]>(capacity);
+		senders = new ArrayList<HttpSender>(inflight);
+
+		for (int i = 0; i < inflight; ++i) {
+			HttpSender sender = new HttpSender(queue, url, headers, gzip, retries);
+			sender.start();
+			senders.add(sender);
+		}
+
+		flushTask = new FlushTask(this, Math.max(1, batchInterval / 2));
+	}
+
+	/**
+	 * Adds a log entry to the current batch. If the batch reaches the maximum size, it is passed to the sender threads.
+	 * This method blocks, if the queue for batches is full.
+	 *
+	 * @param logEntry
+	 *            Log entry to write
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for free space in the queue
+	 */
+	@Override
+	public void write(final LogEntry logEntry) throws InterruptedException {
+		byte[] data = render(logEntry).getBytes(charset);
+		byte[] completed = null;
+
+		synchronized (mutex) {
+			if (batch.size() == 0) {
+				batchStart = System.currentTimeMillis();
+			}
+
+			batch.write(data, 0, data.length);
+
+			if (batch.size() >= batchSize) {
+				completed = seal();
+			}
+		}
+
+		if (completed == null) {
+			flushTask.markDirty();
+		} else {
+			queue.put(completed);
+		}
+	}
+
+	/**
+	 * Passes the current batch to the sender threads, if it has reached the maximum age. This method never blocks. If
+	 * the queue for batches is full, the batch is retained and sent later.
+	 */
+	@Override
+	public void flush() {
+		synchronized (mutex) {
+			if (batch.size() > 0) {
+				if (System.currentTimeMillis() - batchStart >= batchInterval) {
+					byte[] expired = batch.toByteArray();
+					if (queue.offer(expired)) {
+						batch.reset();
+						return;
+					}
+				}
+
+				flushTask.markDirty();
+			}
+		}
+	}
+
+	/**
+	 * Sends all remaining log entries and stops the sender threads. Remaining batches that cannot be sent within ten
+	 * seconds are discarded. Closing never blocks longer than ten seconds.
+	 *
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for the sender threads
+	 */
+	@Override
+	public void close() throws InterruptedException {
+		flushTask.cancel();
+
+		byte[] remaining;
+		synchronized (mutex) {
+			remaining = batch.size() > 0 ? seal() : null;
+		}
+
+		long deadline = System.currentTimeMillis() + CLOSE_TIMEOUT;
+		long discarded = 0;
+
+		if (remaining != null && !offer(remaining, deadline)) {
+			discarded += remaining.length;
+		}
+
+		for (int i = 0; i < senders.size(); ++i) {
+			if (!offer(HttpSender.POISON, deadline)) {
+				discarded += discardQueuedBatches();
+				if (!queue.offer(HttpSender.POISON)) {
+					break;
+				}
+			}
+		}
+
+		if (discarded > 0) {
+			InternalLogger.log(Level.ERROR, "Discarded " + discarded + " bytes of log entries that could not be sent while closing");
+		}
+
+		for (HttpSender sender : senders) {
+			sender.join(Math.max(1, deadline - System.currentTimeMillis()));
+		}
+	}
+
+	/**
+	 * Passes a batch to the sender threads. This method blocks until there is free space in the queue or the deadline
+	 * has been reached.
+	 *
+	 * @param data
+	 *            Batch to pass
+	 * @param deadline
+	 *            Latest point in time in milliseconds since 1970-01-01T00:00:00Z
+	 * @return {@code true} if the batch has been passed, {@code false} if the deadline has been reached
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for free space in the queue
+	 */
+	private boolean offer(final byte[] data, final long deadline) throws InterruptedException {
+		return queue.offer(data, Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Removes all queued batches that have not been taken by any sender thread yet. Already queued poison batches are
+	 * kept.
+	 *
+	 * @return Total number of bytes of all removed batches
+	 */
+	private long discardQueuedBatches() {
+		long discarded = 0;
+		for (Iterator<byte[]> iterator = queue.iterator(); iterator.hasNext();) {
+			byte[] data = iterator.next();
+			if (data != HttpSender.POISON) {
+				iterator.remove();
+				discarded += data.length;
+			}
+		}
+		return discarded;
+	}
+
+	/**
+	 * Takes the content of the current batch and starts a new empty batch.
+	 *
+	 * @return Content of the completed batch
+	 */
+	private byte[] seal() {
+		byte[] data = batch.toByteArray();
+		batch.reset();
+		return data;
+	}
+
+	/**
+	 * Extracts the target URL from configuration.
+	 *
+	 * @param properties
+	 *            Configuration for writer
+	 * @return Target URL
+	 * @throws IllegalArgumentException
+	 *             URL is missing or invalid
+	 */
+	private static URL getUrl(final Map<String, String> properties) {
+		String url = properties.get("url");
+		if (url == null) {
+			throw new IllegalArgumentException("URL is missing for HTTP writer");
+		}
+
+		try {
+			return new URL(url.trim());
+		} catch (MalformedURLException ex) {
+			throw new IllegalArgumentException("Invalid URL for HTTP writer: " + url, ex);
+		}
+	}
+
+	/**
+	 * Checks whether gzip compression is configured.
+	 *
+	 * @param compression
+	 *            Configured compression or {@code null}
+	 * @return {@code true} for gzip compression, {@code false} for no compression
+	 */
+	private static boolean isGzipEnabled(final String compression) {
+		if (compression == null || "none".equalsIgnoreCase(compression.trim())) {
+			return false;
+		} else if ("gzip".equalsIgnoreCase(compression.trim())) {
+			return true;
+		} else {
+			InternalLogger.log(Level.ERROR, "Invalid compression: " + compression);
+			return false;
+		}
+	}
+
+	/**
+	 * Creates the HTTP headers to send with each request.
+	 *
+	 * @param properties
+	 *            Configuration for writer
+	 * @param charset
+	 *            Charset of rendered log entries
+	 * @param gzip
+	 *            Request bodies are compressed with gzip
+	 * @return HTTP headers
+	 */
+	private static Map<String, String> getHeaders(final Map<String, String> properties, final Charset charset, final boolean gzip) {
+		Map<String, String> headers = new HashMap<String, String>();
+
+		String contentType = properties.get("content.type");
+		headers.put("Content-Type", (contentType == null ? DEFAULT_CONTENT_TYPE : contentType) + "; charset=" + charset.name());
+
+		if (gzip) {
+			headers.put("Content-Encoding", "gzip");
+		}
+
+		for (Map.Entry<String, String> entry : properties.entrySet()) {
+			if (entry.getKey().startsWith(HEADER_PREFIX)) {
+				headers.put(entry.getKey().substring(HEADER_PREFIX.length()), entry.getValue());
+			}
+		}
+
+		return headers;
+	}
+
+	/**
+	 * Extracts the maximum number of retries from configuration.
+	 *
+	 * @param retries
+	 *            Configured number of retries or {@code null}
+	 * @return Maximum number of retries
+	 */
+	private static int getRetries(final String retries) {
+		if (retries != null) {
+			try {
+				int number = Integer.parseInt(retries.trim());
+				if (number >= 0) {
+					return number;
+				}
+			} catch (NumberFormatException ex) {
+				// Report below
+			}
+
+			InternalLogger.log(Level.ERROR, "Invalid number of retries: " + retries);
+		}
+
+		return DEFAULT_RETRIES;
+	}
+
+}
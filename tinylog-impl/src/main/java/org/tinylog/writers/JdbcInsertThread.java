@@ -0,0 +1,268 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.naming.NamingException;
+
+import org.tinylog.Level;
+import org.tinylog.core.LogEntry;
+import org.tinylog.provider.InternalLogger;
+
+/**
+ * Thread for inserting batches of log entries into a database in background. Each insert thread uses its own database
+ * connection, so that logging threads never wait for database round trips. Failed batches are stored in the spill
+ * journal if available, otherwise they are reported and counted as lost.
+ */
+final class JdbcInsertThread extends Thread {
+
+	/**
+	 * Batch for signaling an insert thread to terminate. Each insert thread terminates after taking this batch.
+	 */
+	static final List<LogEntry> POISON = Collections.emptyList();
+
+	private static final String THREAD_NAME = "tinylog-JdbcInsertThread";
+	private static final long MIN_RETRY_INTERVAL = 1000;
+	private static final long MIN_REPLAY_DELAY = 10;
+
+	private final BlockingQueue<List<LogEntry>> queue;
+	private final String url;
+	private final String user;
+	private final String password;
+	private final boolean reconnect;
+	private final JdbcInserter inserter;
+	private final JdbcSpillJournal journal;
+	private final int batchSize;
+
+	private Connection connection;
+	private boolean broken;
+	private long lostCount;
+	private long reconnectTimestamp;
+
+	/**
+	 * @param queue
+	 *            Queue with batches to insert
+	 * @param url
+	 *            JDBC or data source URL
+	 * @param user
+	 *            User name for login (can be {@code null} if no login is required)
+	 * @param password
+	 *            Password for login (can be {@code null} if no login is required)
+	 * @param reconnect
+	 *            Broken connections should be reestablished
+	 * @param inserter
+	 *            Inserter for executing the insert statements
+	 * @param journal
+	 *            Spill journal for log entries that cannot be inserted (can be {@code null})
+	 * @param batchSize
+	 *            Maximum number of log entries per replayed batch from the spill journal
+	 */
+	JdbcInsertThread(final BlockingQueue<List<LogEntry>> queue, final String url, final String user, final String password,
+		final boolean reconnect, final JdbcInserter inserter, final JdbcSpillJournal journal, final int batchSize) {
+		this.queue = queue;
+		this.url = url;
+		this.user = user;
+		this.password = password;
+		this.reconnect = reconnect;
+		this.inserter = inserter;
+		this.journal = journal;
+		this.batchSize = batchSize;
+
+		setName(THREAD_NAME);
+		setPriority(Thread.MIN_PRIORITY);
+		setDaemon(true);
+	}
+
+	/**
+	 * Inserts batches until taking the {@link #POISON poison batch}.
+	 */
+	@Override
+	public void run() {
+		try {
+			while (true) {
+				List<LogEntry> batch = take();
+				if (batch == POISON) {
+					return;
+				} else if (batch != null) {
+					insert(batch);
+				}
+
+				if (journal != null && !journal.isEmpty() && checkConnection()) {
+					replay();
+				}
+			}
+		} finally {
+			if (lostCount > 0) {
+				InternalLogger.log(Level.ERROR, "Lost log entries due to broken database connection: " + lostCount);
+			}
+
+			closeConnectionSilently();
+		}
+	}
+
+	/**
+	 * Takes the next batch from the queue. This method blocks until a batch is available. If there are log entries to
+	 * replay from the spill journal, this method waits only for a short time.
+	 *
+	 * @return Next batch or {@code null} if there is no batch available yet
+	 */
+	private List<LogEntry> take() {
+		while (true) {
+			try {
+				if (journal == null || journal.isEmpty()) {
+					return queue.take();
+				} else {
+					return queue.poll(MIN_REPLAY_DELAY, TimeUnit.MILLISECONDS);
+				}
+			} catch (InterruptedException ex) {
+				// Ignore and continue
+			}
+		}
+	}
+
+	/**
+	 * Inserts a batch. The batch is stored in the spill journal or counted as lost, if there is no database connection
+	 * or inserting fails.
+	 *
+	 * @param batch
+	 *            Log entries to insert
+	 */
+	private void insert(final List<LogEntry> batch) {
+		if (checkConnection()) {
+			try {
+				inserter.insert(connection, batch);
+			} catch (SQLException ex) {
+				InternalLogger.log(Level.ERROR, ex, "Failed to insert log entries into database");
+				closeConnectionSilently();
+				broken = true;
+				spill(batch);
+			}
+		} else {
+			spill(batch);
+		}
+	}
+
+	/**
+	 * Replays the next batch of log entries from the spill journal, if the replay interval has elapsed.
+	 */
+	private void replay() {
+		try {
+			List<LogEntry> batch = journal.replay(batchSize);
+			if (!batch.isEmpty()) {
+				insert(batch);
+			}
+		} catch (IOException ex) {
+			InternalLogger.log(Level.ERROR, ex, "Failed to read spill journal");
+		}
+	}
+
+	/**
+	 * Stores log entries in the spill journal. Log entries are counted as lost if there is no spill journal or no space
+	 * left in the spill journal.
+	 *
+	 * @param batch
+	 *            Log entries to store
+	 */
+	private void spill(final List<LogEntry> batch) {
+		for (LogEntry logEntry : batch) {
+			boolean stored = false;
+
+			if (journal != null) {
+				try {
+					stored = journal.append(logEntry);
+				} catch (IOException ex) {
+					InternalLogger.log(Level.ERROR, ex, "Failed to write spill journal");
+				}
+			}
+
+			if (!stored) {
+				lostCount += 1;
+			}
+		}
+	}
+
+	/**
+	 * Checks if the database connection is opened. A new connection is established for the first batch. Broken
+	 * connections are reestablished in regular intervals, if reconnecting is enabled.
+	 *
+	 * @return {@code true} if the database connection is opened, otherwise {@code false}
+	 */
+	private boolean checkConnection() {
+		if (connection != null) {
+			return true;
+		} else if ((broken && !reconnect) || System.currentTimeMillis() < reconnectTimestamp) {
+			return false;
+		}
+
+		long start = System.currentTimeMillis();
+		try {
+			connection = JdbcWriter.connect(url, user, password);
+		} catch (NamingException ex) {
+			return handleConnectionFailure(ex, start);
+		} catch (SQLException ex) {
+			return handleConnectionFailure(ex, start);
+		}
+
+		if (lostCount > 0) {
+			InternalLogger.log(Level.ERROR, "Lost log entries due to broken database connection: " + lostCount);
+			lostCount = 0;
+		}
+
+		broken = false;
+		return true;
+	}
+
+	/**
+	 * Handles a failed connection attempt.
+	 *
+	 * @param exception
+	 *            Thrown exception
+	 * @param start
+	 *            Timestamp in milliseconds when the connection attempt was started
+	 * @return Always {@code false}
+	 */
+	private boolean handleConnectionFailure(final Exception exception, final long start) {
+		if (!broken) {
+			InternalLogger.log(Level.ERROR, exception, "Failed to connect to database");
+			broken = true;
+		}
+
+		long now = System.currentTimeMillis();
+		reconnectTimestamp = now + Math.max(MIN_RETRY_INTERVAL, (now - start) * 2);
+		return false;
+	}
+
+	/**
+	 * Closes the opened database connection without throwing any exceptions.
+	 */
+	private void closeConnectionSilently() {
+		if (connection != null) {
+			try {
+				connection.close();
+			} catch (SQLException ex) {
+				// Ignore
+			} finally {
+				connection = null;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.tinylog.core.LogEntry;
+import org.tinylog.pattern.Token;
+
+/**
+ * Inserter for batches of log entries. Log entries are inserted either via JDBC batch execution of a single-row insert
+ * statement, or via multi-row insert statements like {@code INSERT INTO LOGS (A, B) VALUES (?, ?), (?, ?)}.
+ *
+ * <p>
+ * Prepared statements are cached per number of rows for the current connection. In multi-row mode, batches that are
+ * smaller than the maximum batch size are split into chunks whose sizes are powers of two. Therefore, at most a
+ * logarithmic number of different statements have to be prepared. Instances are not thread-safe.
+ * </p>
+ *
+ * <p>
+ * Chunks and batches are committed separately by the auto-commit mode of the connection. If inserting fails, all log
+ * entries that have already been inserted are removed from the passed list. Thus, callers can store the remaining log
+ * entries in the spill journal or count them as lost without duplicating or miscounting inserted log entries.
+ * </p>
+ */
+final class JdbcInserter {
+
+	private static final String SEPARATOR = ", ";
+
+	private final String prefix;
+	private final String row;
+	private final List<Token> tokens;
+	private final boolean multiRow;
+	private final int maxRows;
+
+	private final Map<Integer, PreparedStatement> statements;
+	private Connection connection;
+
+	/**
+	 * @param prefix
+	 *            Beginning of insert statement including the column names, like {@code INSERT INTO LOGS (A, B) VALUES }
+	 * @param row
+	 *            Placeholders for a single row, like {@code (?, ?)}
+	 * @param tokens
+	 *            Tokens for filling the placeholders of a row
+	 * @param multiRow
+	 *            {@code true} for multi-row insert statements, {@code false} for JDBC batch execution
+	 * @param maxRows
+	 *            Maximum number of rows per batch
+	 */
+	JdbcInserter(final String prefix, final String row, final List<Token> tokens, final boolean multiRow, final int maxRows) {
+		this.prefix = prefix;
+		this.row = row;
+		this.tokens = tokens;
+		this.multiRow = multiRow;
+		this.maxRows = maxRows;
+		this.statements = new HashMap<Integer, PreparedStatement>();
+	}
+
+	/**
+	 * Inserts log entries into the database. If inserting fails, the passed list contains only the log entries that
+	 * have not been inserted.
+	 *
+	 * @param connection
+	 *            Database connection to use
+	 * @param entries
+	 *            Log entries to insert
+	 * @throws SQLException
+	 *             Failed to insert log entries
+	 */
+	void insert(final Connection connection, final List<LogEntry> entries) throws SQLException {
+		if (this.connection != connection) {
+			statements.clear();
+			this.connection = connection;
+		}
+
+		if (multiRow) {
+			int offset = 0;
+			try {
+				while (offset < entries.size()) {
+					int remaining = entries.size() - offset;
+					int count = remaining >= maxRows ? maxRows : Integer.highestOneBit(remaining);
+					PreparedStatement statement = getStatement(count);
+
+					int index = 1;
+					for (int i = offset; i < offset + count; ++i) {
+						for (Token token : tokens) {
+							token.apply(entries.get(i), statement, index++);
+						}
+					}
+
+					statement.executeUpdate();
+					offset += count;
+				}
+			} catch (SQLException ex) {
+				entries.subList(0, offset).clear();
+				throw ex;
+			}
+		} else if (!entries.isEmpty()) {
+			PreparedStatement statement = getStatement(1);
+
+			for (LogEntry entry : entries) {
+				for (int i = 0; i < tokens.size(); ++i) {
+					tokens.get(i).apply(entry, statement, i + 1);
+				}
+				statement.addBatch();
+			}
+
+			try {
+				statement.executeBatch();
+			} catch (BatchUpdateException ex) {
+				removeInserted(entries, ex.getUpdateCounts());
+				throw ex;
+			}
+		}
+	}
+
+	/**
+	 * Removes all successfully inserted log entries of a failed JDBC batch execution. Depending on the JDBC driver,
+	 * the update counts cover either all log entries or only the log entries before the first failure.
+	 *
+	 * @param entries
+	 *            Log entries of the failed batch
+	 * @param updateCounts
+	 *            Update counts of the batch execution
+	 */
+	private static void removeInserted(final List<LogEntry> entries, final int[] updateCounts) {
+		List<LogEntry> failed = new ArrayList<LogEntry>(entries.size());
+		for (int i = 0; i < entries.size(); ++i) {
+			if (updateCounts == null || i >= updateCounts.length || updateCounts[i] == Statement.EXECUTE_FAILED) {
+				failed.add(entries.get(i));
+			}
+		}
+
+		entries.clear();
+		entries.addAll(failed);
+	}
+
+	/**
+	 * Gets the prepared statement for inserting a defined number of rows. The statement is prepared if it is not cached
+	 * yet.
+	 *
+	 * @param rows
+	 *            Number of rows
+	 * @return Prepared statement
+	 * @throws SQLException
+	 *             Failed to prepare statement
+	 */
+	private PreparedStatement getStatement(final int rows) throws SQLException {
+		PreparedStatement statement = statements.get(rows);
+
+		if (statement == null) {
+			StringBuilder builder = new StringBuilder(prefix.length() + (row.length() + SEPARATOR.length()) * rows);
+			builder.append(prefix);
+			for (int i = 0; i < rows; ++i) {
+				if (i > 0) {
+					builder.append(SEPARATOR);
+				}
+				builder.append(row);
+			}
+
+			statement = connection.prepareStatement(builder.toString());
+			statements.put(rows, statement);
+		}
+
+		return statement;
+	}
+
+}
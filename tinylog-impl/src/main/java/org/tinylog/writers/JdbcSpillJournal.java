@@ -0,0 +1,255 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.tinylog.Level;
+import org.tinylog.core.LogEntry;
+import org.tinylog.provider.InternalLogger;
+
+/**
+ * Local journal for log entries that cannot be inserted into the database while the connection is broken. Log entries
+ * are appended in the binary format of {@link BinaryWriter} and replayed in batches after the connection has been
+ * reestablished. The journal file is deleted as soon as all log entries have been replayed. A journal that has not
+ * been replayed completely is kept and will be replayed after the next start.
+ *
+ * <p>
+ * The size of the journal file is limited. Log entries with a severity level below the configured priority level can
+ * only fill the first half of the journal. The second half is reserved for log entries with the priority level or
+ * higher. Batches are replayed at most once per replay interval to avoid overloading a recovering database. This class
+ * is thread-safe.
+ * </p>
+ */
+final class JdbcSpillJournal {
+
+	private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+	private final File file;
+	private final long maxSize;
+	private final Level priority;
+	private final long replayInterval;
+
+	private BinaryWriter writer;
+	private BinaryLogDecoder decoder;
+	private long size;
+	private long replayTimestamp;
+
+	/**
+	 * @param fileName
+	 *            Path to journal file
+	 * @param maxSize
+	 *            Maximum size of journal file in bytes
+	 * @param priority
+	 *            Minimum severity level for using the reserved second half of the journal file
+	 * @param replayInterval
+	 *            Minimum interval in milliseconds between two replayed batches
+	 */
+	JdbcSpillJournal(final String fileName, final long maxSize, final Level priority, final long replayInterval) {
+		this.file = new File(fileName);
+		this.maxSize = maxSize;
+		this.priority = priority;
+		this.replayInterval = replayInterval;
+		this.size = file.length();
+	}
+
+	/**
+	 * Checks whether there are log entries to replay.
+	 *
+	 * @return {@code true} if the journal contains no log entries, {@code false} if there are log entries to replay
+	 */
+	synchronized boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Appends a log entry to the journal file.
+	 *
+	 * @param logEntry
+	 *            Log entry to store
+	 * @return {@code true} if the log entry has been stored, {@code false} if there is no space left for the log entry
+	 * @throws IOException
+	 *             Failed to write journal file
+	 */
+	synchronized boolean append(final LogEntry logEntry) throws IOException {
+		Level level = logEntry.getLevel();
+		long limit = level != null && level.ordinal() >= priority.ordinal() ? maxSize : maxSize / 2;
+
+		if (size >= limit) {
+			return false;
+		}
+
+		if (writer == null) {
+			writer = open(file, true);
+		}
+
+		writer.write(logEntry);
+		size = file.length();
+		return true;
+	}
+
+	/**
+	 * Takes the next batch of log entries for replaying. An empty list is returned if the journal is empty or the
+	 * replay interval has not elapsed since the last replayed batch. Failed batches have to be passed back to
+	 * {@link #append(LogEntry)}.
+	 *
+	 * @param count
+	 *            Maximum number of log entries
+	 * @return Log entries to insert into the database
+	 * @throws IOException
+	 *             Failed to open journal file
+	 */
+	synchronized List<LogEntry> replay(final int count) throws IOException {
+		long now = System.currentTimeMillis();
+		if (size == 0 || now < replayTimestamp) {
+			return Collections.emptyList();
+		}
+
+		replayTimestamp = now + replayInterval;
+
+		if (decoder == null) {
+			decoder = new BinaryLogDecoder(new BufferedInputStream(new FileInputStream(file)));
+		}
+
+		List<LogEntry> entries = new ArrayList<LogEntry>();
+		while (entries.size() < count) {
+			LogEntry logEntry = read();
+			if (logEntry == null) {
+				discard();
+				break;
+			}
+			entries.add(logEntry);
+		}
+
+		return entries;
+	}
+
+	/**
+	 * Closes the journal file. If the journal has been replayed partially, the remaining log entries are rewritten,
+	 * so that already replayed log entries will not be replayed again after the next start.
+	 *
+	 * @throws IOException
+	 *             Failed to write or close journal file
+	 */
+	synchronized void close() throws IOException {
+		try {
+			if (writer != null) {
+				writer.close();
+				writer = null;
+			}
+		} finally {
+			if (decoder != null) {
+				compact();
+			}
+		}
+	}
+
+	/**
+	 * Reads the next log entry from the journal file. A corrupted journal file is handled like its end, as it can
+	 * contain a partially written log entry after an application crash.
+	 *
+	 * @return Read log entry or {@code null} if the end of the journal file has been reached
+	 */
+	private LogEntry read() {
+		try {
+			return decoder.read();
+		} catch (IOException ex) {
+			InternalLogger.log(Level.ERROR, ex, "Failed to read spill journal \"" + file + "\"");
+			return null;
+		}
+	}
+
+	/**
+	 * Moves all log entries that have not been replayed yet into a new journal file, which replaces the current one.
+	 *
+	 * @throws IOException
+	 *             Failed to write new journal file
+	 */
+	private void compact() throws IOException {
+		File temporary = new File(file.getPath() + TEMPORARY_FILE_SUFFIX);
+		BinaryWriter copy = open(temporary, false);
+		boolean empty = true;
+
+		try {
+			for (LogEntry logEntry = read(); logEntry != null; logEntry = read()) {
+				copy.write(logEntry);
+				empty = false;
+			}
+		} finally {
+			copy.close();
+			decoder.close();
+			decoder = null;
+		}
+
+		if (!file.delete() || empty) {
+			temporary.delete();
+		} else if (!temporary.renameTo(file)) {
+			throw new IOException("Failed to rename \"" + temporary + "\" to \"" + file + "\"");
+		}
+
+		size = file.length();
+	}
+
+	/**
+	 * Closes and deletes the completely replayed journal file.
+	 *
+	 * @throws IOException
+	 *             Failed to close journal file
+	 */
+	private void discard() throws IOException {
+		try {
+			if (writer != null) {
+				writer.close();
+				writer = null;
+			}
+		} finally {
+			decoder.close();
+			decoder = null;
+		}
+
+		if (!file.delete()) {
+			InternalLogger.log(Level.WARN, "Failed to delete spill journal \"" + file + "\"");
+		}
+
+		size = 0;
+	}
+
+	/**
+	 * Opens a binary writer for a journal file.
+	 *
+	 * @param target
+	 *            Journal file to open
+	 * @param append
+	 *            An already existing file should be continued
+	 * @return Binary writer for the journal file
+	 * @throws IOException
+	 *             Failed to open journal file
+	 */
+	private static BinaryWriter open(final File target, final boolean append) throws IOException {
+		Map<String, String> properties = new HashMap<String, String>();
+		properties.put("file", target.getPath());
+		properties.put("append", Boolean.toString(append));
+		properties.put("writingthread", "true");
+		return new BinaryWriter(properties);
+	}
+
+}
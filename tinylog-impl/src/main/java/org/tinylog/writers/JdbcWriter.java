@@ -13,10 +13,13 @@
 
 package org.tinylog.writers;
 
+import java.io.IOException;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -25,6 +28,8 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import javax.naming.InitialContext;
 import javax.naming.NamingException;
@@ -39,25 +44,51 @@ import org.tinylog.provider.InternalLogger;
 
 /**
  * Writer for inserting log entries into a SQL database table.
+ *
+ * <p>
+ * If batch execution is enabled, log entries are inserted in batches of {@code batch.size} log entries. Partial batches
+ * are inserted on flushing and, if {@code batch.interval} is defined, at the latest after the defined maximum age.
+ * Batches can be inserted via multi-row insert statements ({@code batch.multirow}) instead of JDBC batch execution.
+ * Optionally, batches are inserted by dedicated insert threads ({@code insert.threads}) with their own database
+ * connections. In this case, writing log entries only waits for the database if all insert threads are busy and the
+ * queue for completed batches is full.
+ * </p>
+ *
+ * <p>
+ * If reconnecting is enabled, log entries can be stored in a local spill journal ({@code spill}) while the database
+ * connection is broken. The journal is replayed in throttled batches after the connection has been reestablished.
+ * </p>
  */
 public final class JdbcWriter implements Writer {
 
 	private static final String FIELD_PREFIX = "field.";
-	private static final long MAX_BATCH_SIZE = 100;
+	private static final int DEFAULT_BATCH_SIZE = 100;
+	private static final int DEFAULT_SPILL_SIZE = 10 * 1024 * 1024;
+	private static final Level DEFAULT_SPILL_PRIORITY = Level.WARN;
+	private static final long DEFAULT_REPLAY_INTERVAL = 100;
 	private static final long MIN_RETRY_INTERVAL = 1000;
+	private static final String VALUES = " VALUES ";
 
 	private final String url;
 	private final String user;
 	private final String password;
 	private final boolean reconnect;
 	private final boolean batch;
+	private final int batchSize;
 
 	private final Object mutex;
 	private final String sql;
 	private final List<Token> tokens;
+	private final JdbcInserter inserter;
+	private final JdbcSpillJournal journal;
+	private final FlushTask flushTask;
+
+	private final BlockingQueue<List<LogEntry>> queue;
+	private final List<JdbcInsertThread> insertThreads;
 
 	private Connection connection;
 	private PreparedStatement statement;
+	private List<LogEntry> entries;
 	private long batchCount;
 	private long lostCount;
 	private long reconnectTimestamp;
@@ -87,13 +118,62 @@ public final class JdbcWriter implements Writer {
 		password = properties.get("password");
 		reconnect = Boolean.parseBoolean(properties.get("reconnect"));
 		batch = Boolean.parseBoolean(properties.get("batch"));
+		batchSize = AbstractFormatPatternWriter.parsePositiveNumber(properties.get("batch.size"), "batch size", DEFAULT_BATCH_SIZE);
+
+		boolean multiRow = batch && Boolean.parseBoolean(properties.get("batch.multirow"));
+		String threadsProperty = batch ? properties.get("insert.threads") : null;
+		int threads = AbstractFormatPatternWriter.parsePositiveNumber(threadsProperty, "number of insert threads", 0);
+
+		boolean writingThread = Boolean.parseBoolean(properties.get("writingthread"));
+		String intervalProperty = batch && !writingThread ? properties.get("batch.interval") : null;
+		long interval = intervalProperty == null ? 0 : AbstractFormatPatternWriter.parseInterval(intervalProperty, "batch interval");
 
-		mutex = Boolean.parseBoolean(properties.get("writingthread")) ? null : new Object();
+		mutex = writingThread ? null : new Object();
+		journal = createJournal(properties, reconnect);
 
 		connection = connect(url, user, password);
-		sql = renderSql(properties, connection.getMetaData().getIdentifierQuoteString());
-		statement = connection.prepareStatement(sql);
+		String prefix = renderSqlPrefix(properties, connection.getMetaData().getIdentifierQuoteString());
 		tokens = createTokens(properties);
+		String row = renderSqlRow(tokens.size());
+		sql = prefix + row;
+
+		if (threads > 0) {
+			connection.close();
+			connection = null;
+
+			entries = new ArrayList<LogEntry>(batchSize);
+			inserter = null;
+			queue = new ArrayBlockingQueue<List<LogEntry>>(threads);
+			insertThreads = new ArrayList<JdbcInsertThread>(threads);
+
+			for (int i = 0; i < threads; ++i) {
+				JdbcInserter threadInserter = new JdbcInserter(prefix, row, tokens, multiRow, batchSize);
+				JdbcInsertThread thread = new JdbcInsertThread(queue, url, user, password, reconnect, threadInserter, journal, batchSize);
+				thread.start();
+				insertThreads.add(thread);
+			}
+		} else {
+			if (multiRow || (batch && journal != null)) {
+				entries = new ArrayList<LogEntry>(batchSize);
+			} else {
+				statement = connection.prepareStatement(sql);
+			}
+
+			if (multiRow || journal != null) {
+				inserter = new JdbcInserter(prefix, row, tokens, multiRow, batchSize);
+			} else {
+				inserter = null;
+			}
+
+			queue = null;
+			insertThreads = Collections.emptyList();
+		}
+
+		if (interval == 0 && journal != null && !writingThread) {
+			interval = DEFAULT_REPLAY_INTERVAL;
+		}
+
+		flushTask = interval > 0 ? new FlushTask(this, interval) : null;
 	}
 
 	@Override
@@ -107,35 +187,73 @@ public final class JdbcWriter implements Writer {
 
 	@Override
 	public void write(final LogEntry logEntry) throws SQLException {
+		List<LogEntry> completed;
+
 		if (mutex == null) {
-			doWrite(logEntry);
+			completed = doWrite(logEntry);
 		} else {
 			synchronized (mutex) {
-				doWrite(logEntry);
+				completed = doWrite(logEntry);
 			}
 		}
+
+		if (completed != null) {
+			submit(completed);
+		}
+
+		if (flushTask != null) {
+			flushTask.markDirty();
+		}
 	}
 
 	@Override
 	public void flush() throws SQLException {
-		if (batch) {
+		if (batch || journal != null) {
+			List<LogEntry> completed;
+
 			if (mutex == null) {
-				doFlush();
+				completed = doFlush();
 			} else {
 				synchronized (mutex) {
-					doFlush();
+					completed = doFlush();
 				}
 			}
+
+			if (completed != null) {
+				submit(completed);
+			}
+
+			if (flushTask != null && journal != null && !journal.isEmpty()) {
+				flushTask.markDirty();
+			}
 		}
 	}
 
 	@Override
 	public void close() throws SQLException {
-		if (mutex == null) {
-			doClose();
-		} else {
-			synchronized (mutex) {
+		if (flushTask != null) {
+			flushTask.cancel();
+		}
+
+		try {
+			if (mutex == null) {
 				doClose();
+			} else {
+				synchronized (mutex) {
+					doClose();
+				}
+			}
+		} finally {
+			for (int i = 0; i < insertThreads.size(); ++i) {
+				submit(JdbcInsertThread.POISON);
+			}
+
+			for (JdbcInsertThread thread : insertThreads) {
+				join(thread);
+			}
+
+			if (journal != null) {
+				closeJournal();
 			}
 		}
 	}
@@ -145,12 +263,29 @@ public final class JdbcWriter implements Writer {
 	 *
 	 * @param logEntry
 	 *            Log entry to insert
+	 * @return Completed batch for the insert threads or {@code null} if there is none
 	 *
 	 * @throws SQLException
 	 *             Database access failed
 	 */
-	private void doWrite(final LogEntry logEntry) throws SQLException {
-		if (checkConnection()) {
+	private List<LogEntry> doWrite(final LogEntry logEntry) throws SQLException {
+		if (queue != null) {
+			entries.add(logEntry);
+			return entries.size() >= batchSize ? takeEntries() : null;
+		} else if (entries != null) {
+			if (checkConnection()) {
+				entries.add(logEntry);
+				batchCount += 1;
+				if (batchCount >= batchSize) {
+					doFlush();
+				}
+			} else {
+				spill(logEntry);
+			}
+			return null;
+		} else if (checkConnection()) {
+			replay();
+
 			if (batch) {
 				batchCount += 1;
 			}
@@ -160,14 +295,14 @@ public final class JdbcWriter implements Writer {
 					tokens.get(i).apply(logEntry, statement, i + 1);
 				}
 			} catch (SQLException ex) {
-				resetConnection();
+				resetConnection(logEntry);
 				throw ex;
 			}
 
 			try {
 				if (batch) {
 					statement.addBatch();
-					if (batchCount >= MAX_BATCH_SIZE) {
+					if (batchCount >= batchSize) {
 						statement.executeBatch();
 						batchCount = 0;
 					}
@@ -175,30 +310,187 @@ public final class JdbcWriter implements Writer {
 					statement.executeUpdate();
 				}
 			} catch (SQLException ex) {
-				resetConnection();
+				batchCount = countFailed(ex, batchCount);
+				resetConnection(logEntry);
 				throw ex;
 			}
 		} else {
-			lostCount += 1;
+			spill(logEntry);
 		}
+
+		return null;
 	}
 
 	/**
 	 * Unsynchronized method for flushing all cached batch insert statements.
 	 *
+	 * @return Partial batch for the insert threads or {@code null} if there is none
+	 *
 	 * @throws SQLException
 	 *             Database access failed
 	 */
-	private void doFlush() throws SQLException {
+	private List<LogEntry> doFlush() throws SQLException {
+		if (queue != null) {
+			return entries.isEmpty() ? null : takeEntries();
+		}
+
 		if (batchCount > 0) {
 			try {
-				statement.executeBatch();
+				if (entries == null) {
+					statement.executeBatch();
+				} else {
+					inserter.insert(connection, entries);
+					entries.clear();
+				}
 				batchCount = 0;
 			} catch (SQLException ex) {
-				resetConnection();
+				batchCount = countFailed(ex, batchCount);
+				resetConnection(null);
 				throw ex;
 			}
 		}
+
+		if (journal != null && !journal.isEmpty() && checkConnection()) {
+			replay();
+		}
+
+		return null;
+	}
+
+	/**
+	 * Replays the next batch of log entries from the spill journal, if the replay interval has elapsed. Failed log
+	 * entries are stored in the spill journal again.
+	 *
+	 * @throws SQLException
+	 *             Database access failed
+	 */
+	private void replay() throws SQLException {
+		if (journal != null && !journal.isEmpty()) {
+			List<LogEntry> replayed;
+			try {
+				replayed = journal.replay(batchSize);
+			} catch (IOException ex) {
+				InternalLogger.log(Level.ERROR, ex, "Failed to read spill journal");
+				return;
+			}
+
+			if (!replayed.isEmpty()) {
+				try {
+					inserter.insert(connection, replayed);
+				} catch (SQLException ex) {
+					for (LogEntry logEntry : replayed) {
+						spill(logEntry);
+					}
+					resetConnection(null);
+					throw ex;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of statements of a failed JDBC batch execution that have not been executed successfully.
+	 * Statements of the batch that have been executed before the failure are already committed and must not be counted
+	 * as lost.
+	 *
+	 * @param ex
+	 *            Exception of the failed batch execution
+	 * @param count
+	 *            Number of statements in the batch
+	 * @return Number of statements that have not been executed successfully
+	 */
+	private static long countFailed(final SQLException ex, final long count) {
+		if (ex instanceof BatchUpdateException) {
+			int[] updateCounts = ((BatchUpdateException) ex).getUpdateCounts();
+			if (updateCounts != null) {
+				long failed = count;
+				for (int i = 0; i < updateCounts.length && i < count; ++i) {
+					if (updateCounts[i] != Statement.EXECUTE_FAILED) {
+						failed -= 1;
+					}
+				}
+				return failed;
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Stores a log entry that cannot be inserted into the database in the spill journal. The log entry is counted as
+	 * lost if there is no spill journal or no space left in the spill journal.
+	 *
+	 * @param logEntry
+	 *            Log entry to store
+	 */
+	private void spill(final LogEntry logEntry) {
+		if (journal != null) {
+			try {
+				if (journal.append(logEntry)) {
+					return;
+				}
+			} catch (IOException ex) {
+				InternalLogger.log(Level.ERROR, ex, "Failed to write spill journal");
+			}
+		}
+
+		lostCount += 1;
+	}
+
+	/**
+	 * Takes all buffered log entries and starts a new empty batch.
+	 *
+	 * @return Buffered log entries
+	 */
+	private List<LogEntry> takeEntries() {
+		List<LogEntry> completed = entries;
+		entries = new ArrayList<LogEntry>(batchSize);
+		return completed;
+	}
+
+	/**
+	 * Passes a batch to the insert threads. This method blocks until there is free space in the queue.
+	 *
+	 * @param completed
+	 *            Batch to insert
+	 */
+	private void submit(final List<LogEntry> completed) {
+		boolean interrupted = false;
+
+		while (true) {
+			try {
+				queue.put(completed);
+				break;
+			} catch (InterruptedException ex) {
+				interrupted = true;
+			}
+		}
+
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Waits for the termination of an insert thread.
+	 *
+	 * @param thread
+	 *            Insert thread to wait for
+	 */
+	private static void join(final JdbcInsertThread thread) {
+		boolean interrupted = false;
+
+		while (thread.isAlive()) {
+			try {
+				thread.join();
+			} catch (InterruptedException ex) {
+				interrupted = true;
+			}
+		}
+
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
 	}
 
 	/**
@@ -210,7 +502,10 @@ public final class JdbcWriter implements Writer {
 	private void doClose() throws SQLException {
 		try {
 			if (batch) {
-				doFlush();
+				List<LogEntry> remaining = doFlush();
+				if (remaining != null) {
+					submit(remaining);
+				}
 			}
 		} finally {
 			if (lostCount > 0) {
@@ -223,6 +518,17 @@ public final class JdbcWriter implements Writer {
 		}
 	}
 
+	/**
+	 * Closes the spill journal. Failures are reported, but do not prevent closing the writer.
+	 */
+	private void closeJournal() {
+		try {
+			journal.close();
+		} catch (IOException ex) {
+			InternalLogger.log(Level.ERROR, ex, "Failed to close spill journal");
+		}
+	}
+
 	/**
 	 * Checks if database connection is opened. Regular attempts are made to reestablish a broken database connection.
 	 *
@@ -234,9 +540,13 @@ public final class JdbcWriter implements Writer {
 				long start = System.currentTimeMillis();
 				try {
 					connection = connect(url, user, password);
-					statement = connection.prepareStatement(sql);
-					InternalLogger.log(Level.ERROR, "Lost log entries due to broken database connection: " + lostCount);
-					lostCount = 0;
+					if (entries == null) {
+						statement = connection.prepareStatement(sql);
+					}
+					if (lostCount > 0) {
+						InternalLogger.log(Level.ERROR, "Lost log entries due to broken database connection: " + lostCount);
+						lostCount = 0;
+					}
 					return true;
 				} catch (NamingException ex) {
 					long now = System.currentTimeMillis();
@@ -258,13 +568,26 @@ public final class JdbcWriter implements Writer {
 	}
 
 	/**
-	 * Resets the database connection after an error, if automatic reconnection is enabled.
+	 * Resets the database connection after an error, if automatic reconnection is enabled. Pending log entries are
+	 * stored in the spill journal if available, otherwise they are counted as lost.
+	 *
+	 * @param logEntry
+	 *            Log entry that failed to be inserted immediately (can be {@code null} for batches)
 	 */
-	private void resetConnection() {
+	private void resetConnection(final LogEntry logEntry) {
 		if (reconnect) {
 			closeConnectionSilently();
 			statement = null;
-			lostCount = batch ? batchCount : 1;
+			if (entries != null) {
+				for (LogEntry entry : entries) {
+					spill(entry);
+				}
+				entries.clear();
+			} else if (batch) {
+				lostCount += batchCount;
+			} else if (logEntry != null) {
+				spill(logEntry);
+			}
 			batchCount = 0;
 			reconnectTimestamp = 0;
 		}
@@ -303,7 +626,7 @@ public final class JdbcWriter implements Writer {
 	 * @throws SQLException
 	 *             Failed to connect to database
 	 */
-	private static Connection connect(final String url, final String user, final String password) throws NamingException, SQLException {
+	static Connection connect(final String url, final String user, final String password) throws NamingException, SQLException {
 		if (url.toLowerCase(Locale.ROOT).startsWith("java:")) {
 			DataSource source = (DataSource) new InitialContext().lookup(url);
 			if (user == null) {
@@ -320,6 +643,42 @@ public final class JdbcWriter implements Writer {
 		}
 	}
 
+	/**
+	 * Creates the spill journal, if configured. A spill journal requires automatic reconnection.
+	 *
+	 * @param properties
+	 *            Configuration for writer
+	 * @param reconnect
+	 *            Automatic reconnection is enabled
+	 * @return Spill journal or {@code null} if there is none
+	 */
+	private static JdbcSpillJournal createJournal(final Map<String, String> properties, final boolean reconnect) {
+		String fileName = properties.get("spill");
+		if (fileName == null) {
+			return null;
+		} else if (!reconnect) {
+			InternalLogger.log(Level.WARN, "Spill journal requires automatic reconnection and will be ignored");
+			return null;
+		}
+
+		int size = AbstractFormatPatternWriter.parsePositiveNumber(properties.get("spill.size"), "spill size", DEFAULT_SPILL_SIZE);
+
+		Level priority = DEFAULT_SPILL_PRIORITY;
+		String level = properties.get("spill.priority");
+		if (level != null) {
+			try {
+				priority = Level.valueOf(level.trim().toUpperCase(Locale.ROOT));
+			} catch (IllegalArgumentException ex) {
+				InternalLogger.log(Level.ERROR, "Invalid spill priority: " + level);
+			}
+		}
+
+		String intervalProperty = properties.get("spill.interval");
+		long interval = intervalProperty == null ? 0 : AbstractFormatPatternWriter.parseInterval(intervalProperty, "spill interval");
+
+		return new JdbcSpillJournal(fileName, size, priority, interval > 0 ? interval : DEFAULT_REPLAY_INTERVAL);
+	}
+
 	/**
 	 * Extracts the URL to database or data source from configuration.
 	 *
@@ -359,18 +718,19 @@ public final class JdbcWriter implements Writer {
 	}
 
 	/**
-	 * Generates an insert SQL statement for the configured table and its fields.
+	 * Generates the beginning of an insert SQL statement for the configured table and its fields. The returned prefix
+	 * ends with the keyword {@code VALUES} and has to be completed by one or more value rows.
 	 *
 	 * @param properties
 	 *            Properties that contains the configured table and fields
 	 * @param quote
 	 *            Character for quoting identifiers (can be a space if the database doesn't support quote characters)
-	 * @return SQL statement for {@link PreparedStatement}
+	 * @return Beginning of the SQL statement for {@link PreparedStatement}
 	 *
 	 * @throws SQLException
 	 *             Table or field names contain illegal characters
 	 */
-	private static String renderSql(final Map<String, String> properties, final String quote) throws SQLException {
+	private static String renderSqlPrefix(final Map<String, String> properties, final String quote) throws SQLException {
 		StringBuilder builder = new StringBuilder();
 		builder.append("INSERT INTO ");
 		append(builder, getTable(properties), quote);
@@ -391,7 +751,21 @@ public final class JdbcWriter implements Writer {
 			}
 		}
 
-		builder.append(") VALUES (");
+		builder.append(")").append(VALUES);
+
+		return builder.toString();
+	}
+
+	/**
+	 * Generates a value row with placeholders for all fields.
+	 *
+	 * @param count
+	 *            Number of fields
+	 * @return Value row for an insert SQL statement
+	 */
+	private static String renderSqlRow(final int count) {
+		StringBuilder builder = new StringBuilder();
+		builder.append("(");
 
 		for (int i = 0; i < count; ++i) {
 			if (i > 0) {
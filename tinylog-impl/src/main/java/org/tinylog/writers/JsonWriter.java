@@ -0,0 +1,497 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.regex.Pattern;
+
+import org.tinylog.core.LogEntry;
+import org.tinylog.core.LogEntryValue;
+import org.tinylog.path.DynamicPath;
+import org.tinylog.pattern.FormatPatternParser;
+import org.tinylog.pattern.Token;
+import org.tinylog.policies.Policy;
+import org.tinylog.writers.AbstractFormatPatternWriter.Durability;
+import org.tinylog.writers.AbstractFormatPatternWriter.OutputOptions;
+import org.tinylog.writers.raw.ByteArrayWriter;
+import org.tinylog.writers.raw.DurableWriterDecorator;
+
+/**
+ * Writer for outputting log entries as JSON lines. Each log entry is written as a single JSON object in one line.
+ *
+ * <p>
+ * Fields are configured via properties with the prefix {@code field.}. The property value is a format pattern like
+ * {@code {level}} or {@code {context: user}}. Field values are escaped directly into a reusable UTF-8 byte buffer
+ * without creating intermediate strings. Fields with a single numeric placeholder like {@code {timestamp}} or
+ * {@code {line}} are output as JSON numbers. Empty fields are omitted.
+ * </p>
+ *
+ * <p>
+ * The output can be buffered and rolled over by {@link Policy policies} like {@link RollingFileWriter}. Without any
+ * configured policies, the writer outputs to a single log file like {@link FileWriter}. I/O mode, buffers, durability,
+ * and flush interval are configured by the same properties as for these writers.
+ * </p>
+ */
+public final class JsonWriter implements Writer {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final String FIELD_PREFIX = "field.";
+	private static final String NEW_LINE = System.getProperty("line.separator");
+	private static final Pattern NUMERIC_PATTERN = Pattern.compile("\\{\\s*(timestamp|pid|thread-id|line|level-code)\\s*(:[^}]*)?}");
+
+	private static final int BUILDER_CAPACITY = 1024;
+	private static final int BUFFER_CAPACITY = 1024;
+	private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+	private static final int ASCII_LIMIT = 0x80;
+	private static final int TWO_BYTES_LIMIT = 0x800;
+	private static final int CONTROL_LIMIT = 0x20;
+	private static final int LOW_SIX_BITS = 0x3F;
+	private static final int CONTINUATION_BYTE = 0x80;
+	private static final int TWO_BYTES_HEADER = 0xC0;
+	private static final int THREE_BYTES_HEADER = 0xE0;
+	private static final int FOUR_BYTES_HEADER = 0xF0;
+	private static final int SIX_BITS = 6;
+	private static final int TWELVE_BITS = 12;
+	private static final int EIGHTEEN_BITS = 18;
+	private static final int NIBBLE_MASK = 0xF;
+	private static final int NIBBLE_BITS = 4;
+	private static final int MAX_BYTES_PER_CHAR = 6;
+
+	private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(UTF8);
+
+	private final RollingFile rollingFile;
+
+	private final byte[][] names;
+	private final Token[] tokens;
+	private final boolean[] numeric;
+
+	private final Object mutex;
+	private final FlushTask flushTask;
+	private final boolean groupCommit;
+	private final StringBuilder builder;
+
+	private byte[] buffer;
+	private int length;
+
+	private ByteArrayWriter writer;
+
+	/**
+	 * @throws FileNotFoundException
+	 *             Log file does not exist or cannot be opened for any other reason
+	 * @throws IllegalArgumentException
+	 *             A property has an invalid value or is missing in configuration
+	 */
+	public JsonWriter() throws FileNotFoundException {
+		this(Collections.<String, String>emptyMap());
+	}
+
+	/**
+	 * @param properties
+	 *            Configuration for writer
+	 *
+	 * @throws FileNotFoundException
+	 *             Log file does not exist or cannot be opened for any other reason
+	 * @throws IllegalArgumentException
+	 *             A property has an invalid value or is missing in configuration
+	 */
+	public JsonWriter(final Map<String, String> properties) throws FileNotFoundException {
+		Map<String, String> fields = getFields(properties);
+		FormatPatternParser parser = new FormatPatternParser(properties.get("exception"));
+
+		names = new byte[fields.size()][];
+		tokens = new Token[fields.size()];
+		numeric = new boolean[fields.size()];
+
+		int index = 0;
+		for (Entry<String, String> field : fields.entrySet()) {
+			names[index] = encodeName(field.getKey());
+			tokens[index] = parser.parse(field.getValue());
+			numeric[index] = NUMERIC_PATTERN.matcher(field.getValue().trim()).matches();
+			index += 1;
+		}
+
+		boolean writingThread = Boolean.parseBoolean(properties.get("writingthread"));
+		boolean buffered = Boolean.parseBoolean(properties.get("buffered"));
+		OutputOptions options = new OutputOptions(properties);
+
+		mutex = writingThread ? null : new Object();
+		builder = new StringBuilder(BUILDER_CAPACITY);
+		buffer = new byte[BUFFER_CAPACITY];
+
+		if (properties.containsKey("policies")) {
+			rollingFile = new RollingFile(properties, buffered, options);
+			writer = rollingFile.getWriter();
+		} else {
+			rollingFile = null;
+			String fileName = new DynamicPath(AbstractFormatPatternWriter.getFileName(properties)).resolve();
+			boolean append = Boolean.parseBoolean(properties.get("append"));
+			writer = AbstractFormatPatternWriter.createByteArrayWriter(fileName, append, buffered, false, false, options);
+		}
+
+		flushTask = AbstractFormatPatternWriter.createFlushTask(this, properties, buffered, writingThread, options);
+		groupCommit = !writingThread && options.getDurability() == Durability.BATCH;
+	}
+
+	@Override
+	public Collection<LogEntryValue> getRequiredLogEntryValues() {
+		Collection<LogEntryValue> values = EnumSet.noneOf(LogEntryValue.class);
+		for (Token token : tokens) {
+			values.addAll(token.getRequiredLogEntryValues());
+		}
+		return values;
+	}
+
+	@Override
+	public void write(final LogEntry logEntry) throws IOException {
+		if (mutex == null) {
+			internalWrite(logEntry);
+		} else {
+			DurableWriterDecorator durableWriter = null;
+			long ticket = 0;
+
+			synchronized (mutex) {
+				internalWrite(logEntry);
+				if (groupCommit && writer instanceof DurableWriterDecorator) {
+					durableWriter = (DurableWriterDecorator) writer;
+					ticket = durableWriter.getLastTicket();
+				}
+			}
+
+			if (durableWriter != null) {
+				durableWriter.commit(ticket);
+			}
+		}
+
+		if (flushTask != null) {
+			flushTask.markDirty();
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (mutex == null) {
+			writer.flush();
+		} else {
+			synchronized (mutex) {
+				writer.flush();
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (flushTask != null) {
+			flushTask.cancel();
+		}
+
+		if (mutex == null) {
+			internalClose();
+		} else {
+			synchronized (mutex) {
+				internalClose();
+			}
+		}
+	}
+
+	/**
+	 * Renders a log entry as JSON object into the byte buffer. The rendered JSON object is terminated by a line
+	 * separator.
+	 *
+	 * @param logEntry
+	 *            Log entry to render
+	 * @return Number of rendered bytes in byte buffer
+	 */
+	private int render(final LogEntry logEntry) {
+		length = 0;
+		append((byte) '{');
+
+		boolean first = true;
+		for (int i = 0; i < tokens.length; ++i) {
+			builder.setLength(0);
+			tokens[i].render(logEntry, builder);
+			if (builder.length() > 0) {
+				byte[] name = names[i];
+				if (first) {
+					append(name, 1, name.length - 1);
+					first = false;
+				} else {
+					append(name, 0, name.length);
+				}
+
+				if (numeric[i] && isInteger(builder)) {
+					appendAscii(builder);
+				} else {
+					append((byte) '"');
+					appendEscaped(builder);
+					append((byte) '"');
+				}
+			}
+		}
+
+		append((byte) '}');
+		appendAscii(NEW_LINE);
+		return length;
+	}
+
+	/**
+	 * Outputs a log entry unsynchronized.
+	 *
+	 * @param logEntry
+	 *            Log entry to output
+	 * @throws IOException
+	 *             Writing failed
+	 */
+	private void internalWrite(final LogEntry logEntry) throws IOException {
+		try {
+			int size = render(logEntry);
+
+			if (rollingFile != null && !rollingFile.canBeContinued(buffer, size)) {
+				rollingFile.rollOver();
+				writer = rollingFile.getWriter();
+			}
+
+			writer.write(buffer, size);
+		} finally {
+			trimBuffers();
+		}
+	}
+
+	/**
+	 * Shrinks the byte buffer and the string builder back to their default sizes, if they have been enlarged for an
+	 * oversized log entry like one with a huge stack trace. Otherwise, a single oversized log entry would pin its
+	 * memory for the lifetime of the writer.
+	 */
+	private void trimBuffers() {
+		if (buffer.length > MAX_RETAINED_CAPACITY) {
+			buffer = new byte[BUFFER_CAPACITY];
+		}
+
+		if (builder.capacity() > MAX_RETAINED_CAPACITY) {
+			builder.setLength(0);
+			builder.trimToSize();
+			builder.ensureCapacity(BUILDER_CAPACITY);
+		}
+	}
+
+	/**
+	 * Closes the writer unsynchronized.
+	 *
+	 * @throws IOException
+	 *             Closing failed
+	 */
+	private void internalClose() throws IOException {
+		if (rollingFile == null) {
+			writer.close();
+		} else {
+			rollingFile.close();
+		}
+	}
+
+	/**
+	 * Appends a single byte to the byte buffer.
+	 *
+	 * @param value
+	 *            Byte to append
+	 */
+	private void append(final byte value) {
+		ensureCapacity(1);
+		buffer[length++] = value;
+	}
+
+	/**
+	 * Appends a part of a byte array to the byte buffer.
+	 *
+	 * @param data
+	 *            Bytes to append
+	 * @param offset
+	 *            Index of the first byte to append
+	 * @param count
+	 *            Number of bytes to append
+	 */
+	private void append(final byte[] data, final int offset, final int count) {
+		ensureCapacity(count);
+		System.arraycopy(data, offset, buffer, length, count);
+		length += count;
+	}
+
+	/**
+	 * Appends a text that contains ASCII characters only to the byte buffer.
+	 *
+	 * @param text
+	 *            Text to append
+	 */
+	private void appendAscii(final CharSequence text) {
+		int count = text.length();
+		ensureCapacity(count);
+		for (int i = 0; i < count; ++i) {
+			buffer[length++] = (byte) text.charAt(i);
+		}
+	}
+
+	/**
+	 * Appends a text as escaped JSON string content in UTF-8 to the byte buffer.
+	 *
+	 * @param text
+	 *            Text to append
+	 */
+	private void appendEscaped(final CharSequence text) {
+		int count = text.length();
+		ensureCapacity(count * MAX_BYTES_PER_CHAR);
+
+		byte[] buffer = this.buffer;
+		int length = this.length;
+
+		for (int i = 0; i < count; ++i) {
+			char character = text.charAt(i);
+			if (character < ASCII_LIMIT) {
+				if (character == '"' || character == '\\') {
+					buffer[length++] = '\\';
+					buffer[length++] = (byte) character;
+				} else if (character >= CONTROL_LIMIT) {
+					buffer[length++] = (byte) character;
+				} else if (character == '\n') {
+					buffer[length++] = '\\';
+					buffer[length++] = 'n';
+				} else if (character == '\r') {
+					buffer[length++] = '\\';
+					buffer[length++] = 'r';
+				} else if (character == '\t') {
+					buffer[length++] = '\\';
+					buffer[length++] = 't';
+				} else {
+					buffer[length++] = '\\';
+					buffer[length++] = 'u';
+					buffer[length++] = '0';
+					buffer[length++] = '0';
+					buffer[length++] = HEX_DIGITS[character >> NIBBLE_BITS];
+					buffer[length++] = HEX_DIGITS[character & NIBBLE_MASK];
+				}
+			} else if (character < TWO_BYTES_LIMIT) {
+				buffer[length++] = (byte) (TWO_BYTES_HEADER | character >> SIX_BITS);
+				buffer[length++] = (byte) (CONTINUATION_BYTE | character & LOW_SIX_BITS);
+			} else if (Character.isHighSurrogate(character) && i + 1 < count && Character.isLowSurrogate(text.charAt(i + 1))) {
+				int codePoint = Character.toCodePoint(character, text.charAt(++i));
+				buffer[length++] = (byte) (FOUR_BYTES_HEADER | codePoint >> EIGHTEEN_BITS);
+				buffer[length++] = (byte) (CONTINUATION_BYTE | codePoint >> TWELVE_BITS & LOW_SIX_BITS);
+				buffer[length++] = (byte) (CONTINUATION_BYTE | codePoint >> SIX_BITS & LOW_SIX_BITS);
+				buffer[length++] = (byte) (CONTINUATION_BYTE | codePoint & LOW_SIX_BITS);
+			} else if (character >= Character.MIN_SURROGATE && character <= Character.MAX_SURROGATE) {
+				buffer[length++] = '?';
+			} else {
+				buffer[length++] = (byte) (THREE_BYTES_HEADER | character >> TWELVE_BITS);
+				buffer[length++] = (byte) (CONTINUATION_BYTE | character >> SIX_BITS & LOW_SIX_BITS);
+				buffer[length++] = (byte) (CONTINUATION_BYTE | character & LOW_SIX_BITS);
+			}
+		}
+
+		this.length = length;
+	}
+
+	/**
+	 * Ensures that the byte buffer has enough free space for the passed number of bytes. The byte buffer will be
+	 * enlarged, if necessary.
+	 *
+	 * @param count
+	 *            Number of bytes to append
+	 */
+	private void ensureCapacity(final int count) {
+		if (length + count > buffer.length) {
+			buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + count));
+		}
+	}
+
+	/**
+	 * Gets all configured fields. The default fields will be returned, if there are no configured fields.
+	 *
+	 * @param properties
+	 *            Configuration for writer
+	 * @return Field names with their format patterns
+	 */
+	private static Map<String, String> getFields(final Map<String, String> properties) {
+		Map<String, String> fields = new LinkedHashMap<String, String>();
+		for (Entry<String, String> entry : properties.entrySet()) {
+			if (entry.getKey().toLowerCase(Locale.ROOT).startsWith(FIELD_PREFIX)) {
+				fields.put(entry.getKey().substring(FIELD_PREFIX.length()), entry.getValue());
+			}
+		}
+
+		if (fields.isEmpty()) {
+			fields.put("date", "{date: yyyy-MM-dd'T'HH:mm:ss.SSSZ}");
+			fields.put("level", "{level}");
+			fields.put("thread", "{thread}");
+			fields.put("class", "{class}");
+			fields.put("method", "{method}");
+			fields.put("message", "{message-only}");
+			fields.put("exception", "{exception}");
+		}
+
+		return fields;
+	}
+
+	/**
+	 * Encodes a field name including the leading comma and the trailing colon. The leading comma is skipped for the
+	 * first output field.
+	 *
+	 * @param name
+	 *            Field name
+	 * @return Encoded field name as UTF-8 bytes
+	 */
+	private static byte[] encodeName(final String name) {
+		StringBuilder builder = new StringBuilder(",\"");
+		for (int i = 0; i < name.length(); ++i) {
+			char character = name.charAt(i);
+			if (character == '"' || character == '\\') {
+				builder.append('\\');
+			}
+			builder.append(character);
+		}
+		builder.append("\":");
+		return builder.toString().getBytes(UTF8);
+	}
+
+	/**
+	 * Checks if a text is a valid JSON integer.
+	 *
+	 * @param text
+	 *            Text to check
+	 * @return {@code true} if the passed text is an integer, {@code false} if not
+	 */
+	private static boolean isInteger(final CharSequence text) {
+		int start = text.charAt(0) == '-' ? 1 : 0;
+		if (start == text.length() || text.charAt(start) == '0' && text.length() > start + 1) {
+			return false;
+		}
+
+		for (int i = start; i < text.length(); ++i) {
+			char character = text.charAt(i);
+			if (character < '0' || character > '9') {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+}
@@ -0,0 +1,444 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.tinylog.Level;
+import org.tinylog.configuration.ServiceLoader;
+import org.tinylog.core.EpochTimestamp;
+import org.tinylog.core.LogEntry;
+import org.tinylog.core.LogEntryValue;
+import org.tinylog.pattern.FormatPatternParser;
+import org.tinylog.pattern.Token;
+import org.tinylog.provider.InternalLogger;
+import org.tinylog.runtime.RuntimeProvider;
+
+/**
+ * Writer that keeps the latest log entries in memory and passes them to a target writer only if a trigger log entry
+ * arrives. This allows to output detailed debug log entries for the time before an error without writing all debug
+ * log entries permanently.
+ *
+ * <p>
+ * Log entries with a severity level at or above the trigger level ({@code trigger}, error by default) or with one of
+ * the trigger tags ({@code trigger.tag}) are trigger log entries. For each trigger log entry, all buffered log entries
+ * are passed to the target writer in chronological order, followed by the trigger log entry itself. Afterwards, the
+ * ring buffer is empty. All other log entries are only stored in the ring buffer and overwrite the oldest log entries
+ * if the ring buffer is full.
+ * </p>
+ *
+ * <p>
+ * The target writer is defined via {@code target} and configured via properties with the prefix {@code target.}, for
+ * example {@code target.file}. By default, log entries are stored as they are in a preallocated array of
+ * {@code size} log entries. If a format pattern is defined via {@code format}, log entries are stored rendered in a
+ * preallocated byte buffer of {@code buffer} bytes instead, which can be allocated outside the Java heap via
+ * {@code offheap}. Rendered log entries are passed to the target writer with their date, severity level, and the
+ * rendered text as message.
+ * </p>
+ */
+public final class RingBufferWriter implements Writer {
+
+	private static final String TARGET_PREFIX = "target.";
+	private static final int DEFAULT_SIZE = 1000;
+	private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+	private static final Level DEFAULT_TRIGGER_LEVEL = Level.ERROR;
+
+	private static final Charset CHARSET = Charset.forName("UTF-8");
+	private static final int HEADER_SIZE = 13;
+	private static final int NO_LEVEL = 0xFF;
+	private static final int BYTE_MASK = 0xFF;
+	private static final int BITS_PER_BYTE = 8;
+	private static final int LEVEL_OFFSET = 8;
+	private static final int LENGTH_OFFSET = 9;
+	private static final int LENGTH_BYTES = 4;
+
+	private final Writer target;
+	private final Level triggerLevel;
+	private final List<String> triggerTags;
+	private final Object mutex;
+
+	private final LogEntry[] entries;
+	private int next;
+	private int count;
+
+	private final Token token;
+	private final StringBuilder builder;
+	private final ByteBuffer buffer;
+	private final byte[] header;
+	private int head;
+	private int used;
+
+	/** */
+	public RingBufferWriter() {
+		this(Collections.<String, String>emptyMap());
+	}
+
+	/**
+	 * @param properties
+	 *            Configuration for writer
+	 *
+	 * @throws IllegalArgumentException
+	 *             Target writer cannot be created
+	 */
+	public RingBufferWriter(final Map<String, String> properties) {
+		target = createTarget(properties);
+		triggerLevel = parseLevel(properties.get("trigger"));
+		triggerTags = parseTags(properties.get("trigger.tag"));
+		mutex = Boolean.parseBoolean(properties.get("writingthread")) ? null : new Object();
+
+		String format = properties.get("format");
+		if (format == null) {
+			entries = new LogEntry[AbstractFormatPatternWriter.parsePositiveNumber(properties.get("size"), "size", DEFAULT_SIZE)];
+			token = null;
+			builder = null;
+			buffer = null;
+			header = null;
+		} else {
+			int capacity = AbstractFormatPatternWriter.parsePositiveNumber(properties.get("buffer"), "buffer size", DEFAULT_BUFFER_SIZE);
+			boolean offHeap = Boolean.parseBoolean(properties.get("offheap"));
+			entries = null;
+			token = new FormatPatternParser(properties.get("exception")).parse(format);
+			builder = new StringBuilder();
+			buffer = offHeap ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+			header = new byte[HEADER_SIZE];
+		}
+	}
+
+	@Override
+	public Collection<LogEntryValue> getRequiredLogEntryValues() {
+		Collection<LogEntryValue> values = EnumSet.of(LogEntryValue.LEVEL);
+		values.addAll(target.getRequiredLogEntryValues());
+
+		if (!triggerTags.isEmpty()) {
+			values.add(LogEntryValue.TAG);
+		}
+
+		if (token != null) {
+			values.add(LogEntryValue.DATE);
+			values.addAll(token.getRequiredLogEntryValues());
+		}
+
+		return values;
+	}
+
+	@Override
+	public void write(final LogEntry logEntry) throws Exception {
+		if (mutex == null) {
+			internalWrite(logEntry);
+		} else {
+			synchronized (mutex) {
+				internalWrite(logEntry);
+			}
+		}
+	}
+
+	@Override
+	public void flush() throws Exception {
+		if (mutex == null) {
+			target.flush();
+		} else {
+			synchronized (mutex) {
+				target.flush();
+			}
+		}
+	}
+
+	@Override
+	public void close() throws Exception {
+		if (mutex == null) {
+			target.close();
+		} else {
+			synchronized (mutex) {
+				target.close();
+			}
+		}
+	}
+
+	/**
+	 * Outputs a log entry unsynchronized. Trigger log entries cause dumping the ring buffer, all other log entries are
+	 * stored in the ring buffer.
+	 *
+	 * @param logEntry
+	 *            Log entry to output
+	 * @throws Exception
+	 *             Target writer failed to write log entries
+	 */
+	private void internalWrite(final LogEntry logEntry) throws Exception {
+		if (isTrigger(logEntry)) {
+			if (entries == null) {
+				dumpRendered();
+			} else {
+				dumpRaw();
+			}
+			target.write(logEntry);
+		} else if (entries == null) {
+			storeRendered(logEntry);
+		} else {
+			entries[next] = logEntry;
+			next = next + 1 == entries.length ? 0 : next + 1;
+			if (count < entries.length) {
+				count += 1;
+			}
+		}
+	}
+
+	/**
+	 * Checks whether a log entry is a trigger log entry.
+	 *
+	 * @param logEntry
+	 *            Log entry to check
+	 * @return {@code true} if the log entry has the trigger level or higher, or one of the trigger tags
+	 */
+	private boolean isTrigger(final LogEntry logEntry) {
+		Level level = logEntry.getLevel();
+		if (level != null && level.ordinal() >= triggerLevel.ordinal() && level != Level.OFF) {
+			return true;
+		} else {
+			return !triggerTags.isEmpty() && triggerTags.contains(logEntry.getTag());
+		}
+	}
+
+	/**
+	 * Passes all stored log entries to the target writer and clears the ring buffer.
+	 *
+	 * @throws Exception
+	 *             Target writer failed to write log entries
+	 */
+	private void dumpRaw() throws Exception {
+		int index = count < entries.length ? 0 : next;
+
+		try {
+			for (int i = 0; i < count; ++i) {
+				target.write(entries[index]);
+				index = index + 1 == entries.length ? 0 : index + 1;
+			}
+		} finally {
+			Arrays.fill(entries, null);
+			next = 0;
+			count = 0;
+		}
+	}
+
+	/**
+	 * Renders a log entry and stores it in the ring buffer. The oldest rendered log entries are discarded until there
+	 * is enough space. Log entries that are larger than the entire ring buffer are discarded.
+	 *
+	 * @param logEntry
+	 *            Log entry to store
+	 */
+	private void storeRendered(final LogEntry logEntry) {
+		builder.setLength(0);
+		token.render(logEntry, builder);
+		byte[] text = builder.toString().getBytes(CHARSET);
+
+		int length = HEADER_SIZE + text.length;
+		if (length > buffer.capacity()) {
+			return;
+		}
+
+		while (buffer.capacity() - used < length) {
+			read(head, header);
+			head = (head + HEADER_SIZE + getInt(header, LENGTH_OFFSET)) % buffer.capacity();
+			used -= HEADER_SIZE + getInt(header, LENGTH_OFFSET);
+		}
+
+		long timestamp = logEntry.getTimestamp() == null ? 0 : logEntry.getEpochMilliseconds();
+		for (int i = 0; i < LEVEL_OFFSET; ++i) {
+			header[i] = (byte) (timestamp >>> (BITS_PER_BYTE * (LEVEL_OFFSET - 1 - i)));
+		}
+		header[LEVEL_OFFSET] = (byte) (logEntry.getLevel() == null ? NO_LEVEL : logEntry.getLevel().ordinal());
+		for (int i = 0; i < LENGTH_BYTES; ++i) {
+			header[LENGTH_OFFSET + i] = (byte) (text.length >>> (BITS_PER_BYTE * (LENGTH_BYTES - 1 - i)));
+		}
+
+		int position = write((head + used) % buffer.capacity(), header);
+		write(position, text);
+		used += length;
+	}
+
+	/**
+	 * Passes all stored rendered log entries to the target writer and clears the ring buffer.
+	 *
+	 * @throws Exception
+	 *             Target writer failed to write log entries
+	 */
+	private void dumpRendered() throws Exception {
+		try {
+			int position = head;
+			int remaining = used;
+
+			while (remaining > 0) {
+				position = read(position, header);
+				byte[] text = new byte[getInt(header, LENGTH_OFFSET)];
+				position = read(position, text);
+				remaining -= HEADER_SIZE + text.length;
+
+				long timestamp = 0;
+				for (int i = 0; i < LEVEL_OFFSET; ++i) {
+					timestamp = (timestamp << BITS_PER_BYTE) | (header[i] & BYTE_MASK);
+				}
+				int levelCode = header[LEVEL_OFFSET] & BYTE_MASK;
+				Level level = levelCode == NO_LEVEL ? null : Level.values()[levelCode];
+
+				target.write(new LogEntry(new EpochTimestamp(timestamp), null, Collections.<String, String>emptyMap(), null, null,
+					null, -1, null, level, new String(text, CHARSET), null));
+			}
+		} finally {
+			head = 0;
+			used = 0;
+		}
+	}
+
+	/**
+	 * Writes bytes into the ring buffer. The bytes are wrapped around at the end of the ring buffer.
+	 *
+	 * @param position
+	 *            Position in the ring buffer
+	 * @param data
+	 *            Bytes to write
+	 * @return Position after the written bytes
+	 */
+	private int write(final int position, final byte[] data) {
+		int first = Math.min(data.length, buffer.capacity() - position);
+		buffer.position(position);
+		buffer.put(data, 0, first);
+		if (first < data.length) {
+			buffer.position(0);
+			buffer.put(data, first, data.length - first);
+		}
+		return (position + data.length) % buffer.capacity();
+	}
+
+	/**
+	 * Reads bytes from the ring buffer. The bytes are wrapped around at the end of the ring buffer.
+	 *
+	 * @param position
+	 *            Position in the ring buffer
+	 * @param data
+	 *            Array to fill with read bytes
+	 * @return Position after the read bytes
+	 */
+	private int read(final int position, final byte[] data) {
+		int first = Math.min(data.length, buffer.capacity() - position);
+		buffer.position(position);
+		buffer.get(data, 0, first);
+		if (first < data.length) {
+			buffer.position(0);
+			buffer.get(data, first, data.length - first);
+		}
+		return (position + data.length) % buffer.capacity();
+	}
+
+	/**
+	 * Decodes a big-endian integer.
+	 *
+	 * @param data
+	 *            Bytes that contain the integer
+	 * @param offset
+	 *            Position of the first byte of the integer
+	 * @return Decoded integer
+	 */
+	private static int getInt(final byte[] data, final int offset) {
+		int value = 0;
+		for (int i = 0; i < LENGTH_BYTES; ++i) {
+			value = (value << BITS_PER_BYTE) | (data[offset + i] & BYTE_MASK);
+		}
+		return value;
+	}
+
+	/**
+	 * Creates the target writer. The target writer gets all properties with the prefix {@code target.}, as well as the
+	 * writing thread and exception configuration of this writer.
+	 *
+	 * @param properties
+	 *            Configuration for writer
+	 * @return Created target writer
+	 *
+	 * @throws IllegalArgumentException
+	 *             Target writer cannot be created
+	 */
+	private static Writer createTarget(final Map<String, String> properties) {
+		String name = properties.get("target");
+		if (name == null) {
+			name = RuntimeProvider.getDefaultWriter();
+		}
+
+		Map<String, String> configuration = new HashMap<String, String>();
+		for (Entry<String, String> entry : properties.entrySet()) {
+			if (entry.getKey().startsWith(TARGET_PREFIX)) {
+				configuration.put(entry.getKey().substring(TARGET_PREFIX.length()), entry.getValue());
+			}
+		}
+
+		String exception = properties.get("exception");
+		if (exception != null && !configuration.containsKey("exception")) {
+			configuration.put("exception", exception);
+		}
+
+		configuration.put("writingthread", Boolean.toString(Boolean.parseBoolean(properties.get("writingthread"))));
+
+		Writer writer = new ServiceLoader<Writer>(Writer.class, Map.class).create(name, configuration);
+		if (writer == null) {
+			throw new IllegalArgumentException("Target writer '" + name + "' cannot be created for ring buffer writer");
+		} else {
+			return writer;
+		}
+	}
+
+	/**
+	 * Parses the trigger level.
+	 *
+	 * @param property
+	 *            Configured trigger level (can be {@code null})
+	 * @return Trigger level
+	 */
+	private static Level parseLevel(final String property) {
+		if (property == null) {
+			return DEFAULT_TRIGGER_LEVEL;
+		} else {
+			try {
+				return Level.valueOf(property.trim().toUpperCase(Locale.ROOT));
+			} catch (IllegalArgumentException ex) {
+				InternalLogger.log(Level.ERROR, "Invalid trigger level: " + property);
+				return DEFAULT_TRIGGER_LEVEL;
+			}
+		}
+	}
+
+	/**
+	 * Parses the comma separated trigger tags.
+	 *
+	 * @param property
+	 *            Configured trigger tags (can be {@code null})
+	 * @return Trigger tags
+	 */
+	private static List<String> parseTags(final String property) {
+		if (property == null) {
+			return Collections.emptyList();
+		} else {
+			return Arrays.asList(property.trim().split("\\s*,\\s*"));
+		}
+	}
+
+}
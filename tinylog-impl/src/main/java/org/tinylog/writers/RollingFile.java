@@ -0,0 +1,550 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.codehaus.mojo.animal_sniffer.IgnoreJRERequirement;
+import org.tinylog.Level;
+import org.tinylog.configuration.ServiceLoader;
+import org.tinylog.path.DynamicPath;
+import org.tinylog.policies.AbstractDatePolicy;
+import org.tinylog.policies.Policy;
+import org.tinylog.policies.SizePolicy;
+import org.tinylog.policies.StartupPolicy;
+import org.tinylog.provider.InternalLogger;
+import org.tinylog.runtime.RuntimeProvider;
+import org.tinylog.writers.AbstractFormatPatternWriter.OutputOptions;
+import org.tinylog.writers.raw.ByteArrayWriter;
+
+/**
+ * Rolling log file for writers. Rollover strategies are defined via {@link Policy policies}. On rollover, the next log
+ * file is opened immediately, while closing the previous log file, updating the link to the latest log file, deleting
+ * obsolete backups, and compressing rolled-over log files are done in background.
+ *
+ * <p>
+ * Rolling log files can share a housekeeping thread. In this case, deleting obsolete backups of previous runs is done
+ * in background as well, and the shared housekeeping thread has to be shut down by its owner. A closed rolling log
+ * file can be reopened without scanning its folder again.
+ * </p>
+ *
+ * <p>
+ * This class is not thread-safe. Writers have to synchronize all calls.
+ * </p>
+ */
+final class RollingFile {
+
+	private final DynamicPath path;
+	private final List<Policy> policies;
+	private final int backups;
+	private final boolean buffered;
+	private final OutputOptions options;
+	private final DynamicPath linkToLatest;
+	private final Compression compression;
+	private final boolean sharedHousekeeping;
+
+	private volatile String currentFileName;
+	private ByteArrayWriter writer;
+	private HousekeepingThread housekeepingThread;
+
+	/**
+	 * Opens the latest log file. The latest existing log file will be continued, if allowed by all policies.
+	 * Otherwise, a new log file will be started.
+	 *
+	 * @param properties
+	 *            Configuration of the writer with the properties "file", "policies", "backups", "latest", and
+	 *            "compression"
+	 * @param buffered
+	 *            Output should be buffered
+	 * @param options
+	 *            Output options for opened log files
+	 *
+	 * @throws FileNotFoundException
+	 *             Log file does not exist or cannot be opened for any other reason
+	 * @throws IllegalArgumentException
+	 *             A property has an invalid value or is missing in configuration
+	 */
+	RollingFile(final Map<String, String> properties, final boolean buffered, final OutputOptions options)
+		throws FileNotFoundException {
+		this(properties, buffered, options, null);
+	}
+
+	/**
+	 * Opens the latest log file like {@link #RollingFile(Map, boolean, OutputOptions)}, but uses a shared housekeeping
+	 * thread. Obsolete backups of previous runs are deleted by the shared housekeeping thread instead of the calling
+	 * thread.
+	 *
+	 * @param properties
+	 *            Configuration of the writer with the properties "file", "policies", "backups", "latest", and
+	 *            "compression"
+	 * @param buffered
+	 *            Output should be buffered
+	 * @param options
+	 *            Output options for opened log files
+	 * @param housekeepingThread
+	 *            Already started shared housekeeping thread or {@code null} for starting an own housekeeping thread on
+	 *            demand
+	 *
+	 * @throws FileNotFoundException
+	 *             Log file does not exist or cannot be opened for any other reason
+	 * @throws IllegalArgumentException
+	 *             A property has an invalid value or is missing in configuration
+	 */
+	RollingFile(final Map<String, String> properties, final boolean buffered, final OutputOptions options,
+		final HousekeepingThread housekeepingThread) throws FileNotFoundException {
+		compression = Compression.resolve(properties.get("compression"));
+		path = compression == null
+			? new DynamicPath(AbstractFormatPatternWriter.getFileName(properties))
+			: new DynamicPath(AbstractFormatPatternWriter.getFileName(properties), compression.getExtension());
+		policies = createPolicies(properties.get("policies"));
+		backups = properties.containsKey("backups") ? Integer.parseInt(properties.get("backups")) : -1;
+		linkToLatest = properties.containsKey("latest") ? new DynamicPath(properties.get("latest")) : null;
+		this.buffered = buffered;
+		this.options = options;
+		this.sharedHousekeeping = housekeepingThread != null;
+		this.housekeepingThread = housekeepingThread;
+
+		open();
+
+		if (compression != null) {
+			for (File file : filterOutLatestLink(path.getAllFiles())) {
+				if (path.isValid(file) && !file.equals(new File(currentFileName))) {
+					submit(new CompressionTask(file));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the writer for the current log file.
+	 *
+	 * @return Writer for the current log file
+	 */
+	ByteArrayWriter getWriter() {
+		return writer;
+	}
+
+	/**
+	 * Gets the earliest deadline of all time-based policies.
+	 *
+	 * @return Earliest deadline in milliseconds since 1970-01-01T00:00:00Z or {@link Long#MAX_VALUE} if there is no
+	 *         time-based policy
+	 */
+	long getDeadline() {
+		long deadline = Long.MAX_VALUE;
+		for (Policy policy : policies) {
+			if (policy instanceof AbstractDatePolicy) {
+				deadline = Math.min(deadline, ((AbstractDatePolicy) policy).getDeadline());
+			}
+		}
+		return deadline;
+	}
+
+	/**
+	 * Checks if a new log entry can be still written to the current log file. The log entry is only copied for custom
+	 * policies, if the passed byte array is larger than the log entry. Built-in policies don't need a copy, as they
+	 * depend on the size of the log entry at most.
+	 *
+	 * @param data
+	 *            Byte array that contains the log entry at the beginning
+	 * @param length
+	 *            Number of bytes of the log entry
+	 * @return {@code true} if the current log file can be continued, {@code false} if a new log file should be started
+	 */
+	boolean canBeContinued(final byte[] data, final int length) {
+		byte[] entry = data.length == length ? data : null;
+		boolean result = true;
+
+		for (Policy policy : policies) {
+			if (policy instanceof SizePolicy) {
+				result &= ((SizePolicy) policy).continueCurrentFile(length);
+			} else if (policy instanceof AbstractDatePolicy || policy instanceof StartupPolicy) {
+				result &= policy.continueCurrentFile(data);
+			} else {
+				if (entry == null) {
+					entry = Arrays.copyOf(data, length);
+				}
+				result &= policy.continueCurrentFile(entry);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Outputs a log entry to the current log file.
+	 *
+	 * @param data
+	 *            Byte array that contains the log entry at the beginning
+	 * @param length
+	 *            Number of bytes of the log entry
+	 * @throws IOException
+	 *             Writing failed
+	 */
+	void write(final byte[] data, final int length) throws IOException {
+		writer.write(data, length);
+	}
+
+	/**
+	 * Starts a new log file. The previous log file is closed in background.
+	 *
+	 * @throws IOException
+	 *             Opening the new log file failed
+	 */
+	void rollOver() throws IOException {
+		ByteArrayWriter previousWriter = writer;
+		String previousFileName = currentFileName;
+		String fileName = path.resolve();
+
+		if (fileName.equals(previousFileName)) {
+			previousWriter.close();
+			previousWriter = null;
+		}
+
+		writer = AbstractFormatPatternWriter.createByteArrayWriter(fileName, false, buffered, false, false, options);
+		currentFileName = fileName;
+		submit(new RolloverTask(previousWriter, previousFileName));
+
+		resetPolicies();
+	}
+
+	/**
+	 * Resets all policies as a new log file has been started.
+	 */
+	void resetPolicies() {
+		for (Policy policy : policies) {
+			policy.reset();
+		}
+	}
+
+	/**
+	 * Outputs buffered log entries immediately.
+	 *
+	 * @throws IOException
+	 *             Flushing failed
+	 */
+	void flush() throws IOException {
+		writer.flush();
+	}
+
+	/**
+	 * Reopens the latest log file after closing. The latest log file will be continued, if allowed by all policies.
+	 * Otherwise, a new log file will be started. The already known log files are reused, so that the folder has not to
+	 * be scanned again.
+	 *
+	 * @throws FileNotFoundException
+	 *             Log file does not exist or cannot be opened for any other reason
+	 */
+	void reopen() throws FileNotFoundException {
+		if (!open()) {
+			resetPolicies();
+		}
+	}
+
+	/**
+	 * Closes the current log file and waits until all pending housekeeping tasks are done.
+	 *
+	 * @throws IOException
+	 *             Closing failed
+	 */
+	void close() throws IOException {
+		closeFile();
+		awaitHousekeeping();
+	}
+
+	/**
+	 * Closes the current log file without waiting for pending housekeeping tasks. {@link #awaitHousekeeping()} can be
+	 * used for waiting until these tasks are done.
+	 *
+	 * @throws IOException
+	 *             Closing failed
+	 */
+	void closeFile() throws IOException {
+		try {
+			writer.close();
+		} finally {
+			if (housekeepingThread != null && !sharedHousekeeping) {
+				housekeepingThread.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * Waits until all pending housekeeping tasks are done. This method must be called only after closing the log file.
+	 * Nothing happens for a shared housekeeping thread, as it has to be awaited by its owner.
+	 */
+	void awaitHousekeeping() {
+		if (housekeepingThread != null && !sharedHousekeeping) {
+			try {
+				housekeepingThread.join();
+			} catch (InterruptedException ex) {
+				// Ignore and continue
+			}
+		}
+	}
+
+	/**
+	 * Opens the latest log file or starts a new one, if the latest log file cannot be continued. Obsolete backups are
+	 * deleted.
+	 *
+	 * @return {@code true} if the latest log file is continued, {@code false} if a new log file has been started
+	 * @throws FileNotFoundException
+	 *             Log file does not exist or cannot be opened for any other reason
+	 */
+	private boolean open() throws FileNotFoundException {
+		List<File> files = filterOutLatestLink(path.getAllFiles());
+
+		String fileName;
+		boolean append;
+
+		if (files.size() > 0 && path.isValid(files.get(0))) {
+			fileName = files.get(0).getPath();
+			if (canBeContinued(fileName, policies)) {
+				append = true;
+				files = files.subList(1, files.size());
+			} else {
+				fileName = path.resolve();
+				append = false;
+			}
+		} else {
+			fileName = path.resolve();
+			append = false;
+		}
+
+		if (sharedHousekeeping) {
+			submit(new CleanupTask(new ArrayList<File>(files)));
+		} else {
+			deleteBackups(path, files, backups);
+		}
+
+		writer = AbstractFormatPatternWriter.createByteArrayWriter(fileName, append, buffered, false, false, options);
+		currentFileName = fileName;
+		linkToLatest(fileName);
+
+		return append;
+	}
+
+	/**
+	 * Creates policies from a nullable string.
+	 *
+	 * @param property
+	 *            Nullable string with policies to create
+	 * @return Created policies
+	 */
+	private static List<Policy> createPolicies(final String property) {
+		if (property == null || property.isEmpty()) {
+			return Collections.<Policy>singletonList(new StartupPolicy(null));
+		} else {
+			if (RuntimeProvider.getProcessId() == Long.MIN_VALUE) {
+				java.util.ServiceLoader.load(Policy.class); // Workaround for ProGuard (see issue #126)
+			}
+
+			return new ServiceLoader<Policy>(Policy.class, String.class).createList(property);
+		}
+	}
+
+	/**
+	 * Checks if an already existing log file can be continued.
+	 *
+	 * @param fileName
+	 *            Log file
+	 * @param policies
+	 *            Policies that should be applied
+	 * @return {@code true} if the passed log file can be continued, {@code false} if a new log file should be started
+	 */
+	private static boolean canBeContinued(final String fileName, final List<Policy> policies) {
+		boolean result = true;
+		for (Policy policy : policies) {
+			result &= policy.continueExistingFile(fileName);
+		}
+		return result;
+	}
+
+	/**
+	 * Deletes old log files. Deleted files are unregistered from the passed dynamic path.
+	 *
+	 * @param path
+	 *            Dynamic path of the log files
+	 * @param files
+	 *            All existing log files
+	 * @param count
+	 *            Number of log files to keep
+	 */
+	private static void deleteBackups(final DynamicPath path, final List<File> files, final int count) {
+		if (count >= 0) {
+			for (int i = files.size() - Math.max(0, files.size() - count); i < files.size(); ++i) {
+				File file = files.get(i);
+				if (file.delete() || !file.exists()) {
+					path.removeFile(file);
+				} else {
+					InternalLogger.log(Level.WARN, "Failed to delete log file '" + file.getAbsolutePath() + "'");
+				}
+			}
+		}
+	}
+
+	@IgnoreJRERequirement
+	private List<File> filterOutLatestLink(final List<File> files) {
+		if (linkToLatest != null && !RuntimeProvider.isAndroid()) {
+			files.remove(new File(linkToLatest.resolve()));
+		}
+		return files;
+	}
+
+	@IgnoreJRERequirement
+	private void linkToLatest(final String fileName) {
+		if (linkToLatest != null) {
+			File logFile = new File(fileName);
+			File linkFile = new File(linkToLatest.resolve());
+			if (!RuntimeProvider.isAndroid()) {
+				try {
+					Path logPath = logFile.toPath();
+					Path linkPath = linkFile.toPath();
+					Files.deleteIfExists(linkPath);
+					Files.createLink(linkPath, logPath);
+				} catch (IOException ex) {
+					InternalLogger.log(Level.ERROR, ex, "Failed to create link '" + linkFile + "'");
+				}
+			} else {
+				InternalLogger.log(Level.WARN, "Cannot create link to latest log file on Android");
+			}
+		}
+	}
+
+	/**
+	 * Passes a task to the housekeeping thread. The housekeeping thread is started on demand.
+	 *
+	 * @param task
+	 *            Task to execute in background
+	 */
+	private void submit(final Runnable task) {
+		if (housekeepingThread == null) {
+			housekeepingThread = new HousekeepingThread();
+			housekeepingThread.start();
+		}
+
+		housekeepingThread.add(task);
+	}
+
+	/**
+	 * Compresses a log file and registers the compressed file as replacement for the original log file.
+	 *
+	 * @param file
+	 *            Log file to compress
+	 */
+	private void compress(final File file) {
+		File compressed = compression.compress(file);
+		if (compressed != null) {
+			path.replaceFile(file, compressed);
+		}
+	}
+
+	/**
+	 * Housekeeping task for a rollover. It closes the previous log file, updates the link to the latest log file,
+	 * deletes obsolete backups, and compresses the previous log file.
+	 */
+	private final class RolloverTask implements Runnable {
+
+		private final ByteArrayWriter previousWriter;
+		private final String previousFileName;
+
+		/**
+		 * @param previousWriter
+		 *            Writer of the previous log file or {@code null} if it is already closed
+		 * @param previousFileName
+		 *            Path to the previous log file
+		 */
+		private RolloverTask(final ByteArrayWriter previousWriter, final String previousFileName) {
+			this.previousWriter = previousWriter;
+			this.previousFileName = previousFileName;
+		}
+
+		@Override
+		public void run() {
+			if (previousWriter != null) {
+				try {
+					previousWriter.close();
+				} catch (IOException ex) {
+					InternalLogger.log(Level.ERROR, ex, "Failed to close log file '" + previousFileName + "'");
+				}
+			}
+
+			String fileName = currentFileName;
+			linkToLatest(fileName);
+
+			List<File> files = filterOutLatestLink(path.getAllFiles());
+			files.remove(new File(fileName));
+			deleteBackups(path, files, backups);
+
+			if (compression != null && !previousFileName.equals(fileName)) {
+				compress(new File(previousFileName));
+			}
+		}
+
+	}
+
+	/**
+	 * Housekeeping task for deleting obsolete backups after opening a log file.
+	 */
+	private final class CleanupTask implements Runnable {
+
+		private final List<File> files;
+
+		/**
+		 * @param files
+		 *            Existing log files without the opened log file
+		 */
+		private CleanupTask(final List<File> files) {
+			this.files = files;
+		}
+
+		@Override
+		public void run() {
+			deleteBackups(path, files, backups);
+		}
+
+	}
+
+	/**
+	 * Housekeeping task for compressing a log file from a previous run.
+	 */
+	private final class CompressionTask implements Runnable {
+
+		private final File file;
+
+		/**
+		 * @param file
+		 *            Log file to compress
+		 */
+		private CompressionTask(final File file) {
+			this.file = file;
+		}
+
+		@Override
+		public void run() {
+			compress(file);
+		}
+
+	}
+
+}
@@ -13,43 +13,43 @@
 
 package org.tinylog.writers;
 
-import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.charset.Charset;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.Collections;
-import java.util.List;
 import java.util.Map;
+import java.util.TimerTask;
 
-import org.codehaus.mojo.animal_sniffer.IgnoreJRERequirement;
 import org.tinylog.Level;
-import org.tinylog.configuration.ServiceLoader;
 import org.tinylog.core.LogEntry;
-import org.tinylog.path.DynamicPath;
 import org.tinylog.policies.Policy;
-import org.tinylog.policies.StartupPolicy;
 import org.tinylog.provider.InternalLogger;
-import org.tinylog.runtime.RuntimeProvider;
 import org.tinylog.writers.raw.ByteArrayWriter;
+import org.tinylog.writers.raw.DurableWriterDecorator;
 
 /**
  * Writer for outputting log entries to rolling log files. Rollover strategies can be defined via {@link Policy
  * policies} and the output can be buffered for improving performance. The path to the log file can contain one or more
- * patterns that will be resolved at runtime.
+ * patterns that will be resolved at runtime. On rollover, the next log file is opened immediately, while closing the
+ * previous log file, updating the link to the latest log file, deleting obsolete backups, and compressing rolled-over
+ * log files are done in background. With batch durability, log entries of concurrent threads are forced to the storage
+ * device by group commit outside the writer's lock. Time-based policies trigger their rollovers by a timer, even if no
+ * log entries are written.
  */
 public final class RollingFileWriter extends AbstractFormatPatternWriter {
 
-	private final DynamicPath path;
-	private final List<Policy> policies;
-	private final int backups;
-	private final boolean buffered;
+	private static final byte[] EMPTY_ENTRY = new byte[0];
+
+	private final RollingFile file;
 	private final boolean writingThread;
-	private final DynamicPath linkToLatest;
 	private final Charset charset;
+	private final FlushTask flushTask;
+	private final boolean groupCommit;
+	private final boolean scheduledRollover;
+	private final Object mutex;
 
-	private ByteArrayWriter writer;
+	private TimerTask rolloverTimer;
+	private boolean closed;
 
 	/**
 	 * @throws FileNotFoundException
@@ -71,68 +71,43 @@ public final class RollingFileWriter extends AbstractFormatPatternWriter {
 	 *             A property has an invalid value or is missing in configuration
 	 */
 	public RollingFileWriter(final Map<String, String> properties) throws FileNotFoundException {
+		this(properties, null);
+	}
+
+	/**
+	 * @param properties
+	 *            Configuration for writer
+	 * @param housekeepingThread
+	 *            Already started shared housekeeping thread or {@code null} for starting an own housekeeping thread on
+	 *            demand
+	 *
+	 * @throws FileNotFoundException
+	 *             Log file does not exist or cannot be opened for any other reason
+	 * @throws IllegalArgumentException
+	 *             A property has an invalid value or is missing in configuration
+	 */
+	RollingFileWriter(final Map<String, String> properties, final HousekeepingThread housekeepingThread)
+		throws FileNotFoundException {
 		super(properties);
 
-		path = new DynamicPath(getFileName(properties));
-		policies = createPolicies(properties.get("policies"));
-		backups = properties.containsKey("backups") ? Integer.parseInt(properties.get("backups")) : -1;
-		linkToLatest = properties.containsKey("latest") ? new DynamicPath(properties.get("latest")) : null;
-
-		List<File> files = filterOutLatestLink(path.getAllFiles());
-
-		String fileName;
-		boolean append;
-
-		if (files.size() > 0 && path.isValid(files.get(0))) {
-			fileName = files.get(0).getPath();
-			if (canBeContinued(fileName, policies)) {
-				append = true;
-				deleteBackups(files.subList(1, files.size()), backups);
-			} else {
-				fileName = path.resolve();
-				append = false;
-				deleteBackups(files, backups);
-			}
-		} else {
-			fileName = path.resolve();
-			append = false;
-		}
+		boolean buffered = Boolean.parseBoolean(properties.get("buffered"));
+		OutputOptions options = new OutputOptions(properties);
 
+		file = new RollingFile(properties, buffered, options, housekeepingThread);
 		charset = getCharset(properties);
-		buffered = Boolean.parseBoolean(properties.get("buffered"));
 		writingThread = Boolean.parseBoolean(properties.get("writingthread"));
-		writer = createByteArrayWriterAndLinkLatest(fileName, append, buffered, false, false);
-	}
+		mutex = writingThread ? null : new Object();
 
-	@IgnoreJRERequirement
-	private List<File> filterOutLatestLink(final List<File> files) {
-		if (linkToLatest != null && !RuntimeProvider.isAndroid()) {
-			files.remove(new File(linkToLatest.resolve()));
-		}
-		return files;
-	}
+		flushTask = createFlushTask(this, properties, buffered, writingThread, options);
+		groupCommit = !writingThread && options.getDurability() == Durability.BATCH;
 
-	@IgnoreJRERequirement
-	private ByteArrayWriter createByteArrayWriterAndLinkLatest(final String fileName, final boolean append, final boolean buffered,
-		final boolean threadSafe, final boolean shared) throws FileNotFoundException {
-		ByteArrayWriter writer = createByteArrayWriter(fileName, append, buffered, threadSafe, shared);
-		if (linkToLatest != null) {
-			File logFile = new File(fileName);
-			File linkFile = new File(linkToLatest.resolve());
-			if (!RuntimeProvider.isAndroid()) {
-				try {
-					Path logPath = logFile.toPath();
-					Path linkPath = linkFile.toPath();
-					Files.deleteIfExists(linkPath);
-					Files.createLink(linkPath, logPath);
-				} catch (IOException ex) {
-					InternalLogger.log(Level.ERROR, ex, "Failed to create link '" + linkFile + "'");
-				}
-			} else {
-				InternalLogger.log(Level.WARN, "Cannot create link to latest log file on Android");
+		scheduledRollover = !writingThread && file.getDeadline() != Long.MAX_VALUE;
+		if (scheduledRollover) {
+			SharedTimer.acquire();
+			synchronized (mutex) {
+				scheduleRollover();
 			}
 		}
-		return writer;
 	}
 
 	@Override
@@ -141,9 +116,25 @@ public final class RollingFileWriter extends AbstractFormatPatternWriter {
 		if (writingThread) {
 			internalWrite(data);
 		} else {
-			synchronized (writer) {
+			DurableWriterDecorator durableWriter = null;
+			long ticket = 0;
+
+			synchronized (mutex) {
 				internalWrite(data);
+				ByteArrayWriter writer = file.getWriter();
+				if (groupCommit && writer instanceof DurableWriterDecorator) {
+					durableWriter = (DurableWriterDecorator) writer;
+					ticket = durableWriter.getLastTicket();
+				}
 			}
+
+			if (durableWriter != null) {
+				durableWriter.commit(ticket);
+			}
+		}
+
+		if (flushTask != null) {
+			flushTask.markDirty();
 		}
 	}
 
@@ -152,7 +143,7 @@ public final class RollingFileWriter extends AbstractFormatPatternWriter {
 		if (writingThread) {
 			internalFlush();
 		} else {
-			synchronized (writer) {
+			synchronized (mutex) {
 				internalFlush();
 			}
 		}
@@ -160,13 +151,38 @@ public final class RollingFileWriter extends AbstractFormatPatternWriter {
 
 	@Override
 	public void close() throws IOException {
+		if (flushTask != null) {
+			flushTask.cancel();
+		}
+
 		if (writingThread) {
 			internalClose();
 		} else {
-			synchronized (writer) {
+			synchronized (mutex) {
+				closed = true;
+				if (rolloverTimer != null) {
+					rolloverTimer.cancel();
+				}
 				internalClose();
 			}
 		}
+
+		if (scheduledRollover) {
+			SharedTimer.release();
+		}
+
+		file.awaitHousekeeping();
+	}
+
+	/**
+	 * Reopens the latest log file after closing this writer. The already known log files are reused, so that the
+	 * folder has not to be scanned again. Reopening is supported only for writers with enabled writing thread.
+	 *
+	 * @throws FileNotFoundException
+	 *             Log file does not exist or cannot be opened for any other reason
+	 */
+	void reopen() throws FileNotFoundException {
+		file.reopen();
 	}
 
 	/**
@@ -178,21 +194,23 @@ public final class RollingFileWriter extends AbstractFormatPatternWriter {
 	 *             Writing failed
 	 */
 	private void internalWrite(final byte[] data) throws IOException {
-		if (!canBeContinued(data, policies)) {
-			writer.close();
-
-			List<File> existingFiles = filterOutLatestLink(path.getAllFiles());
-			deleteBackups(existingFiles, backups);
+		if (!file.canBeContinued(data, data.length)) {
+			file.rollOver();
+		}
 
-			String fileName = path.resolve();
-			writer = createByteArrayWriterAndLinkLatest(fileName, false, buffered, false, false);
+		file.write(data, data.length);
+	}
 
-			for (Policy policy : policies) {
-				policy.reset();
-			}
+	/**
+	 * Schedules a rollover check for the earliest deadline of all time-based policies. This method must be called
+	 * while holding the mutex.
+	 */
+	private void scheduleRollover() {
+		long deadline = file.getDeadline();
+		if (deadline != Long.MAX_VALUE) {
+			rolloverTimer = new RolloverTimerTask();
+			SharedTimer.schedule(rolloverTimer, Math.max(0, deadline - System.currentTimeMillis()));
 		}
-
-		writer.write(data, data.length);
 	}
 
 	/**
@@ -202,88 +220,48 @@ public final class RollingFileWriter extends AbstractFormatPatternWriter {
 	 *             Flushing failed
 	 */
 	private void internalFlush() throws IOException {
-		writer.flush();
+		file.flush();
 	}
 
 	/**
-	 * Closes the writer unsynchronized.
+	 * Closes the writer unsynchronized without waiting for pending housekeeping tasks.
 	 *
 	 * @throws IOException
 	 *             Closing failed
 	 */
 	private void internalClose() throws IOException {
-		writer.close();
+		file.closeFile();
 	}
 
 	/**
-	 * Creates policies from a nullable string.
-	 *
-	 * @param property
-	 *            Nullable string with policies to create
-	 * @return Created policies
+	 * Timer task for triggering a rollover at the deadline of a time-based policy, even if no log entries are written.
 	 */
-	private static List<Policy> createPolicies(final String property) {
-		if (property == null || property.isEmpty()) {
-			return Collections.<Policy>singletonList(new StartupPolicy(null));
-		} else {
-			if (RuntimeProvider.getProcessId() == Long.MIN_VALUE) {
-				java.util.ServiceLoader.load(Policy.class); // Workaround for ProGuard (see issue #126)
-			}
+	private final class RolloverTimerTask extends TimerTask {
 
-			return new ServiceLoader<Policy>(Policy.class, String.class).createList(property);
+		/** */
+		private RolloverTimerTask() {
 		}
-	}
 
-	/**
-	 * Checks if an already existing log file can be continued.
-	 *
-	 * @param fileName
-	 *            Log file
-	 * @param policies
-	 *            Policies that should be applied
-	 * @return {@code true} if the passed log file can be continued, {@code false} if a new log file should be started
-	 */
-	private static boolean canBeContinued(final String fileName, final List<Policy> policies) {
-		boolean result = true;
-		for (Policy policy : policies) {
-			result &= policy.continueExistingFile(fileName);
-		}
-		return result;
-	}
-
-	/**
-	 * Checks if a new log entry can be still written to the current log file.
-	 *
-	 * @param data
-	 *            Log entry
-	 * @param policies
-	 *            Policies that should be applied
-	 * @return {@code true} if the current log file can be continued, {@code false} if a new log file should be started
-	 */
-	private static boolean canBeContinued(final byte[] data, final List<Policy> policies) {
-		boolean result = true;
-		for (Policy policy : policies) {
-			result &= policy.continueCurrentFile(data);
-		}
-		return result;
-	}
+		@Override
+		public void run() {
+			synchronized (mutex) {
+				if (closed) {
+					return;
+				}
 
-	/**
-	 * Deletes old log files.
-	 *
-	 * @param files
-	 *            All existing log files
-	 * @param count
-	 *            Number of log files to keep
-	 */
-	private static void deleteBackups(final List<File> files, final int count) {
-		if (count >= 0) {
-			for (int i = files.size() - Math.max(0, files.size() - count); i < files.size(); ++i) {
-				if (!files.get(i).delete()) {
-					InternalLogger.log(Level.WARN, "Failed to delete log file '" + files.get(i).getAbsolutePath() + "'");
+				if (!file.canBeContinued(EMPTY_ENTRY, 0)) {
+					try {
+						file.rollOver();
+					} catch (IOException ex) {
+						InternalLogger.log(Level.ERROR, ex, "Failed to roll over log file");
+						file.resetPolicies();
+					}
 				}
+
+				scheduleRollover();
 			}
 		}
+
 	}
 
 }
@@ -0,0 +1,410 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TimerTask;
+
+import org.tinylog.Level;
+import org.tinylog.core.LogEntry;
+import org.tinylog.core.LogEntryValue;
+import org.tinylog.provider.InternalLogger;
+
+/**
+ * Writer for routing log entries to separate rolling log files, for example one log file per tenant. The path to the
+ * log files can contain the routing placeholders {@code {tag}} and {@code {context: key}}, which are resolved for each
+ * log entry, as well as all patterns that are supported by {@link RollingFileWriter}.
+ *
+ * <p>
+ * Each routed log file is written by its own {@link RollingFileWriter}. All other properties like {@code policies},
+ * {@code backups}, {@code buffered}, or {@code compression} are passed to these writers and apply per routed log file.
+ * Routing placeholders are resolved in {@code latest} as well.
+ * </p>
+ *
+ * <p>
+ * At most {@code handles} routed log files are kept open at the same time. If a further log file has to be opened,
+ * the least recently used log file is closed. Routed log files without new log entries for the duration defined by
+ * {@code idle} are closed as well. Closed log files are continued as soon as there are new log entries for them, if
+ * the policies allow. The already known log files of up to {@code handles} closed routes are remembered, so that
+ * their folders have not to be scanned again when reopening.
+ * </p>
+ *
+ * <p>
+ * All routed log files share one housekeeping thread for closing, compressing, and deleting log files in background,
+ * including deleting obsolete backups when opening a routed log file. Therefore, neither logging threads nor other
+ * routes have to wait for housekeeping tasks.
+ * </p>
+ */
+public final class RoutingFileWriter extends AbstractFormatPatternWriter {
+
+	private static final int DEFAULT_HANDLES = 100;
+	private static final float LOAD_FACTOR = 0.75f;
+
+	private final RoutingPath path;
+	private final RoutingPath linkToLatest;
+	private final Map<String, String> properties;
+	private final int handles;
+	private final long idleTimeout;
+	private final boolean writingThread;
+	private final Object mutex;
+
+	private final Map<String, Route> routes;
+	private final Map<String, RollingFileWriter> closedRoutes;
+	private final FlushTask flushTask;
+	private final TimerTask idleTask;
+
+	private HousekeepingThread housekeepingThread;
+
+	/** */
+	public RoutingFileWriter() {
+		this(Collections.<String, String>emptyMap());
+	}
+
+	/**
+	 * @param properties
+	 *            Configuration for writer
+	 *
+	 * @throws IllegalArgumentException
+	 *             A property has an invalid value or is missing in configuration
+	 */
+	public RoutingFileWriter(final Map<String, String> properties) {
+		super(properties);
+
+		path = new RoutingPath(getFileName(properties));
+		linkToLatest = properties.containsKey("latest") ? new RoutingPath(properties.get("latest")) : null;
+		handles = parsePositiveNumber(properties.get("handles"), "maximum number of open files", DEFAULT_HANDLES);
+		idleTimeout = properties.containsKey("idle") ? parseInterval(properties.get("idle"), "idle timeout") : 0;
+		writingThread = Boolean.parseBoolean(properties.get("writingthread"));
+		mutex = writingThread ? null : new Object();
+
+		this.properties = new HashMap<String, String>(properties);
+		this.properties.put("writingthread", "true");
+
+		routes = new LinkedHashMap<String, Route>(handles, LOAD_FACTOR, true);
+		closedRoutes = new LinkedHashMap<String, RollingFileWriter>(handles, LOAD_FACTOR, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, RollingFileWriter> eldest) {
+				return size() > handles;
+			}
+		};
+		flushTask = createFlushTask(this, properties, Boolean.parseBoolean(properties.get("buffered")), writingThread,
+			new OutputOptions(properties));
+
+		if (idleTimeout > 0 && !writingThread) {
+			idleTask = new IdleTask();
+			SharedTimer.acquire();
+			SharedTimer.scheduleAtFixedRate(idleTask, idleTimeout, idleTimeout);
+		} else {
+			idleTask = null;
+		}
+	}
+
+	@Override
+	public Collection<LogEntryValue> getRequiredLogEntryValues() {
+		Collection<LogEntryValue> values = super.getRequiredLogEntryValues();
+
+		if (path.usesTag() || (linkToLatest != null && linkToLatest.usesTag())) {
+			values.add(LogEntryValue.TAG);
+		}
+
+		if (path.usesContext() || (linkToLatest != null && linkToLatest.usesContext())) {
+			values.add(LogEntryValue.CONTEXT);
+		}
+
+		return values;
+	}
+
+	@Override
+	public void write(final LogEntry logEntry) throws IOException {
+		if (mutex == null) {
+			internalWrite(logEntry);
+		} else {
+			synchronized (mutex) {
+				internalWrite(logEntry);
+			}
+		}
+
+		if (flushTask != null) {
+			flushTask.markDirty();
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (mutex == null) {
+			internalFlush();
+			closeIdleRoutes();
+		} else {
+			synchronized (mutex) {
+				internalFlush();
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (flushTask != null) {
+			flushTask.cancel();
+		}
+
+		if (idleTask != null) {
+			idleTask.cancel();
+			SharedTimer.release();
+		}
+
+		try {
+			if (mutex == null) {
+				internalClose();
+			} else {
+				synchronized (mutex) {
+					internalClose();
+				}
+			}
+		} finally {
+			awaitHousekeeping();
+		}
+	}
+
+	/**
+	 * Gets the number of currently open routed log files.
+	 *
+	 * @return Number of open log files
+	 */
+	int getOpenFiles() {
+		if (mutex == null) {
+			return routes.size();
+		} else {
+			synchronized (mutex) {
+				return routes.size();
+			}
+		}
+	}
+
+	/**
+	 * Outputs a log entry to its routed log file unsynchronized. The routed log file is opened if necessary.
+	 *
+	 * @param logEntry
+	 *            Log entry to output
+	 * @throws IOException
+	 *             Opening or writing the routed log file failed
+	 */
+	private void internalWrite(final LogEntry logEntry) throws IOException {
+		String fileName = path.resolve(logEntry);
+		Route route = routes.get(fileName);
+
+		if (route == null) {
+			RollingFileWriter writer = closedRoutes.remove(fileName);
+
+			if (routes.size() >= handles) {
+				Iterator<Route> iterator = routes.values().iterator();
+				Route eldest = iterator.next();
+				iterator.remove();
+				evict(eldest);
+			}
+
+			if (writer == null) {
+				Map<String, String> routeProperties = new HashMap<String, String>(properties);
+				routeProperties.put("file", fileName);
+				if (linkToLatest != null) {
+					routeProperties.put("latest", linkToLatest.resolve(logEntry));
+				}
+
+				writer = new RollingFileWriter(routeProperties, getHousekeepingThread());
+			} else {
+				writer.reopen();
+			}
+
+			route = new Route(fileName, writer);
+			routes.put(fileName, route);
+		}
+
+		route.lastUsage = System.currentTimeMillis();
+		route.writer.write(logEntry);
+	}
+
+	/**
+	 * Flushes all open routed log files unsynchronized.
+	 *
+	 * @throws IOException
+	 *             Flushing failed
+	 */
+	private void internalFlush() throws IOException {
+		for (Route route : routes.values()) {
+			route.writer.flush();
+		}
+	}
+
+	/**
+	 * Closes all open routed log files unsynchronized and shuts the housekeeping thread down. Pending housekeeping
+	 * tasks are not awaited.
+	 *
+	 * @throws IOException
+	 *             Closing failed
+	 */
+	private void internalClose() throws IOException {
+		IOException exception = null;
+
+		for (Route route : routes.values()) {
+			try {
+				close(route);
+			} catch (IOException ex) {
+				exception = ex;
+			}
+		}
+
+		routes.clear();
+		closedRoutes.clear();
+
+		if (housekeepingThread != null) {
+			housekeepingThread.shutdown();
+		}
+
+		if (exception != null) {
+			throw exception;
+		}
+	}
+
+	/**
+	 * Gets the shared housekeeping thread for all routed log files unsynchronized. The housekeeping thread is started
+	 * on demand.
+	 *
+	 * @return Started housekeeping thread
+	 */
+	private HousekeepingThread getHousekeepingThread() {
+		if (housekeepingThread == null) {
+			housekeepingThread = new HousekeepingThread();
+			housekeepingThread.start();
+		}
+
+		return housekeepingThread;
+	}
+
+	/**
+	 * Waits until the pending housekeeping tasks of all routed log files are done.
+	 */
+	private void awaitHousekeeping() {
+		HousekeepingThread thread;
+		if (mutex == null) {
+			thread = housekeepingThread;
+		} else {
+			synchronized (mutex) {
+				thread = housekeepingThread;
+			}
+		}
+
+		if (thread != null) {
+			try {
+				thread.join();
+			} catch (InterruptedException ex) {
+				// Ignore and continue
+			}
+		}
+	}
+
+	/**
+	 * Closes all routed log files unsynchronized that have been idle for longer than the idle timeout.
+	 */
+	private void closeIdleRoutes() {
+		if (idleTimeout > 0) {
+			long deadline = System.currentTimeMillis() - idleTimeout;
+			Iterator<Route> iterator = routes.values().iterator();
+			while (iterator.hasNext()) {
+				Route route = iterator.next();
+				if (route.lastUsage > deadline) {
+					break;
+				}
+
+				iterator.remove();
+				evict(route);
+			}
+		}
+	}
+
+	/**
+	 * Closes an evicted routed log file unsynchronized and reports failures.
+	 *
+	 * @param route
+	 *            Routed log file to close
+	 */
+	private void evict(final Route route) {
+		try {
+			close(route);
+		} catch (IOException ex) {
+			InternalLogger.log(Level.ERROR, ex, "Failed to close log file '" + route.fileName + "'");
+		}
+	}
+
+	/**
+	 * Closes a routed log file unsynchronized. Pending housekeeping tasks are not awaited, as they are executed by the
+	 * shared housekeeping thread. The closed writer is remembered for reopening the routed log file later.
+	 *
+	 * @param route
+	 *            Routed log file to close
+	 * @throws IOException
+	 *             Closing failed
+	 */
+	private void close(final Route route) throws IOException {
+		route.writer.close();
+		closedRoutes.put(route.fileName, route.writer);
+	}
+
+	/**
+	 * Open routed log file.
+	 */
+	private static final class Route {
+
+		private final String fileName;
+		private final RollingFileWriter writer;
+		private long lastUsage;
+
+		/**
+		 * @param fileName
+		 *            Path to the routed log file
+		 * @param writer
+		 *            Writer for the routed log file
+		 */
+		private Route(final String fileName, final RollingFileWriter writer) {
+			this.fileName = fileName;
+			this.writer = writer;
+		}
+
+	}
+
+	/**
+	 * Timer task for closing idle routed log files.
+	 */
+	private final class IdleTask extends TimerTask {
+
+		/** */
+		private IdleTask() {
+		}
+
+		@Override
+		public void run() {
+			synchronized (mutex) {
+				closeIdleRoutes();
+			}
+		}
+
+	}
+
+}
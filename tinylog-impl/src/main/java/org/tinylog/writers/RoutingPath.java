@@ -0,0 +1,204 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.tinylog.core.LogEntry;
+
+/**
+ * Path with routing placeholders that are resolved for each log entry. Supported placeholders are {@code {tag}} for the
+ * tag of the logger and {@code {context: key}} for a thread context value. Both placeholders accept an optional
+ * default value for missing values, for example {@code {tag: none}} or {@code {context: tenant, none}}. All other
+ * patterns like {@code {date}} or {@code {count}} are kept as they are.
+ *
+ * <p>
+ * Resolved values are sanitized before inserting them into the path. All characters except letters, digits, dots,
+ * hyphens, and underscores are replaced by underscores. Therefore, a value can never point to another directory.
+ * </p>
+ */
+final class RoutingPath {
+
+	private static final String DEFAULT_VALUE = "default";
+
+	private final List<String> texts;
+	private final List<Placeholder> placeholders;
+
+	/**
+	 * @param path
+	 *            Path with routing placeholders
+	 *
+	 * @throws IllegalArgumentException
+	 *             A context placeholder has no key
+	 */
+	RoutingPath(final String path) {
+		texts = new ArrayList<String>();
+		placeholders = new ArrayList<Placeholder>();
+
+		StringBuilder text = new StringBuilder();
+		int start = 0;
+
+		while (start < path.length()) {
+			int open = path.indexOf('{', start);
+			int close = open == -1 ? -1 : path.indexOf('}', open);
+
+			if (close == -1) {
+				text.append(path, start, path.length());
+				break;
+			}
+
+			Placeholder placeholder = parsePlaceholder(path.substring(open + 1, close));
+			if (placeholder == null) {
+				text.append(path, start, close + 1);
+			} else {
+				text.append(path, start, open);
+				texts.add(text.toString());
+				placeholders.add(placeholder);
+				text.setLength(0);
+			}
+
+			start = close + 1;
+		}
+
+		texts.add(text.toString());
+	}
+
+	/**
+	 * Checks whether this path contains at least one {@code {tag}} placeholder.
+	 *
+	 * @return {@code true} if the tag is required for resolving, {@code false} if not
+	 */
+	boolean usesTag() {
+		for (Placeholder placeholder : placeholders) {
+			if (placeholder.key == null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether this path contains at least one {@code {context}} placeholder.
+	 *
+	 * @return {@code true} if the thread context is required for resolving, {@code false} if not
+	 */
+	boolean usesContext() {
+		for (Placeholder placeholder : placeholders) {
+			if (placeholder.key != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Resolves all routing placeholders for a log entry.
+	 *
+	 * @param logEntry
+	 *            Log entry to route
+	 * @return Path with resolved routing placeholders
+	 */
+	String resolve(final LogEntry logEntry) {
+		if (placeholders.isEmpty()) {
+			return texts.get(0);
+		}
+
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < placeholders.size(); ++i) {
+			builder.append(texts.get(i));
+			Placeholder placeholder = placeholders.get(i);
+			String value = placeholder.key == null ? logEntry.getTag() : logEntry.getContext().get(placeholder.key);
+			appendSanitized(builder, value == null || value.isEmpty() ? placeholder.defaultValue : value);
+		}
+		builder.append(texts.get(placeholders.size()));
+
+		return builder.toString();
+	}
+
+	/**
+	 * Parses the content of a pattern.
+	 *
+	 * @param pattern
+	 *            Content of the pattern without curly brackets
+	 * @return Routing placeholder or {@code null} if the passed pattern is not a routing placeholder
+	 *
+	 * @throws IllegalArgumentException
+	 *             A context placeholder has no key
+	 */
+	private static Placeholder parsePlaceholder(final String pattern) {
+		int colon = pattern.indexOf(':');
+		String name = (colon == -1 ? pattern : pattern.substring(0, colon)).trim();
+		String configuration = colon == -1 ? null : pattern.substring(colon + 1);
+
+		if ("tag".equals(name)) {
+			return new Placeholder(null, configuration == null ? DEFAULT_VALUE : configuration.trim());
+		} else if ("context".equals(name)) {
+			int comma = configuration == null ? -1 : configuration.indexOf(',');
+			String key = configuration == null ? "" : (comma == -1 ? configuration : configuration.substring(0, comma)).trim();
+			if (key.isEmpty()) {
+				throw new IllegalArgumentException("\"{context}\" requires a key");
+			}
+			return new Placeholder(key, comma == -1 ? DEFAULT_VALUE : configuration.substring(comma + 1).trim());
+		} else {
+			return null;
+		}
+	}
+
+	/**
+	 * Appends a value that can safely be used as part of a file name.
+	 *
+	 * @param builder
+	 *            Target for the sanitized value
+	 * @param value
+	 *            Value to sanitize
+	 */
+	private static void appendSanitized(final StringBuilder builder, final String value) {
+		if (".".equals(value) || "..".equals(value)) {
+			builder.append('_');
+			return;
+		}
+
+		for (int i = 0; i < value.length(); ++i) {
+			char character = value.charAt(i);
+			if (Character.isLetterOrDigit(character) || character == '.' || character == '-' || character == '_') {
+				builder.append(character);
+			} else {
+				builder.append('_');
+			}
+		}
+	}
+
+	/**
+	 * Routing placeholder for a tag or a thread context value.
+	 */
+	private static final class Placeholder {
+
+		private final String key;
+		private final String defaultValue;
+
+		/**
+		 * @param key
+		 *            Key of the thread context value or {@code null} for the tag
+		 * @param defaultValue
+		 *            Value for missing or empty values
+		 */
+		private Placeholder(final String key, final String defaultValue) {
+			this.key = key;
+			this.defaultValue = defaultValue;
+		}
+
+	}
+
+}
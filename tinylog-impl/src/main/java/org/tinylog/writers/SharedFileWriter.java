@@ -31,6 +31,12 @@ import org.tinylog.writers.raw.ByteArrayWriter;
  * file. The shared file writer ensures that no process overrides log entries of another process. Already existing files
  * can be continued. The output can be buffered for improving performance, but is not recommended as outputs of
  * different processes will be not in chronological order.
+ *
+ * <p>
+ * Buffered output is written in batches of whole log entries, and the log file is locked only once per batch. Buffered
+ * data can be flushed periodically by a shared timer thread. On POSIX systems, locking can be disabled entirely, as the
+ * log file is opened in append mode and each batch is appended atomically by the operating system.
+ * </p>
  */
 public final class SharedFileWriter extends AbstractFormatPatternWriter {
 
@@ -39,6 +45,7 @@ public final class SharedFileWriter extends AbstractFormatPatternWriter {
 
 	private final Charset charset;
 	private final ByteArrayWriter writer;
+	private final FlushTask flushTask;
 
 	/**
 	 * @throws FileNotFoundException
@@ -70,6 +77,7 @@ public final class SharedFileWriter extends AbstractFormatPatternWriter {
 		boolean append = Boolean.parseBoolean(properties.get("append"));
 		boolean buffered = Boolean.parseBoolean(properties.get("buffered"));
 		boolean writingThread = Boolean.parseBoolean(properties.get("writingthread"));
+		OutputOptions options = new OutputOptions(properties);
 
 		if (append) {
 			lockFile = null;
@@ -93,13 +101,19 @@ public final class SharedFileWriter extends AbstractFormatPatternWriter {
 		}
 
 		charset = getCharset(properties);
-		writer = createByteArrayWriter(fileName, append, buffered, !writingThread, true);
+		writer = createByteArrayWriter(fileName, append, buffered, !writingThread, true, options);
+
+		flushTask = createFlushTask(this, properties, buffered, writingThread, options);
 	}
 
 	@Override
 	public void write(final LogEntry logEntry) throws IOException {
 		byte[] data = render(logEntry).getBytes(charset);
 		writer.write(data, data.length);
+
+		if (flushTask != null) {
+			flushTask.markDirty();
+		}
 	}
 
 	@Override
@@ -109,6 +123,10 @@ public final class SharedFileWriter extends AbstractFormatPatternWriter {
 
 	@Override
 	public void close() throws IOException {
+		if (flushTask != null) {
+			flushTask.cancel();
+		}
+
 		try {
 			writer.close();
 		} finally {
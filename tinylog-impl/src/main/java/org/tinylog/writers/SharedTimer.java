@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * Timer thread that is shared by all writers for executing periodic and delayed tasks. The thread is started when the
+ * first writer acquires the timer and stopped after the last writer has released it.
+ */
+final class SharedTimer {
+
+	private static final String THREAD_NAME = "tinylog-TimerThread";
+	private static final Object MUTEX = new Object();
+
+	private static Timer timer;
+	private static int users;
+
+	/** */
+	private SharedTimer() {
+	}
+
+	/**
+	 * Registers a new user of the timer. The timer thread is started if it is not running yet. Each call has to be
+	 * paired with a call of {@link #release()}.
+	 */
+	static void acquire() {
+		synchronized (MUTEX) {
+			if (timer == null) {
+				timer = new Timer(THREAD_NAME, true);
+			}
+
+			users += 1;
+		}
+	}
+
+	/**
+	 * Unregisters a user of the timer. The timer thread is stopped if there are no other users.
+	 */
+	static void release() {
+		synchronized (MUTEX) {
+			users -= 1;
+			if (users == 0) {
+				timer.cancel();
+				timer = null;
+			} else {
+				timer.purge();
+			}
+		}
+	}
+
+	/**
+	 * Schedules a task for a single execution. The task will be ignored, if the timer is not running.
+	 *
+	 * @param task
+	 *            Task to execute
+	 * @param delay
+	 *            Delay in milliseconds until the task will be executed
+	 */
+	static void schedule(final TimerTask task, final long delay) {
+		synchronized (MUTEX) {
+			if (timer != null) {
+				timer.schedule(task, delay);
+			}
+		}
+	}
+
+	/**
+	 * Schedules a task for repeated execution. The task will be ignored, if the timer is not running.
+	 *
+	 * @param task
+	 *            Task to execute
+	 * @param delay
+	 *            Delay in milliseconds until the task will be executed for the first time
+	 * @param period
+	 *            Interval in milliseconds between two executions
+	 */
+	static void scheduleAtFixedRate(final TimerTask task, final long delay, final long period) {
+		synchronized (MUTEX) {
+			if (timer != null) {
+				timer.scheduleAtFixedRate(task, delay, period);
+			}
+		}
+	}
+
+	/**
+	 * Checks whether the shared timer thread is running.
+	 *
+	 * @return {@code true} if there is at least one user, otherwise {@code false}
+	 */
+	static boolean isRunning() {
+		synchronized (MUTEX) {
+			return timer != null;
+		}
+	}
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+/**
+ * Syslog facilities as defined by RFC 5424. The ordinal of each facility is its numerical code.
+ */
+enum SyslogFacility {
+
+	/**
+	 * Kernel messages.
+	 */
+	KERN,
+
+	/**
+	 * User-level messages.
+	 */
+	USER,
+
+	/**
+	 * Mail system.
+	 */
+	MAIL,
+
+	/**
+	 * System daemons.
+	 */
+	DAEMON,
+
+	/**
+	 * Security and authorization messages.
+	 */
+	AUTH,
+
+	/**
+	 * Messages generated internally by syslogd.
+	 */
+	SYSLOG,
+
+	/**
+	 * Line printer subsystem.
+	 */
+	LPR,
+
+	/**
+	 * Network news subsystem.
+	 */
+	NEWS,
+
+	/**
+	 * UUCP subsystem.
+	 */
+	UUCP,
+
+	/**
+	 * Clock daemon.
+	 */
+	CRON,
+
+	/**
+	 * Private security and authorization messages.
+	 */
+	AUTHPRIV,
+
+	/**
+	 * FTP daemon.
+	 */
+	FTP,
+
+	/**
+	 * NTP subsystem.
+	 */
+	NTP,
+
+	/**
+	 * Log audit.
+	 */
+	AUDIT,
+
+	/**
+	 * Log alert.
+	 */
+	ALERT,
+
+	/**
+	 * Clock daemon (note 2).
+	 */
+	CLOCK,
+
+	/**
+	 * Local use 0.
+	 */
+	LOCAL0,
+
+	/**
+	 * Local use 1.
+	 */
+	LOCAL1,
+
+	/**
+	 * Local use 2.
+	 */
+	LOCAL2,
+
+	/**
+	 * Local use 3.
+	 */
+	LOCAL3,
+
+	/**
+	 * Local use 4.
+	 */
+	LOCAL4,
+
+	/**
+	 * Local use 5.
+	 */
+	LOCAL5,
+
+	/**
+	 * Local use 6.
+	 */
+	LOCAL6,
+
+	/**
+	 * Local use 7.
+	 */
+	LOCAL7
+
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.tinylog.Level;
+import org.tinylog.provider.InternalLogger;
+import org.tinylog.writers.raw.BufferedWriterDecorator;
+import org.tinylog.writers.raw.ByteArrayWriter;
+import org.tinylog.writers.raw.DatagramSocketWriter;
+import org.tinylog.writers.raw.OutputStreamWriter;
+
+/**
+ * Thread for sending already framed syslog records to a syslog server in background. Records are passed via a bounded
+ * queue. If the queue is full, new records are discarded instead of blocking the logging thread.
+ *
+ * <p>
+ * All records that are queued at the same time are sent as one batch. For TCP, a batch is written by a single write
+ * call as far as the buffer capacity allows. If sending fails, the connection is closed and reestablished with an
+ * exponential backoff, while the failed batch is retained.
+ * </p>
+ */
+final class SyslogSender extends Thread {
+
+	private static final String THREAD_NAME = "tinylog-SyslogThread";
+
+	private static final int CONNECT_TIMEOUT = 5000;
+	private static final long INITIAL_BACKOFF = 100;
+	private static final long MAX_BACKOFF = 30000;
+	private static final long CLOSE_TIMEOUT = 5000;
+
+	private final Protocol protocol;
+	private final String host;
+	private final int port;
+
+	private final BlockingQueue<byte[]> queue;
+	private final AtomicInteger pending;
+	private final AtomicLong discarded;
+	private final Object mutex;
+
+	private ByteArrayWriter writer;
+	private volatile boolean failing;
+	private volatile boolean shutdown;
+
+	/**
+	 * @param protocol
+	 *            Transport protocol
+	 * @param host
+	 *            Host name or IP address of the syslog server
+	 * @param port
+	 *            Port of the syslog server
+	 * @param capacity
+	 *            Maximum number of queued records
+	 */
+	SyslogSender(final Protocol protocol, final String host, final int port, final int capacity) {
+		this.protocol = protocol;
+		this.host = host;
+		this.port = port;
+		this.queue = new ArrayBlockingQueue<byte[]>(capacity);
+		this.pending = new AtomicInteger();
+		this.discarded = new AtomicLong();
+		this.mutex = new Object();
+
+		setName(THREAD_NAME);
+		setPriority(Thread.MIN_PRIORITY);
+		setDaemon(true);
+	}
+
+	/**
+	 * Sends queued records until the thread is shut down and all remaining records are sent or sending fails.
+	 */
+	@Override
+	public void run() {
+		List<byte[]> batch = new ArrayList<byte[]>();
+		long backoff = INITIAL_BACKOFF;
+
+		try {
+			while (true) {
+				if (batch.isEmpty()) {
+					byte[] record = next();
+					if (record == null) {
+						return;
+					}
+
+					batch.add(record);
+					queue.drainTo(batch);
+				}
+
+				try {
+					send(batch);
+				} catch (IOException ex) {
+					closeWriter();
+
+					if (!failing) {
+						InternalLogger.log(Level.ERROR, ex, "Failed to send log entries to syslog server " + host + ":" + port);
+						setFailing(true);
+					}
+
+					if (shutdown) {
+						return;
+					}
+
+					backOff(backoff);
+					backoff = Math.min(backoff * 2, MAX_BACKOFF);
+					continue;
+				}
+
+				pending.addAndGet(-batch.size());
+				batch.clear();
+				backoff = INITIAL_BACKOFF;
+				setFailing(false);
+
+				long count = discarded.getAndSet(0);
+				if (count > 0) {
+					InternalLogger.log(Level.WARN, "Syslog queue was full, discarded " + count + " log entries");
+				}
+			}
+		} finally {
+			closeWriter();
+			synchronized (mutex) {
+				mutex.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Adds a record for sending in background. The passed record is discarded if the queue is full.
+	 *
+	 * @param record
+	 *            Framed syslog record
+	 * @return {@code true} if the record has been queued, {@code false} if it has been discarded
+	 */
+	boolean offer(final byte[] record) {
+		pending.incrementAndGet();
+
+		if (queue.offer(record)) {
+			return true;
+		} else {
+			pending.decrementAndGet();
+			discarded.incrementAndGet();
+			return false;
+		}
+	}
+
+	/**
+	 * Waits until all queued records have been sent. This method returns immediately if the syslog server is
+	 * currently unreachable, in order to never block logging threads during an outage.
+	 */
+	void flush() {
+		synchronized (mutex) {
+			while (pending.get() > 0 && !failing && isAlive()) {
+				try {
+					mutex.wait();
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Shuts this thread down after sending all already queued records, and waits for its termination. If the syslog
+	 * server is unreachable, queued records are discarded.
+	 *
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for termination
+	 */
+	void shutdown() throws InterruptedException {
+		shutdown = true;
+		interrupt();
+		join(CLOSE_TIMEOUT);
+	}
+
+	/**
+	 * Checks whether the syslog server is currently unreachable.
+	 *
+	 * @return {@code true} if sending has failed, {@code false} if the last batch has been sent successfully
+	 */
+	boolean isFailing() {
+		return failing;
+	}
+
+	/**
+	 * Gets the next record to send. This method blocks until a record is available, as long as this thread is not shut
+	 * down.
+	 *
+	 * @return Next record or {@code null} if this thread is shut down and no more records are queued
+	 */
+	private byte[] next() {
+		while (!shutdown) {
+			try {
+				return queue.take();
+			} catch (InterruptedException ex) {
+				// Continue and check for shutdown
+			}
+		}
+
+		return queue.poll();
+	}
+
+	/**
+	 * Sends a batch of records via the current connection. A new connection is established if there is none yet.
+	 *
+	 * @param batch
+	 *            Records to send
+	 * @throws IOException
+	 *             Failed to connect or to send records
+	 */
+	private void send(final List<byte[]> batch) throws IOException {
+		if (writer == null) {
+			writer = connect();
+		}
+
+		for (byte[] record : batch) {
+			writer.write(record, record.length);
+		}
+
+		writer.flush();
+	}
+
+	/**
+	 * Establishes a new connection to the syslog server.
+	 *
+	 * @return Writer for sending records to the syslog server
+	 * @throws IOException
+	 *             Failed to connect
+	 */
+	private ByteArrayWriter connect() throws IOException {
+		InetSocketAddress address = new InetSocketAddress(host, port);
+
+		if (protocol == Protocol.UDP) {
+			return new DatagramSocketWriter(address);
+		} else {
+			Socket socket = new Socket();
+			try {
+				socket.connect(address, CONNECT_TIMEOUT);
+				return new BufferedWriterDecorator(new OutputStreamWriter(socket.getOutputStream()));
+			} catch (IOException ex) {
+				socket.close();
+				throw ex;
+			}
+		}
+	}
+
+	/**
+	 * Closes the current connection if there is one.
+	 */
+	private void closeWriter() {
+		if (writer != null) {
+			try {
+				writer.close();
+			} catch (IOException ex) {
+				// Ignore, as the connection is discarded anyway
+			} finally {
+				writer = null;
+			}
+		}
+	}
+
+	/**
+	 * Waits for the passed backoff time before reconnecting. Waiting is aborted if this thread is shut down.
+	 *
+	 * @param backoff
+	 *            Time to wait in milliseconds
+	 */
+	private static void backOff(final long backoff) {
+		try {
+			Thread.sleep(backoff);
+		} catch (InterruptedException ex) {
+			// Continue, as the thread might have been shut down
+		}
+	}
+
+	/**
+	 * Updates the failing state and wakes up all threads that are waiting for flushing.
+	 *
+	 * @param failing
+	 *            New failing state
+	 */
+	private void setFailing(final boolean failing) {
+		synchronized (mutex) {
+			this.failing = failing;
+			mutex.notifyAll();
+		}
+	}
+
+	/**
+	 * Transport protocols for sending syslog records.
+	 */
+	enum Protocol {
+
+		/**
+		 * Each record is sent as a separate UDP datagram.
+		 */
+		UDP,
+
+		/**
+		 * Records are sent with octet-counting framing via a TCP connection.
+		 */
+		TCP
+
+	}
+
+}
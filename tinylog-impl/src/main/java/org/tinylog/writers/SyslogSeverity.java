@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+/**
+ * Syslog severities as defined by RFC 5424. The ordinal of each severity is its numerical code.
+ */
+enum SyslogSeverity {
+
+	/**
+	 * System is unusable.
+	 */
+	EMERGENCY,
+
+	/**
+	 * Action must be taken immediately.
+	 */
+	ALERT,
+
+	/**
+	 * Critical conditions.
+	 */
+	CRITICAL,
+
+	/**
+	 * Error conditions.
+	 */
+	ERROR,
+
+	/**
+	 * Warning conditions.
+	 */
+	WARNING,
+
+	/**
+	 * Normal but significant condition.
+	 */
+	NOTICE,
+
+	/**
+	 * Informational messages.
+	 */
+	INFORMATIONAL,
+
+	/**
+	 * Debug-level messages.
+	 */
+	DEBUG
+
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.Charset;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+import org.tinylog.Level;
+import org.tinylog.core.LogEntry;
+import org.tinylog.core.LogEntryValue;
+import org.tinylog.pattern.FormatPatternParser;
+import org.tinylog.pattern.Token;
+import org.tinylog.provider.InternalLogger;
+import org.tinylog.runtime.RuntimeProvider;
+
+/**
+ * Writer for sending log entries to a syslog server. Log entries are formatted according to RFC 5424 or RFC 3164 and
+ * sent via UDP or TCP. For TCP, the octet-counting framing of RFC 6587 is used.
+ *
+ * <p>
+ * Log entries are sent by a background thread. Logging threads only add rendered records to a bounded queue and never
+ * wait for the network. If the queue is full, new log entries are discarded. All queued log entries are sent together
+ * as one batch. If the syslog server is unreachable, the writer reconnects in background with an exponential backoff.
+ * </p>
+ *
+ * <p>
+ * The severity for each severity level can be configured via the properties {@code severity.trace},
+ * {@code severity.debug}, {@code severity.info}, {@code severity.warn}, and {@code severity.error}.
+ * </p>
+ */
+public final class SyslogWriter implements Writer {
+
+	private static final String DEFAULT_HOST = "localhost";
+	private static final int DEFAULT_PORT = 514;
+	private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+	private static final int MAX_PORT = 65535;
+
+	private static final String DEFAULT_FORMAT_PATTERN = "{message}";
+	private static final String DEFAULT_IDENTIFICATION = "tinylog";
+	private static final String NIL_VALUE = "-";
+
+	private static final int MESSAGE_BUILDER_CAPACITY = 1024;
+	private static final int FACILITY_MULTIPLIER = 8;
+	private static final int RFC3164_DAY_OFFSET = 4;
+
+	private static final Charset CHARSET = Charset.forName("UTF-8");
+
+	private final boolean octetCounting;
+	private final boolean rfc5424;
+	private final String[] prefixes;
+	private final String suffix;
+	private final DateFormat dateFormat;
+
+	private final StringBuilder messageBuilder;
+	private final Token messageToken;
+
+	private final SyslogSender sender;
+
+	/** */
+	public SyslogWriter() {
+		this(Collections.<String, String>emptyMap());
+	}
+
+	/**
+	 * @param properties
+	 *            Configuration for writer
+	 */
+	public SyslogWriter(final Map<String, String> properties) {
+		SyslogSender.Protocol protocol = parseEnum(properties.get("protocol"), "protocol", SyslogSender.Protocol.UDP);
+		String standard = properties.get("standard");
+		rfc5424 = standard == null || !"rfc3164".equalsIgnoreCase(standard.trim());
+		if (rfc5424 && standard != null && !"rfc5424".equalsIgnoreCase(standard.trim())) {
+			InternalLogger.log(Level.ERROR, "Invalid syslog standard: " + standard);
+		}
+
+		octetCounting = protocol == SyslogSender.Protocol.TCP;
+		prefixes = createPrefixes(properties, rfc5424);
+		suffix = createSuffix(properties, rfc5424);
+
+		if (rfc5424) {
+			dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.ROOT);
+			dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+		} else {
+			dateFormat = new SimpleDateFormat("MMM dd HH:mm:ss", Locale.ENGLISH);
+		}
+
+		String messagePattern = properties.get("format");
+		if (messagePattern == null) {
+			messagePattern = DEFAULT_FORMAT_PATTERN;
+		}
+
+		messageToken = new FormatPatternParser(properties.get("exception")).parse(messagePattern);
+		messageBuilder = Boolean.parseBoolean(properties.get("writingthread")) ? new StringBuilder(MESSAGE_BUILDER_CAPACITY) : null;
+
+		String host = properties.get("host");
+		int port = AbstractFormatPatternWriter.parsePositiveNumber(properties.get("port"), "port", DEFAULT_PORT);
+		if (port > MAX_PORT) {
+			InternalLogger.log(Level.ERROR, "Invalid port: " + port);
+			port = DEFAULT_PORT;
+		}
+
+		int capacity = AbstractFormatPatternWriter.parsePositiveNumber(properties.get("queue"), "queue capacity", DEFAULT_QUEUE_CAPACITY);
+
+		sender = new SyslogSender(protocol, host == null ? DEFAULT_HOST : host, port, capacity);
+		sender.start();
+	}
+
+	@Override
+	public Collection<LogEntryValue> getRequiredLogEntryValues() {
+		Collection<LogEntryValue> values = EnumSet.of(LogEntryValue.DATE, LogEntryValue.LEVEL);
+		values.addAll(messageToken.getRequiredLogEntryValues());
+		return values;
+	}
+
+	@Override
+	public void write(final LogEntry logEntry) {
+		sender.offer(render(logEntry));
+	}
+
+	@Override
+	public void flush() {
+		sender.flush();
+	}
+
+	@Override
+	public void close() throws InterruptedException {
+		sender.shutdown();
+	}
+
+	/**
+	 * Renders a log entry as framed syslog record.
+	 *
+	 * @param logEntry
+	 *            Log entry to render
+	 * @return Encoded syslog record
+	 */
+	byte[] render(final LogEntry logEntry) {
+		StringBuilder builder;
+		if (messageBuilder == null) {
+			builder = new StringBuilder(MESSAGE_BUILDER_CAPACITY);
+		} else {
+			builder = messageBuilder;
+			builder.setLength(0);
+		}
+
+		builder.append(prefixes[logEntry.getLevel().ordinal()]);
+
+		String timestamp;
+		synchronized (dateFormat) {
+			timestamp = dateFormat.format(logEntry.getTimestamp().toDate());
+		}
+
+		if (!rfc5424 && timestamp.charAt(RFC3164_DAY_OFFSET) == '0') {
+			builder.append(timestamp, 0, RFC3164_DAY_OFFSET).append(' ').append(timestamp, RFC3164_DAY_OFFSET + 1, timestamp.length());
+		} else {
+			builder.append(timestamp);
+		}
+
+		builder.append(suffix);
+		messageToken.render(logEntry, builder);
+
+		byte[] record = builder.toString().getBytes(CHARSET);
+		if (octetCounting) {
+			byte[] length = (record.length + " ").getBytes(CHARSET);
+			byte[] framed = new byte[length.length + record.length];
+			System.arraycopy(length, 0, framed, 0, length.length);
+			System.arraycopy(record, 0, framed, length.length, record.length);
+			return framed;
+		} else {
+			return record;
+		}
+	}
+
+	/**
+	 * Creates the record prefixes for all severity levels. Each prefix consists of the priority value and, for RFC 5424,
+	 * the version.
+	 *
+	 * @param properties
+	 *            Configuration for writer
+	 * @param rfc5424
+	 *            {@code true} for RFC 5424, {@code false} for RFC 3164
+	 * @return Prefixes indexed by the ordinal of the severity level
+	 */
+	private static String[] createPrefixes(final Map<String, String> properties, final boolean rfc5424) {
+		SyslogFacility facility = parseEnum(properties.get("facility"), "facility", SyslogFacility.USER);
+
+		SyslogSeverity[] severities = new SyslogSeverity[Level.values().length];
+		severities[Level.TRACE.ordinal()] = SyslogSeverity.DEBUG;
+		severities[Level.DEBUG.ordinal()] = SyslogSeverity.DEBUG;
+		severities[Level.INFO.ordinal()] = SyslogSeverity.INFORMATIONAL;
+		severities[Level.WARN.ordinal()] = SyslogSeverity.WARNING;
+		severities[Level.ERROR.ordinal()] = SyslogSeverity.ERROR;
+		severities[Level.OFF.ordinal()] = SyslogSeverity.EMERGENCY;
+
+		String[] prefixes = new String[severities.length];
+		for (Level level : Level.values()) {
+			String key = "severity." + level.name().toLowerCase(Locale.ROOT);
+			SyslogSeverity severity = parseEnum(properties.get(key), "severity", severities[level.ordinal()]);
+			int priority = facility.ordinal() * FACILITY_MULTIPLIER + severity.ordinal();
+			prefixes[level.ordinal()] = "<" + priority + ">" + (rfc5424 ? "1 " : "");
+		}
+
+		return prefixes;
+	}
+
+	/**
+	 * Creates the part of the record header that follows the timestamp. It consists of the host name and the
+	 * application name, as well as the process ID, message ID, and structured data for RFC 5424.
+	 *
+	 * @param properties
+	 *            Configuration for writer
+	 * @param rfc5424
+	 *            {@code true} for RFC 5424, {@code false} for RFC 3164
+	 * @return Record header that follows the timestamp
+	 */
+	private static String createSuffix(final Map<String, String> properties, final boolean rfc5424) {
+		String hostname = properties.get("hostname");
+		if (hostname == null) {
+			try {
+				hostname = InetAddress.getLocalHost().getHostName();
+			} catch (UnknownHostException ex) {
+				hostname = rfc5424 ? NIL_VALUE : DEFAULT_HOST;
+			}
+		}
+
+		String identification = properties.get("identification");
+		if (identification == null) {
+			identification = DEFAULT_IDENTIFICATION;
+		}
+
+		long pid = RuntimeProvider.getProcessId();
+		String processId = pid == Long.MIN_VALUE ? NIL_VALUE : Long.toString(pid);
+
+		if (rfc5424) {
+			return " " + hostname + " " + identification + " " + processId + " " + NIL_VALUE + " " + NIL_VALUE + " ";
+		} else if (pid == Long.MIN_VALUE) {
+			return " " + hostname + " " + identification + ": ";
+		} else {
+			return " " + hostname + " " + identification + "[" + processId + "]: ";
+		}
+	}
+
+	/**
+	 * Parses the name of an enum constant case-insensitively.
+	 *
+	 * @param value
+	 *            Configured name or {@code null}
+	 * @param name
+	 *            Human-readable name of the property for error messages
+	 * @param defaultValue
+	 *            Default value for undefined or invalid names
+	 * @param <T>
+	 *            Enum type
+	 * @return Parsed enum constant or default value
+	 */
+	private static <T extends Enum<T>> T parseEnum(final String value, final String name, final T defaultValue) {
+		if (value != null) {
+			for (T constant : defaultValue.getDeclaringClass().getEnumConstants()) {
+				if (constant.name().equalsIgnoreCase(value.trim())) {
+					return constant;
+				}
+			}
+
+			InternalLogger.log(Level.ERROR, "Invalid " + name + ": " + value);
+		}
+
+		return defaultValue;
+	}
+
+}
@@ -21,7 +21,10 @@ import java.io.IOException;
  */
 public final class BufferedWriterDecorator implements ByteArrayWriter {
 
-	private static final int BUFFER_CAPACITY = 64 * 1024; // 64 KB
+	/**
+	 * Default buffer capacity in bytes.
+	 */
+	public static final int DEFAULT_CAPACITY = 64 * 1024; // 64 KB
 
 	private final ByteArrayWriter writer;
 	private final byte[] buffer;
@@ -32,19 +35,29 @@ public final class BufferedWriterDecorator implements ByteArrayWriter {
 	 *            Underlying writer
 	 */
 	public BufferedWriterDecorator(final ByteArrayWriter writer) {
+		this(writer, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param writer
+	 *            Underlying writer
+	 * @param capacity
+	 *            Buffer capacity in bytes
+	 */
+	public BufferedWriterDecorator(final ByteArrayWriter writer, final int capacity) {
 		this.writer = writer;
-		this.buffer = new byte[BUFFER_CAPACITY];
+		this.buffer = new byte[capacity];
 		this.position = 0;
 	}
 
 	@Override
 	public void write(final byte[] data, final int length) throws IOException {
-		if (position > 0 && BUFFER_CAPACITY - position < length) {
+		if (position > 0 && buffer.length - position < length) {
 			writer.write(buffer, position);
 			position = 0;
 		}
 
-		if (BUFFER_CAPACITY < length) {
+		if (buffer.length < length) {
 			writer.write(data, length);
 		} else {
 			System.arraycopy(data, 0, buffer, position, length);
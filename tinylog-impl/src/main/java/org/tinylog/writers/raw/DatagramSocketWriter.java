@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers.raw;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Writer for sending byte arrays as UDP datagrams. Each written byte array is sent as a separate datagram.
+ */
+public final class DatagramSocketWriter implements ByteArrayWriter {
+
+	private final DatagramSocket socket;
+	private final InetSocketAddress address;
+
+	/**
+	 * @param address
+	 *            Target address for all datagrams
+	 * @throws UnknownHostException
+	 *             Target address cannot be resolved
+	 * @throws IOException
+	 *             Socket cannot be opened
+	 */
+	public DatagramSocketWriter(final InetSocketAddress address) throws IOException {
+		if (address.isUnresolved()) {
+			throw new UnknownHostException(address.getHostName());
+		}
+
+		this.socket = new DatagramSocket();
+		this.address = address;
+	}
+
+	@Override
+	public void write(final byte[] data, final int length) throws IOException {
+		socket.send(new DatagramPacket(data, length, address));
+	}
+
+	@Override
+	public void flush() {
+	}
+
+	@Override
+	public void close() {
+		socket.close();
+	}
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers.raw;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * Decorator for forcing written data to the storage device. Multiple log entries share one force operation via group
+ * commit: a thread that forces the file covers the log entries of all threads that have been written before.
+ *
+ * <p>
+ * In synchronous mode, {@link #write(byte[], int)} returns not before the written data has been forced. In
+ * asynchronous mode, data is forced on {@link #flush()} or via {@link #commit(long)}.
+ * </p>
+ *
+ * <p>
+ * This decorator is thread-safe. The underlying writer is synchronized by the passed mutex.
+ * </p>
+ */
+public final class DurableWriterDecorator implements ByteArrayWriter {
+
+	private final ByteArrayWriter writer;
+	private final FileChannel channel;
+	private final Object mutex;
+	private final boolean synchronous;
+	private final Object forceMutex;
+
+	private long written;
+	private long forced;
+
+	/**
+	 * @param writer
+	 *            Underlying writer
+	 * @param channel
+	 *            File channel of the file to force
+	 * @param mutex
+	 *            Synchronization object for the underlying writer
+	 * @param synchronous
+	 *            {@code true} for forcing data before returning from {@link #write(byte[], int)}, {@code false} for
+	 *            forcing data only on {@link #flush()} or {@link #commit(long)}
+	 */
+	public DurableWriterDecorator(final ByteArrayWriter writer, final FileChannel channel, final Object mutex,
+		final boolean synchronous) {
+		this.writer = writer;
+		this.channel = channel;
+		this.mutex = mutex;
+		this.synchronous = synchronous;
+		this.forceMutex = new Object();
+	}
+
+	@Override
+	public void write(final byte[] data, final int length) throws IOException {
+		long ticket;
+
+		synchronized (mutex) {
+			writer.write(data, length);
+			ticket = ++written;
+		}
+
+		if (synchronous) {
+			commit(ticket);
+		}
+	}
+
+	/**
+	 * Gets the ticket of the most recently written byte array. The ticket can be passed to {@link #commit(long)}.
+	 *
+	 * @return Ticket of the most recently written byte array
+	 */
+	public long getLastTicket() {
+		synchronized (mutex) {
+			return written;
+		}
+	}
+
+	/**
+	 * Ensures that the byte array with the passed ticket and all previously written byte arrays are forced to the
+	 * storage device. If another thread is already forcing the file, this method waits and returns without forcing
+	 * again if the other thread has covered the passed ticket.
+	 *
+	 * @param ticket
+	 *            Ticket of a written byte array
+	 * @throws IOException
+	 *             Flushing or forcing failed
+	 */
+	public void commit(final long ticket) throws IOException {
+		synchronized (forceMutex) {
+			if (forced < ticket) {
+				long target;
+
+				synchronized (mutex) {
+					writer.flush();
+					target = written;
+				}
+
+				channel.force(false);
+				forced = target;
+			}
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		commit(getLastTicket());
+	}
+
+	@Override
+	public void close() throws IOException {
+		synchronized (forceMutex) {
+			synchronized (mutex) {
+				try {
+					writer.flush();
+					channel.force(false);
+				} finally {
+					forced = Long.MAX_VALUE;
+					writer.close();
+				}
+			}
+		}
+	}
+
+}
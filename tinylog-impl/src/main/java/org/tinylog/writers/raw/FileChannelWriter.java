@@ -0,0 +1,145 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers.raw;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writer for writing byte arrays via a {@link FileChannel}. Data is collected in a direct byte buffer, which the JVM
+ * can pass to the operating system without an additional copy. Byte arrays that are larger than the buffer are
+ * submitted together with the already buffered data in one gathering write. Multiple byte arrays, like the queued
+ * buffers of a {@link MultiBufferedWriterDecorator}, are submitted in one gathering write as well.
+ */
+public final class FileChannelWriter implements GatheringByteArrayWriter {
+
+	private final FileOutputStream stream;
+	private final FileChannel channel;
+	private final boolean buffered;
+	private final ByteBuffer buffer;
+
+	private ByteBuffer[] buffers;
+
+	/**
+	 * @param stream
+	 *            Underlying file output stream
+	 * @param capacity
+	 *            Size of the direct byte buffer in bytes
+	 * @param buffered
+	 *            {@code true} for writing data not before the buffer is full or flushed, {@code false} for writing data
+	 *            immediately
+	 */
+	public FileChannelWriter(final FileOutputStream stream, final int capacity, final boolean buffered) {
+		this.stream = stream;
+		this.channel = stream.getChannel();
+		this.buffered = buffered;
+		this.buffer = ByteBuffer.allocateDirect(capacity);
+		this.buffers = new ByteBuffer[2];
+	}
+
+	@Override
+	public void write(final byte[] data, final int length) throws IOException {
+		if (length > buffer.capacity()) {
+			buffers[1] = ByteBuffer.wrap(data, 0, length);
+			gather(2);
+		} else {
+			if (length > buffer.remaining()) {
+				drain();
+			}
+
+			buffer.put(data, 0, length);
+
+			if (!buffered) {
+				drain();
+			}
+		}
+	}
+
+	@Override
+	public void write(final byte[][] data, final int[] lengths, final int count) throws IOException {
+		if (buffers.length <= count) {
+			buffers = new ByteBuffer[count + 1];
+		}
+
+		for (int i = 0; i < count; ++i) {
+			buffers[i + 1] = ByteBuffer.wrap(data[i], 0, lengths[i]);
+		}
+
+		gather(count + 1);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		drain();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			drain();
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Writes all buffered data and the passed byte buffers to the file channel in gathering writes.
+	 *
+	 * @param count
+	 *            Number of byte buffers to write including the direct byte buffer at the first position
+	 * @throws IOException
+	 *             Writing failed
+	 */
+	private void gather(final int count) throws IOException {
+		buffer.flip();
+		buffers[0] = buffer;
+		try {
+			int index = 0;
+			while (index < count) {
+				if (buffers[index].hasRemaining()) {
+					channel.write(buffers, index, count - index);
+				} else {
+					index += 1;
+				}
+			}
+		} finally {
+			for (int i = 1; i < count; ++i) {
+				buffers[i] = null;
+			}
+			buffer.clear();
+		}
+	}
+
+	/**
+	 * Writes all buffered data to the file channel.
+	 *
+	 * @throws IOException
+	 *             Writing failed
+	 */
+	private void drain() throws IOException {
+		if (buffer.position() > 0) {
+			buffer.flip();
+			try {
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			} finally {
+				buffer.clear();
+			}
+		}
+	}
+
+}
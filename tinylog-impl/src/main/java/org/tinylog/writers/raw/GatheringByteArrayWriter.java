@@ -0,0 +1,37 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers.raw;
+
+import java.io.IOException;
+
+/**
+ * Writers that can output multiple byte arrays at once, for example in a single gathering write operation.
+ */
+public interface GatheringByteArrayWriter extends ByteArrayWriter {
+
+	/**
+	 * Outputs multiple byte arrays in the passed order.
+	 *
+	 * @param data
+	 *            Byte arrays to output
+	 * @param lengths
+	 *            Number of bytes to output for each byte array
+	 * @param count
+	 *            Number of byte arrays to output
+	 * @throws IOException
+	 *             Writing failed
+	 */
+	void write(byte[][] data, int[] lengths, int count) throws IOException;
+
+}
@@ -21,18 +21,32 @@ import java.nio.channels.FileLock;
 /**
  * Wrapper for using {@link FileOutputStream} as writer. In opposite to {@link OutputStreamWriter}, this writer supports
  * only {@link FileOutputStream FileOutputStreams} and uses {@link FileLock FileLocks} to support writing from multiple
- * processes to the same file.
+ * processes to the same file. Each call of {@link #write(byte[], int)} acquires the lock once, so buffering multiple
+ * log entries before writing reduces the number of lock acquisitions to one per batch.
  */
 public final class LockedFileOutputStreamWriter implements ByteArrayWriter {
 
 	private final FileOutputStream stream;
+	private final boolean appending;
 
 	/**
 	 * @param stream
 	 *            Underlying output stream
 	 */
 	public LockedFileOutputStreamWriter(final FileOutputStream stream) {
+		this(stream, false);
+	}
+
+	/**
+	 * @param stream
+	 *            Underlying output stream
+	 * @param appending
+	 *            {@code true} if the passed stream has been opened in append mode and writes to the end of the file
+	 *            anyway, {@code false} if the stream has to be positioned at the end of the file before each write
+	 */
+	public LockedFileOutputStreamWriter(final FileOutputStream stream, final boolean appending) {
 		this.stream = stream;
+		this.appending = appending;
 	}
 
 	@Override
@@ -40,7 +54,9 @@ public final class LockedFileOutputStreamWriter implements ByteArrayWriter {
 		FileChannel channel = stream.getChannel();
 		FileLock lock = channel.lock();
 		try {
-			channel.position(channel.size());
+			if (!appending) {
+				channel.position(channel.size());
+			}
 			stream.write(data, 0, length);
 		} finally {
 			lock.release();
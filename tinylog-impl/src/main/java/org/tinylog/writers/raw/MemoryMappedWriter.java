@@ -0,0 +1,206 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers.raw;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writer that copies byte arrays into a memory-mapped window of a file. A new window is mapped as soon as the current
+ * one is full. While the writer is open, the file is larger than the written data. It is truncated to the real length
+ * on closing.
+ *
+ * <p>
+ * Windows are aligned to multiples of the window size. Therefore, the length of a file that has not been closed
+ * properly is always a multiple of the window size. If such a file is continued, trailing zeros in the last window
+ * are treated as unused space and will be overwritten. The length of all other files is trusted as is. A properly closed
+ * file is only affected if its length is by chance an exact multiple of the window size and its data ends with zeros.
+ * </p>
+ */
+public final class MemoryMappedWriter implements ByteArrayWriter {
+
+	private static final int DEFAULT_WINDOW_SIZE = 16 * 1024 * 1024;
+	private static final int SCAN_BLOCK_SIZE = 4096;
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final int windowSize;
+
+	private MappedByteBuffer buffer;
+	private long windowStart;
+
+	/**
+	 * @param file
+	 *            Underlying file that has to be opened in read-write mode
+	 * @param append
+	 *            {@code true} for continuing the file, {@code false} for overwriting the file
+	 * @throws IOException
+	 *             Failed to map the file into memory
+	 */
+	public MemoryMappedWriter(final RandomAccessFile file, final boolean append) throws IOException {
+		this(file, append, DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * @param file
+	 *            Underlying file that has to be opened in read-write mode
+	 * @param append
+	 *            {@code true} for continuing the file, {@code false} for overwriting the file
+	 * @param windowSize
+	 *            Number of bytes to map at once
+	 * @throws IOException
+	 *             Failed to map the file into memory
+	 */
+	MemoryMappedWriter(final RandomAccessFile file, final boolean append, final int windowSize) throws IOException {
+		this.file = file;
+		this.channel = file.getChannel();
+		this.windowSize = windowSize;
+
+		long end;
+
+		if (append) {
+			long length = channel.size();
+			end = length % windowSize == 0 ? findEnd(channel, length, windowSize) : length;
+		} else {
+			channel.truncate(0);
+			end = 0;
+		}
+
+		windowStart = end - end % windowSize;
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, windowStart, windowSize);
+		buffer.position((int) (end - windowStart));
+	}
+
+	@Override
+	public void write(final byte[] data, final int length) throws IOException {
+		int offset = 0;
+
+		while (length - offset > buffer.remaining()) {
+			int count = buffer.remaining();
+			buffer.put(data, offset, count);
+			offset += count;
+
+			unmap(buffer);
+			windowStart += windowSize;
+			buffer = channel.map(FileChannel.MapMode.READ_WRITE, windowStart, windowSize);
+		}
+
+		buffer.put(data, offset, length - offset);
+	}
+
+	/**
+	 * Does nothing, as written data is already visible to all readers of the file via the page cache.
+	 */
+	@Override
+	public void flush() {
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			long length = windowStart + buffer.position();
+			unmap(buffer);
+			buffer = null;
+			channel.truncate(length);
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * Finds the end of the really written data by skipping trailing zeros.
+	 *
+	 * @param channel
+	 *            File channel to read
+	 * @param length
+	 *            Current length of the file
+	 * @param limit
+	 *            Maximum number of trailing bytes to scan
+	 * @return Position after the last non-zero byte
+	 * @throws IOException
+	 *             Failed to read the file
+	 */
+	private static long findEnd(final FileChannel channel, final long length, final int limit) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(SCAN_BLOCK_SIZE);
+		long minimum = Math.max(0, length - limit);
+		long end = length;
+
+		while (end > minimum) {
+			long start = Math.max(minimum, end - SCAN_BLOCK_SIZE);
+			buffer.clear();
+			buffer.limit((int) (end - start));
+			int read = 0;
+			while (buffer.hasRemaining() && read >= 0) {
+				read = channel.read(buffer, start + buffer.position());
+			}
+
+			for (int i = buffer.position() - 1; i >= 0; --i) {
+				if (buffer.get(i) != 0) {
+					return start + i + 1;
+				}
+			}
+
+			end = start;
+		}
+
+		return minimum;
+	}
+
+	/**
+	 * Releases a mapped window immediately instead of waiting for the garbage collector. Some operating systems like
+	 * Windows refuse to truncate a file as long as any part of it is mapped into memory. The passed buffer must not be
+	 * used anymore.
+	 *
+	 * @param buffer
+	 *            Mapped window to release
+	 */
+	private static void unmap(final MappedByteBuffer buffer) {
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			Field field = unsafeClass.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			invokeCleaner.invoke(field.get(null), buffer);
+		} catch (NoSuchMethodException ex) {
+			unmapLegacy(buffer);
+		} catch (Exception ex) {
+			// Ignore and let the garbage collector release the mapped window
+		}
+	}
+
+	/**
+	 * Releases a mapped window via its cleaner on Java 8 and earlier.
+	 *
+	 * @param buffer
+	 *            Mapped window to release
+	 */
+	private static void unmapLegacy(final MappedByteBuffer buffer) {
+		try {
+			Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+			cleanerMethod.setAccessible(true);
+			Object cleaner = cleanerMethod.invoke(buffer);
+			if (cleaner != null) {
+				cleaner.getClass().getMethod("clean").invoke(cleaner);
+			}
+		} catch (Exception ex) {
+			// Ignore and let the garbage collector release the mapped window
+		}
+	}
+
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers.raw;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Thread-safe decorator that buffers output data in multiple buffers for any {@link ByteArrayWriter} implementation.
+ * Producers fill the active buffer, while a background thread writes previously filled buffers to the underlying
+ * writer. Buffers are swapped in a short critical section and always written in the order in which they were filled.
+ * Producers have to wait only if all buffers are full. If the underlying writer is a {@link GatheringByteArrayWriter},
+ * all filled buffers are passed to it at once.
+ *
+ * <p>
+ * Errors of the background thread are rethrown by the next call of {@link #write(byte[], int)}, {@link #flush()}, or
+ * {@link #close()}.
+ * </p>
+ */
+public final class MultiBufferedWriterDecorator implements ByteArrayWriter {
+
+	private static final String THREAD_NAME = "tinylog-BufferWritingThread";
+
+	private final ByteArrayWriter writer;
+	private final GatheringByteArrayWriter gatheringWriter;
+	private final int capacity;
+	private final Object mutex;
+	private final Queue<byte[]> freeBuffers;
+	private final Queue<Chunk> filledChunks;
+	private final byte[][] pendingData;
+	private final int[] pendingLengths;
+	private final Thread thread;
+
+	private byte[] buffer;
+	private int position;
+	private boolean closed;
+	private IOException exception;
+
+	/**
+	 * @param writer
+	 *            Underlying writer
+	 * @param capacity
+	 *            Capacity of each buffer in bytes
+	 * @param buffers
+	 *            Total number of buffers, must be at least two
+	 * @throws IllegalArgumentException
+	 *             Less than two buffers
+	 */
+	public MultiBufferedWriterDecorator(final ByteArrayWriter writer, final int capacity, final int buffers) {
+		if (buffers < 2) {
+			throw new IllegalArgumentException("At least two buffers are required, but got " + buffers);
+		}
+
+		this.writer = writer;
+		this.gatheringWriter = writer instanceof GatheringByteArrayWriter ? (GatheringByteArrayWriter) writer : null;
+		this.capacity = capacity;
+		this.mutex = new Object();
+		this.freeBuffers = new ArrayDeque<byte[]>(buffers);
+		this.filledChunks = new ArrayDeque<Chunk>(buffers);
+		this.pendingData = new byte[buffers][];
+		this.pendingLengths = new int[buffers];
+		this.buffer = new byte[capacity];
+		this.position = 0;
+
+		for (int i = 1; i < buffers; ++i) {
+			freeBuffers.add(new byte[capacity]);
+		}
+
+		thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				drain();
+			}
+		}, THREAD_NAME);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	@Override
+	public void write(final byte[] data, final int length) throws IOException {
+		synchronized (mutex) {
+			rethrow();
+			acquire();
+
+			while (position > 0 && capacity - position < length) {
+				submit();
+				acquire();
+			}
+
+			if (capacity < length) {
+				awaitIdle();
+				writer.write(data, length);
+			} else {
+				System.arraycopy(data, 0, buffer, position, length);
+				position += length;
+			}
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		synchronized (mutex) {
+			rethrow();
+
+			if (position > 0) {
+				submit();
+			}
+
+			awaitIdle();
+			rethrow();
+			writer.flush();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		synchronized (mutex) {
+			if (position > 0) {
+				submit();
+			}
+
+			closed = true;
+			mutex.notifyAll();
+		}
+
+		boolean interrupted = false;
+		while (thread.isAlive()) {
+			try {
+				thread.join();
+			} catch (InterruptedException ex) {
+				interrupted = true;
+			}
+		}
+
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+
+		try {
+			synchronized (mutex) {
+				rethrow();
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Passes the active buffer to the background thread. Afterwards, there is no active buffer until
+	 * {@link #acquire()} is called. This method must be called while holding the mutex.
+	 */
+	private void submit() {
+		filledChunks.add(new Chunk(buffer, position));
+		buffer = null;
+		position = 0;
+		mutex.notifyAll();
+	}
+
+	/**
+	 * Takes a free buffer as active buffer, if there is no active buffer. If all buffers are full, this method waits
+	 * until the background thread has written one of them. This method must be called while holding the mutex.
+	 */
+	private void acquire() {
+		while (buffer == null) {
+			if (freeBuffers.isEmpty()) {
+				await();
+			} else {
+				buffer = freeBuffers.poll();
+			}
+		}
+	}
+
+	/**
+	 * Waits until the background thread has written all filled buffers. This method must be called while holding the
+	 * mutex.
+	 */
+	private void awaitIdle() {
+		while (!filledChunks.isEmpty()) {
+			await();
+		}
+	}
+
+	/**
+	 * Waits for a notification on the mutex. Interrupts are ignored. This method must be called while holding the
+	 * mutex.
+	 */
+	private void await() {
+		try {
+			mutex.wait();
+		} catch (InterruptedException ex) {
+			// Ignore and continue
+		}
+	}
+
+	/**
+	 * Throws the last exception of the background thread, if there is any. This method must be called while holding
+	 * the mutex.
+	 *
+	 * @throws IOException
+	 *             Last exception of the background thread
+	 */
+	private void rethrow() throws IOException {
+		IOException exception = this.exception;
+		if (exception != null) {
+			this.exception = null;
+			throw exception;
+		}
+	}
+
+	/**
+	 * Writes filled buffers to the underlying writer until this decorator is closed and all buffers are written.
+	 * Buffers that have been filled in the meantime are written together, if the underlying writer supports it.
+	 */
+	private void drain() {
+		while (true) {
+			int count = 0;
+
+			synchronized (mutex) {
+				while (filledChunks.isEmpty() && !closed) {
+					await();
+				}
+
+				if (filledChunks.isEmpty()) {
+					return;
+				}
+
+				for (Chunk chunk : filledChunks) {
+					pendingData[count] = chunk.data;
+					pendingLengths[count] = chunk.length;
+					count += 1;
+					if (gatheringWriter == null) {
+						break;
+					}
+				}
+			}
+
+			IOException failure = null;
+			try {
+				if (count == 1) {
+					writer.write(pendingData[0], pendingLengths[0]);
+				} else {
+					gatheringWriter.write(pendingData, pendingLengths, count);
+				}
+			} catch (IOException ex) {
+				failure = ex;
+			}
+
+			synchronized (mutex) {
+				for (int i = 0; i < count; ++i) {
+					filledChunks.poll();
+					freeBuffers.add(pendingData[i]);
+					pendingData[i] = null;
+				}
+
+				if (failure != null) {
+					exception = failure;
+				}
+
+				mutex.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Filled buffer with the number of used bytes.
+	 */
+	private static final class Chunk {
+
+		private final byte[] data;
+		private final int length;
+
+		/**
+		 * @param data
+		 *            Buffer
+		 * @param length
+		 *            Number of used bytes
+		 */
+		private Chunk(final byte[] data, final int length) {
+			this.data = data;
+			this.length = length;
+		}
+
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers.raw;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writer for writing byte arrays into a preallocated file. The file is extended in chunks of zeros in advance, so that
+ * the file system does not have to allocate space and update the file length for each write operation. On close, the
+ * file is trimmed to the length of the really written data.
+ *
+ * <p>
+ * If an existing file is continued, the current file length is trusted as is. Trailing zeros are never skipped, as they
+ * can be real data, for example of UTF-16LE line separators. If a file has not been closed properly, its preallocated
+ * space remains as zeros between the old and the new data.
+ * </p>
+ */
+public final class PreallocatedFileWriter implements ByteArrayWriter {
+
+	private static final int MAX_ZERO_BUFFER_SIZE = 64 * 1024;
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final int chunkSize;
+	private final ByteBuffer zeros;
+
+	private long position;
+	private long allocated;
+
+	/**
+	 * @param file
+	 *            File opened in read-write mode
+	 * @param append
+	 *            An already existing file should be continued
+	 * @param chunkSize
+	 *            Number of bytes to preallocate at once
+	 * @throws IOException
+	 *             Failed to access the file
+	 */
+	public PreallocatedFileWriter(final RandomAccessFile file, final boolean append, final int chunkSize) throws IOException {
+		this.file = file;
+		this.channel = file.getChannel();
+		this.chunkSize = chunkSize;
+		this.zeros = ByteBuffer.allocateDirect(Math.min(chunkSize, MAX_ZERO_BUFFER_SIZE));
+
+		if (append) {
+			position = file.length();
+		} else {
+			file.setLength(0);
+			position = 0;
+		}
+
+		allocated = file.length();
+	}
+
+	@Override
+	public void write(final byte[] data, final int length) throws IOException {
+		preallocate(position + length);
+
+		ByteBuffer buffer = ByteBuffer.wrap(data, 0, length);
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+	}
+
+	@Override
+	public void flush() {
+		// Data is always written immediately
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			file.setLength(position);
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * Extends the file by further chunks of zeros, if it is smaller than the required length.
+	 *
+	 * @param length
+	 *            Required file length in bytes
+	 * @throws IOException
+	 *             Failed to extend the file
+	 */
+	private void preallocate(final long length) throws IOException {
+		if (length > allocated) {
+			long target = allocated + chunkSize;
+			while (target < length) {
+				target += chunkSize;
+			}
+
+			while (allocated < target) {
+				zeros.clear();
+				zeros.limit((int) Math.min(zeros.capacity(), target - allocated));
+				allocated += channel.write(zeros, allocated);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.core;
+
+import org.junit.Test;
+import org.tinylog.runtime.Timestamp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Tests for {@link CachedClock}.
+ */
+public final class CachedClockTest {
+
+	/**
+	 * Verifies that the cached timestamp will be reused between two updates.
+	 */
+	@Test
+	public void reuseTimestamp() {
+		CachedClock clock = new CachedClock(Long.MAX_VALUE);
+
+		Timestamp first = clock.getTimestamp();
+		Timestamp second = clock.getTimestamp();
+		assertThat(first).isSameAs(second);
+		assertThat(clock.getEpochMilliseconds()).isEqualTo(((EpochTimestamp) first).getEpochMilliseconds());
+	}
+
+	/**
+	 * Verifies that the cached timestamp will be updated by the ticker thread.
+	 *
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for update
+	 */
+	@Test
+	public void updateTimestamp() throws InterruptedException {
+		CachedClock clock = new CachedClock(1);
+
+		long start = clock.getEpochMilliseconds();
+		Thread.sleep(50);
+
+		assertThat(clock.getEpochMilliseconds()).isGreaterThan(start);
+		assertThat(clock.getEpochMilliseconds()).isCloseTo(System.currentTimeMillis(), within(1000L));
+	}
+
+	/**
+	 * Verifies that the cached timestamp will not be updated anymore after shutting down the clock.
+	 *
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for update or shutdown
+	 */
+	@Test
+	public void shutdown() throws InterruptedException {
+		CachedClock clock = new CachedClock(1);
+		clock.shutdown();
+
+		long stopped = clock.getEpochMilliseconds();
+		Thread.sleep(50);
+
+		assertThat(clock.getEpochMilliseconds()).isEqualTo(stopped);
+	}
+
+}
@@ -247,6 +247,77 @@ public final class ConfigurationParserTest {
 		assertThat(enabled).isTrue();
 	}
 
+	/**
+	 * Verifies that a precise clock will be used, if no clock is configured.
+	 */
+	@Test
+	public void defaultClock() {
+		assertThat(ConfigurationParser.getClock()).isInstanceOf(PreciseClock.class);
+	}
+
+	/**
+	 * Verifies that a precise clock can be configured explicitly.
+	 */
+	@Test
+	public void preciseClock() {
+		Configuration.set("clock", "precise");
+		assertThat(ConfigurationParser.getClock()).isInstanceOf(PreciseClock.class);
+	}
+
+	/**
+	 * Verifies that a millisecond clock can be configured.
+	 */
+	@Test
+	public void millisecondClock() {
+		Configuration.set("clock", "millis");
+		assertThat(ConfigurationParser.getClock()).isInstanceOf(MillisecondClock.class);
+	}
+
+	/**
+	 * Verifies that a cached clock can be configured without an update interval.
+	 */
+	@Test
+	public void cachedClockWithDefaultInterval() {
+		Configuration.set("clock", "cached");
+
+		Clock clock = ConfigurationParser.getClock();
+		assertThat(clock).isInstanceOf(CachedClock.class);
+		assertThat(Whitebox.<Long>getInternalState(clock, "interval")).isEqualTo(1L);
+	}
+
+	/**
+	 * Verifies that a cached clock can be configured with a custom update interval.
+	 */
+	@Test
+	public void cachedClockWithCustomInterval() {
+		Configuration.set("clock", "cached:10ms");
+
+		Clock clock = ConfigurationParser.getClock();
+		assertThat(clock).isInstanceOf(CachedClock.class);
+		assertThat(Whitebox.<Long>getInternalState(clock, "interval")).isEqualTo(10L);
+	}
+
+	/**
+	 * Verifies that an invalid update interval for a cached clock will be reported and the default interval used
+	 * instead.
+	 */
+	@Test
+	public void invalidCachedClockInterval() {
+		Configuration.set("clock", "cached:abc");
+		assertThat(ConfigurationParser.getClock()).isInstanceOf(CachedClock.class);
+		assertThat(systemStream.consumeErrorOutput()).containsOnlyOnce("ERROR").containsOnlyOnce("cached:abc");
+	}
+
+	/**
+	 * Verifies that an unknown clock will be reported and a precise clock used instead.
+	 */
+	@Test
+	public void unknownClock() {
+		Configuration.set("clock", "sundial");
+		assertThat(ConfigurationParser.getClock()).isInstanceOf(PreciseClock.class);
+		assertThat(systemStream.consumeErrorOutput()).containsOnlyOnce("ERROR").containsOnlyOnce("sundial");
+	}
+
 	/**
 	 * Verifies that disabling of auto shutdown will be detected.
 	 */
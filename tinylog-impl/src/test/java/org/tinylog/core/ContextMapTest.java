@@ -0,0 +1,185 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.core;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.junit.Test;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.tinylog.util.Maps.doubletonMap;
+import static org.tinylog.util.Maps.tripletonMap;
+
+/**
+ * Tests for {@link ContextMap}.
+ */
+public final class ContextMapTest {
+
+	/**
+	 * Verifies that the empty map has no mappings.
+	 */
+	@Test
+	public void empty() {
+		assertThat(ContextMap.EMPTY).isEmpty();
+		assertThat(ContextMap.EMPTY.get("a")).isNull();
+		assertThat(ContextMap.EMPTY.containsKey("a")).isFalse();
+	}
+
+	/**
+	 * Verifies that mappings can be added in any order and are iterated sorted by keys.
+	 */
+	@Test
+	public void addValues() {
+		ContextMap map = ContextMap.EMPTY.with("c", "3").with("a", "1").with("b", "2");
+
+		assertThat(map).containsExactly(entry("a", "1"), entry("b", "2"), entry("c", "3"));
+		assertThat(map.get("b")).isEqualTo("2");
+		assertThat(map.containsKey("c")).isTrue();
+		assertThat(map.get("d")).isNull();
+		assertThat(map.get(42)).isNull();
+		assertThat(ContextMap.EMPTY).isEmpty();
+	}
+
+	/**
+	 * Verifies that existing values can be overridden without changing the original map.
+	 */
+	@Test
+	public void overrideValue() {
+		ContextMap original = ContextMap.EMPTY.with("a", "1").with("b", "2");
+		ContextMap modified = original.with("a", "3");
+
+		assertThat(modified).containsExactly(entry("a", "3"), entry("b", "2"));
+		assertThat(original).containsExactly(entry("a", "1"), entry("b", "2"));
+	}
+
+	/**
+	 * Verifies that the same instance is returned, if a value is stored again.
+	 */
+	@Test
+	public void storeSameValue() {
+		ContextMap map = ContextMap.EMPTY.with("a", "1");
+		assertThat(map.with("a", "1")).isSameAs(map);
+	}
+
+	/**
+	 * Verifies that {@code null} values remove mappings.
+	 */
+	@Test
+	public void addNullValue() {
+		ContextMap map = ContextMap.EMPTY.with("a", "1");
+
+		assertThat(map.with("a", null)).isSameAs(ContextMap.EMPTY);
+		assertThat(map.with("b", null)).isSameAs(map);
+	}
+
+	/**
+	 * Verifies that mappings with {@code null} as key are ignored for empty as well as non-empty maps.
+	 */
+	@Test
+	public void ignoreNullKeys() {
+		ContextMap map = ContextMap.EMPTY.with("a", "1");
+
+		Map<String, String> values = new HashMap<>();
+		values.put(null, "2");
+		values.put("b", "3");
+
+		assertThat(ContextMap.EMPTY.with(null, "1")).isSameAs(ContextMap.EMPTY);
+		assertThat(map.with(null, "2")).isSameAs(map);
+		assertThat(map.without(null)).isSameAs(map);
+		assertThat(map.withAll(values)).containsExactly(entry("a", "1"), entry("b", "3"));
+		assertThat(map.get(null)).isNull();
+	}
+
+	/**
+	 * Verifies that mappings can be removed without changing the original map.
+	 */
+	@Test
+	public void removeValues() {
+		ContextMap original = ContextMap.EMPTY.with("a", "1").with("b", "2").with("c", "3");
+
+		assertThat(original.without("b")).containsExactly(entry("a", "1"), entry("c", "3"));
+		assertThat(original.without("a")).containsExactly(entry("b", "2"), entry("c", "3"));
+		assertThat(original.without("c")).containsExactly(entry("a", "1"), entry("b", "2"));
+		assertThat(original.without("d")).isSameAs(original);
+		assertThat(original.without("a").without("b").without("c")).isSameAs(ContextMap.EMPTY);
+		assertThat(original).containsExactly(entry("a", "1"), entry("b", "2"), entry("c", "3"));
+	}
+
+	/**
+	 * Verifies that multiple mappings can be added, overridden, and removed at once.
+	 */
+	@Test
+	public void addMultipleValues() {
+		ContextMap original = ContextMap.EMPTY.with("b", "2").with("d", "4");
+
+		Map<String, Object> values = new HashMap<>();
+		values.put("a", 1);
+		values.put("b", null);
+		values.put("c", 3);
+		values.put("d", "5");
+		values.put("e", null);
+
+		assertThat(original.withAll(values)).containsExactly(entry("a", "1"), entry("c", "3"), entry("d", "5"));
+		assertThat(original).containsExactly(entry("b", "2"), entry("d", "4"));
+	}
+
+	/**
+	 * Verifies that adding multiple mappings handles edge cases like empty maps and removing all mappings.
+	 */
+	@Test
+	public void addMultipleValuesEdgeCases() {
+		ContextMap map = ContextMap.EMPTY.with("a", "1");
+
+		assertThat(map.withAll(emptyMap())).isSameAs(map);
+		assertThat(map.withAll(singletonMap("a", null))).isSameAs(ContextMap.EMPTY);
+		assertThat(ContextMap.EMPTY.withAll(tripletonMap("c", "3", "a", "1", "b", "2")))
+			.containsExactly(entry("a", "1"), entry("b", "2"), entry("c", "3"));
+	}
+
+	/**
+	 * Verifies that context maps are equal to other maps with the same mappings.
+	 */
+	@Test
+	public void equality() {
+		ContextMap map = ContextMap.EMPTY.with("a", "1").with("b", "2");
+
+		assertThat(map).isEqualTo(doubletonMap("a", "1", "b", "2"));
+		assertThat(map.hashCode()).isEqualTo(doubletonMap("a", "1", "b", "2").hashCode());
+	}
+
+	/**
+	 * Verifies that context maps cannot be modified via the {@link Map} interface.
+	 */
+	@Test
+	public void immutable() {
+		ContextMap map = ContextMap.EMPTY.with("a", "1");
+
+		assertThatThrownBy(() -> map.put("b", "2")).isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> map.remove("a")).isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(map::clear).isInstanceOf(UnsupportedOperationException.class);
+
+		Iterator<Entry<String, String>> iterator = map.entrySet().iterator();
+		Entry<String, String> entry = iterator.next();
+		assertThatThrownBy(iterator::remove).isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> entry.setValue("2")).isInstanceOf(UnsupportedOperationException.class);
+	}
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.core;
+
+import java.time.Instant;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link EpochTimestamp}.
+ */
+public final class EpochTimestampTest {
+
+	/**
+	 * Verifies that the passed epoch milliseconds are returned unmodified.
+	 */
+	@Test
+	public void epochMilliseconds() {
+		EpochTimestamp timestamp = new EpochTimestamp(1000);
+		assertThat(timestamp.getEpochMilliseconds()).isEqualTo(1000);
+	}
+
+	/**
+	 * Verifies that the timestamp can be converted into a {@link java.util.Date}.
+	 */
+	@Test
+	public void convertToDate() {
+		EpochTimestamp timestamp = new EpochTimestamp(1000);
+		assertThat(timestamp.toDate().getTime()).isEqualTo(1000);
+	}
+
+	/**
+	 * Verifies that the timestamp can be converted into an {@link Instant}.
+	 */
+	@Test
+	public void convertToInstant() {
+		EpochTimestamp timestamp = new EpochTimestamp(1000);
+		assertThat(timestamp.toInstant()).isEqualTo(Instant.ofEpochMilli(1000));
+	}
+
+	/**
+	 * Verifies that the timestamp can be converted into a {@link java.sql.Timestamp}.
+	 */
+	@Test
+	public void convertToSqlTimestamp() {
+		EpochTimestamp timestamp = new EpochTimestamp(1000);
+		assertThat(timestamp.toSqlTimestamp()).isEqualTo(new java.sql.Timestamp(1000));
+	}
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.core;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.Test;
+import org.tinylog.Level;
+import org.tinylog.runtime.RuntimeProvider;
+import org.tinylog.runtime.Timestamp;
+import org.tinylog.util.LogEntryBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link LogEntry}.
+ */
+public final class LogEntryTest {
+
+	/**
+	 * Verifies that the epoch milliseconds of a precise timestamp from the runtime are resolved correctly.
+	 */
+	@Test
+	public void epochMillisecondsOfPreciseTimestamp() {
+		Timestamp timestamp = RuntimeProvider.createTimestamp();
+		LogEntry logEntry = new LogEntry(timestamp, null, null, null, null, null, 0, null, Level.INFO, null, null);
+		assertThat(logEntry.getEpochMilliseconds()).isEqualTo(timestamp.toDate().getTime());
+	}
+
+	/**
+	 * Verifies that the epoch milliseconds of an epoch timestamp are taken over.
+	 */
+	@Test
+	public void epochMillisecondsOfEpochTimestamp() {
+		LogEntry logEntry = new LogEntry(new EpochTimestamp(42), null, null, null, null, null, 0, null, Level.INFO, null, null);
+		assertThat(logEntry.getEpochMilliseconds()).isEqualTo(42);
+	}
+
+	/**
+	 * Verifies that the epoch milliseconds of a custom timestamp are resolved correctly.
+	 */
+	@Test
+	public void epochMillisecondsOfCustomTimestamp() {
+		Instant instant = Instant.ofEpochMilli(1000);
+		LogEntry logEntry = LogEntryBuilder.empty().date(instant.atZone(ZoneOffset.UTC)).create();
+		assertThat(logEntry.getEpochMilliseconds()).isEqualTo(1000);
+	}
+
+	/**
+	 * Verifies that the epoch milliseconds are zero for log entries without timestamp.
+	 */
+	@Test
+	public void epochMillisecondsWithoutTimestamp() {
+		LogEntry logEntry = LogEntryBuilder.empty().create();
+		assertThat(logEntry.getEpochMilliseconds()).isZero();
+	}
+
+}
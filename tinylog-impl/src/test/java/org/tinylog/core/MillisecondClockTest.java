@@ -0,0 +1,45 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.core;
+
+import org.junit.Test;
+import org.tinylog.runtime.Timestamp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Tests for {@link MillisecondClock}.
+ */
+public final class MillisecondClockTest {
+
+	/**
+	 * Verifies that created timestamps are primitive epoch timestamps with the current date and time.
+	 */
+	@Test
+	public void currentTimestamp() {
+		Timestamp timestamp = new MillisecondClock().getTimestamp();
+		assertThat(timestamp).isInstanceOf(EpochTimestamp.class);
+		assertThat(((EpochTimestamp) timestamp).getEpochMilliseconds()).isCloseTo(System.currentTimeMillis(), within(1000L));
+	}
+
+	/**
+	 * Verifies that the current epoch milliseconds are provided.
+	 */
+	@Test
+	public void currentEpochMilliseconds() {
+		assertThat(new MillisecondClock().getEpochMilliseconds()).isCloseTo(System.currentTimeMillis(), within(1000L));
+	}
+
+}
@@ -13,9 +13,14 @@
 
 package org.tinylog.core;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.junit.Test;
 
+import static java.util.Collections.singletonMap;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.entry;
 
 /**
@@ -68,6 +73,57 @@ public final class TinylogContextProviderTest {
 		assertThat(provider.getMapping()).isEmpty();
 	}
 
+	/**
+	 * Verifies that {@code null} keys are ignored by all modifying methods, even if there are already stored values.
+	 */
+	@Test
+	public void ignoreNullKeys() {
+		TinylogContextProvider provider = new TinylogContextProvider();
+		provider.put(null, "a");
+		provider.put("test", "b");
+		provider.put(null, "c");
+		provider.putAll(singletonMap(null, "d"));
+		provider.remove(null);
+
+		assertThat(provider.getMapping()).containsOnly(entry("test", "b"));
+		assertThat(provider.get(null)).isNull();
+	}
+
+	/**
+	 * Verifies that multiple values can be added, overridden, and removed at once.
+	 */
+	@Test
+	public void putAll() {
+		TinylogContextProvider provider = new TinylogContextProvider();
+		provider.put("a", 1);
+		provider.put("b", 2);
+
+		Map<String, Object> values = new HashMap<>();
+		values.put("a", null);
+		values.put("b", 3);
+		values.put("c", 4);
+		provider.putAll(values);
+
+		assertThat(provider.getMapping()).containsOnly(entry("b", "3"), entry("c", "4"));
+	}
+
+	/**
+	 * Verifies that a mapping is an immutable snapshot that is not affected by later modifications.
+	 */
+	@Test
+	public void snapshot() {
+		TinylogContextProvider provider = new TinylogContextProvider();
+		provider.put("a", 1);
+
+		Map<String, String> snapshot = provider.getMapping();
+		provider.put("a", 2);
+		provider.put("b", 3);
+
+		assertThat(snapshot).containsOnly(entry("a", "1"));
+		assertThat(provider.getMapping()).containsOnly(entry("a", "2"), entry("b", "3"));
+		assertThatThrownBy(() -> snapshot.put("c", "4")).isInstanceOf(UnsupportedOperationException.class);
+	}
+
 	/**
 	 * Verifies that existing values can be removed.
 	 */
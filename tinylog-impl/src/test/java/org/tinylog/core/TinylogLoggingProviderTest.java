@@ -32,6 +32,7 @@ import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameters;
 import org.powermock.reflect.Whitebox;
 import org.tinylog.Level;
+import org.tinylog.LogScope;
 import org.tinylog.Supplier;
 import org.tinylog.configuration.Configuration;
 import org.tinylog.configuration.ServiceLoader;
@@ -720,6 +721,38 @@ public final class TinylogLoggingProviderTest {
 
 	}
 
+	/**
+	 * Tests for logging with a cached clock.
+	 */
+	public static final class CachedClockEnabled extends AbstractTest {
+
+		/**
+		 * Activates cached clock and disables auto shutdown.
+		 */
+		@BeforeClass
+		public static void configure() {
+			Whitebox.setInternalState(Configuration.class, "frozen", false);
+			Configuration.replace(doubletonMap("clock", "cached", "autoshutdown", "false"));
+		}
+
+		/**
+		 * Verifies that the ticker thread of the cached clock will be stopped when shutting down.
+		 *
+		 * @throws InterruptedException
+		 *             Interrupted while waiting for complete shutdown
+		 */
+		@Test
+		public void stopTickerThread() throws InterruptedException {
+			Object clock = Whitebox.getInternalState(provider, "clock");
+			Thread thread = Whitebox.getInternalState(clock, "thread");
+			assertThat(thread.isAlive()).isTrue();
+
+			provider.shutdown();
+			assertThat(thread.isAlive()).isFalse();
+		}
+
+	}
+
 	/**
 	 * Tests for writer operations that throw an exception.
 	 */
@@ -759,6 +792,62 @@ public final class TinylogLoggingProviderTest {
 
 	}
 
+	/**
+	 * Tests for buffering log entries in log scopes.
+	 */
+	public static final class Scopes extends AbstractTest {
+
+		/**
+		 * Activates console writer and disables auto shutdown.
+		 */
+		@BeforeClass
+		public static void configure() {
+			Whitebox.setInternalState(Configuration.class, "frozen", false);
+			Configuration.replace(emptyMap());
+
+			Configuration.set("writer", "console");
+			Configuration.set("writer.format", "{level}: {message}");
+			Configuration.set("autoshutdown", "false");
+		}
+
+		/**
+		 * Verifies that buffered log entries are discarded, if the log scope is closed without any errors.
+		 *
+		 * @throws Exception
+		 *             Failed opening log scope
+		 */
+		@Test
+		public void discardOnSuccess() throws Exception {
+			try (LogScope scope = Whitebox.invokeMethod(LogScope.class, "open")) {
+				provider.log(1, null, Level.DEBUG, null, null, "Hello World!");
+				provider.log(1, null, Level.INFO, null, null, "Hello World!");
+			}
+
+			assertThat(systemStream.consumeStandardOutput()).isEmpty();
+		}
+
+		/**
+		 * Verifies that buffered log entries are output before an error log entry.
+		 *
+		 * @throws Exception
+		 *             Failed opening log scope
+		 */
+		@Test
+		public void emitOnError() throws Exception {
+			try (LogScope scope = Whitebox.invokeMethod(LogScope.class, "open")) {
+				provider.log(1, null, Level.DEBUG, null, null, "First");
+				provider.log(1, null, Level.INFO, null, null, "Second");
+				assertThat(systemStream.consumeStandardOutput()).isEmpty();
+
+				provider.log(1, null, Level.ERROR, null, null, "Failure");
+				assertThat(systemStream.consumeStandardOutput())
+					.isEqualTo(Level.DEBUG + ": First" + NEW_LINE + Level.INFO + ": Second" + NEW_LINE);
+				assertThat(systemStream.consumeErrorOutput()).isEqualTo(Level.ERROR + ": Failure" + NEW_LINE);
+			}
+		}
+
+	}
+
 	/**
 	 * Tests for integrity of created log entries.
 	 */
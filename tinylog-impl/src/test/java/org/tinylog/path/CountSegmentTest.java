@@ -119,6 +119,41 @@ public final class CountSegmentTest {
 		assertThat(segment.createToken(prefix, null)).isEqualTo("0");
 	}
 
+	/**
+	 * Verifies that the folder is scanned only once per prefix and the sequence is continued without scanning again.
+	 *
+	 * @throws IOException
+	 *             Failed to create files
+	 */
+	@Test
+	public void createTokenWithoutRescan() throws IOException {
+		folder.newFile("test1.log");
+
+		CountSegment segment = new CountSegment();
+		String prefix = folder.getRoot().getAbsolutePath() + File.separator + "test";
+		assertThat(segment.createToken(prefix, null)).isEqualTo("2");
+
+		folder.newFile("test9.log");
+		assertThat(segment.createToken(prefix, null)).isEqualTo("3");
+	}
+
+	/**
+	 * Verifies that the folder is scanned again for a changed prefix.
+	 *
+	 * @throws IOException
+	 *             Failed to create files
+	 */
+	@Test
+	public void createTokenForChangedPrefix() throws IOException {
+		folder.newFile("foo1.log");
+		folder.newFile("bar5.log");
+
+		CountSegment segment = new CountSegment();
+		String root = folder.getRoot().getAbsolutePath() + File.separator;
+		assertThat(segment.createToken(root + "foo", null)).isEqualTo("2");
+		assertThat(segment.createToken(root + "bar", null)).isEqualTo("6");
+	}
+
 	/**
 	 * Verifies that a sequence from a file from a relative path can be continued and the next number will be returned
 	 * as token.
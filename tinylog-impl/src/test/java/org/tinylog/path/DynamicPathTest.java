@@ -188,6 +188,36 @@ public final class DynamicPathTest {
 		assertThat(path.getAllFiles()).containsExactlyInAnyOrder(first, second);
 	}
 
+	/**
+	 * Verifies that files with a registered additional extension will be returned as well, but not files with other
+	 * extensions.
+	 *
+	 * @throws IOException
+	 *             Failed to create files
+	 */
+	@Test
+	public void getCompressedFiles() throws IOException {
+		File first = folder.newFile("1.log");
+		File second = folder.newFile("2.log.gz");
+		folder.newFile("3.log.zip");
+		folder.newFile("4.log.gz.tmp");
+
+		String pattern = new File(folder.getRoot(), "{count}.log").getAbsolutePath();
+		DynamicPath path = new DynamicPath(pattern, ".gz");
+		assertThat(path.getAllFiles()).containsExactlyInAnyOrder(first, second);
+	}
+
+	/**
+	 * Verifies that files with an additional extension are not valid files for continuing.
+	 */
+	@Test
+	public void validateCompressedFile() {
+		String pattern = new File(folder.getRoot(), "{count}.log").getAbsolutePath();
+		DynamicPath path = new DynamicPath(pattern, ".gz");
+		assertThat(path.isValid(new File(folder.getRoot(), "42.log"))).isTrue();
+		assertThat(path.isValid(new File(folder.getRoot(), "42.log.gz"))).isFalse();
+	}
+
 	/**
 	 * Verifies that all files of sub folders will be returned that are compatible with the configured dynamic path.
 	 *
@@ -249,6 +279,74 @@ public final class DynamicPathTest {
 		assertThat(path.getAllFiles()).containsExactly(third, first, second);
 	}
 
+	/**
+	 * Verifies that the file system is scanned only once and files created by other processes afterwards are not
+	 * picked up.
+	 *
+	 * @throws IOException
+	 *             Failed to create files
+	 */
+	@Test
+	public void scanFilesOnlyOnce() throws IOException {
+		File first = folder.newFile("1.log");
+
+		String pattern = new File(folder.getRoot(), "{count}.log").getAbsolutePath();
+		DynamicPath path = new DynamicPath(pattern);
+		assertThat(path.getAllFiles()).containsExactly(first);
+
+		folder.newFile("2.log");
+		assertThat(path.getAllFiles()).containsExactly(first);
+	}
+
+	/**
+	 * Verifies that resolved files are registered as most recent files.
+	 *
+	 * @throws IOException
+	 *             Failed to create file
+	 */
+	@Test
+	public void registerResolvedFiles() throws IOException {
+		File existing = folder.newFile("1.log");
+		existing.setLastModified(ZonedDateTime.now().plus(1, ChronoUnit.DAYS).toEpochSecond());
+
+		String pattern = new File(folder.getRoot(), "{count}.log").getAbsolutePath();
+		DynamicPath path = new DynamicPath(pattern);
+		assertThat(path.getAllFiles()).containsExactly(existing);
+
+		File resolved = new File(path.resolve());
+		assertThat(resolved).isEqualTo(new File(folder.getRoot(), "2.log"));
+		assertThat(path.getAllFiles()).containsExactly(resolved, existing);
+	}
+
+	/**
+	 * Verifies that replaced files take over the position of the original file and that removed files are no longer
+	 * returned.
+	 *
+	 * @throws IOException
+	 *             Failed to create files
+	 */
+	@Test
+	public void replaceAndRemoveFiles() throws IOException {
+		ZonedDateTime now = ZonedDateTime.now();
+
+		File first = folder.newFile("1.log");
+		first.setLastModified(now.minus(1, ChronoUnit.DAYS).toEpochSecond());
+
+		File second = folder.newFile("2.log");
+		second.setLastModified(now.toEpochSecond());
+
+		String pattern = new File(folder.getRoot(), "{count}.log").getAbsolutePath();
+		DynamicPath path = new DynamicPath(pattern, ".gz");
+		assertThat(path.getAllFiles()).containsExactly(second, first);
+
+		File compressed = new File(folder.getRoot(), "1.log.gz");
+		path.replaceFile(first, compressed);
+		assertThat(path.getAllFiles()).containsExactly(second, compressed);
+
+		path.removeFile(second);
+		assertThat(path.getAllFiles()).containsExactly(compressed);
+	}
+
 	/**
 	 * Verifies that a log file with a file extension can be validated.
 	 */
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.path;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link FileIndex}.
+ */
+public final class FileIndexTest {
+
+	/**
+	 * Verifies that a new index is not loaded and ignores registered files.
+	 */
+	@Test
+	public void unloaded() {
+		FileIndex index = new FileIndex();
+		index.add(new File("a.log"));
+		index.replace(new File("a.log"), new File("a.log.gz"));
+
+		assertThat(index.isLoaded()).isFalse();
+		assertThat(index.getFiles()).isEmpty();
+	}
+
+	/**
+	 * Verifies that loaded files are sorted by last modification date. The youngest file should come first and the
+	 * oldest last.
+	 */
+	@Test
+	public void sortLoadedFiles() {
+		File old = new StaticFile("old.log", 1000);
+		File young = new StaticFile("young.log", 3000);
+		File middle = new StaticFile("middle.log", 2000);
+
+		FileIndex index = new FileIndex();
+		index.load(Arrays.asList(old, young, middle));
+
+		assertThat(index.isLoaded()).isTrue();
+		assertThat(index.getFiles()).containsExactly(young, middle, old);
+	}
+
+	/**
+	 * Verifies that the last modification date of each file is read only once while loading.
+	 */
+	@Test
+	public void readLastModificationDateOnce() {
+		StaticFile first = new StaticFile("first.log", 1000);
+		StaticFile second = new StaticFile("second.log", 2000);
+		StaticFile third = new StaticFile("third.log", 3000);
+
+		FileIndex index = new FileIndex();
+		index.load(Arrays.<File>asList(first, second, third));
+		index.getFiles();
+
+		assertThat(first.calls).isEqualTo(1);
+		assertThat(second.calls).isEqualTo(1);
+		assertThat(third.calls).isEqualTo(1);
+	}
+
+	/**
+	 * Verifies that added files are placed at the top and already indexed files are moved to the top.
+	 */
+	@Test
+	public void addFiles() {
+		File first = new StaticFile("first.log", 1000);
+		File second = new StaticFile("second.log", 2000);
+
+		FileIndex index = new FileIndex();
+		index.load(Arrays.asList(first, second));
+
+		File third = new File("third.log");
+		index.add(third);
+		assertThat(index.getFiles()).containsExactly(third, second, first);
+
+		index.add(first);
+		assertThat(index.getFiles()).containsExactly(first, third, second);
+	}
+
+	/**
+	 * Verifies that a replacement takes over the position of the original file.
+	 */
+	@Test
+	public void replaceFile() {
+		File first = new StaticFile("first.log", 1000);
+		File second = new StaticFile("second.log", 2000);
+		File third = new StaticFile("third.log", 3000);
+
+		FileIndex index = new FileIndex();
+		index.load(Arrays.asList(first, second, third));
+
+		File compressed = new File("second.log.gz");
+		index.replace(second, compressed);
+		assertThat(index.getFiles()).containsExactly(third, compressed, first);
+	}
+
+	/**
+	 * Verifies that a replacement is appended as oldest file if the original file is not indexed.
+	 */
+	@Test
+	public void replaceUnknownFile() {
+		File first = new StaticFile("first.log", 1000);
+
+		FileIndex index = new FileIndex();
+		index.load(Arrays.asList(first));
+
+		File compressed = new File("other.log.gz");
+		index.replace(new File("other.log"), compressed);
+		assertThat(index.getFiles()).containsExactly(first, compressed);
+	}
+
+	/**
+	 * Verifies that removed files are no longer returned.
+	 */
+	@Test
+	public void removeFile() {
+		File first = new StaticFile("first.log", 1000);
+		File second = new StaticFile("second.log", 2000);
+
+		FileIndex index = new FileIndex();
+		index.load(Arrays.asList(first, second));
+
+		index.remove(second);
+		assertThat(index.getFiles()).containsExactly(first);
+	}
+
+	/**
+	 * File with a fixed last modification date that counts how often its last modification date has been read.
+	 */
+	@SuppressWarnings("serial")
+	private static final class StaticFile extends File {
+
+		private final long lastModified;
+		private int calls;
+
+		/**
+		 * @param path
+		 *            Path to the file
+		 * @param lastModified
+		 *            Fixed last modification date
+		 */
+		private StaticFile(final String path, final long lastModified) {
+			super(path);
+			this.lastModified = lastModified;
+		}
+
+		@Override
+		public long lastModified() {
+			calls += 1;
+			return lastModified;
+		}
+
+	}
+
+}
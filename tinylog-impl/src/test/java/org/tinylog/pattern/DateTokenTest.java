@@ -17,8 +17,11 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+import org.tinylog.core.EpochTimestamp;
 import org.tinylog.core.LogEntry;
 import org.tinylog.core.LogEntryValue;
 import org.tinylog.util.LogEntryBuilder;
@@ -109,6 +112,63 @@ public final class DateTokenTest {
 		verify(statement).setString(1, "2016-06-30 12:15");
 	}
 
+	/**
+	 * Verifies that log entries with primitive epoch timestamps are rendered correctly, even if they are issued in the
+	 * same second.
+	 */
+	@Test
+	public void renderEpochTimestamps() {
+		DateToken token = new DateToken("HH:mm:ss");
+		long epoch = LocalDateTime.of(2016, 01, 01, 12, 30, 15).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+		assertThat(render(token, new EpochTimestamp(epoch))).isEqualTo("12:30:15");
+		assertThat(render(token, new EpochTimestamp(epoch + 999))).isEqualTo("12:30:15");
+		assertThat(render(token, new EpochTimestamp(epoch + 1000))).isEqualTo("12:30:16");
+		assertThat(render(token, new EpochTimestamp(epoch))).isEqualTo("12:30:15");
+	}
+
+	/**
+	 * Verifies that formatted dates are only reused within the precision of the pattern letters. Pattern letters
+	 * without a known precision like milli-of-day require the full precision, while quoted text is ignored.
+	 */
+	@Test
+	public void precision() {
+		assertThat(getPrecision(new DateToken())).isEqualTo(1000L);
+		assertThat(getPrecision(new DateToken("yyyy-MM-dd HH:mm"))).isEqualTo(60000L);
+		assertThat(getPrecision(new DateToken("HH:mm 'Sales'"))).isEqualTo(60000L);
+		assertThat(getPrecision(new DateToken("HH:mm:ss.SSS"))).isEqualTo(1L);
+		assertThat(getPrecision(new DateToken("HH:mm:ss.SSSS"))).isZero();
+		assertThat(getPrecision(new DateToken("HH:mm:ss.nnnnnnnnn"))).isZero();
+		assertThat(getPrecision(new DateToken("D A"))).isZero();
+	}
+
+	/**
+	 * Verifies that a primitive epoch timestamp will be added as a {@link Timestamp} to a {@link PreparedStatement}, if
+	 * no format pattern has been explicitly defined.
+	 *
+	 * @throws SQLException
+	 *             Failed to add value to prepared SQL statement
+	 */
+	@Test
+	public void applyEpochTimestamp() throws SQLException {
+		DateToken token = new DateToken();
+
+		PreparedStatement statement = mock(PreparedStatement.class);
+		token.apply(LogEntryBuilder.empty().timestamp(new EpochTimestamp(1000)).create(), statement, 1);
+		verify(statement).setTimestamp(1, new Timestamp(1000));
+	}
+
+	/**
+	 * Gets the precision in milliseconds, within which a token reuses formatted dates.
+	 *
+	 * @param token
+	 *            Date token
+	 * @return Precision in milliseconds or 0 for full precision
+	 */
+	private static long getPrecision(final DateToken token) {
+		return Whitebox.<Long>getInternalState(token, "precision");
+	}
+
 	/**
 	 * Renders a token.
 	 *
@@ -124,6 +184,21 @@ public final class DateTokenTest {
 		return builder.toString();
 	}
 
+	/**
+	 * Renders a token.
+	 *
+	 * @param token
+	 *            Token to render
+	 * @param timestamp
+	 *            Timestamp of issue for log entry
+	 * @return Result text
+	 */
+	private static String render(final Token token, final org.tinylog.runtime.Timestamp timestamp) {
+		StringBuilder builder = new StringBuilder();
+		token.render(LogEntryBuilder.empty().timestamp(timestamp).create(), builder);
+		return builder.toString();
+	}
+
 	/**
 	 * Creates a log entry that contains a date.
 	 *
@@ -229,6 +229,55 @@ public final class ExceptionTokenTest {
 		assertThat(captor.getValue()).startsWith(RuntimeException.class.getName() + ": Test12");
 	}
 
+	/**
+	 * Verifies that a repeated stack trace will be output as one-line back-reference, if deduplication is enabled.
+	 */
+	@Test
+	public void renderDeduplicatedExceptions() {
+		ExceptionToken token = new ExceptionToken(new ThrowableRenderer(Collections.emptyList()), new ThrowableDeduplicator(10));
+		Exception first = new IllegalStateException("First");
+		Exception second = new IllegalStateException("Second");
+		second.setStackTrace(first.getStackTrace());
+
+		String full = render(token, first);
+		String reference = render(token, second);
+
+		assertThat(full)
+			.startsWith(IllegalStateException.class.getName() + ": First")
+			.contains(ExceptionTokenTest.class.getName(), "renderDeduplicatedExceptions")
+			.containsPattern("\\[stack trace #[0-9a-f]{16}\\]$")
+			.hasLineCount(first.getStackTrace().length + 2);
+
+		String fingerprint = full.substring(full.lastIndexOf('#') + 1, full.length() - 1);
+		assertThat(reference)
+			.isEqualTo(IllegalStateException.class.getName() + ": Second [stack trace #" + fingerprint + " seen before]");
+	}
+
+	/**
+	 * Verifies that a repeated stack trace will be added as one-line back-reference to a {@link PreparedStatement}, if
+	 * deduplication is enabled.
+	 *
+	 * @throws SQLException
+	 *             Failed to add value to prepared SQL statement
+	 */
+	@Test
+	public void applyDeduplicatedExceptions() throws SQLException {
+		ExceptionToken token = new ExceptionToken(new ThrowableRenderer(Collections.emptyList()), new ThrowableDeduplicator(10));
+		Exception exception = new IllegalStateException();
+
+		PreparedStatement statement = mock(PreparedStatement.class);
+		ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+
+		token.apply(createLogEntry(exception), statement, 1);
+		token.apply(createLogEntry(exception), statement, 2);
+
+		verify(statement).setString(eq(1), captor.capture());
+		assertThat(captor.getValue()).startsWith(IllegalStateException.class.getName()).contains("\tat ");
+
+		verify(statement).setString(eq(2), captor.capture());
+		assertThat(captor.getValue()).matches(IllegalStateException.class.getName() + " \\[stack trace #[0-9a-f]{16} seen before\\]");
+	}
+
 	/**
 	 * Renders a token.
 	 *
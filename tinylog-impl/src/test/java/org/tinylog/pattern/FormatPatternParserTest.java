@@ -16,9 +16,11 @@ package org.tinylog.pattern;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.Map;
 
 import org.junit.Rule;
 import org.junit.Test;
+import org.powermock.reflect.Whitebox;
 import org.tinylog.Level;
 import org.tinylog.core.LogEntry;
 import org.tinylog.rules.SystemStreamCollector;
@@ -454,6 +456,72 @@ public final class FormatPatternParserTest {
 			.containsOnlyOnce("test");
 	}
 
+	/**
+	 * Verifies that {@code {exception}} outputs repeated stack traces as back-references, if deduplication is enabled
+	 * via the throwable filters.
+	 */
+	@Test
+	public void exceptionWithDeduplication() {
+		Token token = new FormatPatternParser("strip: org.tinylog, dedupe: 100").parse("{exception}");
+		Exception exception = new NullPointerException();
+
+		StringBuilder builder = new StringBuilder();
+		token.render(LogEntryBuilder.empty().exception(exception).create(), builder);
+		assertThat(builder.toString())
+			.startsWith(NullPointerException.class.getName())
+			.doesNotContain("org.tinylog")
+			.contains("[stack trace #");
+
+		builder.setLength(0);
+		token.render(LogEntryBuilder.empty().exception(exception).create(), builder);
+		assertThat(builder.toString()).matches(NullPointerException.class.getName() + " \\[stack trace #[0-9a-f]+ seen before\\]");
+
+		assertThat(systemStream.consumeErrorOutput()).isEmpty();
+	}
+
+	/**
+	 * Verifies that an error will be logged, if an invalid capacity is defined for deduplication of stack traces.
+	 */
+	@Test
+	public void invalidDeduplicationCapacity() {
+		assertThat(render("exception", LogEntryBuilder.empty().exception(new NullPointerException()).create(), "dedupe: abc"))
+			.startsWith(NullPointerException.class.getName());
+		assertThat(systemStream.consumeErrorOutput()).containsOnlyOnce("ERROR").containsOnlyOnce("abc");
+	}
+
+	/**
+	 * Verifies that parsers with identical throwable filter configurations share the same throwable renderer with all
+	 * their tokens.
+	 */
+	@Test
+	public void shareThrowableRenderer() {
+		FormatPatternParser parser = new FormatPatternParser("keep: org.tinylog, strip: java.lang");
+		Object renderer = Whitebox.getInternalState(parser, ThrowableRenderer.class);
+
+		assertThat(Whitebox.getInternalState(parser.parse("exception"), ThrowableRenderer.class)).isSameAs(renderer);
+		assertThat(Whitebox.getInternalState(new FormatPatternParser("keep:org.tinylog,strip:java.lang"), ThrowableRenderer.class))
+			.isSameAs(renderer);
+		assertThat(Whitebox.getInternalState(new FormatPatternParser("keep: org.tinylog"), ThrowableRenderer.class))
+			.isNotSameAs(renderer);
+	}
+
+	/**
+	 * Verifies that the number of shared throwable renderers is limited and the least recently used renderer will be
+	 * discarded first.
+	 */
+	@Test
+	public void limitSharedThrowableRenderers() {
+		FormatPatternParser parser = new FormatPatternParser("keep: org.example.first");
+		Object renderer = Whitebox.getInternalState(parser, ThrowableRenderer.class);
+
+		for (int i = 0; i < 1000; ++i) {
+			new FormatPatternParser("keep: org.example.other" + i);
+		}
+
+		Map<String, Object> renderers = Whitebox.getInternalState(FormatPatternParser.class, "RENDERERS");
+		assertThat(renderers).hasSizeLessThan(1000).doesNotContainValue(renderer);
+	}
+
 	/**
 	 * Parses a pattern and renders the returned token afterwards.
 	 *
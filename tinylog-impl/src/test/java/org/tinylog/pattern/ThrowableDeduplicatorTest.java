@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.pattern;
+
+import java.util.Collections;
+
+import org.junit.Test;
+import org.tinylog.throwable.ThrowableData;
+import org.tinylog.throwable.ThrowableStore;
+import org.tinylog.throwable.ThrowableWrapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ThrowableDeduplicator}.
+ */
+public final class ThrowableDeduplicatorTest {
+
+	/**
+	 * Verifies that throwables with same class and stack trace have the same fingerprint, even if the messages differ.
+	 */
+	@Test
+	public void sameFingerprintForDifferentMessages() {
+		ThrowableData first = new ThrowableWrapper(new RuntimeException("First"));
+		ThrowableData second = new ThrowableStore(first.getClassName(), "Second", first.getStackTrace(), null);
+
+		assertThat(ThrowableDeduplicator.fingerprint(first)).isEqualTo(ThrowableDeduplicator.fingerprint(second));
+	}
+
+	/**
+	 * Verifies that throwables with different stack traces have different fingerprints.
+	 */
+	@Test
+	public void differentFingerprintForDifferentStackTraces() {
+		ThrowableData first = new ThrowableWrapper(new RuntimeException());
+		ThrowableData second = new ThrowableStore(first.getClassName(), null, Collections.emptyList(), null);
+
+		assertThat(ThrowableDeduplicator.fingerprint(first)).isNotEqualTo(ThrowableDeduplicator.fingerprint(second));
+	}
+
+	/**
+	 * Verifies that stack trace elements with colliding 32-bit hash codes still have different fingerprints.
+	 */
+	@Test
+	public void differentFingerprintForCollidingHashCodes() {
+		StackTraceElement firstElement = new StackTraceElement("Example", "Aa", "Example.java", 1);
+		StackTraceElement secondElement = new StackTraceElement("Example", "BB", "Example.java", 1);
+		assertThat(firstElement.hashCode()).isEqualTo(secondElement.hashCode());
+
+		ThrowableData first = new ThrowableStore("Aa", null, Collections.singletonList(firstElement), null);
+		ThrowableData second = new ThrowableStore("BB", null, Collections.singletonList(secondElement), null);
+
+		assertThat(ThrowableDeduplicator.fingerprint(first)).isNotEqualTo(ThrowableDeduplicator.fingerprint(second));
+	}
+
+	/**
+	 * Verifies that cause throwables are part of the fingerprint.
+	 */
+	@Test
+	public void differentFingerprintForDifferentCauses() {
+		ThrowableData first = new ThrowableWrapper(new RuntimeException());
+		ThrowableData cause = new ThrowableWrapper(new IllegalStateException());
+		ThrowableData second = new ThrowableStore(first.getClassName(), null, first.getStackTrace(), cause);
+
+		assertThat(ThrowableDeduplicator.fingerprint(first)).isNotEqualTo(ThrowableDeduplicator.fingerprint(second));
+	}
+
+	/**
+	 * Verifies that fingerprints are formatted as hexadecimal strings with a fixed length.
+	 */
+	@Test
+	public void format() {
+		assertThat(ThrowableDeduplicator.format(0xABCL)).isEqualTo("0000000000000abc");
+		assertThat(ThrowableDeduplicator.format(-1L)).isEqualTo("ffffffffffffffff");
+	}
+
+	/**
+	 * Verifies that an already registered fingerprint is detected as seen before.
+	 */
+	@Test
+	public void registerFingerprints() {
+		ThrowableDeduplicator deduplicator = new ThrowableDeduplicator(10);
+
+		assertThat(deduplicator.register(1L)).isFalse();
+		assertThat(deduplicator.register(2L)).isFalse();
+		assertThat(deduplicator.register(1L)).isTrue();
+		assertThat(deduplicator.register(2L)).isTrue();
+	}
+
+	/**
+	 * Verifies that the least recently seen fingerprint will be evicted if the capacity is exceeded.
+	 */
+	@Test
+	public void evictLeastRecentlySeenFingerprint() {
+		ThrowableDeduplicator deduplicator = new ThrowableDeduplicator(2);
+
+		deduplicator.register(1L);
+		deduplicator.register(2L);
+		deduplicator.register(1L);
+		deduplicator.register(3L);
+
+		assertThat(deduplicator.register(1L)).isTrue();
+		assertThat(deduplicator.register(2L)).isFalse();
+	}
+
+}
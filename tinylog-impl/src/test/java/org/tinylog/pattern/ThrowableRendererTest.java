@@ -0,0 +1,169 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.pattern;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.tinylog.core.LogEntry;
+import org.tinylog.throwable.ThrowableData;
+import org.tinylog.throwable.ThrowableFilter;
+import org.tinylog.throwable.ThrowableStore;
+import org.tinylog.util.LogEntryBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ThrowableRenderer}.
+ */
+public final class ThrowableRendererTest {
+
+	/**
+	 * Verifies that {@code null} will be returned for log entries without exception.
+	 */
+	@Test
+	public void logEntryWithoutException() {
+		ThrowableRenderer renderer = new ThrowableRenderer(Collections.emptyList());
+		LogEntry logEntry = LogEntryBuilder.empty().create();
+
+		assertThat(renderer.filter(logEntry)).isNull();
+		assertThat(renderer.render(logEntry)).isNull();
+	}
+
+	/**
+	 * Verifies that an exception will be rendered including its class name, message, and stack trace.
+	 */
+	@Test
+	public void renderException() {
+		ThrowableRenderer renderer = new ThrowableRenderer(Collections.emptyList());
+		Exception exception = new IllegalStateException("Test");
+
+		assertThat(renderer.render(LogEntryBuilder.empty().exception(exception).create()))
+			.startsWith(IllegalStateException.class.getName() + ": Test")
+			.contains(ThrowableRendererTest.class.getName(), "renderException")
+			.hasLineCount(exception.getStackTrace().length + 1);
+	}
+
+	/**
+	 * Verifies that the exception of the same log entry will be filtered and rendered only once.
+	 */
+	@Test
+	public void memoizeSameLogEntry() {
+		AtomicInteger counter = new AtomicInteger();
+		ThrowableRenderer renderer = new ThrowableRenderer(Collections.singletonList(counting(counter)));
+		LogEntry logEntry = LogEntryBuilder.empty().exception(new RuntimeException("Test")).create();
+
+		ThrowableData data = renderer.filter(logEntry);
+		String first = renderer.render(logEntry);
+		String second = renderer.render(logEntry);
+
+		assertThat(counter).hasValue(1);
+		assertThat(renderer.filter(logEntry)).isSameAs(data);
+		assertThat(second).isSameAs(first).startsWith(RuntimeException.class.getName() + ": Test");
+	}
+
+	/**
+	 * Verifies that the exception of a new log entry will be filtered and rendered again.
+	 */
+	@Test
+	public void renderNewLogEntry() {
+		AtomicInteger counter = new AtomicInteger();
+		ThrowableRenderer renderer = new ThrowableRenderer(Collections.singletonList(counting(counter)));
+
+		String first = renderer.render(LogEntryBuilder.empty().exception(new RuntimeException("First")).create());
+		String second = renderer.render(LogEntryBuilder.empty().exception(new RuntimeException("Second")).create());
+
+		assertThat(counter).hasValue(2);
+		assertThat(first).startsWith(RuntimeException.class.getName() + ": First");
+		assertThat(second).startsWith(RuntimeException.class.getName() + ": Second");
+	}
+
+	/**
+	 * Verifies that rendering a log entry in another thread does not evict the memo of the current thread.
+	 *
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for the other thread
+	 */
+	@Test
+	public void memoizePerThread() throws InterruptedException {
+		AtomicInteger counter = new AtomicInteger();
+		ThrowableRenderer renderer = new ThrowableRenderer(Collections.singletonList(counting(counter)));
+		LogEntry logEntry = LogEntryBuilder.empty().exception(new RuntimeException("First")).create();
+
+		String first = renderer.render(logEntry);
+
+		Thread thread = new Thread(() -> renderer.render(LogEntryBuilder.empty().exception(new RuntimeException("Second")).create()));
+		thread.start();
+		thread.join();
+
+		assertThat(renderer.render(logEntry)).isSameAs(first);
+		assertThat(counter).hasValue(2);
+	}
+
+	/**
+	 * Verifies that the memo survives garbage collections as long as the log entry is alive.
+	 */
+	@Test
+	public void keepMemoDuringGarbageCollection() {
+		AtomicInteger counter = new AtomicInteger();
+		ThrowableRenderer renderer = new ThrowableRenderer(Collections.singletonList(counting(counter)));
+		LogEntry logEntry = LogEntryBuilder.empty().exception(new RuntimeException()).create();
+
+		String first = renderer.render(logEntry);
+		System.gc();
+
+		assertThat(renderer.render(logEntry)).isSameAs(first);
+		assertThat(counter).hasValue(1);
+	}
+
+	/**
+	 * Verifies that the memo does not keep a log entry alive after rendering.
+	 *
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for the garbage collection
+	 */
+	@Test
+	public void releaseLogEntryAfterRendering() throws InterruptedException {
+		ThrowableRenderer renderer = new ThrowableRenderer(Collections.emptyList());
+		LogEntry logEntry = LogEntryBuilder.empty().exception(new RuntimeException()).create();
+		WeakReference<LogEntry> reference = new WeakReference<>(logEntry);
+
+		renderer.render(logEntry);
+		logEntry = null;
+
+		for (int i = 0; i < 100 && reference.get() != null; ++i) {
+			System.gc();
+			Thread.sleep(10);
+		}
+
+		assertThat(reference.get()).isNull();
+	}
+
+	/**
+	 * Creates a throwable filter that counts its invocations.
+	 *
+	 * @param counter
+	 *            Counter to increment for each invocation
+	 * @return Counting throwable filter
+	 */
+	private static ThrowableFilter counting(final AtomicInteger counter) {
+		return origin -> {
+			counter.incrementAndGet();
+			return new ThrowableStore(origin.getClassName(), origin.getMessage(), origin.getStackTrace(), origin.getCause());
+		};
+	}
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.policies;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Calendar;
+
+import org.junit.Test;
+import org.tinylog.configuration.ServiceLoader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link CronPolicy}.
+ */
+public final class CronPolicyTest {
+
+	/**
+	 * Verifies that an expression with only asterisks triggers a rollover every minute.
+	 */
+	@Test
+	public void everyMinute() {
+		CronPolicy policy = new CronPolicy("* * * * *");
+		assertThat(advance(policy, LocalDateTime.of(1985, 6, 3, 12, 30, 15))).isEqualTo(LocalDateTime.of(1985, 6, 3, 12, 31));
+		assertThat(advance(policy, LocalDateTime.of(1985, 6, 3, 23, 59))).isEqualTo(LocalDateTime.of(1985, 6, 4, 0, 0));
+	}
+
+	/**
+	 * Verifies that steps are supported.
+	 */
+	@Test
+	public void everyQuarterHour() {
+		CronPolicy policy = new CronPolicy("*/15 * * * *");
+		assertThat(advance(policy, LocalDateTime.of(1985, 6, 3, 12, 0))).isEqualTo(LocalDateTime.of(1985, 6, 3, 12, 15));
+		assertThat(advance(policy, LocalDateTime.of(1985, 6, 3, 12, 50))).isEqualTo(LocalDateTime.of(1985, 6, 3, 13, 0));
+	}
+
+	/**
+	 * Verifies that steps larger than the range of a field match only the start value.
+	 */
+	@Test
+	public void hugeStep() {
+		CronPolicy policy = new CronPolicy("1/2147483647 * * * *");
+		assertThat(advance(policy, LocalDateTime.of(1985, 6, 3, 12, 0))).isEqualTo(LocalDateTime.of(1985, 6, 3, 12, 1));
+		assertThat(advance(policy, LocalDateTime.of(1985, 6, 3, 12, 1))).isEqualTo(LocalDateTime.of(1985, 6, 3, 13, 1));
+	}
+
+	/**
+	 * Verifies that lists and ranges are supported.
+	 */
+	@Test
+	public void workingDaysTwiceADay() {
+		CronPolicy policy = new CronPolicy("0 6;18 * * 1-5");
+
+		// 1985-06-07 was a Friday
+		assertThat(advance(policy, LocalDateTime.of(1985, 6, 7, 5, 0))).isEqualTo(LocalDateTime.of(1985, 6, 7, 6, 0));
+		assertThat(advance(policy, LocalDateTime.of(1985, 6, 7, 6, 0))).isEqualTo(LocalDateTime.of(1985, 6, 7, 18, 0));
+		assertThat(advance(policy, LocalDateTime.of(1985, 6, 7, 18, 0))).isEqualTo(LocalDateTime.of(1985, 6, 10, 6, 0));
+	}
+
+	/**
+	 * Verifies that months and days of month are supported.
+	 */
+	@Test
+	public void yearly() {
+		CronPolicy policy = new CronPolicy("30 2 1 1 *");
+		assertThat(advance(policy, LocalDateTime.of(1985, 6, 3, 12, 0))).isEqualTo(LocalDateTime.of(1986, 1, 1, 2, 30));
+	}
+
+	/**
+	 * Verifies that days of month and days of week are combined by "or", if both are restricted.
+	 */
+	@Test
+	public void dayOfMonthOrDayOfWeek() {
+		CronPolicy policy = new CronPolicy("0 0 15 * 0");
+
+		// 1985-06-09 was a Sunday
+		assertThat(advance(policy, LocalDateTime.of(1985, 6, 3, 12, 0))).isEqualTo(LocalDateTime.of(1985, 6, 9, 0, 0));
+		assertThat(advance(policy, LocalDateTime.of(1985, 6, 10, 12, 0))).isEqualTo(LocalDateTime.of(1985, 6, 15, 0, 0));
+	}
+
+	/**
+	 * Verifies that 7 can be used for Sunday as well.
+	 */
+	@Test
+	public void sundayAsSeven() {
+		CronPolicy policy = new CronPolicy("0 0 * * 7");
+		assertThat(advance(policy, LocalDateTime.of(1985, 6, 3, 12, 0))).isEqualTo(LocalDateTime.of(1985, 6, 9, 0, 0));
+	}
+
+	/**
+	 * Verifies that the current file will be continued immediately after start.
+	 */
+	@Test
+	public void continueCurrentFileAfterStart() {
+		CronPolicy policy = new CronPolicy("0 0 * * *");
+		assertThat(policy.getDeadline()).isGreaterThan(System.currentTimeMillis());
+		assertThat(policy.continueCurrentFile(new byte[0])).isTrue();
+	}
+
+	/**
+	 * Verifies that an illegal argument exception will be thrown for invalid expressions.
+	 */
+	@Test
+	public void invalidExpressions() {
+		assertThatThrownBy(() -> new CronPolicy(null)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new CronPolicy("* * * *")).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("* * * *");
+		assertThatThrownBy(() -> new CronPolicy("60 * * * *")).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("60");
+		assertThatThrownBy(() -> new CronPolicy("5-1 * * * *")).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("5-1");
+		assertThatThrownBy(() -> new CronPolicy("*/0 * * * *")).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("*/0");
+		assertThatThrownBy(() -> new CronPolicy("1;;2 * * * *")).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("1;;2");
+	}
+
+	/**
+	 * Verifies that an illegal argument exception will be thrown for expressions that never match.
+	 */
+	@Test
+	public void neverMatchingExpression() {
+		assertThatThrownBy(() -> new CronPolicy("0 0 30 2 *")).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("never");
+	}
+
+	/**
+	 * Verifies that policy is registered as service under the name "cron".
+	 */
+	@Test
+	public void isRegistered() {
+		Policy policy = new ServiceLoader<>(Policy.class, String.class).create("cron", "0 0 * * *");
+		assertThat(policy).isInstanceOf(CronPolicy.class);
+	}
+
+	/**
+	 * Calculates the next rollover for a given local date and time.
+	 *
+	 * @param policy
+	 *            Policy to use
+	 * @param dateTime
+	 *            Local date and time
+	 * @return Local date and time of the next rollover
+	 */
+	private static LocalDateTime advance(final AbstractDatePolicy policy, final LocalDateTime dateTime) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTimeInMillis(dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+		policy.advance(calendar);
+		return LocalDateTime.ofInstant(calendar.toInstant(), ZoneId.systemDefault());
+	}
+
+}
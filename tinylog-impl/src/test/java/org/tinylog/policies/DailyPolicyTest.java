@@ -60,7 +60,7 @@ public final class DailyPolicyTest {
 	 * Tests for daily policy with default time (00:00).
 	 */
 	@RunWith(PowerMockRunner.class)
-	@PrepareForTest(DailyPolicy.class)
+	@PrepareForTest({AbstractDatePolicy.class, DailyPolicy.class})
 	public static final class DefaultTimeTest {
 
 		/**
@@ -190,7 +190,7 @@ public final class DailyPolicyTest {
 	 * Tests for daily policy with custom time that contains only an hour (6 a.m.).
 	 */
 	@RunWith(PowerMockRunner.class)
-	@PrepareForTest(DailyPolicy.class)
+	@PrepareForTest({AbstractDatePolicy.class, DailyPolicy.class})
 	public static final class CustomHourOnlyTimeTest {
 
 		/**
@@ -322,7 +322,7 @@ public final class DailyPolicyTest {
 	 * Tests for daily policy with custom time that contains an hour and minutes (01:30).
 	 */
 	@RunWith(PowerMockRunner.class)
-	@PrepareForTest(DailyPolicy.class)
+	@PrepareForTest({AbstractDatePolicy.class, DailyPolicy.class})
 	public static final class CustomFullTimeTest {
 
 		/**
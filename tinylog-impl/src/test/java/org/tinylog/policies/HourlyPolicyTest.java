@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.policies;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Calendar;
+
+import org.junit.Test;
+import org.tinylog.configuration.ServiceLoader;
+import org.tinylog.util.FileSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link HourlyPolicy}.
+ */
+public final class HourlyPolicyTest {
+
+	/**
+	 * Verifies that the next full hour is calculated as next rollover for the default minute.
+	 */
+	@Test
+	public void advanceToNextFullHour() {
+		HourlyPolicy policy = new HourlyPolicy(null);
+		assertThat(advance(policy, LocalDateTime.of(1985, 6, 3, 12, 30, 15))).isEqualTo(LocalDateTime.of(1985, 6, 3, 13, 0));
+		assertThat(advance(policy, LocalDateTime.of(1985, 6, 3, 12, 0))).isEqualTo(LocalDateTime.of(1985, 6, 3, 13, 0));
+		assertThat(advance(policy, LocalDateTime.of(1985, 6, 3, 23, 59))).isEqualTo(LocalDateTime.of(1985, 6, 4, 0, 0));
+	}
+
+	/**
+	 * Verifies that a custom minute is used for calculating the next rollover.
+	 */
+	@Test
+	public void advanceToCustomMinute() {
+		HourlyPolicy policy = new HourlyPolicy("30");
+		assertThat(advance(policy, LocalDateTime.of(1985, 6, 3, 12, 15))).isEqualTo(LocalDateTime.of(1985, 6, 3, 12, 30));
+		assertThat(advance(policy, LocalDateTime.of(1985, 6, 3, 12, 30))).isEqualTo(LocalDateTime.of(1985, 6, 3, 13, 30));
+	}
+
+	/**
+	 * Verifies that the deadline is in the future and the current file will be continued immediately after start.
+	 */
+	@Test
+	public void continueCurrentFileAfterStart() {
+		HourlyPolicy policy = new HourlyPolicy(null);
+		assertThat(policy.getDeadline()).isGreaterThan(System.currentTimeMillis());
+		assertThat(policy.continueCurrentFile(new byte[0])).isTrue();
+	}
+
+	/**
+	 * Verifies that a recently modified file will be continued, but not a file from the last hour.
+	 *
+	 * @throws IOException
+	 *             Failed creating temporary file
+	 */
+	@Test
+	public void continueExistingFile() throws IOException {
+		HourlyPolicy policy = new HourlyPolicy(null);
+		String path = FileSystem.createTemporaryFile();
+
+		new File(path).setLastModified(System.currentTimeMillis());
+		assertThat(policy.continueExistingFile(path)).isTrue();
+
+		new File(path).setLastModified(System.currentTimeMillis() - 60 * 60 * 1000);
+		assertThat(policy.continueExistingFile(path)).isFalse();
+	}
+
+	/**
+	 * Verifies that an illegal argument exception will be thrown for invalid minutes.
+	 */
+	@Test
+	public void invalidMinute() {
+		assertThatThrownBy(() -> new HourlyPolicy("60")).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("60");
+		assertThatThrownBy(() -> new HourlyPolicy("abc")).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("abc");
+	}
+
+	/**
+	 * Verifies that policy is registered as service under the name "hourly".
+	 */
+	@Test
+	public void isRegistered() {
+		Policy policy = new ServiceLoader<>(Policy.class, String.class).create("hourly", (String) null);
+		assertThat(policy).isInstanceOf(HourlyPolicy.class);
+	}
+
+	/**
+	 * Calculates the next rollover for a given local date and time.
+	 *
+	 * @param policy
+	 *            Policy to use
+	 * @param dateTime
+	 *            Local date and time
+	 * @return Local date and time of the next rollover
+	 */
+	private static LocalDateTime advance(final AbstractDatePolicy policy, final LocalDateTime dateTime) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTimeInMillis(dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+		policy.advance(calendar);
+		return LocalDateTime.ofInstant(calendar.toInstant(), ZoneId.systemDefault());
+	}
+
+}
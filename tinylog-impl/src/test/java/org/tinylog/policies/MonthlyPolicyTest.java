@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.policies;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Calendar;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.tinylog.configuration.ServiceLoader;
+import org.tinylog.rules.SystemStreamCollector;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link MonthlyPolicy}.
+ */
+public final class MonthlyPolicyTest {
+
+	/**
+	 * Redirects and collects system output streams.
+	 */
+	@Rule
+	public final SystemStreamCollector systemStream = new SystemStreamCollector(true);
+
+	/**
+	 * Verifies that the first day of the next month is calculated as next rollover.
+	 */
+	@Test
+	public void advanceToNextMonth() {
+		MonthlyPolicy policy = new MonthlyPolicy(null);
+		assertThat(advance(policy, LocalDateTime.of(1985, 6, 3, 12, 0))).isEqualTo(LocalDateTime.of(1985, 7, 1, 0, 0));
+		assertThat(advance(policy, LocalDateTime.of(1985, 6, 1, 0, 0))).isEqualTo(LocalDateTime.of(1985, 7, 1, 0, 0));
+		assertThat(advance(policy, LocalDateTime.of(1985, 12, 31, 23, 59))).isEqualTo(LocalDateTime.of(1986, 1, 1, 0, 0));
+	}
+
+	/**
+	 * Verifies that the current file will be continued immediately after start.
+	 */
+	@Test
+	public void continueCurrentFileAfterStart() {
+		MonthlyPolicy policy = new MonthlyPolicy(null);
+		assertThat(policy.getDeadline()).isGreaterThan(System.currentTimeMillis());
+		assertThat(policy.continueCurrentFile(new byte[0])).isTrue();
+	}
+
+	/**
+	 * Verifies that a warning will be output, if an argument is passed.
+	 */
+	@Test
+	public void warnForArgument() {
+		new MonthlyPolicy("abc");
+		assertThat(systemStream.consumeErrorOutput()).containsOnlyOnce("WARN").containsOnlyOnce("arguments");
+	}
+
+	/**
+	 * Verifies that policy is registered as service under the name "monthly".
+	 */
+	@Test
+	public void isRegistered() {
+		Policy policy = new ServiceLoader<>(Policy.class, String.class).create("monthly", (String) null);
+		assertThat(policy).isInstanceOf(MonthlyPolicy.class);
+	}
+
+	/**
+	 * Calculates the next rollover for a given local date and time.
+	 *
+	 * @param policy
+	 *            Policy to use
+	 * @param dateTime
+	 *            Local date and time
+	 * @return Local date and time of the next rollover
+	 */
+	private static LocalDateTime advance(final AbstractDatePolicy policy, final LocalDateTime dateTime) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTimeInMillis(dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+		policy.advance(calendar);
+		return LocalDateTime.ofInstant(calendar.toInstant(), ZoneId.systemDefault());
+	}
+
+}
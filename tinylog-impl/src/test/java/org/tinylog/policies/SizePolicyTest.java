@@ -73,6 +73,19 @@ public final class SizePolicyTest {
 			assertThatThrownBy(() -> new SizePolicy("ABC")).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("ABC");
 		}
 
+		/**
+		 * Verifies that log entries can be passed by their size instead of a byte array.
+		 */
+		@Test
+		public void continueCurrentFileBySize() {
+			SizePolicy policy = new SizePolicy("10");
+			assertThat(policy.continueCurrentFile(6)).isTrue();
+			assertThat(policy.continueCurrentFile(new byte[4])).isTrue();
+			assertThat(policy.continueCurrentFile(1)).isFalse();
+			policy.reset();
+			assertThat(policy.continueCurrentFile(10)).isTrue();
+		}
+
 		/**
 		 * Verifies that policy is registered as service under the name "size".
 		 */
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.policies;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Calendar;
+
+import org.junit.Test;
+import org.tinylog.configuration.ServiceLoader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link WeeklyPolicy}.
+ */
+public final class WeeklyPolicyTest {
+
+	/**
+	 * Verifies that the first day of the week of the default locale is used by default.
+	 */
+	@Test
+	public void advanceToFirstDayOfWeek() {
+		WeeklyPolicy policy = new WeeklyPolicy(null);
+
+		Calendar calendar = Calendar.getInstance();
+		policy.advance(calendar);
+		assertThat(calendar.get(Calendar.DAY_OF_WEEK)).isEqualTo(Calendar.getInstance().getFirstDayOfWeek());
+		assertThat(calendar.get(Calendar.HOUR_OF_DAY)).isZero();
+		assertThat(calendar.get(Calendar.MINUTE)).isZero();
+	}
+
+	/**
+	 * Verifies that the next Monday is calculated as next rollover for a weekly policy for Mondays.
+	 */
+	@Test
+	public void advanceToNextMonday() {
+		WeeklyPolicy policy = new WeeklyPolicy("Monday");
+
+		// 1985-06-03 was a Monday
+		assertThat(advance(policy, LocalDateTime.of(1985, 6, 3, 0, 0))).isEqualTo(LocalDateTime.of(1985, 6, 10, 0, 0));
+		assertThat(advance(policy, LocalDateTime.of(1985, 6, 5, 12, 0))).isEqualTo(LocalDateTime.of(1985, 6, 10, 0, 0));
+		assertThat(advance(policy, LocalDateTime.of(1985, 6, 2, 23, 59))).isEqualTo(LocalDateTime.of(1985, 6, 3, 0, 0));
+	}
+
+	/**
+	 * Verifies that the current file will be continued immediately after start.
+	 */
+	@Test
+	public void continueCurrentFileAfterStart() {
+		WeeklyPolicy policy = new WeeklyPolicy("sunday");
+		assertThat(policy.getDeadline()).isGreaterThan(System.currentTimeMillis());
+		assertThat(policy.continueCurrentFile(new byte[0])).isTrue();
+	}
+
+	/**
+	 * Verifies that an illegal argument exception will be thrown for invalid days.
+	 */
+	@Test
+	public void invalidDay() {
+		assertThatThrownBy(() -> new WeeklyPolicy("someday")).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("someday");
+	}
+
+	/**
+	 * Verifies that policy is registered as service under the name "weekly".
+	 */
+	@Test
+	public void isRegistered() {
+		Policy policy = new ServiceLoader<>(Policy.class, String.class).create("weekly", (String) null);
+		assertThat(policy).isInstanceOf(WeeklyPolicy.class);
+	}
+
+	/**
+	 * Calculates the next rollover for a given local date and time.
+	 *
+	 * @param policy
+	 *            Policy to use
+	 * @param dateTime
+	 *            Local date and time
+	 * @return Local date and time of the next rollover
+	 */
+	private static LocalDateTime advance(final AbstractDatePolicy policy, final LocalDateTime dateTime) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTimeInMillis(dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+		policy.advance(calendar);
+		return LocalDateTime.ofInstant(calendar.toInstant(), ZoneId.systemDefault());
+	}
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.throwable;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link FilteredThrowableData}.
+ */
+public final class FilteredThrowableDataTest {
+
+	/**
+	 * Verifies that the original stack trace will be returned as it is, if all stack trace elements are kept.
+	 */
+	@Test
+	public void keepAllElements() {
+		ThrowableData origin = new ThrowableStore("Test", null, trace(), null);
+		FilteredThrowableData data = new FilteredThrowableData(origin, new StripThrowableFilter());
+
+		assertThat(data.getStackTrace()).isSameAs(origin.getStackTrace());
+	}
+
+	/**
+	 * Verifies that stack trace elements are filtered and the filtered stack trace is computed only once.
+	 */
+	@Test
+	public void filterElements() {
+		ThrowableData origin = new ThrowableStore("Test", null, trace(), null);
+		FilteredThrowableData data = new FilteredThrowableData(origin, new StripThrowableFilter("org.tinylog"));
+
+		List<StackTraceElement> stackTrace = data.getStackTrace();
+		assertThat(stackTrace).hasSize(2).extracting(StackTraceElement::getClassName).containsExactly("java.lang.Thread", "sun.Main");
+		assertThat(data.getStackTrace()).isSameAs(stackTrace);
+	}
+
+	/**
+	 * Verifies that causes are filtered as well.
+	 */
+	@Test
+	public void filterCause() {
+		ThrowableData cause = new ThrowableStore("Cause", "Inner", trace(), null);
+		ThrowableData origin = new ThrowableStore("Test", "Outer", trace(), cause);
+		FilteredThrowableData data = new FilteredThrowableData(origin, new KeepThrowableFilter("org.tinylog"));
+
+		assertThat(data.getClassName()).isEqualTo("Test");
+		assertThat(data.getMessage()).isEqualTo("Outer");
+		assertThat(data.getStackTrace()).hasSize(1);
+		assertThat(data.getCause().getClassName()).isEqualTo("Cause");
+		assertThat(data.getCause().getMessage()).isEqualTo("Inner");
+		assertThat(data.getCause().getStackTrace()).hasSize(1);
+		assertThat(data.getCause()).isSameAs(data.getCause());
+	}
+
+	/**
+	 * Creates a stack trace with three elements.
+	 *
+	 * @return Stack trace for tests
+	 */
+	private static List<StackTraceElement> trace() {
+		return Arrays.asList(
+			new StackTraceElement("org.tinylog.Logger", "info", "Logger.java", 1),
+			new StackTraceElement("java.lang.Thread", "run", "Thread.java", 2),
+			new StackTraceElement("sun.Main", "main", "Main.java", 3)
+		);
+	}
+
+}
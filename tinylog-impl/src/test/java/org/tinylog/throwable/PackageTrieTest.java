@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.throwable;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PackageTrie}.
+ */
+public final class PackageTrieTest {
+
+	/**
+	 * Verifies that an empty trie doesn't match any class name.
+	 */
+	@Test
+	public void empty() {
+		PackageTrie trie = new PackageTrie(Collections.emptyList());
+
+		assertThat(trie.matches("org.tinylog.Logger")).isFalse();
+		assertThat(trie.matches("")).isFalse();
+	}
+
+	/**
+	 * Verifies that classes of configured packages and sub packages are matched.
+	 */
+	@Test
+	public void matchPackage() {
+		PackageTrie trie = new PackageTrie(Collections.singletonList("org.tinylog"));
+
+		assertThat(trie.matches("org.tinylog.Logger")).isTrue();
+		assertThat(trie.matches("org.tinylog.core.LogEntry")).isTrue();
+		assertThat(trie.matches("org.example.Foo")).isFalse();
+	}
+
+	/**
+	 * Verifies that incomplete package names are not matched.
+	 */
+	@Test
+	public void incompletePackage() {
+		PackageTrie trie = new PackageTrie(Collections.singletonList("org.tiny"));
+
+		assertThat(trie.matches("org.tinylog.Logger")).isFalse();
+		assertThat(trie.matches("org")).isFalse();
+	}
+
+	/**
+	 * Verifies that configured classes are matched, but not their inner classes.
+	 */
+	@Test
+	public void matchClass() {
+		PackageTrie trie = new PackageTrie(Collections.singletonList("org.tinylog.Logger"));
+
+		assertThat(trie.matches("org.tinylog.Logger")).isTrue();
+		assertThat(trie.matches("org.tinylog.Logger$Inner")).isFalse();
+		assertThat(trie.matches("org.tinylog.LoggerFactory")).isFalse();
+	}
+
+	/**
+	 * Verifies that multiple packages with shared prefixes can be matched.
+	 */
+	@Test
+	public void multiplePackages() {
+		PackageTrie trie = new PackageTrie(Arrays.asList("java", "javax.swing", "jdk.internal", "sun"));
+
+		assertThat(trie.matches("java.lang.Thread")).isTrue();
+		assertThat(trie.matches("javax.swing.JFrame")).isTrue();
+		assertThat(trie.matches("javax.sql.DataSource")).isFalse();
+		assertThat(trie.matches("jdk.internal.reflect.Method")).isTrue();
+		assertThat(trie.matches("jdk.jfr.Event")).isFalse();
+		assertThat(trie.matches("sun.misc.Unsafe")).isTrue();
+		assertThat(trie.matches("sunny.Day")).isFalse();
+	}
+
+}
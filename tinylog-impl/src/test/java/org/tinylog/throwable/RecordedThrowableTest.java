@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.throwable;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link RecordedThrowable}.
+ */
+public final class RecordedThrowableTest {
+
+	/**
+	 * Verifies that class name, message, stack trace, and cause are reproduced.
+	 */
+	@Test
+	public void reproduceThrowable() {
+		StackTraceElement element = new StackTraceElement("org.example.Foo", "bar", "Foo.java", 42);
+		ThrowableData cause = new ThrowableStore("org.example.Cause", null, Arrays.asList(element), null);
+		ThrowableData data = new ThrowableStore("org.example.Failure", "Oops", Arrays.asList(element, element), cause);
+
+		RecordedThrowable throwable = new RecordedThrowable(data);
+
+		assertThat(throwable.getClassName()).isEqualTo("org.example.Failure");
+		assertThat(throwable.getMessage()).isEqualTo("Oops");
+		assertThat(throwable.getStackTrace()).containsExactly(element, element);
+		assertThat(throwable).hasToString("org.example.Failure: Oops");
+		assertThat(throwable.getCause()).isInstanceOf(RecordedThrowable.class).hasToString("org.example.Cause");
+		assertThat(throwable.getCause().getStackTrace()).containsExactly(element);
+	}
+
+	/**
+	 * Verifies that the original class name is used when wrapping a recorded throwable.
+	 */
+	@Test
+	public void wrapRecordedThrowable() {
+		ThrowableData data = new ThrowableStore("org.example.Failure", null, Arrays.asList(), null);
+		ThrowableWrapper wrapper = new ThrowableWrapper(new RecordedThrowable(data));
+
+		assertThat(wrapper.getClassName()).isEqualTo("org.example.Failure");
+		assertThat(wrapper.getMessage()).isNull();
+		assertThat(wrapper.getStackTrace()).isEmpty();
+		assertThat(wrapper.getCause()).isNull();
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.throwable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link AbstractStackTraceElementsFilter}.
+ */
+public final class StackTraceElementsFilterTest {
+
+	private static final ThrowableData ORIGIN = new ThrowableStore(RuntimeException.class.getName(), null, Arrays.asList(
+		new StackTraceElement("org.Example", "run", "Example.java", 1),
+		new StackTraceElement("ORG.Other", "run", "Other.java", 2),
+		new StackTraceElement("com.Example", "run", "Example.java", 3)
+	), null);
+
+	/**
+	 * Verifies that subclasses, which implement only {@link AbstractStackTraceElementsFilter#shouldKept(String, List)},
+	 * get all configured packages and classes passed.
+	 */
+	@Test
+	public void legacySubclass() {
+		AbstractStackTraceElementsFilter filter = new LegacyFilter("org|com.Example");
+		ThrowableData data = filter.filter(ORIGIN);
+
+		assertThat(data.getStackTrace()).extracting(StackTraceElement::getClassName).containsExactly("org.Example", "com.Example");
+	}
+
+	/**
+	 * Verifies that {@link AbstractStackTraceElementsFilter#matchAny(String)} uses overridden
+	 * {@link AbstractStackTraceElementsFilter#match(String, String)} methods instead of the prefix trie.
+	 */
+	@Test
+	public void customMatching() {
+		AbstractStackTraceElementsFilter filter = new CaseInsensitiveFilter("org");
+		ThrowableData data = filter.filter(ORIGIN);
+
+		assertThat(data.getStackTrace()).extracting(StackTraceElement::getClassName).containsExactly("org.Example", "ORG.Other");
+	}
+
+	/**
+	 * Filter that implements only the abstract method for keeping matching stack trace elements.
+	 */
+	private static final class LegacyFilter extends AbstractStackTraceElementsFilter {
+
+		/**
+		 * @param arguments
+		 *            Configured packages and classes to keep
+		 */
+		private LegacyFilter(final String arguments) {
+			super(arguments);
+		}
+
+		@Override
+		protected boolean shouldKept(final String className, final List<String> filters) {
+			for (String filter : filters) {
+				if (match(className, filter)) {
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+	}
+
+	/**
+	 * Filter for keeping stack trace elements, whose class names match case-insensitively.
+	 */
+	private static final class CaseInsensitiveFilter extends AbstractStackTraceElementsFilter {
+
+		/**
+		 * @param arguments
+		 *            Configured packages and classes to keep
+		 */
+		private CaseInsensitiveFilter(final String arguments) {
+			super(arguments);
+		}
+
+		@Override
+		protected boolean shouldKept(final String className, final List<String> filters) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		protected boolean shouldKept(final String className) {
+			return matchAny(className);
+		}
+
+		@Override
+		protected boolean match(final String className, final String filter) {
+			return super.match(className.toLowerCase(Locale.ROOT), filter.toLowerCase(Locale.ROOT));
+		}
+
+	}
+
+}
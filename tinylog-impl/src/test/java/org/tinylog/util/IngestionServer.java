@@ -0,0 +1,241 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local HTTP server that stands in for log ingestion endpoints. All received requests are recorded. The status codes
+ * of responses can be scripted, and the processing of requests can be held back for testing back-pressure.
+ */
+public final class IngestionServer implements AutoCloseable {
+
+	private static final int TIMEOUT = 10;
+	private static final int SUCCESS = 200;
+
+	private final HttpServer server;
+	private final BlockingQueue<Request> requests;
+	private final Queue<Integer> statuses;
+	private volatile CountDownLatch gate;
+
+	/**
+	 * Starts a new HTTP server on a free port of the loopback interface.
+	 *
+	 * @throws UncheckedIOException
+	 *             Failed to start server
+	 */
+	public IngestionServer() {
+		requests = new LinkedBlockingQueue<>();
+		statuses = new ConcurrentLinkedQueue<>();
+
+		try {
+			server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+
+		server.createContext("/", this::handle);
+		server.start();
+	}
+
+	/**
+	 * Gets the URL of the ingestion endpoint.
+	 *
+	 * @return URL of this server
+	 */
+	public String getUrl() {
+		return "http://127.0.0.1:" + server.getAddress().getPort() + "/ingest";
+	}
+
+	/**
+	 * Defines the status codes for the next responses. Afterwards, all requests are answered with status 200.
+	 *
+	 * @param codes
+	 *            Status codes to respond in the passed order
+	 */
+	public void respond(final int... codes) {
+		for (int code : codes) {
+			statuses.add(code);
+		}
+	}
+
+	/**
+	 * Holds back all requests until {@link #release()} is called.
+	 */
+	public void hold() {
+		gate = new CountDownLatch(1);
+	}
+
+	/**
+	 * Continues processing held back requests.
+	 */
+	public void release() {
+		CountDownLatch latch = gate;
+		gate = null;
+		if (latch != null) {
+			latch.countDown();
+		}
+	}
+
+	/**
+	 * Waits for the next received request.
+	 *
+	 * @return Received request or {@code null} if no request has been received within ten seconds
+	 * @throws InterruptedException
+	 *             Interrupted while waiting
+	 */
+	public Request receive() throws InterruptedException {
+		return requests.poll(TIMEOUT, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Gets the next received request without waiting.
+	 *
+	 * @return Received request or {@code null} if there is none
+	 */
+	public Request poll() {
+		return requests.poll();
+	}
+
+	@Override
+	public void close() {
+		release();
+		server.stop(0);
+	}
+
+	/**
+	 * Records a request and sends the scripted response.
+	 *
+	 * @param exchange
+	 *            HTTP exchange to handle
+	 * @throws IOException
+	 *             Failed to read request or to send response
+	 */
+	private void handle(final HttpExchange exchange) throws IOException {
+		byte[] body = read(exchange.getRequestBody());
+		Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		exchange.getRequestHeaders().forEach((key, values) -> headers.put(key, values.get(0)));
+
+		if ("gzip".equals(headers.get("Content-Encoding"))) {
+			body = read(new GZIPInputStream(new ByteArrayInputStream(body)));
+		}
+
+		requests.add(new Request(exchange.getRequestMethod(), headers, body));
+
+		CountDownLatch latch = gate;
+		if (latch != null) {
+			try {
+				latch.await(TIMEOUT, TimeUnit.SECONDS);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		Integer status = statuses.poll();
+		exchange.sendResponseHeaders(status == null ? SUCCESS : status, -1);
+		exchange.close();
+	}
+
+	/**
+	 * Reads a stream completely.
+	 *
+	 * @param stream
+	 *            Stream to read
+	 * @return Read data
+	 * @throws IOException
+	 *             Failed to read stream
+	 */
+	private static byte[] read(final InputStream stream) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1024];
+		for (int length = stream.read(buffer); length >= 0; length = stream.read(buffer)) {
+			output.write(buffer, 0, length);
+		}
+		return output.toByteArray();
+	}
+
+	/**
+	 * Received HTTP request.
+	 */
+	public static final class Request {
+
+		private final String method;
+		private final Map<String, String> headers;
+		private final byte[] body;
+
+		/**
+		 * @param method
+		 *            HTTP method
+		 * @param headers
+		 *            Request headers
+		 * @param body
+		 *            Decompressed request body
+		 */
+		private Request(final String method, final Map<String, String> headers, final byte[] body) {
+			this.method = method;
+			this.headers = headers;
+			this.body = body;
+		}
+
+		/**
+		 * Gets the HTTP method.
+		 *
+		 * @return HTTP method
+		 */
+		public String getMethod() {
+			return method;
+		}
+
+		/**
+		 * Gets a request header.
+		 *
+		 * @param name
+		 *            Case-insensitive name of header
+		 * @return Value of header or {@code null} if not received
+		 */
+		public String getHeader(final String name) {
+			return headers.get(name);
+		}
+
+		/**
+		 * Gets the request body as UTF-8 string. Compressed bodies are decompressed.
+		 *
+		 * @return Request body
+		 */
+		public String getBody() {
+			return new String(body, StandardCharsets.UTF_8);
+		}
+
+	}
+
+}
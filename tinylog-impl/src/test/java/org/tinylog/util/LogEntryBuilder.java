@@ -173,6 +173,18 @@ public final class LogEntryBuilder {
 		return this;
 	}
 
+	/**
+	 * Sets the timestamp when this log entry was issued.
+	 *
+	 * @param timestamp
+	 *            Timestamp of issue
+	 * @return Actual log entry builder
+	 */
+	public LogEntryBuilder timestamp(final Timestamp timestamp) {
+		this.timestamp = timestamp;
+		return this;
+	}
+
 	/**
 	 * Sets the thread that has issued this log entry.
 	 *
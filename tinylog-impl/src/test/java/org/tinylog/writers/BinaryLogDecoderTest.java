@@ -0,0 +1,203 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.tinylog.Level;
+import org.tinylog.core.LogEntry;
+import org.tinylog.rules.SystemStreamCollector;
+import org.tinylog.util.FileSystem;
+import org.tinylog.util.LogEntryBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.tinylog.util.Maps.doubletonMap;
+
+/**
+ * Tests for {@link BinaryLogDecoder}.
+ */
+public final class BinaryLogDecoderTest {
+
+	private static final String NEW_LINE = System.lineSeparator();
+
+	/**
+	 * Redirects and collects system output streams.
+	 */
+	@Rule
+	public final SystemStreamCollector systemStream = new SystemStreamCollector(true);
+
+	/**
+	 * Verifies that all log entry values are restored.
+	 *
+	 * @throws IOException
+	 *             Failed writing or reading log file
+	 */
+	@Test
+	public void readLogEntry() throws IOException {
+		Thread thread = new Thread("test");
+		LogEntry original = LogEntryBuilder.prefilled(BinaryLogDecoderTest.class).thread(thread).tag("SYSTEM").create();
+
+		BinaryLogDecoder decoder = new BinaryLogDecoder(new ByteArrayInputStream(encode(original)));
+		LogEntry decoded = decoder.read();
+
+		assertThat(decoded.getEpochMilliseconds()).isEqualTo(original.getTimestamp().toDate().getTime());
+		assertThat(decoded.getThread().getName()).isEqualTo("test");
+		assertThat(decoded.getThread().getId()).isEqualTo(thread.getId());
+		assertThat(decoded.getContext()).isEqualTo(original.getContext());
+		assertThat(decoded.getClassName()).isEqualTo(original.getClassName());
+		assertThat(decoded.getMethodName()).isEqualTo(original.getMethodName());
+		assertThat(decoded.getFileName()).isEqualTo(original.getFileName());
+		assertThat(decoded.getLineNumber()).isEqualTo(original.getLineNumber());
+		assertThat(decoded.getTag()).isEqualTo("SYSTEM");
+		assertThat(decoded.getLevel()).isEqualTo(original.getLevel());
+		assertThat(decoded.getMessage()).isEqualTo(original.getMessage());
+		assertThat(decoded.getException()).isNull();
+
+		assertThat(decoder.read()).isNull();
+		decoder.close();
+	}
+
+	/**
+	 * Verifies that log entries without any optional values are restored.
+	 *
+	 * @throws IOException
+	 *             Failed writing or reading log file
+	 */
+	@Test
+	public void readEmptyLogEntry() throws IOException {
+		LogEntry original = LogEntryBuilder.empty().level(Level.ERROR).create();
+
+		BinaryLogDecoder decoder = new BinaryLogDecoder(new ByteArrayInputStream(encode(original)));
+		LogEntry decoded = decoder.read();
+
+		assertThat(decoded.getThread()).isNull();
+		assertThat(decoded.getClassName()).isNull();
+		assertThat(decoded.getTag()).isNull();
+		assertThat(decoded.getLevel()).isEqualTo(Level.ERROR);
+		assertThat(decoded.getMessage()).isNull();
+		assertThat(decoded.getException()).isNull();
+	}
+
+	/**
+	 * Verifies that an empty stream doesn't contain any log entries.
+	 *
+	 * @throws IOException
+	 *             Failed reading stream
+	 */
+	@Test
+	public void readEmptyStream() throws IOException {
+		BinaryLogDecoder decoder = new BinaryLogDecoder(new ByteArrayInputStream(new byte[0]));
+		assertThat(decoder.read()).isNull();
+	}
+
+	/**
+	 * Verifies that an exception will be thrown for streams that are not binary log files.
+	 */
+	@Test
+	public void rejectInvalidFile() {
+		byte[] data = "Hello World!".getBytes(StandardCharsets.US_ASCII);
+		BinaryLogDecoder decoder = new BinaryLogDecoder(new ByteArrayInputStream(data));
+		assertThatThrownBy(decoder::read).isInstanceOf(IOException.class);
+	}
+
+	/**
+	 * Verifies that an exception will be thrown for truncated binary log files.
+	 *
+	 * @throws IOException
+	 *             Failed writing log file
+	 */
+	@Test
+	public void rejectTruncatedFile() throws IOException {
+		byte[] data = encode(LogEntryBuilder.empty().message("Hello World!").create());
+		byte[] truncated = new byte[data.length - 1];
+		System.arraycopy(data, 0, truncated, 0, truncated.length);
+
+		BinaryLogDecoder decoder = new BinaryLogDecoder(new ByteArrayInputStream(truncated));
+		assertThatThrownBy(decoder::read).isInstanceOf(EOFException.class);
+	}
+
+	/**
+	 * Verifies that log entries can be rendered with a format pattern.
+	 *
+	 * @throws IOException
+	 *             Failed writing or reading log file
+	 */
+	@Test
+	public void decodeAsText() throws IOException {
+		byte[] data = encode(LogEntryBuilder.empty().level(Level.INFO).message("Hello World!").create());
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		BinaryLogDecoder.decode(new ByteArrayInputStream(data), "{level}: {message}", new PrintStream(output, true, "UTF-8"));
+
+		assertThat(new String(output.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("INFO: Hello World!" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that the command line tool outputs decoded log entries to the standard output stream.
+	 *
+	 * @throws IOException
+	 *             Failed writing or reading log file
+	 */
+	@Test
+	public void commandLine() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+		BinaryWriter writer = new BinaryWriter(doubletonMap("file", file, "format", "{message}"));
+		writer.write(LogEntryBuilder.empty().message("Hello World!").create());
+		writer.close();
+
+		BinaryLogDecoder.main(new String[] {file, "{message}"});
+
+		assertThat(systemStream.consumeStandardOutput()).isEqualTo("Hello World!" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that the command line tool outputs a usage hint, if no file is passed.
+	 *
+	 * @throws IOException
+	 *             Failed reading log file
+	 */
+	@Test
+	public void commandLineUsage() throws IOException {
+		BinaryLogDecoder.main(new String[0]);
+		assertThat(systemStream.consumeErrorOutput()).contains("Usage");
+	}
+
+	/**
+	 * Encodes a log entry with all log entry values.
+	 *
+	 * @param logEntry
+	 *            Log entry to encode
+	 * @return Encoded binary log file
+	 * @throws IOException
+	 *             Failed writing or reading log file
+	 */
+	private static byte[] encode(final LogEntry logEntry) throws IOException {
+		String file = FileSystem.createTemporaryFile();
+		BinaryWriter writer = new BinaryWriter(doubletonMap("file", file, "buffered", "false"));
+		writer.write(logEntry);
+		writer.close();
+		return Files.readAllBytes(Paths.get(file));
+	}
+
+}
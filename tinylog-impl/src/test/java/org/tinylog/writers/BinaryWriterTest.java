@@ -0,0 +1,327 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.powermock.reflect.Whitebox;
+import org.tinylog.Level;
+import org.tinylog.configuration.ServiceLoader;
+import org.tinylog.core.LogEntry;
+import org.tinylog.core.LogEntryValue;
+import org.tinylog.rules.SystemStreamCollector;
+import org.tinylog.util.FileSystem;
+import org.tinylog.util.LogEntryBuilder;
+import org.tinylog.writers.raw.ByteArrayWriter;
+
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.tinylog.util.Maps.doubletonMap;
+import static org.tinylog.util.Maps.tripletonMap;
+
+/**
+ * Tests for {@link BinaryWriter}.
+ */
+public final class BinaryWriterTest {
+
+	private static final String NEW_LINE = System.lineSeparator();
+
+	/**
+	 * Redirects and collects system output streams.
+	 */
+	@Rule
+	public final SystemStreamCollector systemStream = new SystemStreamCollector(true);
+
+	/**
+	 * Temporary folder for creating log files.
+	 */
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Verifies that all log entry values are required, if no format pattern is defined.
+	 *
+	 * @throws IOException
+	 *             Failed creating log file
+	 */
+	@Test
+	public void requireAllLogEntryValues() throws IOException {
+		BinaryWriter writer = new BinaryWriter(doubletonMap("file", FileSystem.createTemporaryFile(), "append", "false"));
+		writer.close();
+
+		assertThat(writer.getRequiredLogEntryValues()).containsOnly(LogEntryValue.values());
+	}
+
+	/**
+	 * Verifies that only the log entry values of a defined format pattern and the date are required.
+	 *
+	 * @throws IOException
+	 *             Failed creating log file
+	 */
+	@Test
+	public void requireLogEntryValuesOfFormatPattern() throws IOException {
+		BinaryWriter writer = new BinaryWriter(doubletonMap("file", FileSystem.createTemporaryFile(), "format", "{level}: {message}"));
+		writer.close();
+
+		assertThat(writer.getRequiredLogEntryValues())
+			.containsOnly(LogEntryValue.DATE, LogEntryValue.LEVEL, LogEntryValue.MESSAGE, LogEntryValue.EXCEPTION);
+	}
+
+	/**
+	 * Verifies that written log entries can be decoded and rendered as text.
+	 *
+	 * @throws IOException
+	 *             Failed writing or reading log file
+	 */
+	@Test
+	public void writeAndDecode() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+		BinaryWriter writer = new BinaryWriter(doubletonMap("file", file, "buffered", "true"));
+
+		writer.write(LogEntryBuilder.prefilled(BinaryWriterTest.class).level(Level.INFO).message("Hello").context("user", "john").create());
+		writer.write(LogEntryBuilder.prefilled(BinaryWriterTest.class).level(Level.WARN).tag("SYSTEM").message("World").create());
+		writer.close();
+
+		assertThat(decode(file, "{date: yyyy-MM-dd} {level} {tag} {class}.{method}() {context: user}: {message}")).isEqualTo(
+			"1985-06-03 INFO  " + BinaryWriterTest.class.getName() + ".foo() john: Hello" + NEW_LINE
+				+ "1985-06-03 WARN SYSTEM " + BinaryWriterTest.class.getName() + ".foo() : World" + NEW_LINE
+		);
+	}
+
+	/**
+	 * Verifies that buffered log entries will be flushed periodically, if a flush interval is defined.
+	 *
+	 * @throws IOException
+	 *             Failed writing or reading log file
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for the flush
+	 */
+	@Test
+	public void periodicFlushing() throws IOException, InterruptedException {
+		String file = FileSystem.createTemporaryFile();
+
+		Map<String, String> properties = new HashMap<>();
+		properties.put("file", file);
+		properties.put("format", "{message}");
+		properties.put("buffered", "true");
+		properties.put("flush.interval", "10ms");
+
+		BinaryWriter writer = new BinaryWriter(properties);
+		writer.write(LogEntryBuilder.empty().message("Hello World!").create());
+
+		for (int i = 0; i < 1000 && new File(file).length() == 0; ++i) {
+			Thread.sleep(10);
+		}
+
+		assertThat(decode(file, "{message}")).isEqualTo("Hello World!" + NEW_LINE);
+
+		writer.close();
+	}
+
+	/**
+	 * Verifies that the internal buffers shrink back to their default size after writing an oversized log entry.
+	 *
+	 * @throws IOException
+	 *             Failed writing or reading log file
+	 */
+	@Test
+	public void shrinkBuffersAfterOversizedEntry() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+		BinaryWriter writer = new BinaryWriter(doubletonMap("file", file, "format", "{message}"));
+
+		String message = String.join("", Collections.nCopies(100_000, "x"));
+		writer.write(LogEntryBuilder.empty().message(message).create());
+		writer.write(LogEntryBuilder.empty().message("Hello World!").create());
+		writer.close();
+
+		assertThat(decode(file, "{message}")).isEqualTo(message + NEW_LINE + "Hello World!" + NEW_LINE);
+
+		Object output = Whitebox.getInternalState(writer, "output");
+		Object payload = Whitebox.getInternalState(writer, "payload");
+		assertThat((byte[]) Whitebox.getInternalState(output, "data")).hasSizeLessThan(message.length());
+		assertThat((byte[]) Whitebox.getInternalState(payload, "data")).hasSizeLessThan(message.length());
+	}
+
+	/**
+	 * Verifies that repeated names are stored only once in the symbol table.
+	 *
+	 * @throws IOException
+	 *             Failed writing to log file
+	 */
+	@Test
+	public void reuseSymbols() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+		BinaryWriter writer = new BinaryWriter(doubletonMap("file", file, "format", "{class}"));
+
+		LogEntry logEntry = LogEntryBuilder.empty().className("org.example.VeryLongClassNameForTestingSymbols").create();
+		writer.write(logEntry);
+		long first = new File(file).length();
+		writer.write(logEntry);
+		long second = new File(file).length() - first;
+		writer.close();
+
+		assertThat(second).isLessThan(10);
+		assertThat(first).isGreaterThan(second + "org.example.VeryLongClassNameForTestingSymbols".length());
+	}
+
+	/**
+	 * Verifies that exceptions including their original class names, stack traces, and causes can be decoded.
+	 *
+	 * @throws IOException
+	 *             Failed writing or reading log file
+	 */
+	@Test
+	public void writeAndDecodeException() throws IOException {
+		Exception exception = new IllegalStateException("Outer", new NullPointerException());
+		String file = FileSystem.createTemporaryFile();
+
+		BinaryWriter writer = new BinaryWriter(doubletonMap("file", file, "format", "{exception}"));
+		writer.write(LogEntryBuilder.empty().exception(exception).create());
+		writer.close();
+
+		assertThat(decode(file, "{exception}"))
+			.startsWith(IllegalStateException.class.getName() + ": Outer")
+			.contains("Caused by: " + NullPointerException.class.getName())
+			.contains(BinaryWriterTest.class.getName() + ".writeAndDecodeException(BinaryWriterTest.java:");
+	}
+
+	/**
+	 * Verifies that an appended binary log file can be decoded, as a new header resets the symbol table.
+	 *
+	 * @throws IOException
+	 *             Failed writing or reading log file
+	 */
+	@Test
+	public void appendToExistingFile() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+
+		BinaryWriter writer = new BinaryWriter(tripletonMap("file", file, "format", "{class}", "append", "true"));
+		writer.write(LogEntryBuilder.empty().className("First").create());
+		writer.close();
+
+		writer = new BinaryWriter(tripletonMap("file", file, "format", "{class}", "append", "true"));
+		writer.write(LogEntryBuilder.empty().className("Second").create());
+		writer.close();
+
+		assertThat(decode(file, "{class}")).isEqualTo("First" + NEW_LINE + "Second" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that symbols of a log entry that failed to be written are not referenced by subsequent log entries.
+	 *
+	 * @throws IOException
+	 *             Failed writing or reading log file
+	 */
+	@Test
+	public void discardSymbolsOfFailedWrite() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+
+		BinaryWriter writer = new BinaryWriter(doubletonMap("file", file, "format", "{class}"));
+		writer.write(LogEntryBuilder.empty().className("First").create());
+
+		ByteArrayWriter original = Whitebox.getInternalState(writer, "writer");
+		ByteArrayWriter failing = mock(ByteArrayWriter.class);
+		doThrow(new IOException()).when(failing).write(any(), anyInt());
+
+		Whitebox.setInternalState(writer, "writer", failing);
+		assertThatThrownBy(() -> writer.write(LogEntryBuilder.empty().className("Second").create())).isInstanceOf(IOException.class);
+		Whitebox.setInternalState(writer, "writer", original);
+
+		writer.write(LogEntryBuilder.empty().className("Second").create());
+		writer.close();
+
+		assertThat(decode(file, "{class}")).isEqualTo("First" + NEW_LINE + "Second" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that a new log file with its own symbol table will be started, if a policy requires a rollover.
+	 *
+	 * @throws IOException
+	 *             Failed writing or reading log file
+	 */
+	@Test
+	public void rollover() throws IOException {
+		Map<String, String> properties = new HashMap<>();
+		properties.put("file", new File(folder.getRoot(), "{count}.bin").getAbsolutePath());
+		properties.put("format", "{class}: {message}");
+		properties.put("policies", "size: 30");
+
+		BinaryWriter writer = new BinaryWriter(properties);
+		writer.write(LogEntryBuilder.empty().className("Foo").message("First").create());
+		writer.write(LogEntryBuilder.empty().className("Foo").message("Second").create());
+		writer.close();
+
+		String pattern = "{class}: {message}";
+		assertThat(decode(new File(folder.getRoot(), "0.bin").getAbsolutePath(), pattern)).isEqualTo("Foo: First" + NEW_LINE);
+		assertThat(decode(new File(folder.getRoot(), "1.bin").getAbsolutePath(), pattern)).isEqualTo("Foo: Second" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that an exception will be thrown, if no file name is defined.
+	 */
+	@Test
+	public void missingFileName() {
+		assertThatThrownBy(() -> new BinaryWriter(emptyMap())).hasMessageMatching("(?i).*file name .*");
+	}
+
+	/**
+	 * Verifies that the writer is registered as service under the name "binary".
+	 *
+	 * @throws IOException
+	 *             Failed creating temporary file
+	 */
+	@Test
+	public void isRegistered() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+		Writer writer = new ServiceLoader<>(Writer.class, Map.class).create("binary", doubletonMap("file", file, "buffered", "false"));
+		assertThat(writer).isInstanceOf(BinaryWriter.class);
+	}
+
+	/**
+	 * Decodes a binary log file.
+	 *
+	 * @param file
+	 *            Path to binary log file
+	 * @param pattern
+	 *            Format pattern for rendering log entries
+	 * @return Rendered log entries
+	 * @throws IOException
+	 *             Failed reading log file
+	 */
+	private static String decode(final String file, final String pattern) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		try (InputStream stream = new FileInputStream(file)) {
+			BinaryLogDecoder.decode(stream, pattern, new PrintStream(output, true, "UTF-8"));
+		}
+		return new String(output.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,500 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.channels.WritableByteChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+import org.tinylog.Level;
+import org.tinylog.configuration.ServiceLoader;
+import org.tinylog.core.LogEntry;
+import org.tinylog.core.LogEntryValue;
+import org.tinylog.rules.SystemStreamCollector;
+import org.tinylog.util.LogEntryBuilder;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.tinylog.util.Maps.doubletonMap;
+import static org.tinylog.util.Maps.tripletonMap;
+import static org.tinylog.util.ResultObserver.waitFor;
+
+/**
+ * Tests for {@link BufferedConsoleWriter}.
+ */
+public final class BufferedConsoleWriterTest {
+
+	private static final String NEW_LINE = System.lineSeparator();
+
+	/**
+	 * Redirects and collects system output streams.
+	 */
+	@Rule
+	public final SystemStreamCollector systemStream = new SystemStreamCollector(true);
+
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+	private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+	/**
+	 * Verifies that the log entry values of the format pattern and the severity level are required.
+	 *
+	 * @throws IOException
+	 *             Failed closing writer
+	 * @throws InterruptedException
+	 *             Interrupted while closing writer
+	 */
+	@Test
+	public void requiredLogEntryValues() throws IOException, InterruptedException {
+		BufferedConsoleWriter writer = new BufferedConsoleWriter(singletonMap("format", "{message}"));
+		try {
+			assertThat(writer.getRequiredLogEntryValues())
+				.containsOnly(LogEntryValue.LEVEL, LogEntryValue.MESSAGE, LogEntryValue.EXCEPTION);
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Verifies that log entries are written immediately to the standard or error output stream depending on their
+	 * severity level.
+	 *
+	 * @throws IOException
+	 *             Failed writing to output stream
+	 * @throws InterruptedException
+	 *             Interrupted while writing
+	 */
+	@Test
+	public void unbuffered() throws IOException, InterruptedException {
+		BufferedConsoleWriter writer = create(singletonMap("format", "{message}"));
+
+		writer.write(createLogEntry(Level.INFO, "Hello"));
+		assertThat(out.toString("UTF-8")).isEqualTo("Hello" + NEW_LINE);
+
+		writer.write(createLogEntry(Level.WARN, "World"));
+		assertThat(err.toString("UTF-8")).isEqualTo("World" + NEW_LINE);
+
+		writer.close();
+	}
+
+	/**
+	 * Verifies that all log entries are written to the standard output stream, if defined.
+	 *
+	 * @throws IOException
+	 *             Failed writing to output stream
+	 * @throws InterruptedException
+	 *             Interrupted while writing
+	 */
+	@Test
+	public void standardOutputStream() throws IOException, InterruptedException {
+		BufferedConsoleWriter writer = create(doubletonMap("format", "{message}", "stream", "out"));
+
+		writer.write(createLogEntry(Level.TRACE, "Hello"));
+		writer.write(createLogEntry(Level.ERROR, "World"));
+		writer.close();
+
+		assertThat(out.toString("UTF-8")).isEqualTo("Hello" + NEW_LINE + "World" + NEW_LINE);
+		assertThat(err.size()).isZero();
+	}
+
+	/**
+	 * Verifies that log entries are only written when flushing, if buffering is enabled.
+	 *
+	 * @throws IOException
+	 *             Failed writing to output stream
+	 * @throws InterruptedException
+	 *             Interrupted while writing
+	 */
+	@Test
+	public void buffered() throws IOException, InterruptedException {
+		BufferedConsoleWriter writer = create(doubletonMap("format", "{message}", "buffered", "true"));
+
+		writer.write(createLogEntry(Level.INFO, "Hello"));
+		writer.write(createLogEntry(Level.INFO, "World"));
+		assertThat(out.size()).isZero();
+
+		writer.flush();
+		assertThat(out.toString("UTF-8")).isEqualTo("Hello" + NEW_LINE + "World" + NEW_LINE);
+
+		writer.close();
+	}
+
+	/**
+	 * Verifies that buffered log entries are written periodically by the flush interval.
+	 *
+	 * @throws IOException
+	 *             Failed writing to output stream
+	 * @throws InterruptedException
+	 *             Interrupted while writing
+	 */
+	@Test
+	public void flushInterval() throws IOException, InterruptedException {
+		BufferedConsoleWriter writer = create(tripletonMap("format", "{message}", "buffered", "true", "flush.interval", "10ms"));
+
+		writer.write(createLogEntry(Level.INFO, "Hello World!"));
+		assertThat(waitFor(this::getStandardOutput, text -> !text.isEmpty(), 1000)).isEqualTo("Hello World!" + NEW_LINE);
+
+		writer.close();
+	}
+
+	/**
+	 * Verifies that log entries are written in their original order by the background thread, if asynchronous output
+	 * is enabled.
+	 *
+	 * @throws IOException
+	 *             Failed writing to output stream
+	 * @throws InterruptedException
+	 *             Interrupted while writing
+	 */
+	@Test
+	public void async() throws IOException, InterruptedException {
+		BufferedConsoleWriter writer = create(doubletonMap("format", "{message}", "async", "true"));
+
+		for (int i = 0; i < 100; ++i) {
+			writer.write(createLogEntry(Level.INFO, Integer.toString(i)));
+		}
+
+		writer.write(createLogEntry(Level.ERROR, "Done"));
+		writer.close();
+
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 100; ++i) {
+			expected.append(i).append(NEW_LINE);
+		}
+
+		assertThat(out.toString("UTF-8")).isEqualTo(expected.toString());
+		assertThat(err.toString("UTF-8")).isEqualTo("Done" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that new log entries are discarded without blocking and the number of discarded log entries is
+	 * reported, if the console is blocked and the policy "count" is configured.
+	 *
+	 * @throws IOException
+	 *             Failed writing to output stream
+	 * @throws InterruptedException
+	 *             Interrupted while writing
+	 */
+	@Test
+	public void countDiscardedLogEntries() throws IOException, InterruptedException {
+		Pipe pipe = Pipe.open();
+		BufferedConsoleWriter writer = createBlockable(pipe, "count");
+
+		String message = new String(new char[1024]).replace('\0', 'x');
+		for (int i = 0; i < 1000; ++i) {
+			writer.write(createLogEntry(Level.INFO, message));
+		}
+
+		Thread reader = drain(pipe);
+		writer.close();
+		reader.interrupt();
+
+		assertThat(systemStream.consumeErrorOutput()).contains("WARN").contains("discarded");
+	}
+
+	/**
+	 * Verifies that new log entries are discarded silently without blocking, if the console is blocked and the policy
+	 * "drop" is configured.
+	 *
+	 * @throws IOException
+	 *             Failed writing to output stream
+	 * @throws InterruptedException
+	 *             Interrupted while writing
+	 */
+	@Test
+	public void dropLogEntries() throws IOException, InterruptedException {
+		Pipe pipe = Pipe.open();
+		BufferedConsoleWriter writer = createBlockable(pipe, "drop");
+
+		String message = new String(new char[1024]).replace('\0', 'x');
+		for (int i = 0; i < 1000; ++i) {
+			writer.write(createLogEntry(Level.INFO, message));
+		}
+
+		Thread reader = drain(pipe);
+		writer.close();
+		reader.interrupt();
+
+		assertThat(systemStream.consumeErrorOutput()).isEmpty();
+	}
+
+	/**
+	 * Verifies that a failed write doesn't discard the remaining log entries of the same batch and that closing
+	 * doesn't wait for the close timeout, if writing fails.
+	 *
+	 * @throws IOException
+	 *             Failed writing to output stream
+	 * @throws InterruptedException
+	 *             Interrupted while writing
+	 */
+	@Test
+	public void continueAfterFailedWrite() throws IOException, InterruptedException {
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch released = new CountDownLatch(1);
+
+		BufferedConsoleWriter writer = new BufferedConsoleWriter(doubletonMap("format", "{message}", "async", "true"));
+		redirect(writer, new BlockingChannel(Channels.newChannel(out), blocked, released), new FailingChannel());
+
+		writer.write(createLogEntry(Level.INFO, "Start"));
+		blocked.await();
+
+		writer.write(createLogEntry(Level.ERROR, "Failed"));
+		writer.write(createLogEntry(Level.INFO, "Next"));
+		writer.write(createLogEntry(Level.INFO, "Last"));
+
+		Thread releaser = new Thread(() -> {
+			try {
+				Thread.sleep(200);
+			} catch (InterruptedException ex) {
+				// Ignore
+			}
+			released.countDown();
+		});
+		releaser.start();
+
+		long start = System.currentTimeMillis();
+		writer.close();
+		long duration = System.currentTimeMillis() - start;
+
+		assertThat(duration).isLessThan(4000);
+		assertThat(out.toString("UTF-8")).startsWith("Start" + NEW_LINE).endsWith("Last" + NEW_LINE);
+		assertThat(systemStream.consumeErrorOutput()).containsOnlyOnce("ERROR").contains("console");
+	}
+
+	/**
+	 * Verifies that a broken console is reported only once, even if writing fails for multiple batches.
+	 *
+	 * @throws IOException
+	 *             Failed writing to output stream
+	 * @throws InterruptedException
+	 *             Interrupted while writing
+	 */
+	@Test
+	public void reportBrokenConsoleOnce() throws IOException, InterruptedException {
+		BufferedConsoleWriter writer = new BufferedConsoleWriter(doubletonMap("format", "{message}", "async", "true"));
+		redirect(writer, new FailingChannel(), new FailingChannel());
+
+		for (int i = 0; i < 3; ++i) {
+			writer.write(createLogEntry(Level.INFO, "First"));
+			writer.write(createLogEntry(Level.INFO, "Second"));
+			Thread.sleep(50);
+		}
+
+		writer.close();
+
+		assertThat(systemStream.consumeErrorOutput()).containsOnlyOnce("ERROR").contains("console");
+	}
+
+	/**
+	 * Verifies that an error will be reported for an invalid policy for blocked consoles.
+	 *
+	 * @throws IOException
+	 *             Failed closing writer
+	 * @throws InterruptedException
+	 *             Interrupted while closing writer
+	 */
+	@Test
+	public void invalidPolicy() throws IOException, InterruptedException {
+		BufferedConsoleWriter writer = new BufferedConsoleWriter(doubletonMap("async", "true", "blocked", "skip"));
+		writer.close();
+
+		assertThat(systemStream.consumeErrorOutput()).containsOnlyOnce("ERROR").containsOnlyOnce("skip");
+	}
+
+	/**
+	 * Verifies that writer is registered as service under the name "buffered console".
+	 *
+	 * @throws Exception
+	 *             Failed closing writer
+	 */
+	@Test
+	public void isRegistered() throws Exception {
+		Writer writer = new ServiceLoader<>(Writer.class, Map.class).create("buffered console", emptyMap());
+		assertThat(writer).isInstanceOf(BufferedConsoleWriter.class);
+		writer.close();
+	}
+
+	/**
+	 * Creates a buffered console writer that writes into byte array output streams instead of the real console.
+	 *
+	 * @param properties
+	 *            Configuration for writer
+	 * @return Created writer
+	 */
+	private BufferedConsoleWriter create(final Map<String, String> properties) {
+		BufferedConsoleWriter writer = new BufferedConsoleWriter(properties);
+		redirect(writer, Channels.newChannel(out), Channels.newChannel(err));
+		return writer;
+	}
+
+	/**
+	 * Creates an asynchronous buffered console writer with a minimal queue that writes into a pipe.
+	 *
+	 * @param pipe
+	 *            Pipe to write into
+	 * @param policy
+	 *            Policy for a blocked console
+	 * @return Created writer
+	 */
+	private BufferedConsoleWriter createBlockable(final Pipe pipe, final String policy) {
+		Map<String, String> properties = new HashMap<>();
+		properties.put("format", "{message}");
+		properties.put("async", "true");
+		properties.put("queue", "1");
+		properties.put("blocked", policy);
+
+		BufferedConsoleWriter writer = new BufferedConsoleWriter(properties);
+		redirect(writer, pipe.sink(), pipe.sink());
+		return writer;
+	}
+
+	/**
+	 * Redirects the output of a buffered console writer.
+	 *
+	 * @param writer
+	 *            Writer to redirect
+	 * @param stdout
+	 *            New channel for the standard output stream
+	 * @param stderr
+	 *            New channel for the error output stream
+	 */
+	private static void redirect(final BufferedConsoleWriter writer, final WritableByteChannel stdout, final WritableByteChannel stderr) {
+		ConsoleChannel channel = Whitebox.getInternalState(writer, "channel");
+		Whitebox.setInternalState(channel, "out", stdout);
+		Whitebox.setInternalState(channel, "err", stderr);
+		Whitebox.setInternalState(channel, "current", stdout);
+	}
+
+	/**
+	 * Starts a daemon thread that reads all data from a pipe until it is interrupted.
+	 *
+	 * @param pipe
+	 *            Pipe to read from
+	 * @return Started thread
+	 */
+	private static Thread drain(final Pipe pipe) {
+		Thread thread = new Thread(() -> {
+			ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+			try {
+				while (pipe.source().read(buffer) >= 0) {
+					buffer.clear();
+				}
+			} catch (IOException ex) {
+				// Interrupted
+			}
+		});
+
+		thread.setDaemon(true);
+		thread.start();
+		return thread;
+	}
+
+	/**
+	 * Gets the content of the standard output stream.
+	 *
+	 * @return Written text
+	 */
+	private String getStandardOutput() {
+		return out.toString();
+	}
+
+	/**
+	 * Creates a log entry.
+	 *
+	 * @param level
+	 *            Severity level
+	 * @param message
+	 *            Text message
+	 * @return Created log entry
+	 */
+	private static LogEntry createLogEntry(final Level level, final String message) {
+		return LogEntryBuilder.empty().level(level).message(message).create();
+	}
+
+	/**
+	 * Channel that blocks the first write until it is released.
+	 */
+	private static final class BlockingChannel implements WritableByteChannel {
+
+		private final WritableByteChannel channel;
+		private final CountDownLatch blocked;
+		private final CountDownLatch released;
+
+		/**
+		 * @param channel
+		 *            Underlying channel for the actual output
+		 * @param blocked
+		 *            Latch to count down as soon as the first write is blocked
+		 * @param released
+		 *            Latch to await before writing
+		 */
+		private BlockingChannel(final WritableByteChannel channel, final CountDownLatch blocked, final CountDownLatch released) {
+			this.channel = channel;
+			this.blocked = blocked;
+			this.released = released;
+		}
+
+		@Override
+		public int write(final ByteBuffer buffer) throws IOException {
+			blocked.countDown();
+			try {
+				released.await();
+			} catch (InterruptedException ex) {
+				throw new IOException(ex);
+			}
+			return channel.write(buffer);
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+		}
+
+	}
+
+	/**
+	 * Channel that fails on every write.
+	 */
+	private static final class FailingChannel implements WritableByteChannel {
+
+		@Override
+		public int write(final ByteBuffer buffer) throws IOException {
+			throw new IOException("Broken pipe");
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+		}
+
+	}
+
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.tinylog.rules.SystemStreamCollector;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link Compression}.
+ */
+public final class CompressionTest {
+
+	/**
+	 * Redirects and collects system output streams.
+	 */
+	@Rule
+	public final SystemStreamCollector systemStream = new SystemStreamCollector(true);
+
+	/**
+	 * Temporary folder for creating volatile files.
+	 */
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Verifies that compression algorithms can be resolved case-insensitively by their names.
+	 */
+	@Test
+	public void resolveKnownCompressions() {
+		assertThat(Compression.resolve("gzip")).isEqualTo(Compression.GZIP);
+		assertThat(Compression.resolve("GZip")).isEqualTo(Compression.GZIP);
+		assertThat(Compression.resolve(" deflate ")).isEqualTo(Compression.DEFLATE);
+	}
+
+	/**
+	 * Verifies that {@code null}, an empty string and "none" disable compression.
+	 */
+	@Test
+	public void resolveNoCompression() {
+		assertThat(Compression.resolve(null)).isNull();
+		assertThat(Compression.resolve("")).isNull();
+		assertThat(Compression.resolve("none")).isNull();
+	}
+
+	/**
+	 * Verifies that an exception will be thrown for unknown compression algorithms.
+	 */
+	@Test
+	public void resolveUnknownCompression() {
+		assertThatThrownBy(() -> Compression.resolve("zstd")).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("zstd");
+	}
+
+	/**
+	 * Verifies that GZIP compressed data can be decompressed by {@link GZIPInputStream}.
+	 *
+	 * @throws IOException
+	 *             Failed to compress or decompress data
+	 */
+	@Test
+	public void gzip() throws IOException {
+		assertThat(Compression.GZIP.getExtension()).isEqualTo(".gz");
+
+		byte[] compressed = compress(Compression.GZIP, "Hello World!");
+		assertThat(decompress(new GZIPInputStream(new ByteArrayInputStream(compressed)))).isEqualTo("Hello World!");
+	}
+
+	/**
+	 * Verifies that deflate compressed data can be decompressed by {@link InflaterInputStream}.
+	 *
+	 * @throws IOException
+	 *             Failed to compress or decompress data
+	 */
+	@Test
+	public void deflate() throws IOException {
+		assertThat(Compression.DEFLATE.getExtension()).isEqualTo(".deflate");
+
+		byte[] compressed = compress(Compression.DEFLATE, "Hello World!");
+		assertThat(decompress(new InflaterInputStream(new ByteArrayInputStream(compressed)))).isEqualTo("Hello World!");
+	}
+
+	/**
+	 * Verifies that a file will be compressed via GZIP and the original file deleted.
+	 *
+	 * @throws IOException
+	 *             Failed to access files
+	 */
+	@Test
+	public void compressFileViaGzip() throws IOException {
+		File file = createFile("0.log", "Hello World!");
+		file.setLastModified(1000000);
+
+		File compressed = Compression.GZIP.compress(file);
+
+		assertThat(compressed).isEqualTo(new File(file.getPath() + ".gz"));
+		assertThat(file).doesNotExist();
+		assertThat(new File(compressed.getPath() + ".tmp")).doesNotExist();
+		assertThat(compressed.lastModified()).isEqualTo(1000000);
+		assertThat(decompress(new GZIPInputStream(new FileInputStream(compressed)))).isEqualTo("Hello World!");
+	}
+
+	/**
+	 * Verifies that a file will be compressed via deflate and the original file deleted.
+	 *
+	 * @throws IOException
+	 *             Failed to access files
+	 */
+	@Test
+	public void compressFileViaDeflate() throws IOException {
+		File file = createFile("0.log", "Hello World!");
+
+		File compressed = Compression.DEFLATE.compress(file);
+
+		assertThat(compressed).isEqualTo(new File(file.getPath() + ".deflate"));
+		assertThat(file).doesNotExist();
+		assertThat(decompress(new InflaterInputStream(new FileInputStream(compressed)))).isEqualTo("Hello World!");
+	}
+
+	/**
+	 * Verifies that missing files will be ignored silently.
+	 */
+	@Test
+	public void ignoreMissingFile() {
+		File file = new File(folder.getRoot(), "missing.log");
+
+		assertThat(Compression.GZIP.compress(file)).isNull();
+		assertThat(folder.getRoot().list()).isEmpty();
+		assertThat(systemStream.consumeErrorOutput()).isEmpty();
+	}
+
+	/**
+	 * Creates a file with text content in the temporary folder.
+	 *
+	 * @param name
+	 *            File name
+	 * @param content
+	 *            Text content for the file
+	 * @return Created file
+	 * @throws IOException
+	 *             Failed to create file
+	 */
+	private File createFile(final String name, final String content) throws IOException {
+		File file = folder.newFile(name);
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	/**
+	 * Compresses a text.
+	 *
+	 * @param compression
+	 *            Compression algorithm to use
+	 * @param text
+	 *            Text to compress
+	 * @return Compressed data
+	 * @throws IOException
+	 *             Failed to compress text
+	 */
+	private static byte[] compress(final Compression compression, final String text) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		try (OutputStream stream = compression.wrap(buffer)) {
+			stream.write(text.getBytes(StandardCharsets.UTF_8));
+		}
+		return buffer.toByteArray();
+	}
+
+	/**
+	 * Reads all data from a decompressing stream.
+	 *
+	 * @param stream
+	 *            Decompressing stream
+	 * @return Decompressed text
+	 * @throws IOException
+	 *             Failed to decompress data
+	 */
+	private static String decompress(final InputStream stream) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		try (InputStream input = stream) {
+			byte[] chunk = new byte[1024];
+			for (int count = input.read(chunk); count >= 0; count = input.read(chunk)) {
+				buffer.write(chunk, 0, count);
+			}
+		}
+		return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+}
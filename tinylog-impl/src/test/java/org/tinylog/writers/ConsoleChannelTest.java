@@ -0,0 +1,145 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ConsoleChannel}.
+ */
+public final class ConsoleChannelTest {
+
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+	private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+	/**
+	 * Verifies that texts are buffered until flushing.
+	 *
+	 * @throws IOException
+	 *             Failed writing to output stream
+	 */
+	@Test
+	public void buffering() throws IOException {
+		ConsoleChannel channel = create(StandardCharsets.UTF_8, 1024);
+
+		channel.write("Hello ", false);
+		channel.write("World!", false);
+		assertThat(out.size()).isZero();
+
+		channel.flush();
+		assertThat(out.toString("UTF-8")).isEqualTo("Hello World!");
+		assertThat(err.size()).isZero();
+	}
+
+	/**
+	 * Verifies that buffered data is written as soon as a text for the other stream is written.
+	 *
+	 * @throws IOException
+	 *             Failed writing to output stream
+	 */
+	@Test
+	public void switchingStreams() throws IOException {
+		ConsoleChannel channel = create(StandardCharsets.UTF_8, 1024);
+
+		channel.write("First", false);
+		channel.write("Second", true);
+		assertThat(out.toString("UTF-8")).isEqualTo("First");
+		assertThat(err.size()).isZero();
+
+		channel.write("Third", false);
+		assertThat(err.toString("UTF-8")).isEqualTo("Second");
+
+		channel.flush();
+		assertThat(out.toString("UTF-8")).isEqualTo("FirstThird");
+	}
+
+	/**
+	 * Verifies that texts that are larger than the buffer are written completely.
+	 *
+	 * @throws IOException
+	 *             Failed writing to output stream
+	 */
+	@Test
+	public void largeText() throws IOException {
+		ConsoleChannel channel = create(StandardCharsets.UTF_8, 4);
+
+		channel.write("Hello World!", false);
+		channel.flush();
+
+		assertThat(out.toString("UTF-8")).isEqualTo("Hello World!");
+	}
+
+	/**
+	 * Verifies that multibyte characters are encoded correctly, even if they do not fit into the remaining buffer.
+	 *
+	 * @throws IOException
+	 *             Failed writing to output stream
+	 */
+	@Test
+	public void multibyteCharacters() throws IOException {
+		ConsoleChannel channel = create(StandardCharsets.UTF_8, 1);
+
+		channel.write("äöü €", false);
+		channel.flush();
+
+		assertThat(out.toString("UTF-8")).isEqualTo("äöü €");
+	}
+
+	/**
+	 * Verifies that the passed charset is used for encoding.
+	 *
+	 * @throws IOException
+	 *             Failed writing to output stream
+	 */
+	@Test
+	public void charset() throws IOException {
+		ConsoleChannel channel = create(StandardCharsets.UTF_16BE, 1024);
+
+		channel.write("Hi", false);
+		channel.flush();
+
+		assertThat(out.toByteArray()).containsExactly(0, 'H', 0, 'i');
+	}
+
+	/**
+	 * Creates a console channel that writes into byte array output streams instead of the real console.
+	 *
+	 * @param charset
+	 *            Charset for encoding texts
+	 * @param capacity
+	 *            Size of the byte buffer in bytes
+	 * @return Created console channel
+	 */
+	private ConsoleChannel create(final Charset charset, final int capacity) {
+		WritableByteChannel stdout = Channels.newChannel(out);
+		WritableByteChannel stderr = Channels.newChannel(err);
+
+		ConsoleChannel channel = new ConsoleChannel(charset, capacity);
+		Whitebox.setInternalState(channel, "out", stdout);
+		Whitebox.setInternalState(channel, "err", stderr);
+		Whitebox.setInternalState(channel, "current", stdout);
+		return channel;
+	}
+
+}
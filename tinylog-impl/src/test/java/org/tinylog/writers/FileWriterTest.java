@@ -13,8 +13,10 @@
 
 package org.tinylog.writers;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.Map;
 
 import org.junit.Rule;
@@ -26,6 +28,10 @@ import org.tinylog.rules.SystemStreamCollector;
 import org.tinylog.util.FileSystem;
 import org.tinylog.util.LogEntryBuilder;
 import org.tinylog.writers.raw.ByteArrayWriter;
+import org.tinylog.writers.raw.DurableWriterDecorator;
+import org.tinylog.writers.raw.FileChannelWriter;
+import org.tinylog.writers.raw.MemoryMappedWriter;
+import org.tinylog.writers.raw.MultiBufferedWriterDecorator;
 import org.tinylog.writers.raw.SynchronizedWriterDecorator;
 
 import static java.util.Collections.emptyMap;
@@ -121,6 +127,229 @@ public final class FileWriterTest {
 		assertThat(FileSystem.readFile(file)).isEqualTo("Test" + NEW_LINE + "Hello World!" + NEW_LINE);
 	}
 
+	/**
+	 * Verifies that buffered log entries will be flushed periodically, if a flush interval is defined.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for the flush
+	 */
+	@Test
+	public void periodicFlushing() throws IOException, InterruptedException {
+		String file = FileSystem.createTemporaryFile();
+
+		Map<String, String> properties = new HashMap<>();
+		properties.put("file", file);
+		properties.put("format", "{message}");
+		properties.put("buffered", "true");
+		properties.put("flush.interval", "10ms");
+
+		FileWriter writer = new FileWriter(properties);
+		writer.write(LogEntryBuilder.empty().message("Hello World!").create());
+
+		for (int i = 0; i < 1000 && FileSystem.readFile(file).isEmpty(); ++i) {
+			Thread.sleep(10);
+		}
+
+		assertThat(FileSystem.readFile(file)).isEqualTo("Hello World!" + NEW_LINE);
+
+		writer.close();
+	}
+
+	/**
+	 * Verifies that log entries can be written via multiple buffers and a background thread.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 */
+	@Test
+	public void multiBufferedWriting() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+
+		Map<String, String> properties = new HashMap<>();
+		properties.put("file", file);
+		properties.put("format", "{message}");
+		properties.put("buffered", "true");
+		properties.put("buffers", "2");
+
+		FileWriter writer = new FileWriter(properties);
+		assertThat(Whitebox.<ByteArrayWriter>getInternalState(writer, "writer")).isInstanceOf(MultiBufferedWriterDecorator.class);
+
+		writer.write(LogEntryBuilder.empty().message("Hello World!").create());
+		assertThat(FileSystem.readFile(file)).isEmpty();
+
+		writer.flush();
+		assertThat(FileSystem.readFile(file)).isEqualTo("Hello World!" + NEW_LINE);
+
+		writer.close();
+	}
+
+	/**
+	 * Verifies that log entries can be written via a file channel with a configured buffer size.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 */
+	@Test
+	public void channelWriting() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+
+		Map<String, String> properties = new HashMap<>();
+		properties.put("file", file);
+		properties.put("format", "{message}");
+		properties.put("buffered", "true");
+		properties.put("writingthread", "true");
+		properties.put("io", "channel");
+		properties.put("buffersize", "1024");
+
+		FileWriter writer = new FileWriter(properties);
+		assertThat(Whitebox.<ByteArrayWriter>getInternalState(writer, "writer")).isInstanceOf(FileChannelWriter.class);
+
+		writer.write(LogEntryBuilder.empty().message("Hello World!").create());
+		assertThat(FileSystem.readFile(file)).isEmpty();
+
+		writer.flush();
+		assertThat(FileSystem.readFile(file)).isEqualTo("Hello World!" + NEW_LINE);
+
+		writer.close();
+	}
+
+	/**
+	 * Verifies that log files can be preallocated and are trimmed to their real length after closing.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 */
+	@Test
+	public void preallocatedWriting() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+
+		Map<String, String> properties = new HashMap<>();
+		properties.put("file", file);
+		properties.put("format", "{message}");
+		properties.put("preallocate", "4096");
+
+		FileWriter writer = new FileWriter(properties);
+		assertThat(Whitebox.<ByteArrayWriter>getInternalState(writer, "writer")).isInstanceOf(SynchronizedWriterDecorator.class);
+
+		writer.write(LogEntryBuilder.empty().message("Hello World!").create());
+		assertThat(new File(file).length()).isEqualTo(4096);
+
+		writer.close();
+		assertThat(FileSystem.readFile(file)).isEqualTo("Hello World!" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that log entries are written and forced with batch durability.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 */
+	@Test
+	public void batchDurability() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+
+		Map<String, String> properties = new HashMap<>();
+		properties.put("file", file);
+		properties.put("format", "{message}");
+		properties.put("buffered", "true");
+		properties.put("durability", "batch");
+
+		FileWriter writer = new FileWriter(properties);
+		assertThat(Whitebox.<ByteArrayWriter>getInternalState(writer, "writer")).isInstanceOf(DurableWriterDecorator.class);
+
+		writer.write(LogEntryBuilder.empty().message("Hello World!").create());
+		assertThat(FileSystem.readFile(file)).isEqualTo("Hello World!" + NEW_LINE);
+
+		writer.close();
+	}
+
+	/**
+	 * Verifies that log entries are forced periodically with interval durability, even without buffering.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 */
+	@Test
+	public void intervalDurability() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+
+		Map<String, String> properties = new HashMap<>();
+		properties.put("file", file);
+		properties.put("format", "{message}");
+		properties.put("durability", "interval: 100ms");
+
+		FileWriter writer = new FileWriter(properties);
+		assertThat(Whitebox.<ByteArrayWriter>getInternalState(writer, "writer")).isInstanceOf(DurableWriterDecorator.class);
+		assertThat(Whitebox.<FlushTask>getInternalState(writer, "flushTask")).isNotNull();
+
+		writer.write(LogEntryBuilder.empty().message("Hello World!").create());
+		writer.close();
+
+		assertThat(FileSystem.readFile(file)).isEqualTo("Hello World!" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that an invalid durability mode is reported and no durability is used.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 */
+	@Test
+	public void invalidDurability() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+
+		FileWriter writer = new FileWriter(tripletonMap("file", file, "format", "{message}", "durability", "always"));
+		assertThat(Whitebox.<ByteArrayWriter>getInternalState(writer, "writer")).isInstanceOf(SynchronizedWriterDecorator.class);
+		writer.close();
+
+		assertThat(systemStream.consumeErrorOutput()).containsOnlyOnce("ERROR").containsOnlyOnce("durability").containsOnlyOnce("always");
+	}
+
+	/**
+	 * Verifies that durability is ignored with a warning for memory-mapped files.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 */
+	@Test
+	public void durabilityForMemoryMappedFile() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+
+		FileWriter writer = new FileWriter(tripletonMap("file", file, "io", "mmap", "durability", "batch"));
+		assertThat(Whitebox.<ByteArrayWriter>getInternalState(writer, "writer")).isInstanceOf(SynchronizedWriterDecorator.class);
+		writer.close();
+
+		assertThat(systemStream.consumeErrorOutput()).containsOnlyOnce("WARN").containsOnlyOnce("memory-mapped");
+	}
+
+	/**
+	 * Verifies that log entries can be written via memory-mapping and the log file contains no garbage after closing.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 */
+	@Test
+	public void memoryMappedWriting() throws IOException {
+		String file = FileSystem.createTemporaryFile("Test");
+
+		Map<String, String> properties = new HashMap<>();
+		properties.put("file", file);
+		properties.put("format", "{message}");
+		properties.put("append", "true");
+		properties.put("writingthread", "true");
+		properties.put("io", "mmap");
+
+		FileWriter writer = new FileWriter(properties);
+		assertThat(Whitebox.<ByteArrayWriter>getInternalState(writer, "writer")).isInstanceOf(MemoryMappedWriter.class);
+
+		writer.write(LogEntryBuilder.empty().message("Hello World!").create());
+		writer.close();
+
+		assertThat(FileSystem.readFile(file)).isEqualTo("Test" + NEW_LINE + "Hello World!" + NEW_LINE);
+	}
+
 	/**
 	 * Verifies that writing works and underlying byte array writer is thread-safe, if writing thread is disable.
 	 *
@@ -221,6 +450,48 @@ public final class FileWriterTest {
 		assertThat(systemStream.consumeErrorOutput()).containsOnlyOnce("ERROR").containsOnlyOnce("charset").containsOnlyOnce("UTF-42");
 	}
 
+	/**
+	 * Verifies that an invalid I/O mode will be reported as error.
+	 *
+	 * @throws IOException
+	 *             Failed opening file
+	 */
+	@Test
+	public void invalidIoMode() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+		new FileWriter(doubletonMap("file", file, "io", "foo")).close();
+
+		assertThat(systemStream.consumeErrorOutput()).containsOnlyOnce("ERROR").containsOnlyOnce("I/O").containsOnlyOnce("foo");
+	}
+
+	/**
+	 * Verifies that an invalid buffer size will be reported as error.
+	 *
+	 * @throws IOException
+	 *             Failed opening file
+	 */
+	@Test
+	public void invalidBufferSize() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+		new FileWriter(doubletonMap("file", file, "buffersize", "-1")).close();
+
+		assertThat(systemStream.consumeErrorOutput()).containsOnlyOnce("ERROR").containsOnlyOnce("buffer size").containsOnlyOnce("-1");
+	}
+
+	/**
+	 * Verifies that an invalid flush interval will be reported as error.
+	 *
+	 * @throws IOException
+	 *             Failed opening file
+	 */
+	@Test
+	public void invalidFlushInterval() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+		new FileWriter(tripletonMap("file", file, "buffered", "true", "flush.interval", "soon")).close();
+
+		assertThat(systemStream.consumeErrorOutput()).containsOnlyOnce("ERROR").containsOnlyOnce("flush interval").containsOnlyOnce("soon");
+	}
+
 	/**
 	 * Verifies that writer is registered as service under the name "file".
 	 *
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.tinylog.rules.SystemStreamCollector;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link FlushTask}.
+ */
+public final class FlushTaskTest {
+
+	/**
+	 * Redirects and collects system output streams.
+	 */
+	@Rule
+	public final SystemStreamCollector systemStream = new SystemStreamCollector(true);
+
+	private FlushTask task;
+
+	/**
+	 * Cancels the created flush task.
+	 */
+	@After
+	public void cancel() {
+		if (task != null) {
+			task.cancel();
+		}
+	}
+
+	/**
+	 * Verifies that a dirty writer will be flushed.
+	 *
+	 * @throws Exception
+	 *             Failed to flush writer
+	 */
+	@Test
+	public void flushDirtyWriter() throws Exception {
+		Writer writer = mock(Writer.class);
+		task = new FlushTask(writer, 10);
+
+		task.markDirty();
+		verify(writer, timeout(TimeUnit.SECONDS.toMillis(10))).flush();
+	}
+
+	/**
+	 * Verifies that a clean writer will be not flushed.
+	 *
+	 * @throws Exception
+	 *             Failed to flush writer
+	 */
+	@Test
+	public void skipCleanWriter() throws Exception {
+		Writer writer = mock(Writer.class);
+		task = new FlushTask(writer, 10);
+
+		task.run();
+		verify(writer, never()).flush();
+	}
+
+	/**
+	 * Verifies that failed flushes will be reported as errors.
+	 *
+	 * @throws Exception
+	 *             Failed to flush writer
+	 */
+	@Test
+	public void reportFailedFlush() throws Exception {
+		Writer writer = mock(Writer.class);
+		doThrow(new IOException()).when(writer).flush();
+		task = new FlushTask(writer, TimeUnit.HOURS.toMillis(1));
+
+		task.markDirty();
+		task.run();
+
+		assertThat(systemStream.consumeErrorOutput()).containsOnlyOnce("ERROR").containsOnlyOnce("flush");
+	}
+
+	/**
+	 * Verifies that the shared timer thread is stopped after cancelling the last task.
+	 */
+	@Test
+	public void stopTimerAfterLastTask() {
+		FlushTask first = new FlushTask(mock(Writer.class), TimeUnit.HOURS.toMillis(1));
+		FlushTask second = new FlushTask(mock(Writer.class), TimeUnit.HOURS.toMillis(1));
+		assertThat(SharedTimer.isRunning()).isTrue();
+
+		assertThat(first.cancel()).isTrue();
+		assertThat(first.cancel()).isFalse();
+		assertThat(SharedTimer.isRunning()).isTrue();
+
+		assertThat(second.cancel()).isTrue();
+		assertThat(SharedTimer.isRunning()).isFalse();
+	}
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.tinylog.rules.SystemStreamCollector;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link HousekeepingThread}.
+ */
+public final class HousekeepingThreadTest {
+
+	/**
+	 * Redirects and collects system output streams.
+	 */
+	@Rule
+	public final SystemStreamCollector systemStream = new SystemStreamCollector(true);
+
+	/**
+	 * Verifies that the thread is a daemon thread with minimum priority and a tinylog specific name.
+	 */
+	@Test
+	public void threadProperties() {
+		HousekeepingThread thread = new HousekeepingThread();
+		assertThat(thread.isDaemon()).isTrue();
+		assertThat(thread.getPriority()).isEqualTo(Thread.MIN_PRIORITY);
+		assertThat(thread.getName()).isEqualTo("tinylog-HousekeepingThread");
+	}
+
+	/**
+	 * Verifies that all added tasks will be executed in order before the thread terminates after a shutdown.
+	 *
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for the thread
+	 */
+	@Test
+	public void executeTasksBeforeShutdown() throws InterruptedException {
+		List<Integer> executed = new ArrayList<>();
+
+		HousekeepingThread thread = new HousekeepingThread();
+		thread.start();
+		thread.add(() -> executed.add(1));
+		thread.add(() -> executed.add(2));
+		thread.add(() -> executed.add(3));
+		thread.shutdown();
+		thread.join();
+
+		assertThat(thread.isAlive()).isFalse();
+		assertThat(executed).containsExactly(1, 2, 3);
+	}
+
+	/**
+	 * Verifies that a failing task will be reported and does not stop the thread.
+	 *
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for the thread
+	 */
+	@Test
+	public void continueAfterFailedTask() throws InterruptedException {
+		List<Integer> executed = new ArrayList<>();
+
+		HousekeepingThread thread = new HousekeepingThread();
+		thread.start();
+		thread.add(() -> {
+			throw new IllegalStateException("Oops");
+		});
+		thread.add(() -> executed.add(42));
+		thread.shutdown();
+		thread.join();
+
+		assertThat(executed).containsExactly(42);
+		assertThat(systemStream.consumeErrorOutput()).containsOnlyOnce("ERROR").containsOnlyOnce("Oops");
+	}
+
+}
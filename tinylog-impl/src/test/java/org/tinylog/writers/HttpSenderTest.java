@@ -0,0 +1,186 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.tinylog.rules.SystemStreamCollector;
+import org.tinylog.util.IngestionServer;
+
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link HttpSender}.
+ */
+public final class HttpSenderTest {
+
+	/**
+	 * Redirects and collects system output streams.
+	 */
+	@Rule
+	public final SystemStreamCollector systemStream = new SystemStreamCollector(true);
+
+	/**
+	 * Verifies that the sender thread is a daemon thread with a meaningful name and terminates after taking the poison
+	 * batch.
+	 *
+	 * @throws Exception
+	 *             Failed creating URL or interrupted while waiting for termination
+	 */
+	@Test
+	public void threadProperties() throws Exception {
+		BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(1);
+		HttpSender sender = new HttpSender(queue, new URL("http://127.0.0.1/"), emptyMap(), false, 0);
+
+		assertThat(sender.getName()).isEqualTo("tinylog-HttpThread");
+		assertThat(sender.isDaemon()).isTrue();
+		assertThat(sender.getPriority()).isEqualTo(Thread.MIN_PRIORITY);
+
+		sender.start();
+		queue.put(HttpSender.POISON);
+		sender.join();
+
+		assertThat(sender.isAlive()).isFalse();
+	}
+
+	/**
+	 * Verifies that requests are retried with backoff on server errors and throttling.
+	 *
+	 * @throws Exception
+	 *             Failed sending or receiving batch
+	 */
+	@Test
+	public void retryOnServerErrors() throws Exception {
+		try (IngestionServer server = new IngestionServer()) {
+			server.respond(503, 429);
+
+			send(server, 2, "Hello");
+
+			assertThat(server.receive().getBody()).isEqualTo("Hello");
+			assertThat(server.receive().getBody()).isEqualTo("Hello");
+			assertThat(server.receive().getBody()).isEqualTo("Hello");
+			assertThat(server.poll()).isNull();
+			assertThat(systemStream.consumeErrorOutput()).isEmpty();
+		}
+	}
+
+	/**
+	 * Verifies that a batch is discarded after the maximum number of retries.
+	 *
+	 * @throws Exception
+	 *             Failed sending or receiving batch
+	 */
+	@Test
+	public void giveUpAfterRetries() throws Exception {
+		try (IngestionServer server = new IngestionServer()) {
+			server.respond(500, 500);
+
+			send(server, 1, "Hello");
+
+			assertThat(server.receive()).isNotNull();
+			assertThat(server.receive()).isNotNull();
+			assertThat(server.poll()).isNull();
+			assertThat(systemStream.consumeErrorOutput()).containsOnlyOnce("ERROR").contains("500");
+		}
+	}
+
+	/**
+	 * Verifies that requests are not retried on client errors.
+	 *
+	 * @throws Exception
+	 *             Failed sending or receiving batch
+	 */
+	@Test
+	public void noRetryOnClientErrors() throws Exception {
+		try (IngestionServer server = new IngestionServer()) {
+			server.respond(400);
+
+			send(server, 3, "Hello");
+
+			assertThat(server.receive()).isNotNull();
+			assertThat(server.poll()).isNull();
+			assertThat(systemStream.consumeErrorOutput()).containsOnlyOnce("ERROR").contains("400");
+		}
+	}
+
+	/**
+	 * Verifies that an error is reported after retries, if the endpoint is unreachable.
+	 *
+	 * @throws Exception
+	 *             Failed creating URL or interrupted while waiting for termination
+	 */
+	@Test
+	public void unreachableEndpoint() throws Exception {
+		String url;
+		try (IngestionServer server = new IngestionServer()) {
+			url = server.getUrl();
+		}
+
+		BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(2);
+		HttpSender sender = new HttpSender(queue, new URL(url), emptyMap(), false, 1);
+		sender.start();
+		queue.put("Hello".getBytes(StandardCharsets.UTF_8));
+		queue.put(HttpSender.POISON);
+		sender.join();
+
+		assertThat(systemStream.consumeErrorOutput()).containsOnlyOnce("ERROR").contains(url);
+	}
+
+	/**
+	 * Verifies that data can be compressed with gzip.
+	 *
+	 * @throws IOException
+	 *             Failed compressing or decompressing data
+	 */
+	@Test
+	public void compress() throws IOException {
+		byte[] data = "Hello World!".getBytes(StandardCharsets.UTF_8);
+		byte[] compressed = HttpSender.compress(data);
+
+		try (GZIPInputStream stream = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+			assertThat(stream.readAllBytes()).isEqualTo(data);
+		}
+	}
+
+	/**
+	 * Sends a single batch and waits until the sender thread has terminated.
+	 *
+	 * @param server
+	 *            Target server
+	 * @param retries
+	 *            Maximum number of retries
+	 * @param batch
+	 *            Text to send
+	 * @throws Exception
+	 *             Failed creating URL or interrupted while waiting for termination
+	 */
+	private static void send(final IngestionServer server, final int retries, final String batch) throws Exception {
+		BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(2);
+		HttpSender sender = new HttpSender(queue, new URL(server.getUrl()), emptyMap(), false, retries);
+		sender.start();
+		queue.put(batch.getBytes(StandardCharsets.UTF_8));
+		queue.put(HttpSender.POISON);
+		sender.join();
+	}
+
+}
@@ -0,0 +1,360 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+import org.tinylog.configuration.ServiceLoader;
+import org.tinylog.core.LogEntry;
+import org.tinylog.rules.SystemStreamCollector;
+import org.tinylog.util.IngestionServer;
+import org.tinylog.util.LogEntryBuilder;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link HttpWriter}.
+ */
+public final class HttpWriterTest {
+
+	private static final String NEW_LINE = System.lineSeparator();
+
+	/**
+	 * Redirects and collects system output streams.
+	 */
+	@Rule
+	public final SystemStreamCollector systemStream = new SystemStreamCollector(true);
+
+	/**
+	 * Verifies that all log entries of a batch are posted in one request when closing the writer.
+	 *
+	 * @throws Exception
+	 *             Failed writing or receiving log entries
+	 */
+	@Test
+	public void postBatchOnClose() throws Exception {
+		try (IngestionServer server = new IngestionServer()) {
+			HttpWriter writer = new HttpWriter(configure(server));
+			writer.write(entry("First"));
+			writer.write(entry("Second"));
+			writer.close();
+
+			IngestionServer.Request request = server.receive();
+			assertThat(request.getMethod()).isEqualTo("POST");
+			assertThat(request.getHeader("Content-Type")).isEqualTo("application/x-ndjson; charset=UTF-8");
+			assertThat(request.getHeader("Content-Encoding")).isNull();
+			assertThat(request.getBody()).isEqualTo("First" + NEW_LINE + "Second" + NEW_LINE);
+			assertThat(server.poll()).isNull();
+		}
+	}
+
+	/**
+	 * Verifies that a batch is posted as soon as it reaches the maximum size.
+	 *
+	 * @throws Exception
+	 *             Failed writing or receiving log entries
+	 */
+	@Test
+	public void sizeBoundedBatches() throws Exception {
+		try (IngestionServer server = new IngestionServer()) {
+			Map<String, String> properties = configure(server);
+			properties.put("batch.size", "10");
+
+			HttpWriter writer = new HttpWriter(properties);
+			writer.write(entry("12345"));
+			writer.write(entry("67890"));
+
+			assertThat(server.receive().getBody()).isEqualTo("12345" + NEW_LINE + "67890" + NEW_LINE);
+
+			writer.write(entry("ABC"));
+			writer.close();
+
+			assertThat(server.receive().getBody()).isEqualTo("ABC" + NEW_LINE);
+		}
+	}
+
+	/**
+	 * Verifies that a batch is posted as soon as it reaches the maximum age, even if no more log entries are written.
+	 *
+	 * @throws Exception
+	 *             Failed writing or receiving log entries
+	 */
+	@Test
+	public void timeBoundedBatches() throws Exception {
+		try (IngestionServer server = new IngestionServer()) {
+			Map<String, String> properties = configure(server);
+			properties.put("batch.interval", "50ms");
+
+			HttpWriter writer = new HttpWriter(properties);
+			writer.write(entry("Hello"));
+
+			assertThat(server.receive().getBody()).isEqualTo("Hello" + NEW_LINE);
+
+			writer.close();
+			assertThat(server.poll()).isNull();
+		}
+	}
+
+	/**
+	 * Verifies that a batch is not passed to the sender threads by flushing before it reaches the maximum age.
+	 *
+	 * @throws Exception
+	 *             Failed writing or receiving log entries
+	 */
+	@Test
+	public void flushYoungBatch() throws Exception {
+		try (IngestionServer server = new IngestionServer()) {
+			Map<String, String> properties = configure(server);
+			properties.put("batch.interval", "60s");
+
+			HttpWriter writer = new HttpWriter(properties);
+			writer.write(entry("Hello"));
+			writer.flush();
+			writer.write(entry("World"));
+			writer.close();
+
+			assertThat(server.receive().getBody()).isEqualTo("Hello" + NEW_LINE + "World" + NEW_LINE);
+			assertThat(server.poll()).isNull();
+		}
+	}
+
+	/**
+	 * Verifies that batches are compressed with gzip, if configured.
+	 *
+	 * @throws Exception
+	 *             Failed writing or receiving log entries
+	 */
+	@Test
+	public void gzipCompression() throws Exception {
+		try (IngestionServer server = new IngestionServer()) {
+			Map<String, String> properties = configure(server);
+			properties.put("compression", "gzip");
+
+			HttpWriter writer = new HttpWriter(properties);
+			writer.write(entry("Hello World!"));
+			writer.close();
+
+			IngestionServer.Request request = server.receive();
+			assertThat(request.getHeader("Content-Encoding")).isEqualTo("gzip");
+			assertThat(request.getBody()).isEqualTo("Hello World!" + NEW_LINE);
+		}
+	}
+
+	/**
+	 * Verifies that the content type and additional headers can be configured.
+	 *
+	 * @throws Exception
+	 *             Failed writing or receiving log entries
+	 */
+	@Test
+	public void customHeaders() throws Exception {
+		try (IngestionServer server = new IngestionServer()) {
+			Map<String, String> properties = configure(server);
+			properties.put("content.type", "text/plain");
+			properties.put("header.Authorization", "Bearer secret");
+
+			HttpWriter writer = new HttpWriter(properties);
+			writer.write(entry("Hello World!"));
+			writer.close();
+
+			IngestionServer.Request request = server.receive();
+			assertThat(request.getHeader("Content-Type")).isEqualTo("text/plain; charset=UTF-8");
+			assertThat(request.getHeader("Authorization")).isEqualTo("Bearer secret");
+		}
+	}
+
+	/**
+	 * Verifies that writing blocks if all requests are in flight and the queue is full.
+	 *
+	 * @throws Exception
+	 *             Failed writing or receiving log entries
+	 */
+	@Test
+	public void backPressure() throws Exception {
+		try (IngestionServer server = new IngestionServer()) {
+			Map<String, String> properties = configure(server);
+			properties.put("batch.size", "1");
+			properties.put("inflight", "1");
+			properties.put("queue", "1");
+
+			HttpWriter writer = new HttpWriter(properties);
+			server.hold();
+
+			writer.write(entry("1"));
+			assertThat(server.receive().getBody()).isEqualTo("1" + NEW_LINE);
+			writer.write(entry("2"));
+
+			AtomicInteger written = new AtomicInteger();
+			Thread thread = new Thread(() -> {
+				try {
+					writer.write(entry("3"));
+					written.incrementAndGet();
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			thread.start();
+
+			thread.join(100);
+			assertThat(thread.isAlive()).isTrue();
+			assertThat(written).hasValue(0);
+
+			server.release();
+			thread.join();
+			assertThat(written).hasValue(1);
+
+			writer.close();
+
+			assertThat(server.receive().getBody()).isEqualTo("2" + NEW_LINE);
+			assertThat(server.receive().getBody()).isEqualTo("3" + NEW_LINE);
+		}
+	}
+
+	/**
+	 * Verifies that closing does not block forever, if the endpoint does not respond, and discards all batches that
+	 * cannot be sent in time.
+	 *
+	 * @throws Exception
+	 *             Failed writing or receiving log entries
+	 */
+	@Test
+	public void discardUnsentBatchesOnClose() throws Exception {
+		try (IngestionServer server = new IngestionServer()) {
+			Map<String, String> properties = configure(server);
+			properties.put("batch.size", "1");
+			properties.put("inflight", "1");
+			properties.put("queue", "1");
+
+			HttpWriter writer = new HttpWriter(properties);
+			server.hold();
+
+			writer.write(entry("1"));
+			assertThat(server.receive().getBody()).isEqualTo("1" + NEW_LINE);
+			writer.write(entry("2"));
+
+			Whitebox.setInternalState(writer, "batchSize", 1024);
+			writer.write(entry("3"));
+
+			long start = System.currentTimeMillis();
+			writer.close();
+			assertThat(System.currentTimeMillis() - start).isBetween(9000L, 15000L);
+
+			assertThat(systemStream.consumeErrorOutput())
+				.containsOnlyOnce("ERROR")
+				.containsPattern("Discarded \\d+ bytes of log entries");
+
+			server.release();
+		}
+	}
+
+	/**
+	 * Verifies that a missing URL will be detected.
+	 */
+	@Test
+	public void missingUrl() {
+		assertThatThrownBy(() -> new HttpWriter(emptyMap())).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("URL");
+	}
+
+	/**
+	 * Verifies that an invalid URL will be detected.
+	 */
+	@Test
+	public void invalidUrl() {
+		assertThatThrownBy(() -> new HttpWriter(singletonMap("url", "foo://bar")))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("foo://bar");
+	}
+
+	/**
+	 * Verifies that invalid configuration values are reported and replaced by the defaults.
+	 *
+	 * @throws Exception
+	 *             Failed writing or receiving log entries
+	 */
+	@Test
+	public void invalidConfiguration() throws Exception {
+		try (IngestionServer server = new IngestionServer()) {
+			Map<String, String> properties = configure(server);
+			properties.put("batch.size", "-1");
+			properties.put("batch.interval", "soon");
+			properties.put("compression", "zip");
+			properties.put("inflight", "0");
+			properties.put("queue", "many");
+			properties.put("retries", "-2");
+
+			HttpWriter writer = new HttpWriter(properties);
+			writer.write(entry("Hello World!"));
+			writer.close();
+
+			assertThat(server.receive().getBody()).isEqualTo("Hello World!" + NEW_LINE);
+			assertThat(systemStream.consumeErrorOutput())
+				.contains("batch size")
+				.contains("batch interval")
+				.contains("compression")
+				.contains("requests in flight")
+				.contains("queue capacity")
+				.contains("retries");
+		}
+	}
+
+	/**
+	 * Verifies that writer is registered as service under the name "http".
+	 *
+	 * @throws Exception
+	 *             Failed closing writer
+	 */
+	@Test
+	public void isRegistered() throws Exception {
+		try (IngestionServer server = new IngestionServer()) {
+			Writer writer = new ServiceLoader<>(Writer.class, Map.class).create("http", singletonMap("url", server.getUrl()));
+			assertThat(writer).isInstanceOf(HttpWriter.class);
+			writer.close();
+		}
+	}
+
+	/**
+	 * Creates a configuration for posting plain messages to a server.
+	 *
+	 * @param server
+	 *            Target server
+	 * @return Modifiable configuration
+	 */
+	private static Map<String, String> configure(final IngestionServer server) {
+		Map<String, String> properties = new HashMap<>();
+		properties.put("url", server.getUrl());
+		properties.put("format", "{message}");
+		properties.put("charset", "UTF-8");
+		return properties;
+	}
+
+	/**
+	 * Creates a log entry with a message.
+	 *
+	 * @param message
+	 *            Text message
+	 * @return Created log entry
+	 */
+	private static LogEntry entry(final String message) {
+		return LogEntryBuilder.empty().message(message).create();
+	}
+
+}
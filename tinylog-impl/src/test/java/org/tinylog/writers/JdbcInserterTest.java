@@ -0,0 +1,219 @@
+/*
+ * Copyright 2017 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.assertj.db.type.Source;
+import org.assertj.db.type.Table;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+import org.tinylog.core.LogEntry;
+import org.tinylog.pattern.FormatPatternParser;
+import org.tinylog.pattern.Token;
+import org.tinylog.util.LogEntryBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.db.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link JdbcInserter}.
+ */
+public final class JdbcInserterTest {
+
+	private static final String PREFIX = "INSERT INTO LOGS (ID, MESSAGE) VALUES ";
+	private static final String ROW = "(?, ?)";
+
+	private String url;
+	private Connection connection;
+
+	/**
+	 * Creates a new in-memory database with an empty table.
+	 *
+	 * @throws SQLException
+	 *             Failed to create database
+	 */
+	@Before
+	public void init() throws SQLException {
+		url = "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+		connection = DriverManager.getConnection(url);
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE LOGS (ID INT NOT NULL, MESSAGE CLOB NULL)");
+		}
+	}
+
+	/**
+	 * Shutdowns the in-memory database.
+	 *
+	 * @throws SQLException
+	 *             Failed to shutdown database
+	 */
+	@After
+	public void shutdown() throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("SHUTDOWN");
+		}
+		connection.close();
+	}
+
+	/**
+	 * Verifies that log entries can be inserted via JDBC batch execution.
+	 *
+	 * @throws SQLException
+	 *             Failed to access database
+	 */
+	@Test
+	public void batchExecution() throws SQLException {
+		JdbcInserter inserter = new JdbcInserter(PREFIX, ROW, createTokens(), false, 10);
+		inserter.insert(connection, createEntries(0, 7));
+
+		assertThat(new Table(new Source(url, null, null), "LOGS"))
+			.hasNumberOfRows(7)
+			.column("ID").value(0).isEqualTo(0).value(6).isEqualTo(6)
+			.column("MESSAGE").value(0).isEqualTo("#0");
+		assertThat(Whitebox.<Map<Integer, ?>>getInternalState(inserter, "statements")).containsOnlyKeys(1);
+	}
+
+	/**
+	 * Verifies that multi-row inserts split batches into chunks of the maximum size and chunks whose sizes are powers
+	 * of two.
+	 *
+	 * @throws SQLException
+	 *             Failed to access database
+	 */
+	@Test
+	public void multiRowChunks() throws SQLException {
+		JdbcInserter inserter = new JdbcInserter(PREFIX, ROW, createTokens(), true, 16);
+		inserter.insert(connection, createEntries(0, 37));
+
+		assertThat(new Table(new Source(url, null, null), "LOGS"))
+			.hasNumberOfRows(37)
+			.column("ID").value(0).isEqualTo(0).value(36).isEqualTo(36)
+			.column("MESSAGE").value(36).isEqualTo("#36");
+		assertThat(Whitebox.<Map<Integer, ?>>getInternalState(inserter, "statements")).containsOnlyKeys(16, 4, 1);
+	}
+
+	/**
+	 * Verifies that cached prepared statements are discarded, if a different connection is passed.
+	 *
+	 * @throws SQLException
+	 *             Failed to access database
+	 */
+	@Test
+	public void changedConnection() throws SQLException {
+		JdbcInserter inserter = new JdbcInserter(PREFIX, ROW, createTokens(), true, 16);
+		inserter.insert(connection, createEntries(0, 2));
+
+		try (Connection other = DriverManager.getConnection(url)) {
+			inserter.insert(other, createEntries(2, 1));
+			assertThat(Whitebox.<Map<Integer, ?>>getInternalState(inserter, "statements")).containsOnlyKeys(1);
+		}
+
+		assertThat(new Table(new Source(url, null, null), "LOGS")).hasNumberOfRows(3);
+	}
+
+	/**
+	 * Verifies that only log entries of failed multi-row chunks remain in the passed list, if inserting fails.
+	 *
+	 * @throws SQLException
+	 *             Failed to access database
+	 */
+	@Test
+	public void keepFailedChunks() throws SQLException {
+		addPrimaryKey(20);
+
+		JdbcInserter inserter = new JdbcInserter(PREFIX, ROW, createTokens(), true, 16);
+		List<LogEntry> entries = createEntries(0, 37);
+
+		assertThatThrownBy(() -> inserter.insert(connection, entries)).isInstanceOf(SQLException.class);
+		assertThat(entries).hasSize(21);
+		assertThat(entries.get(0).getMessage()).isEqualTo("#16");
+
+		assertThat(new Table(new Source(url, null, null), "LOGS")).hasNumberOfRows(17);
+	}
+
+	/**
+	 * Verifies that only failed log entries of a JDBC batch execution remain in the passed list, if inserting fails.
+	 *
+	 * @throws SQLException
+	 *             Failed to access database
+	 */
+	@Test
+	public void keepFailedBatchEntries() throws SQLException {
+		addPrimaryKey(3);
+
+		JdbcInserter inserter = new JdbcInserter(PREFIX, ROW, createTokens(), false, 10);
+		List<LogEntry> entries = createEntries(0, 7);
+
+		assertThatThrownBy(() -> inserter.insert(connection, entries)).isInstanceOf(SQLException.class);
+		assertThat(entries).extracting(LogEntry::getMessage).containsExactly("#3");
+
+		assertThat(new Table(new Source(url, null, null), "LOGS")).hasNumberOfRows(7);
+	}
+
+	/**
+	 * Adds a primary key to the ID column and inserts an existing row with the passed ID.
+	 *
+	 * @param id
+	 *            ID of the existing row
+	 * @throws SQLException
+	 *             Failed to access database
+	 */
+	private void addPrimaryKey(final int id) throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("ALTER TABLE LOGS ADD PRIMARY KEY (ID)");
+			statement.execute("INSERT INTO LOGS (ID, MESSAGE) VALUES (" + id + ", 'Existing')");
+		}
+	}
+
+	/**
+	 * Creates tokens for the columns ID and MESSAGE.
+	 *
+	 * @return Tokens for message text and numeric ID
+	 */
+	private static List<Token> createTokens() {
+		FormatPatternParser parser = new FormatPatternParser(null);
+		return Arrays.asList(parser.parse("{context: id}"), parser.parse("{message}"));
+	}
+
+	/**
+	 * Creates log entries with consecutive IDs. The ID is stored in the thread context and the message is the ID
+	 * prefixed with "#".
+	 *
+	 * @param start
+	 *            First ID
+	 * @param count
+	 *            Number of log entries
+	 * @return Created log entries
+	 */
+	private static List<LogEntry> createEntries(final int start, final int count) {
+		List<LogEntry> entries = new ArrayList<>();
+		for (int i = start; i < start + count; ++i) {
+			entries.add(LogEntryBuilder.empty().context("id", Integer.toString(i)).message("#" + i).create());
+		}
+		return entries;
+	}
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2017 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.tinylog.Level;
+import org.tinylog.core.LogEntry;
+import org.tinylog.util.LogEntryBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link JdbcSpillJournal}.
+ */
+public final class JdbcSpillJournalTest {
+
+	/**
+	 * Temporary folder for creating journal files.
+	 */
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Verifies that stored log entries are replayed in batches and in the original order, and that the journal file is
+	 * deleted after all log entries have been replayed.
+	 *
+	 * @throws IOException
+	 *             Failed to access journal file
+	 */
+	@Test
+	public void replayInBatches() throws IOException {
+		File file = new File(folder.getRoot(), "journal.bin");
+		JdbcSpillJournal journal = new JdbcSpillJournal(file.getPath(), Integer.MAX_VALUE, Level.WARN, 0);
+		assertThat(journal.isEmpty()).isTrue();
+
+		for (int i = 0; i < 5; ++i) {
+			assertThat(journal.append(createEntry(Level.INFO, "#" + i))).isTrue();
+		}
+		assertThat(journal.isEmpty()).isFalse();
+		assertThat(file).exists();
+
+		assertThat(journal.replay(3)).extracting(LogEntry::getMessage).containsExactly("#0", "#1", "#2");
+		assertThat(journal.replay(3)).extracting(LogEntry::getMessage).containsExactly("#3", "#4");
+		assertThat(journal.isEmpty()).isTrue();
+		assertThat(file).doesNotExist();
+
+		journal.close();
+	}
+
+	/**
+	 * Verifies that log entries, which are appended while replaying, are replayed as well.
+	 *
+	 * @throws IOException
+	 *             Failed to access journal file
+	 */
+	@Test
+	public void appendWhileReplaying() throws IOException {
+		File file = new File(folder.getRoot(), "journal.bin");
+		JdbcSpillJournal journal = new JdbcSpillJournal(file.getPath(), Integer.MAX_VALUE, Level.WARN, 0);
+
+		journal.append(createEntry(Level.INFO, "One"));
+		journal.append(createEntry(Level.INFO, "Two"));
+		assertThat(journal.replay(1)).extracting(LogEntry::getMessage).containsExactly("One");
+
+		journal.append(createEntry(Level.INFO, "Three"));
+		assertThat(journal.replay(10)).extracting(LogEntry::getMessage).containsExactly("Two", "Three");
+		assertThat(journal.isEmpty()).isTrue();
+
+		journal.close();
+	}
+
+	/**
+	 * Verifies that batches are not replayed more often than the defined replay interval.
+	 *
+	 * @throws IOException
+	 *             Failed to access journal file
+	 */
+	@Test
+	public void throttleReplay() throws IOException {
+		File file = new File(folder.getRoot(), "journal.bin");
+		JdbcSpillJournal journal = new JdbcSpillJournal(file.getPath(), Integer.MAX_VALUE, Level.WARN, 60_000);
+
+		journal.append(createEntry(Level.INFO, "One"));
+		journal.append(createEntry(Level.INFO, "Two"));
+
+		assertThat(journal.replay(1)).extracting(LogEntry::getMessage).containsExactly("One");
+		assertThat(journal.replay(1)).isEmpty();
+		assertThat(journal.isEmpty()).isFalse();
+
+		journal.close();
+	}
+
+	/**
+	 * Verifies that log entries below the priority level can only fill half of the journal, while log entries with
+	 * the priority level or higher can use the entire journal.
+	 *
+	 * @throws IOException
+	 *             Failed to access journal file
+	 */
+	@Test
+	public void prioritizeByLevel() throws IOException {
+		File file = new File(folder.getRoot(), "journal.bin");
+		JdbcSpillJournal journal = new JdbcSpillJournal(file.getPath(), 1000, Level.WARN, 0);
+
+		int info = 0;
+		while (journal.append(createEntry(Level.INFO, "Hello World!"))) {
+			info += 1;
+		}
+
+		int errors = 0;
+		while (journal.append(createEntry(Level.ERROR, "Hello World!"))) {
+			errors += 1;
+		}
+
+		assertThat(info).isGreaterThan(0);
+		assertThat(errors).isGreaterThan(0);
+		assertThat(file.length()).isGreaterThanOrEqualTo(1000).isLessThan(1100);
+		assertThat(journal.append(createEntry(Level.INFO, "Hello World!"))).isFalse();
+
+		List<LogEntry> entries = journal.replay(Integer.MAX_VALUE);
+		assertThat(entries).hasSize(info + errors);
+		assertThat(entries.get(info - 1).getLevel()).isEqualTo(Level.INFO);
+		assertThat(entries.get(info).getLevel()).isEqualTo(Level.ERROR);
+
+		journal.close();
+	}
+
+	/**
+	 * Verifies that a journal, which has not been replayed completely, can be continued after reopening and that
+	 * already replayed log entries are not replayed again.
+	 *
+	 * @throws IOException
+	 *             Failed to access journal file
+	 */
+	@Test
+	public void continueAfterReopening() throws IOException {
+		File file = new File(folder.getRoot(), "journal.bin");
+
+		JdbcSpillJournal journal = new JdbcSpillJournal(file.getPath(), Integer.MAX_VALUE, Level.WARN, 0);
+		for (int i = 0; i < 4; ++i) {
+			journal.append(createEntry(Level.INFO, "#" + i));
+		}
+		assertThat(journal.replay(1)).extracting(LogEntry::getMessage).containsExactly("#0");
+		journal.close();
+
+		journal = new JdbcSpillJournal(file.getPath(), Integer.MAX_VALUE, Level.WARN, 0);
+		assertThat(journal.isEmpty()).isFalse();
+		journal.append(createEntry(Level.INFO, "#4"));
+
+		List<LogEntry> entries = new ArrayList<>(journal.replay(10));
+		assertThat(entries).extracting(LogEntry::getMessage).containsExactly("#1", "#2", "#3", "#4");
+		assertThat(file).doesNotExist();
+
+		journal.close();
+		assertThat(new File(file.getPath() + ".tmp")).doesNotExist();
+	}
+
+	/**
+	 * Creates a log entry with a severity level and a text message.
+	 *
+	 * @param level
+	 *            Severity level
+	 * @param message
+	 *            Text message
+	 * @return Created log entry
+	 */
+	private static LogEntry createEntry(final Level level, final String message) {
+		return LogEntryBuilder.empty().date(LocalDateTime.now()).level(level).message(message).create();
+	}
+
+}
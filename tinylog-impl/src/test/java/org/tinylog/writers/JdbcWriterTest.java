@@ -13,8 +13,10 @@
 
 package org.tinylog.writers;
 
+import java.io.File;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Arrays;
@@ -35,10 +37,12 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameters;
 import org.powermock.reflect.Whitebox;
+import org.tinylog.Level;
 import org.tinylog.configuration.ServiceLoader;
 import org.tinylog.core.LogEntryValue;
 import org.tinylog.rules.InitialContextRule;
@@ -587,6 +591,454 @@ public final class JdbcWriterTest {
 
 	}
 
+	/**
+	 * Tests related to batch sizes, batch intervals, multi-row inserts and insert threads.
+	 */
+	public static final class Batching extends AbstractTest {
+
+		/**
+		 * Redirects and collects system output streams.
+		 */
+		@Rule
+		public final SystemStreamCollector systemStream = new SystemStreamCollector(true);
+
+		/**
+		 * Verifies that log entries will be inserted after reaching a configured batch size.
+		 *
+		 * @throws NamingException
+		 *             Failed to find data source
+		 * @throws SQLException
+		 *             Failed to access database
+		 */
+		@Test
+		public void customBatchSize() throws NamingException, SQLException {
+			createTable("MESSAGE CLOB NULL");
+
+			JdbcWriter writer = new JdbcWriter(createProperties(singletonMap("MESSAGE", "{message}"),
+				doubletonMap("batch", "true", "batch.size", "10")));
+
+			for (int i = 0; i < 9; ++i) {
+				writer.write(LogEntryBuilder.empty().message("Hello World!").create());
+			}
+			assertThat(fetchTable(TABLE_NAME)).isEmpty();
+
+			writer.write(LogEntryBuilder.empty().message("Hello World!").create());
+			assertThat(fetchTable(TABLE_NAME)).hasNumberOfRows(10);
+
+			writer.close();
+		}
+
+		/**
+		 * Verifies that an invalid batch size will be reported and the default batch size will be used instead.
+		 *
+		 * @throws NamingException
+		 *             Failed to find data source
+		 * @throws SQLException
+		 *             Failed to access database
+		 */
+		@Test
+		public void invalidBatchSize() throws NamingException, SQLException {
+			createTable("MESSAGE CLOB NULL");
+
+			JdbcWriter writer = new JdbcWriter(createProperties(singletonMap("MESSAGE", "{message}"),
+				doubletonMap("batch", "true", "batch.size", "0")));
+
+			assertThat(systemStream.consumeErrorOutput()).containsOnlyOnce("ERROR").containsOnlyOnce("batch size");
+			assertThat(Whitebox.<Integer>getInternalState(writer, "batchSize")).isEqualTo(100);
+
+			writer.close();
+		}
+
+		/**
+		 * Verifies that partial batches will be inserted at the latest after the configured batch interval.
+		 *
+		 * @throws NamingException
+		 *             Failed to find data source
+		 * @throws SQLException
+		 *             Failed to access database
+		 * @throws InterruptedException
+		 *             Interrupted while waiting for the insertion
+		 */
+		@Test
+		public void batchInterval() throws NamingException, SQLException, InterruptedException {
+			createTable("MESSAGE CLOB NULL");
+
+			JdbcWriter writer = new JdbcWriter(createProperties(singletonMap("MESSAGE", "{message}"),
+				doubletonMap("batch", "true", "batch.interval", "100ms")));
+
+			writer.write(LogEntryBuilder.empty().message("Hello World!").create());
+			awaitRows(1);
+			assertThat(fetchTable(TABLE_NAME)).column("MESSAGE").containsValues("Hello World!");
+
+			writer.close();
+		}
+
+		/**
+		 * Verifies that full and partial batches will be inserted correctly via multi-row insert statements.
+		 *
+		 * @throws NamingException
+		 *             Failed to find data source
+		 * @throws SQLException
+		 *             Failed to access database
+		 */
+		@Test
+		public void multiRowInsertion() throws NamingException, SQLException {
+			createTable("ID INT NOT NULL", "LEVEL VARCHAR(7) NOT NULL");
+
+			JdbcWriter writer = new JdbcWriter(createProperties(doubletonMap("ID", "{message}", "LEVEL", "{level}"),
+				tripletonMap("batch", "true", "batch.multirow", "true", "batch.size", "64")));
+
+			for (int i = 0; i < 37; ++i) {
+				writer.write(LogEntryBuilder.empty().level(Level.INFO).message(Integer.toString(i)).create());
+			}
+			assertThat(fetchTable(TABLE_NAME)).isEmpty();
+
+			writer.flush();
+			assertThat(fetchTable(TABLE_NAME))
+				.hasNumberOfRows(37)
+				.column("ID").value(0).isEqualTo(0).value(36).isEqualTo(36)
+				.column("LEVEL").value(0).isEqualTo("INFO");
+
+			for (int i = 37; i < 37 + 64; ++i) {
+				writer.write(LogEntryBuilder.empty().level(Level.INFO).message(Integer.toString(i)).create());
+			}
+			assertThat(fetchTable(TABLE_NAME)).hasNumberOfRows(37 + 64).column("ID").value(100).isEqualTo(100);
+
+			writer.close();
+		}
+
+		/**
+		 * Verifies that insert threads insert all log entries from full and partial batches.
+		 *
+		 * @throws NamingException
+		 *             Failed to find data source
+		 * @throws SQLException
+		 *             Failed to access database
+		 */
+		@Test
+		public void insertThreads() throws NamingException, SQLException {
+			createTable("MESSAGE CLOB NULL");
+
+			Map<String, String> extras = new HashMap<>();
+			extras.put("batch", "true");
+			extras.put("batch.size", "10");
+			extras.put("insert.threads", "2");
+			JdbcWriter writer = new JdbcWriter(createProperties(singletonMap("MESSAGE", "{message}"), extras));
+
+			for (int i = 0; i < 1005; ++i) {
+				writer.write(LogEntryBuilder.empty().message("Hello World!").create());
+			}
+
+			writer.close();
+			assertThat(fetchTable(TABLE_NAME)).hasNumberOfRows(1005);
+			assertThat(Thread.getAllStackTraces().keySet()).extracting(Thread::getName).doesNotContain("tinylog-JdbcInsertThread");
+		}
+
+		/**
+		 * Verifies that insert threads insert partial batches after flushing.
+		 *
+		 * @throws NamingException
+		 *             Failed to find data source
+		 * @throws SQLException
+		 *             Failed to access database
+		 * @throws InterruptedException
+		 *             Interrupted while waiting for the insertion
+		 */
+		@Test
+		public void insertThreadsFlush() throws NamingException, SQLException, InterruptedException {
+			createTable("MESSAGE CLOB NULL");
+
+			Map<String, String> extras = new HashMap<>();
+			extras.put("batch", "true");
+			extras.put("batch.multirow", "true");
+			extras.put("insert.threads", "1");
+			JdbcWriter writer = new JdbcWriter(createProperties(singletonMap("MESSAGE", "{message}"), extras));
+
+			writer.write(LogEntryBuilder.empty().message("One").create());
+			writer.write(LogEntryBuilder.empty().message("Two").create());
+			writer.write(LogEntryBuilder.empty().message("Three").create());
+			writer.flush();
+
+			awaitRows(3);
+			assertThat(fetchTable(TABLE_NAME)).column("MESSAGE").containsValues("One", "Two", "Three");
+
+			writer.close();
+		}
+
+		/**
+		 * Verifies that insert threads report lost log entries, if the database is not available.
+		 *
+		 * @throws NamingException
+		 *             Failed to find data source
+		 * @throws SQLException
+		 *             Failed to access database
+		 */
+		@Test
+		public void insertThreadsLostEntries() throws NamingException, SQLException {
+			createTable("MESSAGE CLOB NULL");
+
+			JdbcWriter writer = new JdbcWriter(createProperties(singletonMap("MESSAGE", "{message}"),
+				doubletonMap("batch", "true", "insert.threads", "1")));
+
+			shutdownDatabase();
+
+			writer.write(LogEntryBuilder.empty().message("One").create());
+			writer.write(LogEntryBuilder.empty().message("Two").create());
+			writer.close();
+
+			assertThat(systemStream.consumeErrorOutput())
+				.contains("Failed to connect to database")
+				.containsOnlyOnce("Lost log entries due to broken database connection: 2");
+		}
+
+		/**
+		 * Waits until the default table contains a defined number of rows.
+		 *
+		 * @param rows
+		 *            Expected number of rows
+		 * @throws SQLException
+		 *             Failed to access database
+		 * @throws InterruptedException
+		 *             Interrupted while waiting
+		 */
+		private void awaitRows(final int rows) throws SQLException, InterruptedException {
+			long timeout = System.currentTimeMillis() + 5000;
+			while (countRows() < rows && System.currentTimeMillis() < timeout) {
+				Thread.sleep(10);
+			}
+		}
+
+		/**
+		 * Counts the rows in the default table.
+		 *
+		 * @return Number of rows
+		 * @throws SQLException
+		 *             Failed to access database
+		 */
+		private int countRows() throws SQLException {
+			try (Connection connection = DriverManager.getConnection(getUrl())) {
+				try (Statement statement = connection.createStatement()) {
+					try (ResultSet result = statement.executeQuery("SELECT COUNT(*) FROM " + TABLE_NAME)) {
+						result.next();
+						return result.getInt(1);
+					}
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * Tests related to the spill journal for log entries during database outages.
+	 */
+	public static final class Spilling extends AbstractTest {
+
+		/**
+		 * Redirects and collects system output streams.
+		 */
+		@Rule
+		public final SystemStreamCollector systemStream = new SystemStreamCollector(true);
+
+		/**
+		 * Temporary folder for creating spill journals.
+		 */
+		@Rule
+		public final TemporaryFolder folder = new TemporaryFolder();
+
+		/**
+		 * Verifies that log entries are stored in the spill journal while the database connection is broken, and
+		 * replayed after the database connection has been reestablished.
+		 *
+		 * @throws NamingException
+		 *             Failed to find data source
+		 * @throws SQLException
+		 *             Failed to access database
+		 * @throws InterruptedException
+		 *             Failed to sleep before reconnecting try
+		 */
+		@Test
+		public void spillAndReplay() throws NamingException, SQLException, InterruptedException {
+			createTable("MESSAGE CLOB NULL");
+
+			File journal = new File(folder.getRoot(), "journal.bin");
+			Map<String, String> extras = doubletonMap("reconnect", "true", "spill", journal.getPath());
+			JdbcWriter writer = new JdbcWriter(createProperties(singletonMap("MESSAGE", "{message}"), extras));
+
+			writer.write(LogEntryBuilder.empty().message("One").create());
+			assertThat(fetchTable(TABLE_NAME)).column("MESSAGE").containsValues("One");
+
+			shutdownDatabase();
+
+			assertThatThrownBy(() -> {
+				writer.write(LogEntryBuilder.empty().message("Two").create());
+			}).isInstanceOf(SQLException.class);
+
+			writer.write(LogEntryBuilder.empty().message("Three").create());
+			assertThat(journal).exists();
+
+			createTable("MESSAGE CLOB NULL");
+
+			Thread.sleep(1000);
+
+			writer.write(LogEntryBuilder.empty().message("Four").create());
+			writer.close();
+
+			assertThat(fetchTable(TABLE_NAME)).column("MESSAGE").containsValues("Two", "Three", "Four");
+			assertThat(journal).doesNotExist();
+		}
+
+		/**
+		 * Verifies that log entries with a high severity level survive a database outage even if the spill journal is
+		 * full of log entries with lower severity levels, and that the spill journal is replayed after restarting.
+		 *
+		 * @throws NamingException
+		 *             Failed to find data source
+		 * @throws SQLException
+		 *             Failed to access database
+		 * @throws InterruptedException
+		 *             Interrupted while waiting for the replay
+		 */
+		@Test
+		public void prioritizeAndReplayAfterRestart() throws NamingException, SQLException, InterruptedException {
+			createTable("LEVEL VARCHAR(5) NOT NULL", "MESSAGE CLOB NULL");
+
+			File journal = new File(folder.getRoot(), "journal.bin");
+			Map<String, String> extras = new HashMap<>();
+			extras.put("reconnect", "true");
+			extras.put("batch", "true");
+			extras.put("batch.size", "10");
+			extras.put("spill", journal.getPath());
+			extras.put("spill.size", "1000");
+			extras.put("spill.priority", "error");
+			extras.put("spill.interval", "10ms");
+			Map<String, String> fields = doubletonMap("LEVEL", "{level}", "MESSAGE", "{message}");
+
+			JdbcWriter writer = new JdbcWriter(createProperties(fields, extras));
+			shutdownDatabase();
+
+			for (int i = 0; i < 9; ++i) {
+				writer.write(LogEntryBuilder.empty().level(Level.INFO).message("Hello World!").create());
+			}
+			assertThatThrownBy(() -> {
+				writer.write(LogEntryBuilder.empty().level(Level.INFO).message("Hello World!").create());
+			}).isInstanceOf(SQLException.class);
+			for (int i = 10; i < 200; ++i) {
+				writer.write(LogEntryBuilder.empty().level(Level.INFO).message("Hello World!").create());
+			}
+			for (int i = 0; i < 5; ++i) {
+				writer.write(LogEntryBuilder.empty().level(Level.ERROR).message("Important!").create());
+			}
+			writer.close();
+
+			assertThat(systemStream.consumeErrorOutput()).containsOnlyOnce("Lost log entries due to broken database connection");
+			assertThat(journal).exists();
+
+			createTable("LEVEL VARCHAR(5) NOT NULL", "MESSAGE CLOB NULL");
+
+			JdbcWriter restarted = new JdbcWriter(createProperties(fields, extras));
+			long timeout = System.currentTimeMillis() + 5000;
+			while (journal.exists() && System.currentTimeMillis() < timeout) {
+				restarted.flush();
+				Thread.sleep(10);
+			}
+			restarted.close();
+
+			assertThat(countRows("ERROR")).isEqualTo(5);
+			assertThat(countRows("INFO")).isBetween(1, 199);
+			assertThat(journal).doesNotExist();
+		}
+
+		/**
+		 * Verifies that insert threads store failed batches in the spill journal and replay them after the database
+		 * connection has been reestablished.
+		 *
+		 * @throws NamingException
+		 *             Failed to find data source
+		 * @throws SQLException
+		 *             Failed to access database
+		 * @throws InterruptedException
+		 *             Interrupted while waiting for the insertion
+		 */
+		@Test
+		public void spillFromInsertThreads() throws NamingException, SQLException, InterruptedException {
+			createTable("MESSAGE CLOB NULL");
+
+			File journal = new File(folder.getRoot(), "journal.bin");
+			Map<String, String> extras = new HashMap<>();
+			extras.put("reconnect", "true");
+			extras.put("batch", "true");
+			extras.put("insert.threads", "1");
+			extras.put("spill", journal.getPath());
+			JdbcWriter writer = new JdbcWriter(createProperties(singletonMap("MESSAGE", "{message}"), extras));
+
+			shutdownDatabase();
+
+			writer.write(LogEntryBuilder.empty().message("One").create());
+			writer.write(LogEntryBuilder.empty().message("Two").create());
+			writer.flush();
+
+			long timeout = System.currentTimeMillis() + 5000;
+			while (!journal.exists() && System.currentTimeMillis() < timeout) {
+				Thread.sleep(10);
+			}
+
+			createTable("MESSAGE CLOB NULL");
+
+			timeout = System.currentTimeMillis() + 5000;
+			while (journal.exists() && System.currentTimeMillis() < timeout) {
+				Thread.sleep(10);
+			}
+
+			writer.close();
+
+			assertThat(fetchTable(TABLE_NAME)).column("MESSAGE").containsValues("One", "Two");
+			assertThat(systemStream.consumeErrorOutput()).contains("Failed to connect to database").doesNotContain("Lost");
+		}
+
+		/**
+		 * Verifies that a spill journal is ignored with a warning, if reconnecting is disabled.
+		 *
+		 * @throws NamingException
+		 *             Failed to find data source
+		 * @throws SQLException
+		 *             Failed to access database
+		 */
+		@Test
+		public void spillWithoutReconnecting() throws NamingException, SQLException {
+			createTable("MESSAGE CLOB NULL");
+
+			File journal = new File(folder.getRoot(), "journal.bin");
+			Map<String, String> extras = singletonMap("spill", journal.getPath());
+			JdbcWriter writer = new JdbcWriter(createProperties(singletonMap("MESSAGE", "{message}"), extras));
+			assertThat(Whitebox.<Object>getInternalState(writer, "journal")).isNull();
+			assertThat(systemStream.consumeErrorOutput()).containsOnlyOnce("WARN").containsOnlyOnce("reconnect");
+
+			writer.close();
+		}
+
+		/**
+		 * Counts the rows in the default table with a defined severity level.
+		 *
+		 * @param level
+		 *            Severity level
+		 * @return Number of rows
+		 * @throws SQLException
+		 *             Failed to access database
+		 */
+		private int countRows(final String level) throws SQLException {
+			try (Connection connection = DriverManager.getConnection(getUrl())) {
+				try (Statement statement = connection.createStatement()) {
+					String sql = "SELECT COUNT(*) FROM " + TABLE_NAME + " WHERE LEVEL = '" + level + "'";
+					try (ResultSet result = statement.executeQuery(sql)) {
+						result.next();
+						return result.getInt(1);
+					}
+				}
+			}
+		}
+
+	}
+
 	/**
 	 * Tests related to validation of configuration properties.
 	 */
@@ -817,6 +1269,15 @@ public final class JdbcWriterTest {
 			return properties;
 		}
 
+		/**
+		 * Gets the JDBC URL of the defined default database.
+		 *
+		 * @return JDBC URL
+		 */
+		protected String getUrl() {
+			return url;
+		}
+
 		/**
 		 * Creates a data source for the defined default database.
 		 *
@@ -0,0 +1,379 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.powermock.reflect.Whitebox;
+import org.tinylog.Level;
+import org.tinylog.configuration.ServiceLoader;
+import org.tinylog.core.LogEntryValue;
+import org.tinylog.rules.SystemStreamCollector;
+import org.tinylog.util.FileSystem;
+import org.tinylog.util.LogEntryBuilder;
+
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.tinylog.util.Maps.doubletonMap;
+import static org.tinylog.util.Maps.tripletonMap;
+
+/**
+ * Tests for {@link JsonWriter}.
+ */
+public final class JsonWriterTest {
+
+	private static final String NEW_LINE = System.lineSeparator();
+
+	/**
+	 * Redirects and collects system output streams.
+	 */
+	@Rule
+	public final SystemStreamCollector systemStream = new SystemStreamCollector(true);
+
+	/**
+	 * Temporary folder for creating log files.
+	 */
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Verifies that all configured fields are output as JSON object in one line.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 */
+	@Test
+	public void writeFields() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+		JsonWriter writer = new JsonWriter(tripletonMap("file", file, "field.level", "{level}", "field.msg", "{message}"));
+
+		writer.write(LogEntryBuilder.empty().level(Level.INFO).message("Hello World!").create());
+		writer.close();
+
+		assertThat(FileSystem.readFile(file)).isEqualTo("{\"level\":\"INFO\",\"msg\":\"Hello World!\"}" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that thread context values can be output as fields.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 */
+	@Test
+	public void writeThreadContext() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+		JsonWriter writer = new JsonWriter(doubletonMap("file", file, "field.user", "{context: user}"));
+
+		writer.write(LogEntryBuilder.empty().context("user", "john").create());
+		writer.close();
+
+		assertThat(FileSystem.readFile(file)).isEqualTo("{\"user\":\"john\"}" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that quotes, backslashes, and control characters are escaped.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 */
+	@Test
+	public void escapeSpecialCharacters() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+		JsonWriter writer = new JsonWriter(doubletonMap("file", file, "field.msg", "{message}"));
+
+		writer.write(LogEntryBuilder.empty().message("\"a\\b\"\n\t" + (char) 1).create());
+		writer.close();
+
+		assertThat(FileSystem.readFile(file)).isEqualTo("{\"msg\":\"\\\"a\\\\b\\\"\\n\\t\\u0001\"}" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that non-ASCII characters are encoded as UTF-8, and unpaired surrogates are replaced.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 */
+	@Test
+	public void encodeUnicode() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+		JsonWriter writer = new JsonWriter(doubletonMap("file", file, "field.msg", "{message}"));
+
+		String text = new String(Character.toChars(0xE4)) + new String(Character.toChars(0x20AC)) + new String(Character.toChars(0x1F600));
+
+		writer.write(LogEntryBuilder.empty().message(text + (char) 0xD83D).create());
+		writer.close();
+
+		assertThat(FileSystem.readFile(file, StandardCharsets.UTF_8)).isEqualTo("{\"msg\":\"" + text + "?\"}" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that single numeric placeholders are output as JSON numbers.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 */
+	@Test
+	public void writeNumbers() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+		JsonWriter writer = new JsonWriter(tripletonMap("file", file, "field.line", "{line}", "field.text", "line {line}"));
+
+		writer.write(LogEntryBuilder.empty().lineNumber(42).create());
+		writer.close();
+
+		assertThat(FileSystem.readFile(file)).isEqualTo("{\"line\":42,\"text\":\"line 42\"}" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that fields with empty values are omitted.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 */
+	@Test
+	public void omitEmptyFields() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+		JsonWriter writer = new JsonWriter(tripletonMap("file", file, "field.exception", "{exception}", "field.msg", "{message}"));
+
+		writer.write(LogEntryBuilder.empty().message("Hello World!").create());
+		writer.close();
+
+		assertThat(FileSystem.readFile(file)).isEqualTo("{\"msg\":\"Hello World!\"}" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that exceptions are output as escaped string including the stack trace.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 */
+	@Test
+	public void writeException() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+		JsonWriter writer = new JsonWriter(doubletonMap("file", file, "field.exception", "{exception}"));
+
+		writer.write(LogEntryBuilder.empty().exception(new NullPointerException()).create());
+		writer.close();
+
+		assertThat(FileSystem.readFile(file))
+			.startsWith("{\"exception\":\"java.lang.NullPointerException")
+			.contains("\\n\\tat ")
+			.endsWith("\"}" + NEW_LINE)
+			.hasLineCount(1);
+	}
+
+	/**
+	 * Verifies that the default fields are used, if there are no configured fields.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 */
+	@Test
+	public void defaultFields() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+		JsonWriter writer = new JsonWriter(doubletonMap("file", file, "format", "ignored"));
+
+		assertThat(writer.getRequiredLogEntryValues()).contains(LogEntryValue.DATE, LogEntryValue.LEVEL, LogEntryValue.MESSAGE,
+			LogEntryValue.EXCEPTION);
+
+		writer.write(LogEntryBuilder.prefilled(JsonWriterTest.class).create());
+		writer.close();
+
+		assertThat(FileSystem.readFile(file))
+			.startsWith("{\"date\":\"")
+			.contains("\"level\":\"", "\"class\":\"" + JsonWriterTest.class.getName() + "\"")
+			.hasLineCount(1);
+	}
+
+	/**
+	 * Verifies that the required log entry values are detected from configured fields.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 */
+	@Test
+	public void requiredLogEntryValues() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+		JsonWriter writer = new JsonWriter(tripletonMap("file", file, "field.level", "{level}", "field.msg", "{message-only}"));
+		writer.close();
+
+		assertThat(writer.getRequiredLogEntryValues()).containsOnly(LogEntryValue.LEVEL, LogEntryValue.MESSAGE);
+	}
+
+	/**
+	 * Verifies that log entries will be output after flushing, if buffer is enabled.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 */
+	@Test
+	public void bufferedWriting() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+		JsonWriter writer = new JsonWriter(tripletonMap("file", file, "field.msg", "{message}", "buffered", "true"));
+
+		writer.write(LogEntryBuilder.empty().message("Hello World!").create());
+		assertThat(FileSystem.readFile(file)).isEmpty();
+
+		writer.flush();
+		assertThat(FileSystem.readFile(file)).isEqualTo("{\"msg\":\"Hello World!\"}" + NEW_LINE);
+
+		writer.close();
+	}
+
+	/**
+	 * Verifies that buffered log entries will be flushed periodically, if a flush interval is defined.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for the flush
+	 */
+	@Test
+	public void periodicFlushing() throws IOException, InterruptedException {
+		String file = FileSystem.createTemporaryFile();
+
+		Map<String, String> properties = new HashMap<>();
+		properties.put("file", file);
+		properties.put("field.msg", "{message}");
+		properties.put("buffered", "true");
+		properties.put("flush.interval", "10ms");
+
+		JsonWriter writer = new JsonWriter(properties);
+		writer.write(LogEntryBuilder.empty().message("Hello World!").create());
+
+		for (int i = 0; i < 1000 && FileSystem.readFile(file).isEmpty(); ++i) {
+			Thread.sleep(10);
+		}
+
+		assertThat(FileSystem.readFile(file)).isEqualTo("{\"msg\":\"Hello World!\"}" + NEW_LINE);
+
+		writer.close();
+	}
+
+	/**
+	 * Verifies that the internal buffers shrink back to their default size after writing an oversized log entry.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 */
+	@Test
+	public void shrinkBuffersAfterOversizedEntry() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+		JsonWriter writer = new JsonWriter(doubletonMap("file", file, "field.msg", "{message}"));
+
+		String message = String.join("", Collections.nCopies(100_000, "x"));
+		writer.write(LogEntryBuilder.empty().message(message).create());
+		writer.close();
+
+		assertThat(FileSystem.readFile(file)).isEqualTo("{\"msg\":\"" + message + "\"}" + NEW_LINE);
+
+		byte[] buffer = Whitebox.getInternalState(writer, "buffer");
+		StringBuilder builder = Whitebox.getInternalState(writer, "builder");
+		assertThat(buffer.length).isLessThan(message.length());
+		assertThat(builder.capacity()).isLessThan(message.length());
+	}
+
+	/**
+	 * Verifies that an already existing file will be continued, if append mode is enabled.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 */
+	@Test
+	public void appendingEnabled() throws IOException {
+		String file = FileSystem.createTemporaryFile("{}");
+		JsonWriter writer = new JsonWriter(tripletonMap("file", file, "field.msg", "{message}", "append", "true"));
+
+		writer.write(LogEntryBuilder.empty().message("Hello World!").create());
+		writer.close();
+
+		assertThat(FileSystem.readFile(file)).isEqualTo("{}" + NEW_LINE + "{\"msg\":\"Hello World!\"}" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that a new log file will be started, if a policy requires a rollover.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 */
+	@Test
+	public void rollover() throws IOException {
+		Map<String, String> properties = new HashMap<>();
+		properties.put("file", new File(folder.getRoot(), "{count}.json").getAbsolutePath());
+		properties.put("field.msg", "{message}");
+		properties.put("policies", "size: 20");
+
+		JsonWriter writer = new JsonWriter(properties);
+		writer.write(LogEntryBuilder.empty().message("First").create());
+		writer.write(LogEntryBuilder.empty().message("Second").create());
+		writer.close();
+
+		assertThat(new File(folder.getRoot(), "0.json")).hasContent("{\"msg\":\"First\"}");
+		assertThat(new File(folder.getRoot(), "1.json")).hasContent("{\"msg\":\"Second\"}");
+	}
+
+	/**
+	 * Verifies that fields are output in configuration order.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 */
+	@Test
+	public void keepFieldOrder() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+
+		Map<String, String> properties = new LinkedHashMap<>();
+		properties.put("file", file);
+		properties.put("field.z", "1");
+		properties.put("field.a", "2");
+		properties.put("field.m", "3");
+
+		JsonWriter writer = new JsonWriter(properties);
+		writer.write(LogEntryBuilder.empty().create());
+		writer.close();
+
+		assertThat(FileSystem.readFile(file)).isEqualTo("{\"z\":\"1\",\"a\":\"2\",\"m\":\"3\"}" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that an exception will be thrown, if no file name is defined.
+	 */
+	@Test
+	public void missingFileName() {
+		assertThatThrownBy(() -> new JsonWriter(emptyMap())).hasMessageMatching("(?i).*file name .*");
+	}
+
+	/**
+	 * Verifies that the writer is registered as service under the name "json".
+	 *
+	 * @throws IOException
+	 *             Failed creating temporary file
+	 */
+	@Test
+	public void isRegistered() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+		Writer writer = new ServiceLoader<>(Writer.class, Map.class).create("json", doubletonMap("file", file, "field.msg", "{message}"));
+		assertThat(writer).isInstanceOf(JsonWriter.class);
+	}
+
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2017 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.tinylog.Level;
+import org.tinylog.configuration.ServiceLoader;
+import org.tinylog.core.LogEntry;
+import org.tinylog.core.LogEntryValue;
+import org.tinylog.rules.SystemStreamCollector;
+import org.tinylog.util.FileSystem;
+import org.tinylog.util.LogEntryBuilder;
+import org.tinylog.util.StorageWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link RingBufferWriter}.
+ */
+public final class RingBufferWriterTest {
+
+	private static final String NEW_LINE = System.lineSeparator();
+	private static final String TARGET = StorageWriter.class.getName();
+
+	/**
+	 * Redirects and collects system output streams.
+	 */
+	@Rule
+	public final SystemStreamCollector systemStream = new SystemStreamCollector(true);
+
+	/**
+	 * Verifies that the required log entry values of the target writer and the severity level are required.
+	 *
+	 * @throws Exception
+	 *             Failed to close writer
+	 */
+	@Test
+	public void requiredLogEntryValues() throws Exception {
+		Map<String, String> properties = createProperties();
+		properties.put("target.values", "class");
+		properties.put("trigger.tag", "audit");
+
+		RingBufferWriter writer = new RingBufferWriter(properties);
+		assertThat(writer.getRequiredLogEntryValues()).containsOnly(LogEntryValue.LEVEL, LogEntryValue.CLASS, LogEntryValue.TAG);
+		writer.close();
+	}
+
+	/**
+	 * Verifies that log entries below the trigger level are only buffered and passed to the target writer together
+	 * with the next trigger log entry.
+	 *
+	 * @throws Exception
+	 *             Failed to write log entries
+	 */
+	@Test
+	public void dumpOnTriggerLevel() throws Exception {
+		RingBufferWriter writer = new RingBufferWriter(createProperties());
+
+		writer.write(createEntry(Level.DEBUG, "One", null));
+		writer.write(createEntry(Level.INFO, "Two", null));
+		writer.write(createEntry(Level.WARN, "Three", null));
+		assertThat(StorageWriter.consumeEntries()).isEmpty();
+
+		writer.write(createEntry(Level.ERROR, "Failure", null));
+		assertThat(StorageWriter.consumeEntries()).extracting(LogEntry::getMessage).containsExactly("One", "Two", "Three", "Failure");
+
+		writer.write(createEntry(Level.ERROR, "Second failure", null));
+		assertThat(StorageWriter.consumeEntries()).extracting(LogEntry::getMessage).containsExactly("Second failure");
+
+		writer.close();
+	}
+
+	/**
+	 * Verifies that only the latest log entries are kept, if more log entries than the defined size have been written.
+	 *
+	 * @throws Exception
+	 *             Failed to write log entries
+	 */
+	@Test
+	public void overwriteOldestEntries() throws Exception {
+		Map<String, String> properties = createProperties();
+		properties.put("size", "3");
+		RingBufferWriter writer = new RingBufferWriter(properties);
+
+		for (int i = 1; i <= 5; ++i) {
+			writer.write(createEntry(Level.DEBUG, "#" + i, null));
+		}
+		writer.write(createEntry(Level.ERROR, "Failure", null));
+
+		assertThat(StorageWriter.consumeEntries()).extracting(LogEntry::getMessage).containsExactly("#3", "#4", "#5", "Failure");
+
+		writer.close();
+	}
+
+	/**
+	 * Verifies that a custom trigger level and trigger tags can be defined.
+	 *
+	 * @throws Exception
+	 *             Failed to write log entries
+	 */
+	@Test
+	public void customTriggers() throws Exception {
+		Map<String, String> properties = createProperties();
+		properties.put("trigger", "warn");
+		properties.put("trigger.tag", "audit, security");
+		RingBufferWriter writer = new RingBufferWriter(properties);
+
+		writer.write(createEntry(Level.DEBUG, "One", null));
+		writer.write(createEntry(Level.INFO, "Two", "security"));
+		assertThat(StorageWriter.consumeEntries()).extracting(LogEntry::getMessage).containsExactly("One", "Two");
+
+		writer.write(createEntry(Level.DEBUG, "Three", "other"));
+		writer.write(createEntry(Level.WARN, "Four", null));
+		assertThat(StorageWriter.consumeEntries()).extracting(LogEntry::getMessage).containsExactly("Three", "Four");
+
+		writer.close();
+	}
+
+	/**
+	 * Verifies that an invalid trigger level will be reported and the default trigger level will be used instead.
+	 *
+	 * @throws Exception
+	 *             Failed to write log entries
+	 */
+	@Test
+	public void invalidTriggerLevel() throws Exception {
+		Map<String, String> properties = createProperties();
+		properties.put("trigger", "fatal");
+		RingBufferWriter writer = new RingBufferWriter(properties);
+		assertThat(systemStream.consumeErrorOutput()).containsOnlyOnce("ERROR").containsOnlyOnce("fatal");
+
+		writer.write(createEntry(Level.WARN, "One", null));
+		assertThat(StorageWriter.consumeEntries()).isEmpty();
+		writer.write(createEntry(Level.ERROR, "Two", null));
+		assertThat(StorageWriter.consumeEntries()).hasSize(2);
+
+		writer.close();
+	}
+
+	/**
+	 * Verifies that log entries can be buffered rendered and are passed to the target writer with date, severity
+	 * level and rendered text.
+	 *
+	 * @throws Exception
+	 *             Failed to write log entries
+	 */
+	@Test
+	public void renderedEntries() throws Exception {
+		Map<String, String> properties = createProperties();
+		properties.put("format", "{class}: {message}");
+		RingBufferWriter writer = new RingBufferWriter(properties);
+		assertThat(writer.getRequiredLogEntryValues())
+			.contains(LogEntryValue.DATE, LogEntryValue.LEVEL, LogEntryValue.CLASS, LogEntryValue.MESSAGE);
+
+		LocalDateTime date = LocalDateTime.of(2020, 1, 2, 3, 4, 5);
+		writer.write(LogEntryBuilder.empty().date(date).level(Level.DEBUG).className("Foo").message("Hällo").create());
+		writer.write(createEntry(Level.ERROR, "Failure", null));
+
+		List<LogEntry> entries = StorageWriter.consumeEntries();
+		assertThat(entries).hasSize(2);
+		assertThat(entries.get(0).getMessage()).isEqualTo("Foo: Hällo");
+		assertThat(entries.get(0).getLevel()).isEqualTo(Level.DEBUG);
+		assertThat(entries.get(0).getEpochMilliseconds())
+			.isEqualTo(LogEntryBuilder.empty().date(date).create().getEpochMilliseconds());
+		assertThat(entries.get(1).getMessage()).isEqualTo("Failure");
+
+		writer.close();
+	}
+
+	/**
+	 * Verifies that the oldest rendered log entries are discarded if the ring buffer is full, including log entries
+	 * that wrap around the end of the buffer.
+	 *
+	 * @throws Exception
+	 *             Failed to write log entries
+	 */
+	@Test
+	public void overwriteOldestRenderedEntries() throws Exception {
+		Map<String, String> properties = createProperties();
+		properties.put("format", "{message}");
+		properties.put("buffer", "100");
+		properties.put("offheap", "true");
+		RingBufferWriter writer = new RingBufferWriter(properties);
+
+		for (int i = 10; i < 30; ++i) {
+			writer.write(createEntry(Level.DEBUG, "Entry #" + i, null));
+		}
+		writer.write(createEntry(Level.ERROR, "Failure", null));
+
+		// Each rendered log entry requires 13 bytes for the header and 9 bytes for the text
+		assertThat(StorageWriter.consumeEntries()).extracting(LogEntry::getMessage)
+			.containsExactly("Entry #26", "Entry #27", "Entry #28", "Entry #29", "Failure");
+
+		writer.write(createEntry(Level.DEBUG, "Oversized " + new String(new char[100]).replace('\0', 'x'), null));
+		writer.write(createEntry(Level.DEBUG, "Small", null));
+		writer.write(createEntry(Level.ERROR, "Failure", null));
+		assertThat(StorageWriter.consumeEntries()).extracting(LogEntry::getMessage).containsExactly("Small", "Failure");
+
+		writer.close();
+	}
+
+	/**
+	 * Verifies that the properties with the prefix "target." are passed to the target writer.
+	 *
+	 * @throws Exception
+	 *             Failed to write or read log file
+	 */
+	@Test
+	public void rollingFileTarget() throws Exception {
+		String file = FileSystem.createTemporaryFile();
+
+		Map<String, String> properties = new HashMap<>();
+		properties.put("target", "rolling file");
+		properties.put("target.file", file);
+		properties.put("target.format", "{level}: {message}");
+		RingBufferWriter writer = new RingBufferWriter(properties);
+
+		writer.write(createEntry(Level.DEBUG, "Details", null));
+		writer.write(createEntry(Level.INFO, "Hidden", "other"));
+		writer.close();
+		assertThat(FileSystem.readFile(file)).isEmpty();
+
+		writer = new RingBufferWriter(properties);
+		writer.write(createEntry(Level.DEBUG, "Details", null));
+		writer.write(createEntry(Level.ERROR, "Failure", null));
+		writer.close();
+		assertThat(FileSystem.readFile(file)).isEqualTo("DEBUG: Details" + NEW_LINE + "ERROR: Failure" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that an exception will be thrown, if the target writer cannot be created.
+	 */
+	@Test
+	public void unknownTarget() {
+		Map<String, String> properties = createProperties();
+		properties.put("target", "foo");
+
+		assertThatThrownBy(() -> new RingBufferWriter(properties)).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("foo");
+		assertThat(systemStream.consumeErrorOutput()).containsOnlyOnce("ERROR").containsOnlyOnce("foo");
+	}
+
+	/**
+	 * Verifies that the writer is registered as service.
+	 */
+	@Test
+	public void isRegistered() {
+		Map<String, String> properties = createProperties();
+		Writer writer = new ServiceLoader<>(Writer.class, Map.class).create("ring buffer", properties);
+		assertThat(writer).isInstanceOf(RingBufferWriter.class);
+	}
+
+	/**
+	 * Creates properties with the storage writer as target writer.
+	 *
+	 * @return Modifiable properties
+	 */
+	private static Map<String, String> createProperties() {
+		Map<String, String> properties = new HashMap<>();
+		properties.put("target", TARGET);
+		return properties;
+	}
+
+	/**
+	 * Creates a log entry.
+	 *
+	 * @param level
+	 *            Severity level
+	 * @param message
+	 *            Text message
+	 * @param tag
+	 *            Tag (can be {@code null})
+	 * @return Created log entry
+	 */
+	private static LogEntry createEntry(final Level level, final String message, final String tag) {
+		return LogEntryBuilder.empty().date(LocalDateTime.now()).level(level).tag(tag).message(message).create();
+	}
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.powermock.reflect.Whitebox;
+import org.tinylog.policies.Policy;
+import org.tinylog.rules.SystemStreamCollector;
+import org.tinylog.writers.AbstractFormatPatternWriter.OutputOptions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link RollingFile}.
+ */
+public final class RollingFileTest {
+
+	/**
+	 * Temporary folder for creating log files.
+	 */
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Redirects and collects system output streams.
+	 */
+	@Rule
+	public final SystemStreamCollector systemStream = new SystemStreamCollector(true);
+
+	/**
+	 * Verifies that only the passed length of a reusable buffer is counted by the size policy.
+	 *
+	 * @throws IOException
+	 *             Failed opening or closing the log file
+	 */
+	@Test
+	public void countLengthForSizePolicy() throws IOException {
+		RollingFile file = open("size: 10");
+		try {
+			byte[] buffer = new byte[100];
+			assertThat(file.canBeContinued(buffer, 4)).isTrue();
+			assertThat(file.canBeContinued(buffer, 6)).isTrue();
+			assertThat(file.canBeContinued(buffer, 1)).isFalse();
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * Verifies that custom policies receive an exact copy of the log entry, if the passed buffer is larger.
+	 *
+	 * @throws IOException
+	 *             Failed opening or closing the log file
+	 */
+	@Test
+	public void passExactEntryToCustomPolicies() throws IOException {
+		RecordingPolicy policy = new RecordingPolicy();
+
+		RollingFile file = open("startup");
+		Whitebox.setInternalState(file, "policies", Collections.<Policy>singletonList(policy));
+
+		try {
+			byte[] buffer = new byte[] { 'a', 'b', 'c', 'd' };
+			assertThat(file.canBeContinued(buffer, 2)).isTrue();
+			assertThat(file.canBeContinued(buffer, 4)).isTrue();
+
+			assertThat(policy.entries).hasSize(2);
+			assertThat(policy.entries.get(0)).isEqualTo(new byte[] { 'a', 'b' });
+			assertThat(policy.entries.get(1)).isSameAs(buffer);
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * Verifies that a new log file is started on rollover and the policies are reset.
+	 *
+	 * @throws IOException
+	 *             Failed opening, writing, or closing log files
+	 */
+	@Test
+	public void rollOver() throws IOException {
+		RollingFile file = open("size: 10");
+		try {
+			byte[] data = "0123456789".getBytes("UTF-8");
+			assertThat(file.canBeContinued(data, data.length)).isTrue();
+			file.write(data, data.length);
+
+			assertThat(file.canBeContinued(data, 1)).isFalse();
+			file.rollOver();
+			assertThat(file.canBeContinued(data, data.length)).isTrue();
+			file.write(data, data.length);
+		} finally {
+			file.close();
+		}
+
+		assertThat(new File(folder.getRoot(), "0.log")).hasContent("0123456789");
+		assertThat(new File(folder.getRoot(), "1.log")).hasContent("0123456789");
+	}
+
+	/**
+	 * Opens a rolling log file with a counter in the temporary folder.
+	 *
+	 * @param policies
+	 *            Policies to apply
+	 * @return Opened rolling log file
+	 * @throws IOException
+	 *             Failed opening the log file
+	 */
+	private RollingFile open(final String policies) throws IOException {
+		Map<String, String> properties = new HashMap<>();
+		properties.put("file", new File(folder.getRoot(), "{count}.log").getAbsolutePath());
+		properties.put("policies", policies);
+		return new RollingFile(properties, false, OutputOptions.DEFAULT);
+	}
+
+	/**
+	 * Policy that records all passed log entries.
+	 */
+	private static final class RecordingPolicy implements Policy {
+
+		private final List<byte[]> entries = new ArrayList<>();
+
+		/** */
+		private RecordingPolicy() {
+		}
+
+		@Override
+		public boolean continueExistingFile(final String path) {
+			return true;
+		}
+
+		@Override
+		public boolean continueCurrentFile(final byte[] entry) {
+			entries.add(entry);
+			return true;
+		}
+
+		@Override
+		public void reset() {
+			entries.clear();
+		}
+
+	}
+
+}
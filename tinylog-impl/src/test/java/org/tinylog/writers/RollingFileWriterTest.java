@@ -16,10 +16,15 @@ package org.tinylog.writers;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystems;
+import java.util.Calendar;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TimerTask;
+import java.util.zip.GZIPInputStream;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -27,9 +32,12 @@ import org.junit.rules.TemporaryFolder;
 import org.powermock.reflect.Whitebox;
 import org.tinylog.configuration.ServiceLoader;
 import org.tinylog.core.LogEntryValue;
+import org.tinylog.policies.AbstractDatePolicy;
+import org.tinylog.policies.Policy;
 import org.tinylog.rules.SystemStreamCollector;
 import org.tinylog.util.FileSystem;
 import org.tinylog.util.LogEntryBuilder;
+import org.tinylog.writers.raw.DurableWriterDecorator;
 
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonMap;
@@ -401,14 +409,344 @@ public final class RollingFileWriterTest {
 
 		writer.write(LogEntryBuilder.empty().message("First").create());
 		writer.write(LogEntryBuilder.empty().message("Second").create());
+		writer.close();
 
 		assertThat(file1).doesNotExist();
 		assertThat(file2).exists();
 		assertThat(file3).exists();
 		assertThat(file4).hasContent("First" + NEW_LINE);
 		assertThat(file5).hasContent("Second" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that the next log file is already in use while the previous log file is closed in background.
+	 *
+	 * @throws IOException
+	 *             Failed access to temporary folder or files
+	 */
+	@Test
+	public void openNextFileImmediatelyOnRollOver() throws IOException {
+		Map<String, String> properties = new HashMap<>();
+		properties.put("file", new File(folder.getRoot(), "{count}.log").getAbsolutePath());
+		properties.put("format", "{message}");
+		properties.put("policies", "size: 10");
+		properties.put("buffered", "true");
+
+		RollingFileWriter writer = new RollingFileWriter(properties);
+		writer.write(LogEntryBuilder.empty().message("First").create());
+		writer.write(LogEntryBuilder.empty().message("Second").create());
+		writer.flush();
+
+		assertThat(new File(folder.getRoot(), "1.log")).hasContent("Second" + NEW_LINE);
+
+		writer.close();
+
+		assertThat(new File(folder.getRoot(), "0.log")).hasContent("First" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that a time-based policy triggers a rollover by timer, even if no further log entries are written.
+	 *
+	 * @throws Exception
+	 *             Failed access to temporary folder or files, or failed to schedule rollover
+	 */
+	@Test
+	public void rollOverByTimer() throws Exception {
+		Map<String, String> properties = new HashMap<>();
+		properties.put("file", new File(folder.getRoot(), "{count}.log").getAbsolutePath());
+		properties.put("format", "{message}");
+		properties.put("policies", "daily");
+
+		RollingFileWriter writer = new RollingFileWriter(properties);
+		writer.write(LogEntryBuilder.empty().message("First").create());
+
+		assertThat(Whitebox.<Boolean>getInternalState(writer, "scheduledRollover")).isTrue();
+
+		Object mutex = Whitebox.getInternalState(writer, "mutex");
+		synchronized (mutex) {
+			Whitebox.<TimerTask>getInternalState(writer, "rolloverTimer").cancel();
+			RollingFile file = Whitebox.getInternalState(writer, "file");
+			Whitebox.setInternalState(file, "policies", Collections.<Policy>singletonList(new ShortDeadlinePolicy()));
+			Whitebox.invokeMethod(writer, "scheduleRollover");
+		}
+
+		File next = new File(folder.getRoot(), "1.log");
+		for (int i = 0; i < 100 && !next.exists(); ++i) {
+			Thread.sleep(10);
+		}
+
+		writer.close();
+
+		assertThat(new File(folder.getRoot(), "0.log")).hasContent("First" + NEW_LINE);
+		assertThat(next).exists();
+	}
+
+	/**
+	 * Verifies that no timer is used for rollovers, if there are no time-based policies.
+	 *
+	 * @throws IOException
+	 *             Failed access to temporary folder or files
+	 */
+	@Test
+	public void noTimerWithoutTimeBasedPolicies() throws IOException {
+		Map<String, String> properties = new HashMap<>();
+		properties.put("file", new File(folder.getRoot(), "{count}.log").getAbsolutePath());
+		properties.put("policies", "size: 10");
+
+		RollingFileWriter writer = new RollingFileWriter(properties);
+		assertThat(Whitebox.<Boolean>getInternalState(writer, "scheduledRollover")).isFalse();
+		assertThat(Whitebox.<TimerTask>getInternalState(writer, "rolloverTimer")).isNull();
+		writer.close();
+	}
+
+	/**
+	 * Verifies that preallocated log files are trimmed to their real length on rollover and closing.
+	 *
+	 * @throws IOException
+	 *             Failed access to temporary folder or files
+	 */
+	@Test
+	public void preallocatedRollOver() throws IOException {
+		Map<String, String> properties = new HashMap<>();
+		properties.put("file", new File(folder.getRoot(), "{count}.log").getAbsolutePath());
+		properties.put("format", "{message}");
+		properties.put("policies", "size: 10");
+		properties.put("preallocate", "4096");
+
+		RollingFileWriter writer = new RollingFileWriter(properties);
+		writer.write(LogEntryBuilder.empty().message("First").create());
+		writer.write(LogEntryBuilder.empty().message("Second").create());
+		writer.close();
+
+		assertThat(new File(folder.getRoot(), "0.log")).hasContent("First" + NEW_LINE);
+		assertThat(new File(folder.getRoot(), "1.log")).hasContent("Second" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that log entries are written and forced via group commit with batch durability, also across rollovers.
+	 *
+	 * @throws IOException
+	 *             Failed access to temporary folder or files
+	 */
+	@Test
+	public void batchDurability() throws IOException {
+		Map<String, String> properties = new HashMap<>();
+		properties.put("file", new File(folder.getRoot(), "{count}.log").getAbsolutePath());
+		properties.put("format", "{message}");
+		properties.put("policies", "size: 10");
+		properties.put("buffered", "true");
+		properties.put("durability", "batch");
+
+		RollingFileWriter writer = new RollingFileWriter(properties);
+		assertThat(Whitebox.<RollingFile>getInternalState(writer, "file").getWriter()).isInstanceOf(DurableWriterDecorator.class);
+
+		writer.write(LogEntryBuilder.empty().message("First").create());
+		assertThat(new File(folder.getRoot(), "0.log")).hasContent("First" + NEW_LINE);
+
+		writer.write(LogEntryBuilder.empty().message("Second").create());
+		assertThat(new File(folder.getRoot(), "1.log")).hasContent("Second" + NEW_LINE);
+
+		writer.close();
+	}
+
+	/**
+	 * Verifies that a log file with a static file name can be rolled over without mixing old and new content.
+	 *
+	 * @throws IOException
+	 *             Failed access to temporary folder or files
+	 */
+	@Test
+	public void rollOverStaticFileName() throws IOException {
+		String file = FileSystem.createTemporaryFile();
+
+		Map<String, String> properties = new HashMap<>();
+		properties.put("file", file);
+		properties.put("format", "{message}");
+		properties.put("policies", "size: 10");
+		properties.put("buffered", "true");
+
+		RollingFileWriter writer = new RollingFileWriter(properties);
+		writer.write(LogEntryBuilder.empty().message("First").create());
+		writer.write(LogEntryBuilder.empty().message("Second").create());
+		writer.close();
+
+		assertThat(FileSystem.readFile(file)).isEqualTo("Second" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that buffered log entries will be flushed periodically, if a flush interval is defined.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for the flush
+	 */
+	@Test
+	public void periodicFlushing() throws IOException, InterruptedException {
+		String file = FileSystem.createTemporaryFile();
 
+		Map<String, String> properties = new HashMap<>();
+		properties.put("file", file);
+		properties.put("format", "{message}");
+		properties.put("buffered", "true");
+		properties.put("flush.interval", "1s");
+
+		RollingFileWriter writer = new RollingFileWriter(properties);
+		writer.write(LogEntryBuilder.empty().message("Hello World!").create());
+		assertThat(FileSystem.readFile(file)).isEmpty();
+
+		for (int i = 0; i < 1000 && FileSystem.readFile(file).isEmpty(); ++i) {
+			Thread.sleep(10);
+		}
+
+		assertThat(FileSystem.readFile(file)).isEqualTo("Hello World!" + NEW_LINE);
+
+		writer.close();
+	}
+
+	/**
+	 * Verifies that memory-mapped log files are truncated to their real length on rollover.
+	 *
+	 * @throws IOException
+	 *             Failed access to temporary folder or files
+	 */
+	@Test
+	public void memoryMappedRollOver() throws IOException {
+		Map<String, String> properties = new HashMap<>();
+		properties.put("file", new File(folder.getRoot(), "{count}.log").getAbsolutePath());
+		properties.put("format", "{message}");
+		properties.put("policies", "size: 10");
+		properties.put("io", "mmap");
+
+		RollingFileWriter writer = new RollingFileWriter(properties);
+		writer.write(LogEntryBuilder.empty().message("First").create());
+		writer.write(LogEntryBuilder.empty().message("Second").create());
 		writer.close();
+
+		assertThat(new File(folder.getRoot(), "0.log")).hasContent("First" + NEW_LINE);
+		assertThat(new File(folder.getRoot(), "1.log")).hasContent("Second" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that rolled-over log files will be compressed, but the active log file stays untouched.
+	 *
+	 * @throws IOException
+	 *             Failed access to temporary folder or files
+	 */
+	@Test
+	public void compressOnRollOver() throws IOException {
+		Map<String, String> properties = new HashMap<>();
+		properties.put("file", new File(folder.getRoot(), "{count}.log").getAbsolutePath());
+		properties.put("format", "{message}");
+		properties.put("policies", "size: 10");
+		properties.put("compression", "gzip");
+
+		RollingFileWriter writer = new RollingFileWriter(properties);
+		writer.write(LogEntryBuilder.empty().message("First").create());
+		writer.write(LogEntryBuilder.empty().message("Second").create());
+		writer.close();
+
+		assertThat(folder.getRoot().list()).containsExactlyInAnyOrder("0.log.gz", "1.log");
+		assertThat(new File(folder.getRoot(), "1.log")).hasContent("Second" + NEW_LINE);
+
+		try (InputStream stream = new GZIPInputStream(new FileInputStream(new File(folder.getRoot(), "0.log.gz")))) {
+			byte[] data = new byte[64];
+			int length = stream.read(data);
+			assertThat(new String(data, 0, length, StandardCharsets.UTF_8)).isEqualTo("First" + NEW_LINE);
+		}
+	}
+
+	/**
+	 * Verifies that uncompressed backups from previous runs will be compressed at startup.
+	 *
+	 * @throws IOException
+	 *             Failed access to temporary folder or files
+	 */
+	@Test
+	public void compressBackupsAtStartUp() throws IOException {
+		File file1 = folder.newFile("0.log");
+		File file2 = folder.newFile("1.log");
+		file1.setLastModified(0);
+		file2.setLastModified(1000);
+
+		Map<String, String> properties = new HashMap<>();
+		properties.put("file", new File(folder.getRoot(), "{count}.log").getAbsolutePath());
+		properties.put("format", "{message}");
+		properties.put("compression", "deflate");
+
+		new RollingFileWriter(properties).close();
+
+		assertThat(folder.getRoot().list()).containsExactlyInAnyOrder("0.log.deflate", "1.log.deflate", "2.log");
+	}
+
+	/**
+	 * Verifies that compressed log files are counted as backups and deleted if there are too many.
+	 *
+	 * @throws IOException
+	 *             Failed access to temporary folder or files
+	 */
+	@Test
+	public void deleteCompressedBackups() throws IOException {
+		File file1 = folder.newFile("0.log.gz");
+		File file2 = folder.newFile("1.log.gz");
+		File file3 = folder.newFile("2.log.gz");
+		file1.setLastModified(0);
+		file2.setLastModified(1000);
+		file3.setLastModified(2000);
+
+		Map<String, String> properties = new HashMap<>();
+		properties.put("file", new File(folder.getRoot(), "{count}.log").getAbsolutePath());
+		properties.put("format", "{message}");
+		properties.put("policies", "size: 10");
+		properties.put("compression", "gzip");
+		properties.put("backups", "1");
+
+		RollingFileWriter writer = new RollingFileWriter(properties);
+		writer.write(LogEntryBuilder.empty().message("First").create());
+		writer.write(LogEntryBuilder.empty().message("Second").create());
+		writer.close();
+
+		assertThat(folder.getRoot().list()).containsExactlyInAnyOrder("3.log.gz", "4.log");
+		assertThat(new File(folder.getRoot(), "4.log")).hasContent("Second" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that obsolete compressed backups will be deleted at startup, if the latest log file cannot be continued.
+	 *
+	 * @throws IOException
+	 *             Failed access to temporary folder or files
+	 */
+	@Test
+	public void deleteCompressedBackupsAtStartUp() throws IOException {
+		File file1 = folder.newFile("0.log.gz");
+		File file2 = folder.newFile("1.log.gz");
+		File file3 = folder.newFile("2.log.gz");
+		file1.setLastModified(0);
+		file2.setLastModified(1000);
+		file3.setLastModified(2000);
+
+		Map<String, String> properties = new HashMap<>();
+		properties.put("file", new File(folder.getRoot(), "{count}.log").getAbsolutePath());
+		properties.put("format", "{message}");
+		properties.put("compression", "gzip");
+		properties.put("backups", "1");
+
+		RollingFileWriter writer = new RollingFileWriter(properties);
+		writer.write(LogEntryBuilder.empty().message("Hello World!").create());
+		writer.close();
+
+		assertThat(folder.getRoot().list()).containsExactlyInAnyOrder("2.log.gz", "3.log");
+		assertThat(new File(folder.getRoot(), "3.log")).hasContent("Hello World!" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that an exception will be thrown for an unknown compression algorithm.
+	 */
+	@Test
+	public void unknownCompression() {
+		String file = new File(folder.getRoot(), "{count}.log").getAbsolutePath();
+		assertThatThrownBy(() -> new RollingFileWriter(doubletonMap("file", file, "compression", "foo")))
+			.isInstanceOf(IllegalArgumentException.class).hasMessageContaining("foo");
 	}
 
 	/**
@@ -536,4 +874,22 @@ public final class RollingFileWriterTest {
 		Writer writer = new ServiceLoader<>(Writer.class, Map.class).create("rolling file", singletonMap("file", file));
 		assertThat(writer).isInstanceOf(RollingFileWriter.class);
 	}
+
+	/**
+	 * Time-based policy with a deadline in 50 milliseconds after each reset.
+	 */
+	private static final class ShortDeadlinePolicy extends AbstractDatePolicy {
+
+		/** */
+		private ShortDeadlinePolicy() {
+			reset();
+		}
+
+		@Override
+		protected void advance(final Calendar calendar) {
+			calendar.add(Calendar.MILLISECOND, 50);
+		}
+
+	}
+
 }
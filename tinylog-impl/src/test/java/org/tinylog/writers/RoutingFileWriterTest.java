@@ -0,0 +1,402 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.powermock.reflect.Whitebox;
+import org.tinylog.configuration.ServiceLoader;
+import org.tinylog.core.LogEntry;
+import org.tinylog.core.LogEntryValue;
+import org.tinylog.rules.SystemStreamCollector;
+import org.tinylog.util.FileSystem;
+import org.tinylog.util.LogEntryBuilder;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.tinylog.util.Maps.doubletonMap;
+import static org.tinylog.util.ResultObserver.waitFor;
+
+/**
+ * Tests for {@link RoutingFileWriter}.
+ */
+public final class RoutingFileWriterTest {
+
+	private static final String NEW_LINE = System.lineSeparator();
+
+	/**
+	 * Redirects and collects system output streams.
+	 */
+	@Rule
+	public final SystemStreamCollector systemStream = new SystemStreamCollector(true);
+
+	/**
+	 * Temporary folder for creating volatile files.
+	 */
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Verifies that tag and thread context are required, if used as routing placeholders.
+	 *
+	 * @throws IOException
+	 *             Failed closing writer
+	 */
+	@Test
+	public void requiredLogEntryValues() throws IOException {
+		RoutingFileWriter writer = create("{context: tenant}-{tag}.log", emptyMap());
+		assertThat(writer.getRequiredLogEntryValues())
+			.containsOnly(LogEntryValue.MESSAGE, LogEntryValue.EXCEPTION, LogEntryValue.TAG, LogEntryValue.CONTEXT);
+		writer.close();
+	}
+
+	/**
+	 * Verifies that log entries are routed to separate log files by a thread context value.
+	 *
+	 * @throws IOException
+	 *             Failed writing log files
+	 */
+	@Test
+	public void routeByContext() throws IOException {
+		RoutingFileWriter writer = create("{context: tenant}.log", emptyMap());
+
+		writer.write(createLogEntry("acme", "First"));
+		writer.write(createLogEntry("globex", "Second"));
+		writer.write(createLogEntry("acme", "Third"));
+		writer.write(createLogEntry(null, "Fourth"));
+		writer.close();
+
+		assertThat(read("acme.log")).isEqualTo("First" + NEW_LINE + "Third" + NEW_LINE);
+		assertThat(read("globex.log")).isEqualTo("Second" + NEW_LINE);
+		assertThat(read("default.log")).isEqualTo("Fourth" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that log entries are routed to separate log files by the tag.
+	 *
+	 * @throws IOException
+	 *             Failed writing log files
+	 */
+	@Test
+	public void routeByTag() throws IOException {
+		RoutingFileWriter writer = create("{tag: untagged}.log", emptyMap());
+
+		writer.write(LogEntryBuilder.empty().tag("db").message("Query").create());
+		writer.write(LogEntryBuilder.empty().message("Start").create());
+		writer.close();
+
+		assertThat(read("db.log")).isEqualTo("Query" + NEW_LINE);
+		assertThat(read("untagged.log")).isEqualTo("Start" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that the least recently used log file is closed, if the maximum number of open files is reached, and
+	 * continued when it is routed again.
+	 *
+	 * @throws IOException
+	 *             Failed writing log files
+	 */
+	@Test
+	public void leastRecentlyUsedEviction() throws IOException {
+		RoutingFileWriter writer = create("{context: tenant}.log", doubletonMap("handles", "2", "policies", "size: 1mb"));
+
+		writer.write(createLogEntry("a", "1"));
+		writer.write(createLogEntry("b", "2"));
+		writer.write(createLogEntry("a", "3"));
+		assertThat(writer.getOpenFiles()).isEqualTo(2);
+
+		writer.write(createLogEntry("c", "4"));
+		assertThat(writer.getOpenFiles()).isEqualTo(2);
+		assertThat(read("b.log")).isEqualTo("2" + NEW_LINE);
+
+		writer.write(createLogEntry("b", "5"));
+		writer.close();
+
+		assertThat(read("a.log")).isEqualTo("1" + NEW_LINE + "3" + NEW_LINE);
+		assertThat(read("b.log")).isEqualTo("2" + NEW_LINE + "5" + NEW_LINE);
+		assertThat(read("c.log")).isEqualTo("4" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that evicting a routed log file doesn't wait for its pending housekeeping tasks, while closing the
+	 * writer does.
+	 *
+	 * @throws Exception
+	 *             Failed writing log files or submitting the housekeeping task
+	 */
+	@Test
+	public void evictionWithoutWaitingForHousekeeping() throws Exception {
+		RoutingFileWriter writer = create("{context: tenant}.log", singletonMap("handles", "1"));
+		writer.write(createLogEntry("a", "1"));
+
+		CountDownLatch released = new CountDownLatch(1);
+		AtomicBoolean done = new AtomicBoolean();
+		Map<String, ?> routes = Whitebox.getInternalState(writer, "routes");
+		RollingFileWriter route = Whitebox.getInternalState(routes.get(new File(folder.getRoot(), "a.log").getAbsolutePath()),
+			"writer");
+		RollingFile file = Whitebox.getInternalState(route, "file");
+		Whitebox.invokeMethod(file, "submit", (Runnable) () -> {
+			try {
+				released.await();
+			} catch (InterruptedException ex) {
+				// Ignore
+			}
+			done.set(true);
+		});
+
+		long start = System.currentTimeMillis();
+		writer.write(createLogEntry("b", "2"));
+		assertThat(System.currentTimeMillis() - start).isLessThan(1000);
+		assertThat(read("a.log")).isEqualTo("1" + NEW_LINE);
+
+		Thread releaser = new Thread(() -> {
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException ex) {
+				// Ignore
+			}
+			released.countDown();
+		});
+		releaser.start();
+
+		writer.close();
+		assertThat(done).isTrue();
+	}
+
+	/**
+	 * Verifies that all routed log files share the housekeeping thread of the writer.
+	 *
+	 * @throws IOException
+	 *             Failed writing log files
+	 */
+	@Test
+	public void shareHousekeepingThread() throws IOException {
+		RoutingFileWriter writer = create("{context: tenant}.log", emptyMap());
+		writer.write(createLogEntry("a", "1"));
+		writer.write(createLogEntry("b", "2"));
+
+		HousekeepingThread thread = Whitebox.getInternalState(writer, "housekeepingThread");
+		assertThat((Object) Whitebox.getInternalState(getRollingFile(writer, "a.log"), "housekeepingThread")).isSameAs(thread);
+		assertThat((Object) Whitebox.getInternalState(getRollingFile(writer, "b.log"), "housekeepingThread")).isSameAs(thread);
+
+		writer.close();
+		assertThat(thread.isAlive()).isFalse();
+	}
+
+	/**
+	 * Verifies that obsolete backups are deleted by the shared housekeeping thread instead of the logging thread when
+	 * opening a routed log file.
+	 *
+	 * @throws Exception
+	 *             Failed writing log files or submitting the housekeeping task
+	 */
+	@Test
+	public void deleteBackupsInBackground() throws Exception {
+		for (int i = 0; i < 3; ++i) {
+			File file = folder.newFile("a-" + i + ".log");
+			file.setLastModified(System.currentTimeMillis() - (3 - i) * 60_000L);
+		}
+
+		RoutingFileWriter writer = create("{context: tenant}-{count}.log", singletonMap("backups", "1"));
+		writer.write(createLogEntry("b", "1"));
+
+		CountDownLatch released = new CountDownLatch(1);
+		HousekeepingThread thread = Whitebox.getInternalState(writer, "housekeepingThread");
+		thread.add(() -> {
+			try {
+				released.await();
+			} catch (InterruptedException ex) {
+				// Ignore
+			}
+		});
+
+		writer.write(createLogEntry("a", "2"));
+		assertThat(folder.getRoot().list()).contains("a-0.log", "a-1.log", "a-2.log", "a-3.log");
+
+		released.countDown();
+		writer.close();
+
+		assertThat(folder.getRoot().list()).containsOnly("a-2.log", "a-3.log", "b-0.log");
+		assertThat(read("a-3.log")).isEqualTo("2" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that a reopened routed log file reuses its known log files instead of scanning the folder again.
+	 *
+	 * @throws IOException
+	 *             Failed writing log files
+	 */
+	@Test
+	public void reopenWithoutRescanning() throws IOException {
+		RoutingFileWriter writer = create("{context: tenant}.log", doubletonMap("handles", "1", "policies", "size: 1mb"));
+
+		writer.write(createLogEntry("a", "1"));
+		RollingFile file = getRollingFile(writer, "a.log");
+
+		writer.write(createLogEntry("b", "2"));
+		writer.write(createLogEntry("a", "3"));
+		assertThat(getRollingFile(writer, "a.log")).isSameAs(file);
+
+		writer.close();
+		assertThat(read("a.log")).isEqualTo("1" + NEW_LINE + "3" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that routed log files are closed after the idle timeout.
+	 *
+	 * @throws IOException
+	 *             Failed writing log files
+	 */
+	@Test
+	public void idleTimeout() throws IOException {
+		RoutingFileWriter writer = create("{context: tenant}.log", doubletonMap("idle", "10ms", "buffered", "true"));
+
+		writer.write(createLogEntry("acme", "Hello World!"));
+		assertThat(writer.getOpenFiles()).isEqualTo(1);
+
+		assertThat(waitFor(writer::getOpenFiles, count -> count == 0, 1000)).isZero();
+		assertThat(read("acme.log")).isEqualTo("Hello World!" + NEW_LINE);
+
+		writer.close();
+	}
+
+	/**
+	 * Verifies that policies and backups apply per routed log file.
+	 *
+	 * @throws IOException
+	 *             Failed writing log files
+	 */
+	@Test
+	public void policiesPerRoute() throws IOException {
+		Map<String, String> properties = new HashMap<>();
+		properties.put("policies", "size: 20");
+		properties.put("backups", "1");
+
+		RoutingFileWriter writer = create("{context: tenant}_{count}.log", properties);
+
+		for (int i = 0; i < 4; ++i) {
+			writer.write(createLogEntry("acme", "Hello World!"));
+		}
+		writer.write(createLogEntry("globex", "Hello World!"));
+		writer.close();
+
+		assertThat(folder.getRoot().list()).containsExactlyInAnyOrder("acme_1.log", "acme_2.log", "globex_0.log");
+	}
+
+	/**
+	 * Verifies that writing with writing thread works and idle log files are closed on flushing.
+	 *
+	 * @throws IOException
+	 *             Failed writing log files
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for the idle timeout
+	 */
+	@Test
+	public void writingThread() throws IOException, InterruptedException {
+		RoutingFileWriter writer = create("{context: tenant}.log", doubletonMap("idle", "10ms", "writingthread", "true"));
+
+		writer.write(createLogEntry("acme", "Hello World!"));
+		assertThat(writer.getOpenFiles()).isEqualTo(1);
+
+		Thread.sleep(20);
+		writer.flush();
+		assertThat(writer.getOpenFiles()).isZero();
+
+		writer.close();
+		assertThat(read("acme.log")).isEqualTo("Hello World!" + NEW_LINE);
+	}
+
+	/**
+	 * Verifies that writer is registered as service under the name "routing file".
+	 *
+	 * @throws Exception
+	 *             Failed closing writer
+	 */
+	@Test
+	public void isRegistered() throws Exception {
+		String file = FileSystem.createTemporaryFile();
+		Map<String, String> properties = doubletonMap("file", file, "format", "{message}");
+		Writer writer = new ServiceLoader<>(Writer.class, Map.class).create("routing file", properties);
+		assertThat(writer).isInstanceOf(RoutingFileWriter.class);
+		writer.close();
+	}
+
+	/**
+	 * Creates a routing file writer for the temporary folder.
+	 *
+	 * @param fileName
+	 *            Name of the log files with routing placeholders
+	 * @param properties
+	 *            Additional configuration
+	 * @return Created writer
+	 */
+	private RoutingFileWriter create(final String fileName, final Map<String, String> properties) {
+		Map<String, String> configuration = new HashMap<>(properties);
+		configuration.put("file", new File(folder.getRoot(), fileName).getAbsolutePath());
+		configuration.put("format", "{message}");
+		return new RoutingFileWriter(configuration);
+	}
+
+	/**
+	 * Gets the rolling log file of an open route.
+	 *
+	 * @param writer
+	 *            Routing writer
+	 * @param fileName
+	 *            Name of the routed log file
+	 * @return Rolling log file of the route
+	 */
+	private RollingFile getRollingFile(final RoutingFileWriter writer, final String fileName) {
+		Map<String, ?> routes = Whitebox.getInternalState(writer, "routes");
+		RollingFileWriter route = Whitebox.getInternalState(routes.get(new File(folder.getRoot(), fileName).getAbsolutePath()), "writer");
+		return Whitebox.getInternalState(route, "file");
+	}
+
+	/**
+	 * Reads a log file from the temporary folder.
+	 *
+	 * @param fileName
+	 *            Name of the log file
+	 * @return Content of the log file
+	 * @throws IOException
+	 *             Failed reading log file
+	 */
+	private String read(final String fileName) throws IOException {
+		return FileSystem.readFile(new File(folder.getRoot(), fileName).getAbsolutePath());
+	}
+
+	/**
+	 * Creates a log entry with a tenant.
+	 *
+	 * @param tenant
+	 *            Tenant for the thread context or {@code null} for none
+	 * @param message
+	 *            Text message
+	 * @return Created log entry
+	 */
+	private static LogEntry createLogEntry(final String tenant, final String message) {
+		LogEntryBuilder builder = LogEntryBuilder.empty().message(message);
+		return tenant == null ? builder.create() : builder.context("tenant", tenant).create();
+	}
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import org.junit.Test;
+import org.tinylog.core.LogEntry;
+import org.tinylog.util.LogEntryBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link RoutingPath}.
+ */
+public final class RoutingPathTest {
+
+	/**
+	 * Verifies that a path without any patterns is returned as it is.
+	 */
+	@Test
+	public void plainPath() {
+		RoutingPath path = new RoutingPath("logs/app.log");
+
+		assertThat(path.usesTag()).isFalse();
+		assertThat(path.usesContext()).isFalse();
+		assertThat(path.resolve(LogEntryBuilder.empty().create())).isEqualTo("logs/app.log");
+	}
+
+	/**
+	 * Verifies that the tag placeholder is resolved.
+	 */
+	@Test
+	public void tag() {
+		RoutingPath path = new RoutingPath("logs/{tag}.log");
+
+		assertThat(path.usesTag()).isTrue();
+		assertThat(path.usesContext()).isFalse();
+		assertThat(path.resolve(LogEntryBuilder.empty().tag("SYSTEM").create())).isEqualTo("logs/SYSTEM.log");
+		assertThat(path.resolve(LogEntryBuilder.empty().create())).isEqualTo("logs/default.log");
+	}
+
+	/**
+	 * Verifies that the tag placeholder can have a custom default value.
+	 */
+	@Test
+	public void tagWithDefaultValue() {
+		RoutingPath path = new RoutingPath("logs/{tag: untagged}.log");
+		assertThat(path.resolve(LogEntryBuilder.empty().create())).isEqualTo("logs/untagged.log");
+	}
+
+	/**
+	 * Verifies that the context placeholder is resolved.
+	 */
+	@Test
+	public void context() {
+		RoutingPath path = new RoutingPath("logs/{context: tenant}/app.log");
+
+		assertThat(path.usesTag()).isFalse();
+		assertThat(path.usesContext()).isTrue();
+		assertThat(path.resolve(LogEntryBuilder.empty().context("tenant", "acme").create())).isEqualTo("logs/acme/app.log");
+		assertThat(path.resolve(LogEntryBuilder.empty().create())).isEqualTo("logs/default/app.log");
+	}
+
+	/**
+	 * Verifies that the context placeholder can have a custom default value.
+	 */
+	@Test
+	public void contextWithDefaultValue() {
+		RoutingPath path = new RoutingPath("logs/{context: tenant, system}.log");
+		assertThat(path.resolve(LogEntryBuilder.empty().create())).isEqualTo("logs/system.log");
+	}
+
+	/**
+	 * Verifies that an exception is thrown, if a context placeholder has no key.
+	 */
+	@Test
+	public void contextWithoutKey() {
+		assertThatThrownBy(() -> new RoutingPath("logs/{context}.log")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new RoutingPath("logs/{context: }.log")).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	/**
+	 * Verifies that multiple routing placeholders can be combined and other patterns are kept.
+	 */
+	@Test
+	public void mixedPatterns() {
+		RoutingPath path = new RoutingPath("logs/{context: tenant}/{date: yyyy-MM-dd}_{tag}_{count}.log");
+		LogEntry logEntry = LogEntryBuilder.empty().context("tenant", "acme").tag("db").create();
+
+		assertThat(path.usesTag()).isTrue();
+		assertThat(path.usesContext()).isTrue();
+		assertThat(path.resolve(logEntry)).isEqualTo("logs/acme/{date: yyyy-MM-dd}_db_{count}.log");
+	}
+
+	/**
+	 * Verifies that resolved values cannot change the directory or introduce new patterns.
+	 */
+	@Test
+	public void sanitizing() {
+		RoutingPath path = new RoutingPath("logs/{context: tenant}.log");
+
+		assertThat(path.resolve(LogEntryBuilder.empty().context("tenant", "../etc/passwd").create())).isEqualTo("logs/.._etc_passwd.log");
+		assertThat(path.resolve(LogEntryBuilder.empty().context("tenant", "..").create())).isEqualTo("logs/_.log");
+		assertThat(path.resolve(LogEntryBuilder.empty().context("tenant", "{date}").create())).isEqualTo("logs/_date_.log");
+		assertThat(path.resolve(LogEntryBuilder.empty().context("tenant", "a b\\c").create())).isEqualTo("logs/a_b_c.log");
+	}
+
+}
@@ -21,6 +21,7 @@ import java.nio.channels.FileLock;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
@@ -40,6 +41,7 @@ import org.tinylog.util.FileSystem;
 import org.tinylog.util.JvmProcessBuilder;
 import org.tinylog.util.LogEntryBuilder;
 import org.tinylog.writers.raw.ByteArrayWriter;
+import org.tinylog.writers.raw.OutputStreamWriter;
 import org.tinylog.writers.raw.SynchronizedWriterDecorator;
 
 import static java.util.Collections.emptyMap;
@@ -208,6 +210,82 @@ public final class SharedFileWriterTest {
 			.matches(Pattern.quote("PREAMBLE" + NEW_LINE) + "(" + Pattern.quote(LOG_ENTRY_MESSAGE + NEW_LINE) + "){" + entries + "}");
 	}
 
+	/**
+	 * Verifies that multiple processes can write buffered log entries simultaneously to the same file, while the file
+	 * is locked once per batch.
+	 *
+	 * @throws IOException
+	 *             Failed accessing temporary file or creating process
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for process
+	 */
+	@Test
+	public void bufferedWritingForMultipleProcesses() throws IOException, InterruptedException {
+		verifyMultipleProcesses("buffered=true");
+	}
+
+	/**
+	 * Verifies that multiple processes can write buffered log entries simultaneously to the same file without locking.
+	 *
+	 * @throws IOException
+	 *             Failed accessing temporary file or creating process
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for process
+	 */
+	@Test
+	public void lockFreeWritingForMultipleProcesses() throws IOException, InterruptedException {
+		verifyMultipleProcesses("buffered=true", "locking=false");
+	}
+
+	/**
+	 * Verifies that log entries will be written without locking, if locking is disabled.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 */
+	@Test
+	public void lockFreeWriting() throws IOException {
+		String file = FileSystem.createTemporaryFile("Test");
+		SharedFileWriter writer = new SharedFileWriter(tripletonMap("file", file, "format", "{message}", "locking", "false"));
+		ByteArrayWriter byteArrayWriter = Whitebox.getInternalState(Whitebox.getInternalState(writer, "writer"), "writer");
+
+		writer.write(LogEntryBuilder.empty().message("Hello World!").create());
+		assertThat(FileSystem.readFile(file)).isEqualTo("Hello World!" + NEW_LINE);
+		assertThat(byteArrayWriter).isInstanceOf(OutputStreamWriter.class);
+
+		writer.close();
+	}
+
+	/**
+	 * Verifies that buffered log entries will be flushed periodically, if a flush interval is defined.
+	 *
+	 * @throws IOException
+	 *             Failed writing to file
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for the flush
+	 */
+	@Test
+	public void periodicFlushing() throws IOException, InterruptedException {
+		String file = FileSystem.createTemporaryFile();
+
+		Map<String, String> properties = new HashMap<>();
+		properties.put("file", file);
+		properties.put("format", "{message}");
+		properties.put("buffered", "true");
+		properties.put("flush.interval", "10ms");
+
+		SharedFileWriter writer = new SharedFileWriter(properties);
+		writer.write(LogEntryBuilder.empty().message("Hello World!").create());
+
+		for (int i = 0; i < 1000 && FileSystem.readFile(file).isEmpty(); ++i) {
+			Thread.sleep(10);
+		}
+
+		assertThat(FileSystem.readFile(file)).isEqualTo("Hello World!" + NEW_LINE);
+
+		writer.close();
+	}
+
 	/**
 	 * Verifies that writing works and underlying byte array writer is thread-safe, if writing thread is disable.
 	 *
@@ -348,12 +426,51 @@ public final class SharedFileWriterTest {
 		assertThat(writer).isInstanceOf(SharedFileWriter.class);
 	}
 
+	/**
+	 * Starts multiple processes that write simultaneously to the same file and verifies that all log entries are output
+	 * completely without being interleaved.
+	 *
+	 * @param properties
+	 *            Additional configuration for all writers as "key=value" pairs
+	 * @throws IOException
+	 *             Failed accessing temporary file or creating process
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for process
+	 */
+	private static void verifyMultipleProcesses(final String... properties) throws IOException, InterruptedException {
+		File file = new File(FileSystem.createTemporaryFile());
+		String path = file.getAbsolutePath();
+
+		if (!file.delete()) {
+			throw new IOException("Failed to delete temporary file: " + path);
+		}
+
+		String[] arguments = new String[properties.length + 2];
+		arguments[0] = path;
+		arguments[1] = "true";
+		System.arraycopy(properties, 0, arguments, 2, properties.length);
+
+		List<Process> processes = new JvmProcessBuilder(SharedFileWriterTest.class, arguments).start(NUMBER_OF_PROCESSES);
+
+		Files.write(file.toPath(), Arrays.asList("PREAMBLE"));
+
+		for (Process process : processes) {
+			process.waitFor();
+		}
+
+		int entries = NUMBER_OF_PROCESSES * NUMBER_OF_LINES;
+		assertThat(FileSystem.readFile(path))
+			.hasLineCount(entries + 1)
+			.matches(Pattern.quote("PREAMBLE" + NEW_LINE) + "(" + Pattern.quote(LOG_ENTRY_MESSAGE + NEW_LINE) + "){" + entries + "}");
+	}
+
 	/**
 	 * Writes a defined number of lines to a given target file. This main method is used to test writing simultaneously
 	 * to the same file by multiple processes.
 	 *
 	 * @param arguments
-	 *            First element will be used as file name for target file and second element for defining append mode
+	 *            First element will be used as file name for target file, second element for defining append mode, and
+	 *            all further elements as additional configuration in the format "key=value"
 	 * @throws IOException
 	 *             Failed writing to target file
 	 */
@@ -363,7 +480,16 @@ public final class SharedFileWriterTest {
 			Thread.yield();
 		}
 
-		Map<String, String> properties = tripletonMap("file", arguments[0], "append", arguments[1], "format", "{message}");
+		Map<String, String> properties = new HashMap<>();
+		properties.put("file", arguments[0]);
+		properties.put("append", arguments[1]);
+		properties.put("format", "{message}");
+
+		for (int i = 2; i < arguments.length; ++i) {
+			String[] pair = arguments[i].split("=", 2);
+			properties.put(pair[0], pair[1]);
+		}
+
 		SharedFileWriter writer = new SharedFileWriter(properties);
 		LogEntry logEntry = LogEntryBuilder.prefilled(SharedFileWriterTest.class).message(LOG_ENTRY_MESSAGE).create();
 
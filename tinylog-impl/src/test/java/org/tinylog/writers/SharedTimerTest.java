@@ -0,0 +1,103 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.util.TimerTask;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link SharedTimer}.
+ */
+public final class SharedTimerTest {
+
+	/**
+	 * Verifies that the timer thread is started on first acquisition and stopped after the last release.
+	 */
+	@Test
+	public void startAndStop() {
+		assertThat(SharedTimer.isRunning()).isFalse();
+
+		SharedTimer.acquire();
+		SharedTimer.acquire();
+		assertThat(SharedTimer.isRunning()).isTrue();
+
+		SharedTimer.release();
+		assertThat(SharedTimer.isRunning()).isTrue();
+
+		SharedTimer.release();
+		assertThat(SharedTimer.isRunning()).isFalse();
+	}
+
+	/**
+	 * Verifies that scheduled tasks are executed.
+	 *
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for the task
+	 */
+	@Test
+	public void executeTasks() throws InterruptedException {
+		CountDownLatch single = new CountDownLatch(1);
+		CountDownLatch repeated = new CountDownLatch(3);
+
+		SharedTimer.acquire();
+		try {
+			SharedTimer.schedule(new LatchTask(single), 1);
+			SharedTimer.scheduleAtFixedRate(new LatchTask(repeated), 1, 1);
+
+			assertThat(single.await(1, TimeUnit.SECONDS)).isTrue();
+			assertThat(repeated.await(1, TimeUnit.SECONDS)).isTrue();
+		} finally {
+			SharedTimer.release();
+		}
+	}
+
+	/**
+	 * Verifies that tasks are ignored if the timer is not running.
+	 */
+	@Test
+	public void ignoreTasksWithoutTimer() {
+		CountDownLatch latch = new CountDownLatch(1);
+		SharedTimer.schedule(new LatchTask(latch), 0);
+		assertThat(SharedTimer.isRunning()).isFalse();
+		assertThat(latch.getCount()).isEqualTo(1);
+	}
+
+	/**
+	 * Timer task that counts down a latch.
+	 */
+	private static final class LatchTask extends TimerTask {
+
+		private final CountDownLatch latch;
+
+		/**
+		 * @param latch
+		 *            Latch to count down
+		 */
+		private LatchTask(final CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		@Override
+		public void run() {
+			latch.countDown();
+		}
+
+	}
+
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.tinylog.rules.SystemStreamCollector;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link SyslogSender}.
+ */
+public final class SyslogSenderTest {
+
+	private static final int TIMEOUT = 10_000;
+
+	/**
+	 * Redirects and collects system output streams.
+	 */
+	@Rule
+	public final SystemStreamCollector systemStream = new SystemStreamCollector(true);
+
+	/**
+	 * Verifies that the sender thread is a daemon thread with a meaningful name.
+	 *
+	 * @throws InterruptedException
+	 *             Interrupted while shutting down sender
+	 */
+	@Test
+	public void threadProperties() throws InterruptedException {
+		SyslogSender sender = new SyslogSender(SyslogSender.Protocol.UDP, "127.0.0.1", 514, 1);
+
+		assertThat(sender.getName()).isEqualTo("tinylog-SyslogThread");
+		assertThat(sender.isDaemon()).isTrue();
+		assertThat(sender.getPriority()).isEqualTo(Thread.MIN_PRIORITY);
+
+		sender.start();
+		sender.shutdown();
+
+		assertThat(sender.isAlive()).isFalse();
+	}
+
+	/**
+	 * Verifies that all queued records are sent as one batch via TCP.
+	 *
+	 * @throws IOException
+	 *             Failed receiving data
+	 * @throws InterruptedException
+	 *             Interrupted while shutting down sender
+	 */
+	@Test
+	public void sendBatch() throws IOException, InterruptedException {
+		try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+			server.setSoTimeout(TIMEOUT);
+			SyslogSender sender = new SyslogSender(SyslogSender.Protocol.TCP, "127.0.0.1", server.getLocalPort(), 10);
+
+			assertThat(sender.offer(bytes("1 A"))).isTrue();
+			assertThat(sender.offer(bytes("1 B"))).isTrue();
+			assertThat(sender.offer(bytes("1 C"))).isTrue();
+
+			sender.start();
+			sender.flush();
+
+			try (Socket socket = server.accept()) {
+				socket.setSoTimeout(TIMEOUT);
+				assertThat(read(socket, 9)).isEqualTo("1 A1 B1 C");
+			}
+
+			sender.shutdown();
+		}
+	}
+
+	/**
+	 * Verifies that records are discarded instead of blocking, if the queue is full.
+	 *
+	 * @throws InterruptedException
+	 *             Interrupted while shutting down sender
+	 */
+	@Test
+	public void discardIfFull() throws InterruptedException {
+		SyslogSender sender = new SyslogSender(SyslogSender.Protocol.UDP, "127.0.0.1", 514, 2);
+
+		assertThat(sender.offer(bytes("A"))).isTrue();
+		assertThat(sender.offer(bytes("B"))).isTrue();
+		assertThat(sender.offer(bytes("C"))).isFalse();
+
+		sender.shutdown();
+	}
+
+	/**
+	 * Verifies that flushing does not block and the failed batch is resent after reconnecting, if the syslog server is
+	 * temporarily unreachable.
+	 *
+	 * @throws IOException
+	 *             Failed receiving data
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for reconnect
+	 */
+	@Test
+	public void reconnectWithBackoff() throws IOException, InterruptedException {
+		int port;
+		try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+			port = socket.getLocalPort();
+		}
+
+		SyslogSender sender = new SyslogSender(SyslogSender.Protocol.TCP, "127.0.0.1", port, 1);
+		sender.start();
+		sender.offer(bytes("1 A"));
+
+		for (int i = 0; i < TIMEOUT && !sender.isFailing(); i += 10) {
+			Thread.sleep(10);
+		}
+
+		assertThat(sender.isFailing()).isTrue();
+		sender.flush();
+
+		assertThat(systemStream.consumeErrorOutput()).containsOnlyOnce("ERROR").contains("127.0.0.1:" + port);
+
+		sender.offer(bytes("1 B"));
+		sender.offer(bytes("1 C"));
+
+		try (ServerSocket server = new ServerSocket(port, 1, InetAddress.getLoopbackAddress())) {
+			server.setSoTimeout(TIMEOUT);
+
+			try (Socket socket = server.accept()) {
+				socket.setSoTimeout(TIMEOUT);
+				assertThat(read(socket, 6)).isEqualTo("1 A1 B");
+			}
+
+			sender.shutdown();
+		}
+
+		assertThat(systemStream.consumeErrorOutput()).containsOnlyOnce("WARN").contains("discarded 1 log entries");
+	}
+
+	/**
+	 * Encodes a text as UTF-8.
+	 *
+	 * @param text
+	 *            Text to encode
+	 * @return Encoded text
+	 */
+	private static byte[] bytes(final String text) {
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Reads a defined number of bytes from a socket.
+	 *
+	 * @param socket
+	 *            Socket to read from
+	 * @param length
+	 *            Number of bytes to read
+	 * @return Read bytes as UTF-8 string
+	 * @throws IOException
+	 *             Failed reading from socket
+	 */
+	private static String read(final Socket socket, final int length) throws IOException {
+		byte[] data = new byte[length];
+		new DataInputStream(socket.getInputStream()).readFully(data);
+		return new String(data, StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.tinylog.Level;
+import org.tinylog.configuration.ServiceLoader;
+import org.tinylog.core.LogEntry;
+import org.tinylog.core.LogEntryValue;
+import org.tinylog.rules.SystemStreamCollector;
+import org.tinylog.runtime.RuntimeProvider;
+import org.tinylog.util.LogEntryBuilder;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.tinylog.util.Maps.doubletonMap;
+import static org.tinylog.util.Maps.tripletonMap;
+
+/**
+ * Tests for {@link SyslogWriter}.
+ */
+public final class SyslogWriterTest {
+
+	private static final int TIMEOUT = 10_000;
+
+	private static final LogEntry LOG_ENTRY = LogEntryBuilder.empty()
+		.date(ZonedDateTime.of(2020, 6, 3, 14, 5, 6, 789_000_000, ZoneOffset.UTC))
+		.level(Level.INFO)
+		.message("Hello World!")
+		.create();
+
+	/**
+	 * Redirects and collects system output streams.
+	 */
+	@Rule
+	public final SystemStreamCollector systemStream = new SystemStreamCollector(true);
+
+	/**
+	 * Verifies that all required log entry values will be detected.
+	 *
+	 * @throws InterruptedException
+	 *             Interrupted while closing writer
+	 */
+	@Test
+	public void requiredLogEntryValues() throws InterruptedException {
+		SyslogWriter writer = new SyslogWriter(singletonMap("format", "{class}: {message}"));
+
+		try {
+			assertThat(writer.getRequiredLogEntryValues())
+				.containsOnly(LogEntryValue.DATE, LogEntryValue.LEVEL, LogEntryValue.CLASS, LogEntryValue.MESSAGE,
+					LogEntryValue.EXCEPTION);
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Verifies that log entries are rendered according to RFC 5424 by default.
+	 *
+	 * @throws InterruptedException
+	 *             Interrupted while closing writer
+	 */
+	@Test
+	public void renderRfc5424() throws InterruptedException {
+		SyslogWriter writer = new SyslogWriter(doubletonMap("hostname", "myhost", "identification", "myapp"));
+
+		try {
+			assertThat(render(writer, LOG_ENTRY))
+				.isEqualTo("<14>1 2020-06-03T14:05:06.789Z myhost myapp " + RuntimeProvider.getProcessId() + " - - Hello World!");
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Verifies that log entries are rendered according to RFC 3164, if configured.
+	 *
+	 * @throws InterruptedException
+	 *             Interrupted while closing writer
+	 */
+	@Test
+	public void renderRfc3164() throws InterruptedException {
+		SyslogWriter writer = new SyslogWriter(tripletonMap("standard", "rfc3164", "hostname", "myhost", "identification", "myapp"));
+		LogEntry logEntry = LogEntryBuilder.empty().date(LocalDateTime.of(2020, 6, 3, 14, 5, 6)).level(Level.WARN).message("Hi").create();
+
+		try {
+			assertThat(render(writer, logEntry)).isEqualTo("<12>Jun  3 14:05:06 myhost myapp[" + RuntimeProvider.getProcessId() + "]: Hi");
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Verifies that the default severities are mapped correctly to all severity levels.
+	 *
+	 * @throws InterruptedException
+	 *             Interrupted while closing writer
+	 */
+	@Test
+	public void defaultSeverities() throws InterruptedException {
+		SyslogWriter writer = new SyslogWriter(emptyMap());
+
+		try {
+			assertThat(render(writer, entry(Level.TRACE))).startsWith("<15>1 ");
+			assertThat(render(writer, entry(Level.DEBUG))).startsWith("<15>1 ");
+			assertThat(render(writer, entry(Level.INFO))).startsWith("<14>1 ");
+			assertThat(render(writer, entry(Level.WARN))).startsWith("<12>1 ");
+			assertThat(render(writer, entry(Level.ERROR))).startsWith("<11>1 ");
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Verifies that facility and severities can be configured.
+	 *
+	 * @throws InterruptedException
+	 *             Interrupted while closing writer
+	 */
+	@Test
+	public void configuredFacilityAndSeverities() throws InterruptedException {
+		SyslogWriter writer = new SyslogWriter(tripletonMap("facility", "local0", "severity.info", "notice", "severity.error", "CRITICAL"));
+
+		try {
+			assertThat(render(writer, entry(Level.DEBUG))).startsWith("<135>1 ");
+			assertThat(render(writer, entry(Level.INFO))).startsWith("<133>1 ");
+			assertThat(render(writer, entry(Level.ERROR))).startsWith("<130>1 ");
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Verifies that invalid configuration values are reported and replaced by the defaults.
+	 *
+	 * @throws InterruptedException
+	 *             Interrupted while closing writer
+	 */
+	@Test
+	public void invalidConfiguration() throws InterruptedException {
+		Map<String, String> properties = new HashMap<>();
+		properties.put("protocol", "smtp");
+		properties.put("standard", "rfc42");
+		properties.put("facility", "kitchen");
+		properties.put("severity.warn", "panic");
+		properties.put("port", "70000");
+		properties.put("queue", "-1");
+
+		SyslogWriter writer = new SyslogWriter(properties);
+
+		try {
+			assertThat(render(writer, entry(Level.WARN))).startsWith("<12>1 ");
+			assertThat(systemStream.consumeErrorOutput())
+				.contains("smtp")
+				.contains("rfc42")
+				.contains("kitchen")
+				.contains("panic")
+				.contains("70000")
+				.contains("queue capacity");
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Verifies that log entries can be sent via UDP.
+	 *
+	 * @throws IOException
+	 *             Failed receiving datagram
+	 * @throws InterruptedException
+	 *             Interrupted while closing writer
+	 */
+	@Test
+	public void sendViaUdp() throws IOException, InterruptedException {
+		try (DatagramSocket server = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+			server.setSoTimeout(TIMEOUT);
+
+			String port = Integer.toString(server.getLocalPort());
+			SyslogWriter writer = new SyslogWriter(tripletonMap("host", "127.0.0.1", "port", port, "hostname", "h"));
+
+			try {
+				writer.write(LOG_ENTRY);
+				writer.flush();
+
+				DatagramPacket packet = new DatagramPacket(new byte[1024], 1024);
+				server.receive(packet);
+
+				assertThat(new String(packet.getData(), 0, packet.getLength(), StandardCharsets.UTF_8))
+					.startsWith("<14>1 2020-06-03T14:05:06.789Z h tinylog ")
+					.endsWith(" - - Hello World!");
+			} finally {
+				writer.close();
+			}
+		}
+	}
+
+	/**
+	 * Verifies that log entries can be sent via TCP with octet-counting framing.
+	 *
+	 * @throws IOException
+	 *             Failed receiving data
+	 * @throws InterruptedException
+	 *             Interrupted while closing writer
+	 */
+	@Test
+	public void sendViaTcp() throws IOException, InterruptedException {
+		try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+			server.setSoTimeout(TIMEOUT);
+
+			Map<String, String> properties = new HashMap<>();
+			properties.put("protocol", "tcp");
+			properties.put("host", "127.0.0.1");
+			properties.put("port", Integer.toString(server.getLocalPort()));
+			properties.put("format", "{message}");
+
+			SyslogWriter writer = new SyslogWriter(properties);
+
+			try {
+				writer.write(entry(Level.INFO, "First"));
+				writer.write(entry(Level.INFO, "Second\nLine"));
+				writer.flush();
+
+				try (Socket socket = server.accept()) {
+					socket.setSoTimeout(TIMEOUT);
+					DataInputStream stream = new DataInputStream(socket.getInputStream());
+
+					assertThat(readFrame(stream)).startsWith("<14>1 ").endsWith(" First");
+					assertThat(readFrame(stream)).startsWith("<14>1 ").endsWith(" Second\nLine");
+				}
+			} finally {
+				writer.close();
+			}
+		}
+	}
+
+	/**
+	 * Verifies that writer is registered as service under the name "syslog".
+	 *
+	 * @throws Exception
+	 *             Failed closing writer
+	 */
+	@Test
+	public void isRegistered() throws Exception {
+		Writer writer = new ServiceLoader<>(Writer.class, Map.class).create("syslog", emptyMap());
+
+		try {
+			assertThat(writer).isInstanceOf(SyslogWriter.class);
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Creates a log entry without message.
+	 *
+	 * @param level
+	 *            Severity level
+	 * @return Created log entry
+	 */
+	private static LogEntry entry(final Level level) {
+		return entry(level, null);
+	}
+
+	/**
+	 * Creates a log entry with the current date.
+	 *
+	 * @param level
+	 *            Severity level
+	 * @param message
+	 *            Text message
+	 * @return Created log entry
+	 */
+	private static LogEntry entry(final Level level, final String message) {
+		return LogEntryBuilder.empty().date(LocalDateTime.now()).level(level).message(message).create();
+	}
+
+	/**
+	 * Renders a log entry as string.
+	 *
+	 * @param writer
+	 *            Syslog writer for rendering
+	 * @param logEntry
+	 *            Log entry to render
+	 * @return Rendered syslog record
+	 */
+	private static String render(final SyslogWriter writer, final LogEntry logEntry) {
+		return new String(writer.render(logEntry), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Reads an octet-counted frame.
+	 *
+	 * @param stream
+	 *            Stream to read from
+	 * @return Content of frame
+	 * @throws IOException
+	 *             Failed reading from stream
+	 */
+	private static String readFrame(final DataInputStream stream) throws IOException {
+		StringBuilder length = new StringBuilder();
+		for (int character = stream.read(); character != ' '; character = stream.read()) {
+			length.append((char) character);
+		}
+
+		byte[] data = new byte[Integer.parseInt(length.toString())];
+		stream.readFully(data);
+		return new String(data, StandardCharsets.UTF_8);
+	}
+
+}
@@ -96,4 +96,24 @@ public final class BufferedWriterDecoratorTest {
 		assertThat(stream.toByteArray()).isEqualTo(data);
 	}
 
+	/**
+	 * Verifies that a custom buffer capacity is respected.
+	 *
+	 * @throws IOException
+	 *             Writing failed
+	 */
+	@Test
+	public void customCapacity() throws IOException {
+		BufferedWriterDecorator writer = new BufferedWriterDecorator(new OutputStreamWriter(stream), 2);
+
+		writer.write(new byte[] { 1, 2 }, 2);
+		assertThat(stream.toByteArray()).isEmpty();
+
+		writer.write(new byte[] { 3 }, 1);
+		assertThat(stream.toByteArray()).containsExactly((byte) 1, (byte) 2);
+
+		writer.close();
+		assertThat(stream.toByteArray()).containsExactly((byte) 1, (byte) 2, (byte) 3);
+	}
+
 }
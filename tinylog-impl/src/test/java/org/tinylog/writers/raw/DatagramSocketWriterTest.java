@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers.raw;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link DatagramSocketWriter}.
+ */
+public final class DatagramSocketWriterTest {
+
+	private static final int TIMEOUT = 10_000;
+
+	/**
+	 * Verifies that each written byte array is sent as a separate datagram.
+	 *
+	 * @throws IOException
+	 *             Failed sending or receiving datagrams
+	 */
+	@Test
+	public void sendDatagrams() throws IOException {
+		try (DatagramSocket server = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+			server.setSoTimeout(TIMEOUT);
+
+			DatagramSocketWriter writer = new DatagramSocketWriter(new InetSocketAddress("127.0.0.1", server.getLocalPort()));
+			writer.write(new byte[] { 'A', 'B', 'C' }, 2);
+			writer.write(new byte[] { 'D' }, 1);
+			writer.flush();
+			writer.close();
+
+			assertThat(receive(server)).isEqualTo("AB");
+			assertThat(receive(server)).isEqualTo("D");
+		}
+	}
+
+	/**
+	 * Verifies that an exception will be thrown, if the target address cannot be resolved.
+	 */
+	@Test
+	public void unresolvedAddress() {
+		InetSocketAddress address = InetSocketAddress.createUnresolved("invalid.host.example", 514);
+		assertThatThrownBy(() -> new DatagramSocketWriter(address)).isInstanceOf(UnknownHostException.class);
+	}
+
+	/**
+	 * Receives a datagram.
+	 *
+	 * @param socket
+	 *            Socket to receive from
+	 * @return Content of received datagram as UTF-8 string
+	 * @throws IOException
+	 *             Failed receiving datagram
+	 */
+	private static String receive(final DatagramSocket socket) throws IOException {
+		DatagramPacket packet = new DatagramPacket(new byte[1024], 1024);
+		socket.receive(packet);
+		return new String(packet.getData(), 0, packet.getLength(), StandardCharsets.UTF_8);
+	}
+
+}
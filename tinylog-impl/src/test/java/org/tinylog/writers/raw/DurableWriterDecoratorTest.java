@@ -0,0 +1,186 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers.raw;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link DurableWriterDecorator}.
+ */
+public final class DurableWriterDecoratorTest {
+
+	/**
+	 * Verifies that data is flushed and forced before returning from writing in synchronous mode.
+	 *
+	 * @throws IOException
+	 *             Failed writing
+	 */
+	@Test
+	public void synchronousWriting() throws IOException {
+		ByteArrayWriter writer = mock(ByteArrayWriter.class);
+		FileChannel channel = mock(FileChannel.class);
+
+		DurableWriterDecorator decorator = new DurableWriterDecorator(writer, channel, new Object(), true);
+		decorator.write(new byte[] { 1 }, 1);
+
+		InOrder order = inOrder(writer, channel);
+		order.verify(writer).write(new byte[] { 1 }, 1);
+		order.verify(writer).flush();
+		order.verify(channel).force(false);
+	}
+
+	/**
+	 * Verifies that data is forced only on flushing in asynchronous mode, and that flushing without new data does not
+	 * force again.
+	 *
+	 * @throws IOException
+	 *             Failed writing
+	 */
+	@Test
+	public void asynchronousWriting() throws IOException {
+		ByteArrayWriter writer = mock(ByteArrayWriter.class);
+		FileChannel channel = mock(FileChannel.class);
+
+		DurableWriterDecorator decorator = new DurableWriterDecorator(writer, channel, new Object(), false);
+		decorator.write(new byte[] { 1 }, 1);
+		decorator.write(new byte[] { 2 }, 1);
+		verify(channel, never()).force(false);
+
+		decorator.flush();
+		decorator.flush();
+		verify(channel, times(1)).force(false);
+	}
+
+	/**
+	 * Verifies that a commit is skipped if the ticket has already been covered by a previous force.
+	 *
+	 * @throws IOException
+	 *             Failed writing
+	 */
+	@Test
+	public void skipCoveredCommits() throws IOException {
+		ByteArrayWriter writer = mock(ByteArrayWriter.class);
+		FileChannel channel = mock(FileChannel.class);
+
+		DurableWriterDecorator decorator = new DurableWriterDecorator(writer, channel, new Object(), false);
+		decorator.write(new byte[] { 1 }, 1);
+		long first = decorator.getLastTicket();
+		decorator.write(new byte[] { 2 }, 1);
+		long second = decorator.getLastTicket();
+
+		decorator.commit(second);
+		decorator.commit(first);
+		verify(channel, times(1)).force(false);
+	}
+
+	/**
+	 * Verifies that log entries of concurrent threads are forced together by one force operation.
+	 *
+	 * @throws Exception
+	 *             Failed writing or interrupted while waiting
+	 */
+	@Test
+	public void groupCommit() throws Exception {
+		ByteArrayWriter writer = mock(ByteArrayWriter.class);
+		FileChannel channel = mock(FileChannel.class);
+
+		CountDownLatch forcing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			forcing.countDown();
+			release.await(1, TimeUnit.SECONDS);
+			return null;
+		}).doNothing().when(channel).force(false);
+
+		DurableWriterDecorator decorator = new DurableWriterDecorator(writer, channel, new Object(), true);
+
+		Thread first = new Thread(() -> write(decorator));
+		first.start();
+		assertThat(forcing.await(1, TimeUnit.SECONDS)).isTrue();
+
+		Thread[] others = new Thread[5];
+		for (int i = 0; i < others.length; ++i) {
+			others[i] = new Thread(() -> write(decorator));
+			others[i].start();
+		}
+
+		Thread.sleep(50);
+		release.countDown();
+
+		first.join();
+		for (Thread thread : others) {
+			thread.join();
+		}
+
+		verify(writer, times(6)).write(new byte[] { 1 }, 1);
+		verify(channel, times(2)).force(false);
+	}
+
+	/**
+	 * Verifies that closing flushes, forces, and closes the underlying writer, and that later commits are ignored.
+	 *
+	 * @throws IOException
+	 *             Failed writing or closing
+	 */
+	@Test
+	public void closing() throws IOException {
+		ByteArrayWriter writer = mock(ByteArrayWriter.class);
+		FileChannel channel = mock(FileChannel.class);
+
+		DurableWriterDecorator decorator = new DurableWriterDecorator(writer, channel, new Object(), false);
+		decorator.write(new byte[] { 1 }, 1);
+		long ticket = decorator.getLastTicket();
+		decorator.close();
+
+		InOrder order = inOrder(writer, channel);
+		order.verify(writer).flush();
+		order.verify(channel).force(false);
+		order.verify(writer).close();
+
+		decorator.commit(ticket);
+		verify(channel, times(1)).force(false);
+	}
+
+	/**
+	 * Writes a single byte without throwing checked exceptions.
+	 *
+	 * @param decorator
+	 *            Decorator to write to
+	 * @throws UncheckedIOException
+	 *             Failed writing
+	 */
+	private static void write(final DurableWriterDecorator decorator) {
+		try {
+			decorator.write(new byte[] { 1 }, 1);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers.raw;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link FileChannelWriter}.
+ */
+public final class FileChannelWriterTest {
+
+	/**
+	 * Temporary folder for creating volatile files.
+	 */
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Verifies that buffered data is written not before the buffer is full or flushed.
+	 *
+	 * @throws IOException
+	 *             Failed access to file
+	 */
+	@Test
+	public void bufferedWriting() throws IOException {
+		File file = folder.newFile();
+		FileChannelWriter writer = new FileChannelWriter(new FileOutputStream(file), 4, true);
+
+		writer.write(new byte[] { 1, 2, 3 }, 2);
+		assertThat(Files.readAllBytes(file.toPath())).isEmpty();
+
+		writer.write(new byte[] { 3, 4, 5 }, 3);
+		assertThat(Files.readAllBytes(file.toPath())).containsExactly(1, 2);
+
+		writer.flush();
+		assertThat(Files.readAllBytes(file.toPath())).containsExactly(1, 2, 3, 4, 5);
+
+		writer.close();
+	}
+
+	/**
+	 * Verifies that data is written immediately, if buffering is disabled.
+	 *
+	 * @throws IOException
+	 *             Failed access to file
+	 */
+	@Test
+	public void unbufferedWriting() throws IOException {
+		File file = folder.newFile();
+		FileChannelWriter writer = new FileChannelWriter(new FileOutputStream(file), 4, false);
+
+		writer.write(new byte[] { 1, 2, 3 }, 2);
+		assertThat(Files.readAllBytes(file.toPath())).containsExactly(1, 2);
+
+		writer.close();
+	}
+
+	/**
+	 * Verifies that byte arrays larger than the buffer are written together with already buffered data.
+	 *
+	 * @throws IOException
+	 *             Failed access to file
+	 */
+	@Test
+	public void gatheringWrite() throws IOException {
+		File file = folder.newFile();
+		FileChannelWriter writer = new FileChannelWriter(new FileOutputStream(file), 4, true);
+
+		writer.write(new byte[] { 1, 2 }, 2);
+		writer.write(new byte[] { 3, 4, 5, 6, 7, 8 }, 5);
+		assertThat(Files.readAllBytes(file.toPath())).containsExactly(1, 2, 3, 4, 5, 6, 7);
+
+		writer.write(new byte[] { 8 }, 1);
+		writer.close();
+		assertThat(Files.readAllBytes(file.toPath())).containsExactly(1, 2, 3, 4, 5, 6, 7, 8);
+	}
+
+	/**
+	 * Verifies that multiple byte arrays are written together with already buffered data.
+	 *
+	 * @throws IOException
+	 *             Failed access to file
+	 */
+	@Test
+	public void gatheringMultipleByteArrays() throws IOException {
+		File file = folder.newFile();
+		FileChannelWriter writer = new FileChannelWriter(new FileOutputStream(file), 4, true);
+
+		writer.write(new byte[] { 1 }, 1);
+		writer.write(new byte[][] { { 2, 3 }, { 4, 5, 6 }, { 7 } }, new int[] { 2, 2, 0 }, 3);
+		assertThat(Files.readAllBytes(file.toPath())).containsExactly(1, 2, 3, 4, 5);
+
+		writer.write(new byte[][] { { 6 } }, new int[] { 1 }, 1);
+		assertThat(Files.readAllBytes(file.toPath())).containsExactly(1, 2, 3, 4, 5, 6);
+
+		writer.close();
+	}
+
+	/**
+	 * Verifies that an existing file will be continued if the passed stream appends.
+	 *
+	 * @throws IOException
+	 *             Failed access to file
+	 */
+	@Test
+	public void appending() throws IOException {
+		File file = folder.newFile();
+		Files.write(file.toPath(), new byte[] { 1 });
+
+		FileChannelWriter writer = new FileChannelWriter(new FileOutputStream(file, true), 4, true);
+		writer.write(new byte[] { 2 }, 1);
+		writer.close();
+
+		assertThat(Files.readAllBytes(file.toPath())).containsExactly(1, 2);
+	}
+
+}
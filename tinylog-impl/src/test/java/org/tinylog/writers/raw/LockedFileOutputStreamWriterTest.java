@@ -57,6 +57,25 @@ public final class LockedFileOutputStreamWriterTest {
 		assertThat(stream.getChannel().isOpen()).isFalse();
 	}
 
+	/**
+	 * Verifies that a {@link FileOutputStream} in append mode continues an existing file.
+	 *
+	 * @throws IOException
+	 *             Failed accessing temporary file
+	 */
+	@Test
+	public void appendingStream() throws IOException {
+		String fileName = FileSystem.createTemporaryFile("ABC");
+		FileOutputStream stream = new FileOutputStream(fileName, true);
+		LockedFileOutputStreamWriter writer = new LockedFileOutputStreamWriter(stream, true);
+
+		writer.write(new byte[] { 'D', 'E', 'F' }, 2);
+		writer.write(new byte[] { 'G' }, 1);
+		writer.close();
+
+		assertThat(FileSystem.readFile(fileName)).isEqualTo("ABC" + System.lineSeparator() + "DEG");
+	}
+
 	/**
 	 * Verifies that multiple processes can write simultaneously to the same file.
 	 * 
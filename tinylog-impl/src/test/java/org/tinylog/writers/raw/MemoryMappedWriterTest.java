@@ -0,0 +1,160 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers.raw;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link MemoryMappedWriter}.
+ */
+public final class MemoryMappedWriterTest {
+
+	/**
+	 * Temporary folder for creating volatile files.
+	 */
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Verifies that written data is stored in the file and the file is truncated to the real length on closing.
+	 *
+	 * @throws IOException
+	 *             Failed access to file
+	 */
+	@Test
+	public void writing() throws IOException {
+		File file = folder.newFile();
+
+		MemoryMappedWriter writer = new MemoryMappedWriter(new RandomAccessFile(file, "rw"), false);
+		writer.write(new byte[] { 1, 2, 3 }, 2);
+		writer.flush();
+		writer.close();
+
+		assertThat(Files.readAllBytes(file.toPath())).containsExactly((byte) 1, (byte) 2);
+	}
+
+	/**
+	 * Verifies that a new window will be mapped if the current one is full, even in the middle of a byte array.
+	 *
+	 * @throws IOException
+	 *             Failed access to file
+	 */
+	@Test
+	public void remapping() throws IOException {
+		File file = folder.newFile();
+
+		MemoryMappedWriter writer = new MemoryMappedWriter(new RandomAccessFile(file, "rw"), false, 4);
+		writer.write(bytes("Hello "), 6);
+		writer.write(bytes("World!"), 6);
+		writer.write(bytes("0123456789"), 10);
+		writer.close();
+
+		assertThat(file).hasContent("Hello World!0123456789");
+	}
+
+	/**
+	 * Verifies that an existing file will be overwritten if appending is disabled.
+	 *
+	 * @throws IOException
+	 *             Failed access to file
+	 */
+	@Test
+	public void overwriting() throws IOException {
+		File file = folder.newFile();
+		Files.write(file.toPath(), bytes("Some longer old content"));
+
+		MemoryMappedWriter writer = new MemoryMappedWriter(new RandomAccessFile(file, "rw"), false, 8);
+		writer.write(bytes("New"), 3);
+		writer.close();
+
+		assertThat(file).hasContent("New");
+	}
+
+	/**
+	 * Verifies that an existing file will be continued if appending is enabled.
+	 *
+	 * @throws IOException
+	 *             Failed access to file
+	 */
+	@Test
+	public void appending() throws IOException {
+		File file = folder.newFile();
+		Files.write(file.toPath(), bytes("Old"));
+
+		MemoryMappedWriter writer = new MemoryMappedWriter(new RandomAccessFile(file, "rw"), true, 8);
+		writer.write(bytes(" and new"), 8);
+		writer.close();
+
+		assertThat(file).hasContent("Old and new");
+	}
+
+	/**
+	 * Verifies that trailing zeros of a file that has not been closed properly will be overwritten.
+	 *
+	 * @throws IOException
+	 *             Failed access to file
+	 */
+	@Test
+	public void continueAfterCrash() throws IOException {
+		File file = folder.newFile();
+		Files.write(file.toPath(), new byte[] { 'O', 'l', 'd', 0, 0, 0, 0, 0 });
+
+		MemoryMappedWriter writer = new MemoryMappedWriter(new RandomAccessFile(file, "rw"), true, 8);
+		writer.write(bytes(" and new"), 8);
+		writer.close();
+
+		assertThat(file).hasContent("Old and new");
+	}
+
+	/**
+	 * Verifies that trailing zeros of a properly closed file are kept as real data.
+	 *
+	 * @throws IOException
+	 *             Failed access to file
+	 */
+	@Test
+	public void keepTrailingZeros() throws IOException {
+		File file = folder.newFile();
+		Files.write(file.toPath(), "A\n".getBytes(StandardCharsets.UTF_16LE));
+
+		MemoryMappedWriter writer = new MemoryMappedWriter(new RandomAccessFile(file, "rw"), true, 8);
+		byte[] data = "B\n".getBytes(StandardCharsets.UTF_16LE);
+		writer.write(data, data.length);
+		writer.close();
+
+		assertThat(file).usingCharset(StandardCharsets.UTF_16LE).hasContent("A\nB\n");
+	}
+
+	/**
+	 * Converts a text into an UTF-8 byte array.
+	 *
+	 * @param text
+	 *            Text to convert
+	 * @return Encoded text
+	 */
+	private static byte[] bytes(final String text) {
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+
+}
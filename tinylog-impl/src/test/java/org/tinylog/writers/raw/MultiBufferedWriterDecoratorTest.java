@@ -0,0 +1,235 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers.raw;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link MultiBufferedWriterDecorator}.
+ */
+public final class MultiBufferedWriterDecoratorTest {
+
+	/**
+	 * Verifies that all written data will be available in the correct order after closing the writer.
+	 *
+	 * @throws IOException
+	 *             Writing failed
+	 */
+	@Test
+	public void writing() throws IOException {
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		MultiBufferedWriterDecorator writer = new MultiBufferedWriterDecorator(new OutputStreamWriter(stream), 4, 2);
+
+		for (byte i = 0; i < 100; ++i) {
+			writer.write(new byte[] { i, (byte) (i + 1) }, 1);
+		}
+
+		writer.close();
+
+		assertThat(stream.toByteArray()).hasSize(100);
+		for (int i = 0; i < 100; ++i) {
+			assertThat(stream.toByteArray()[i]).isEqualTo((byte) i);
+		}
+	}
+
+	/**
+	 * Verifies that buffered data will be written by flushing.
+	 *
+	 * @throws IOException
+	 *             Writing failed
+	 */
+	@Test
+	public void flushing() throws IOException {
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		MultiBufferedWriterDecorator writer = new MultiBufferedWriterDecorator(new OutputStreamWriter(stream), 4, 3);
+
+		writer.write(new byte[] { 1, 2 }, 2);
+		assertThat(stream.toByteArray()).isEmpty();
+
+		writer.flush();
+		assertThat(stream.toByteArray()).containsExactly(1, 2);
+
+		writer.close();
+	}
+
+	/**
+	 * Verifies that data larger than a buffer will be written directly after all previously buffered data.
+	 *
+	 * @throws IOException
+	 *             Writing failed
+	 */
+	@Test
+	public void writingLargeData() throws IOException {
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		MultiBufferedWriterDecorator writer = new MultiBufferedWriterDecorator(new OutputStreamWriter(stream), 2, 2);
+
+		writer.write(new byte[] { 1 }, 1);
+		writer.write(new byte[] { 2, 3, 4, 5 }, 3);
+		assertThat(stream.toByteArray()).containsExactly(1, 2, 3, 4);
+
+		writer.close();
+	}
+
+	/**
+	 * Verifies that data written from multiple threads is complete and entries are not interleaved.
+	 *
+	 * @throws InterruptedException
+	 *             Interrupted while waiting for threads
+	 * @throws IOException
+	 *             Writing failed
+	 */
+	@Test
+	public void concurrentWriting() throws InterruptedException, IOException {
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		MultiBufferedWriterDecorator writer = new MultiBufferedWriterDecorator(new OutputStreamWriter(stream), 64, 2);
+
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < 4; ++i) {
+			byte value = (byte) i;
+			threads.add(new Thread(() -> {
+				for (int j = 0; j < 1000; ++j) {
+					try {
+						writer.write(new byte[] { value, value, value, value }, 4);
+					} catch (IOException ex) {
+						throw new RuntimeException(ex);
+					}
+				}
+			}));
+		}
+
+		threads.forEach(Thread::start);
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		writer.close();
+
+		byte[] data = stream.toByteArray();
+		assertThat(data).hasSize(4 * 1000 * 4);
+		for (int i = 0; i < data.length; i += 4) {
+			assertThat(new byte[] { data[i + 1], data[i + 2], data[i + 3] }).containsOnly(data[i]);
+		}
+	}
+
+	/**
+	 * Verifies that buffers, which have been filled while the background thread was busy, are passed at once to a
+	 * gathering writer.
+	 *
+	 * @throws IOException
+	 *             Writing failed
+	 */
+	@Test
+	public void gatheringFilledBuffers() throws IOException {
+		RecordingGatheringWriter gatheringWriter = new RecordingGatheringWriter();
+		MultiBufferedWriterDecorator writer = new MultiBufferedWriterDecorator(gatheringWriter, 2, 4);
+
+		writer.write(new byte[] { 1, 1 }, 2);
+		writer.write(new byte[] { 2, 2 }, 2);
+		writer.write(new byte[] { 3, 3 }, 2);
+		writer.write(new byte[] { 4, 4 }, 2);
+		gatheringWriter.latch.countDown();
+		writer.close();
+
+		assertThat(gatheringWriter.stream.toByteArray()).containsExactly(1, 1, 2, 2, 3, 3, 4, 4);
+		assertThat(gatheringWriter.maximumCount).isGreaterThanOrEqualTo(2);
+	}
+
+	/**
+	 * Verifies that exceptions of the background thread will be rethrown and the underlying writer is closed anyway.
+	 *
+	 * @throws IOException
+	 *             Failed to close writer
+	 */
+	@Test
+	public void rethrowException() throws IOException {
+		OutputStream stream = mock(OutputStream.class);
+		doThrow(new IOException("Disk full")).when(stream).write(any(byte[].class), anyInt(), anyInt());
+
+		MultiBufferedWriterDecorator writer = new MultiBufferedWriterDecorator(new OutputStreamWriter(stream), 2, 2);
+		writer.write(new byte[] { 1 }, 1);
+
+		assertThatThrownBy(writer::flush).isInstanceOf(IOException.class).hasMessage("Disk full");
+		writer.close();
+
+		verify(stream).close();
+	}
+
+	/**
+	 * Verifies that at least two buffers are required.
+	 */
+	@Test
+	public void tooFewBuffers() {
+		assertThatThrownBy(() -> new MultiBufferedWriterDecorator(new OutputStreamWriter(new ByteArrayOutputStream()), 4, 1))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	/**
+	 * Gathering writer that records the maximum number of byte arrays passed at once. The first write operation blocks
+	 * until the latch is released.
+	 */
+	private static final class RecordingGatheringWriter implements GatheringByteArrayWriter {
+
+		private final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		private final CountDownLatch latch = new CountDownLatch(1);
+		private volatile int maximumCount;
+
+		/** */
+		private RecordingGatheringWriter() {
+		}
+
+		@Override
+		public void write(final byte[] data, final int length) throws IOException {
+			write(new byte[][] { data }, new int[] { length }, 1);
+		}
+
+		@Override
+		public void write(final byte[][] data, final int[] lengths, final int count) throws IOException {
+			try {
+				latch.await();
+			} catch (InterruptedException ex) {
+				throw new IOException(ex);
+			}
+
+			maximumCount = Math.max(maximumCount, count);
+			for (int i = 0; i < count; ++i) {
+				stream.write(data[i], 0, lengths[i]);
+			}
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+
+	}
+
+}
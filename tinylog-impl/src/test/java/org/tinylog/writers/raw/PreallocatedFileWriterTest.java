@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020 Martin Winandy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinylog.writers.raw;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PreallocatedFileWriter}.
+ */
+public final class PreallocatedFileWriterTest {
+
+	/**
+	 * Temporary folder for creating volatile files.
+	 */
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Verifies that the file is extended in chunks while writing and trimmed to the real length on closing.
+	 *
+	 * @throws IOException
+	 *             Failed access to file
+	 */
+	@Test
+	public void preallocateInChunks() throws IOException {
+		File file = folder.newFile();
+
+		PreallocatedFileWriter writer = new PreallocatedFileWriter(new RandomAccessFile(file, "rw"), false, 8);
+		writer.write(bytes("Hello "), 6);
+		assertThat(file.length()).isEqualTo(8);
+
+		writer.write(bytes("World!"), 6);
+		assertThat(file.length()).isEqualTo(16);
+
+		writer.write(bytes("0123456789012345678"), 19);
+		assertThat(file.length()).isEqualTo(32);
+
+		writer.flush();
+		writer.close();
+
+		assertThat(file).hasContent("Hello World!0123456789012345678");
+	}
+
+	/**
+	 * Verifies that an existing file will be overwritten if appending is disabled.
+	 *
+	 * @throws IOException
+	 *             Failed access to file
+	 */
+	@Test
+	public void overwriting() throws IOException {
+		File file = folder.newFile();
+		Files.write(file.toPath(), bytes("Some longer old content"));
+
+		PreallocatedFileWriter writer = new PreallocatedFileWriter(new RandomAccessFile(file, "rw"), false, 8);
+		writer.write(bytes("New"), 3);
+		writer.close();
+
+		assertThat(file).hasContent("New");
+	}
+
+	/**
+	 * Verifies that an existing file will be continued if appending is enabled.
+	 *
+	 * @throws IOException
+	 *             Failed access to file
+	 */
+	@Test
+	public void appending() throws IOException {
+		File file = folder.newFile();
+		Files.write(file.toPath(), bytes("Old"));
+
+		PreallocatedFileWriter writer = new PreallocatedFileWriter(new RandomAccessFile(file, "rw"), true, 8);
+		writer.write(bytes("New"), 3);
+		writer.close();
+
+		assertThat(file).hasContent("OldNew");
+	}
+
+	/**
+	 * Verifies that trailing zeros of an existing file are kept as real data, for example of UTF-16LE line separators.
+	 *
+	 * @throws IOException
+	 *             Failed access to file
+	 */
+	@Test
+	public void appendingUtf16() throws IOException {
+		File file = folder.newFile();
+		Files.write(file.toPath(), "A\n".getBytes(StandardCharsets.UTF_16LE));
+
+		for (String text : new String[] { "B\n", "C\n" }) {
+			PreallocatedFileWriter writer = new PreallocatedFileWriter(new RandomAccessFile(file, "rw"), true, 8);
+			byte[] data = text.getBytes(StandardCharsets.UTF_16LE);
+			writer.write(data, data.length);
+			writer.close();
+		}
+
+		assertThat(file).usingCharset(StandardCharsets.UTF_16LE).hasContent("A\nB\nC\n");
+	}
+
+	/**
+	 * Verifies that preallocated space of a file that has not been closed properly is kept and new data is appended
+	 * after it.
+	 *
+	 * @throws IOException
+	 *             Failed access to file
+	 */
+	@Test
+	public void continueAfterCrash() throws IOException {
+		File file = folder.newFile();
+		Files.write(file.toPath(), new byte[] { 'A', 0, 0, 0, 0, 0, 0, 0 });
+
+		PreallocatedFileWriter writer = new PreallocatedFileWriter(new RandomAccessFile(file, "rw"), true, 8);
+		writer.write(bytes("B"), 1);
+		writer.close();
+
+		assertThat(Files.readAllBytes(file.toPath())).containsExactly('A', 0, 0, 0, 0, 0, 0, 0, 'B');
+	}
+
+	/**
+	 * Converts a string into an ASCII byte array.
+	 *
+	 * @param text
+	 *            Text to convert
+	 * @return Byte array
+	 */
+	private static byte[] bytes(final String text) {
+		return text.getBytes(StandardCharsets.US_ASCII);
+	}
+
+}